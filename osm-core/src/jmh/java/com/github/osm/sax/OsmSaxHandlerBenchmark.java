@@ -0,0 +1,233 @@
+package com.github.osm.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+
+
+/**
+ * Element decoding cost of the {@link OsmSaxHandler}, with the parser out of the picture. The
+ * entity benchmarks count every element (entity, tags, node references, members) as an operation,
+ * so with <code>-prof gc</code> the <code>gc.alloc.rate.norm</code> is the allocation per element.
+ * <p>
+ * Run with <code>gradle jmh -PjmhArgs=OsmSaxHandlerBenchmark,-prof,gc</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OsmSaxHandlerBenchmark {
+
+    private static final String SAMPLE_FILE = "src/test/resources/samples/osm_bbox.xml";
+
+    private static final int WAY_NODES = 8;
+    private static final int RELATION_MEMBERS = 4;
+    private static final int TAGS = 2;
+
+    private BlackholeOsmSaxHandler handler;
+
+    private AttributesImpl nodeAttrs;
+    private AttributesImpl entityAttrs;
+    private AttributesImpl ndAttrs;
+    private AttributesImpl[] tagAttrs;
+    private AttributesImpl memberAttrs;
+
+    private byte[] document;
+    private SAXParser parser;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Setup
+    public void setup(Blackhole blackhole) throws Exception {
+        this.handler = new BlackholeOsmSaxHandler(blackhole);
+
+        this.nodeAttrs = new AttributesImpl();
+        attr(nodeAttrs, "id", "3233393892");
+        attr(nodeAttrs, "visible", "true");
+        attr(nodeAttrs, "version", "4");
+        attr(nodeAttrs, "changeset", "35092393");
+        attr(nodeAttrs, "timestamp", "2015-11-04T10:29:58Z");
+        attr(nodeAttrs, "user", "PlaneMad");
+        attr(nodeAttrs, "uid", "253663");
+        attr(nodeAttrs, "lat", "13.0826802");
+        attr(nodeAttrs, "lon", "80.2707184");
+
+        this.entityAttrs = new AttributesImpl();
+        for (int i = 0; i < nodeAttrs.getLength() - 2; i++) {
+            attr(entityAttrs, nodeAttrs.getQName(i), nodeAttrs.getValue(i));
+        }
+
+        this.ndAttrs = new AttributesImpl();
+        attr(ndAttrs, "ref", "2455316318");
+
+        this.tagAttrs = new AttributesImpl[TAGS];
+        for (int i = 0; i < TAGS; i++) {
+            tagAttrs[i] = new AttributesImpl();
+            attr(tagAttrs[i], "k", i == 0 ? "highway" : "name");
+            attr(tagAttrs[i], "v", i == 0 ? "residential" : "Anna Salai");
+        }
+
+        this.memberAttrs = new AttributesImpl();
+        attr(memberAttrs, "type", "way");
+        attr(memberAttrs, "ref", "237927498");
+        attr(memberAttrs, "role", "outer");
+
+        this.document = Files.readAllBytes(Paths.get(SAMPLE_FILE));
+        this.parser = SAXParserFactory.newInstance().newSAXParser();
+    }
+
+
+    // Benchmarks
+    // ------------------------------------------------------------------------
+
+    /**
+     * A complete <code>&lt;node&gt;</code>, without tags.
+     */
+    @Benchmark
+    public void node() throws SAXException {
+        handler.startElement("", "", OsmSaxHandler.NODE_ELEMENT, nodeAttrs);
+        handler.endElement("", "", OsmSaxHandler.NODE_ELEMENT);
+    }
+
+    /**
+     * A <code>&lt;way&gt;</code> of {@value #WAY_NODES} node references and {@value #TAGS} tags.
+     */
+    @Benchmark
+    @OperationsPerInvocation(1 + WAY_NODES + TAGS)
+    public void way() throws SAXException {
+        handler.startElement("", "", OsmSaxHandler.WAY_ELEMENT, entityAttrs);
+        for (int i = 0; i < WAY_NODES; i++) {
+            handler.startElement("", "", OsmSaxHandler.WAY_ND_ELEMENT, ndAttrs);
+            handler.endElement("", "", OsmSaxHandler.WAY_ND_ELEMENT);
+        }
+        this.tags();
+        handler.endElement("", "", OsmSaxHandler.WAY_ELEMENT);
+    }
+
+    /**
+     * A <code>&lt;relation&gt;</code> of {@value #RELATION_MEMBERS} members and {@value #TAGS} tags.
+     */
+    @Benchmark
+    @OperationsPerInvocation(1 + RELATION_MEMBERS + TAGS)
+    public void relation() throws SAXException {
+        handler.startElement("", "", OsmSaxHandler.RELATION_ELEMENT, entityAttrs);
+        for (int i = 0; i < RELATION_MEMBERS; i++) {
+            handler.startElement("", "", OsmSaxHandler.MEMBER_ELEMENT, memberAttrs);
+            handler.endElement("", "", OsmSaxHandler.MEMBER_ELEMENT);
+        }
+        this.tags();
+        handler.endElement("", "", OsmSaxHandler.RELATION_ELEMENT);
+    }
+
+    /**
+     * The sample file end to end, parser included.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void document() throws SAXException, IOException {
+        parser.parse(new ByteArrayInputStream(document), handler);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void tags() throws SAXException {
+        for (int i = 0; i < TAGS; i++) {
+            handler.startElement("", "", OsmSaxHandler.TAG_ELEMENT, tagAttrs[i]);
+            handler.endElement("", "", OsmSaxHandler.TAG_ELEMENT);
+        }
+    }
+
+    private static void attr(AttributesImpl attrs, String qName, String value) {
+        attrs.addAttribute("", qName, qName, "CDATA", value);
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    private static final class BlackholeOsmSaxHandler extends OsmSaxHandler {
+
+        private final Blackhole blackhole;
+
+        private BlackholeOsmSaxHandler(Blackhole blackhole) {
+            super();
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void startDocument() {
+            // Not logging per document
+        }
+
+        @Override
+        public void endDocument() {
+            // Not logging per document
+        }
+
+        @Override
+        public void handleNode(Node node) {
+            blackhole.consume(node);
+        }
+
+        @Override
+        public void handleWay(Way way) {
+            blackhole.consume(way);
+        }
+
+        @Override
+        public void handleRelation(Relation relation) {
+            blackhole.consume(relation);
+        }
+
+        @Override
+        public void documentCompleted() {
+            // Nothing to do here
+        }
+
+        @Override
+        public long getNodesCount() {
+            return 0;
+        }
+
+        @Override
+        public long getWaysCount() {
+            return 0;
+        }
+
+        @Override
+        public long getRelationsCount() {
+            return 0;
+        }
+    }
+
+}
@@ -71,6 +71,22 @@ public final class Bound extends OsmEntity {
     }
 
 
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true when the passed point is within this bound, edges included. A bound with its
+     *         left edge east of its right edge crosses the antimeridian.
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < bottom || latitude > top) {
+            return false;
+        }
+
+        return left <= right ? longitude >= left && longitude <= right : longitude >= left || longitude <= right;
+    }
+
+
     // Object Methods
     // ------------------------------------------------------------------------
 
@@ -1,6 +1,5 @@
 package com.github.osm.domain;
 
-import java.util.HashMap;
 import java.util.Map;
 
 
@@ -22,7 +21,7 @@ public final class Node extends OsmEntity {
     }
 
     Node(long osmId, MetaInfo metaInfo, double latitude, double longitude) {
-        this(osmId, metaInfo, new HashMap<>(), latitude, longitude);
+        this(osmId, metaInfo, Tags.empty(), latitude, longitude);
     }
 
 
@@ -0,0 +1,314 @@
+package com.github.osm.domain;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Immutable sequence of the node ids referenced by a {@link Way}, held as primitives. The ids are
+ * either kept in a plain <code>long[]</code>, or compressed as zigzag varint deltas of the previous
+ * id. Consecutive refs of a way are mostly close to each other, so the compressed form usually
+ * takes 2 to 4 bytes per ref, against 8 for the plain form and ~24 for a boxed {@link Long} list.
+ * <p>
+ * Index access on the compressed form decodes from the start, so iterate with
+ * {@link #forEach(LongConsumer)} or {@link #stream()} instead.
+ */
+public final class NodeRefs {
+
+    private static final NodeRefs EMPTY = new NodeRefs(new long[0], null, 0);
+
+    private final long[] ids;
+    private final byte[] packed;
+    private final int size;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private NodeRefs(long[] ids, byte[] packed, int size) {
+        super();
+
+        this.ids = ids;
+        this.packed = packed;
+        this.size = size;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isCompressed() {
+        return packed != null;
+    }
+
+    /**
+     * @return the id of the node at the passed index
+     */
+    public long get(int index) {
+        // Sanity checks
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("get :: index " + index + " out of bounds for size " + size);
+        }
+
+        if (ids != null) {
+            return ids[index];
+        }
+
+        final Decoder decoder = new Decoder();
+        for (int i = 0; i < index; i++) {
+            decoder.decode();
+        }
+
+        return decoder.decode();
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    public void forEach(final LongConsumer action) {
+        if (ids != null) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+            return;
+        }
+
+        final Decoder decoder = new Decoder();
+        for (int i = 0; i < size; i++) {
+            action.accept(decoder.decode());
+        }
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        if (ids != null) {
+            return Arrays.stream(ids, 0, size).iterator();
+        }
+
+        return new Decoder();
+    }
+
+    public LongStream stream() {
+        if (ids != null) {
+            return Arrays.stream(ids, 0, size);
+        }
+
+        final int characteristics = Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+        return StreamSupport.longStream(Spliterators.spliterator(new Decoder(), size, characteristics), false);
+    }
+
+    /**
+     * @return a copy of the ids
+     */
+    public long[] toArray() {
+        if (ids != null) {
+            return Arrays.copyOf(ids, size);
+        }
+
+        final long[] array = new long[size];
+        final Decoder decoder = new Decoder();
+        for (int i = 0; i < size; i++) {
+            array[i] = decoder.decode();
+        }
+
+        return array;
+    }
+
+    /**
+     * @return the plain form of these refs
+     */
+    public NodeRefs uncompressed() {
+        return ids != null ? this : new NodeRefs(this.toArray(), null, size);
+    }
+
+    /**
+     * @return the compressed form of these refs
+     */
+    public NodeRefs compressed() {
+        return packed != null || size == 0 ? this : new NodeRefs(null, pack(ids, size), size);
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof NodeRefs)) {
+            return false;
+        }
+
+        final NodeRefs other = (NodeRefs) o;
+        if (size != other.size) {
+            return false;
+        }
+
+        if (packed != null && other.packed != null) {
+            return Arrays.equals(packed, other.packed);
+        }
+
+        final PrimitiveIterator.OfLong these = this.iterator();
+        final PrimitiveIterator.OfLong those = other.iterator();
+        while (these.hasNext()) {
+            if (these.nextLong() != those.nextLong()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (PrimitiveIterator.OfLong it = this.iterator(); it.hasNext();) {
+            hash = 31 * hash + Long.hashCode(it.nextLong());
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    private static byte[] pack(final long[] ids, final int size) {
+        int length = 0;
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            length += varintSize(zigzag(ids[i] - previous));
+            previous = ids[i];
+        }
+
+        final byte[] packed = new byte[length];
+
+        int position = 0;
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = zigzag(ids[i] - previous);
+            previous = ids[i];
+
+            while ((value & ~0x7FL) != 0) {
+                packed[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            packed[position++] = (byte) value;
+        }
+
+        return packed;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+
+        return size;
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static NodeRefs empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return plain refs over the passed array, which is not copied and should not be changed
+     *         afterwards
+     */
+    public static NodeRefs of(long... ids) {
+        // Sanity checks
+        if (ids == null) {
+            throw new IllegalArgumentException("of :: ids should not be null");
+        }
+
+        return ids.length == 0 ? EMPTY : new NodeRefs(ids, null, ids.length);
+    }
+
+    /**
+     * @return compressed refs of the first <code>size</code> ids of the passed array
+     */
+    public static NodeRefs compress(final long[] ids, final int size) {
+        // Sanity checks
+        if (ids == null || size < 0 || size > ids.length) {
+            throw new IllegalArgumentException("compress :: ids should hold at least size ids");
+        }
+
+        return size == 0 ? EMPTY : new NodeRefs(null, pack(ids, size), size);
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Sequential decoder of the compressed form.
+     */
+    private final class Decoder implements PrimitiveIterator.OfLong {
+
+        private int position = 0;
+        private int index = 0;
+        private long previous = 0;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public long nextLong() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+
+            return this.decode();
+        }
+
+        private long decode() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = packed[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            this.index++;
+            this.previous += (value >>> 1) ^ -(value & 1);
+            return previous;
+        }
+    }
+
+}
@@ -24,6 +24,30 @@ public class OSM {
     public static final String DATE_FORMAT_STR = "yyyy-MM-dd'T'HH:mm:ssz";
 
 
+    // Coordinates
+    // ------------------------------------------------------------------------
+
+    /**
+     * Coordinates are stored in the OSM database as fixed point integers with 7 decimal places.
+     */
+    public static final double COORDINATE_SCALE = 1e7;
+
+    /**
+     * @return the passed coordinate in degrees, as a fixed point integer of 7 decimal places
+     */
+    public static int fixedCoordinate(double degrees) {
+        return (int) Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    /**
+     * @return the passed fixed point coordinate in degrees. Gives back the exact double of a 7
+     *         decimal places value, as {@link Double#parseDouble(String)} would.
+     */
+    public static double coordinate(int fixed) {
+        return fixed / COORDINATE_SCALE;
+    }
+
+
     // Labels
     // ------------------------------------------------------------------------
 
@@ -60,6 +84,14 @@ public class OSM {
         return new Way(osmId, metaInfo, tags, nodeIds);
     }
 
+    public static Way wayOf(long osmId, MetaInfo metaInfo, Map<String, String> tags, long[] nodeIds) {
+        return new Way(osmId, metaInfo, tags, nodeIds == null ? null : NodeRefs.of(nodeIds));
+    }
+
+    public static Way wayWithRefs(long osmId, MetaInfo metaInfo, Map<String, String> tags, NodeRefs nodeIds) {
+        return new Way(osmId, metaInfo, tags, nodeIds);
+    }
+
     public static Relation relation(long osmId, MetaInfo metaInfo, Map<String, String> tags, List<Member> members) {
         return new Relation(osmId, metaInfo, tags, members);
     }
@@ -1,7 +1,5 @@
 package com.github.osm.domain;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -11,7 +9,7 @@ public abstract class OsmEntity {
 
     private final long osmId;
     private final MetaInfo metaInfo;
-    private final Map<String, String> tags;
+    private final Tags tags;
 
 
     // Constructors
@@ -21,11 +19,11 @@ public abstract class OsmEntity {
         super();
         this.osmId = osmId;
         this.metaInfo = metaInfo;
-        this.tags = (tags == null) ? Collections.emptyMap() : tags;
+        this.tags = Tags.of(tags);
     }
 
     protected OsmEntity(long osmId, MetaInfo metaInfo) {
-        this(osmId, metaInfo, new HashMap<>());
+        this(osmId, metaInfo, Tags.empty());
     }
 
 
@@ -44,12 +42,11 @@ public abstract class OsmEntity {
         return metaInfo;
     }
 
+    /**
+     * @return the immutable {@link Tags} of the entity
+     */
     public Map<String, String> getTags() {
-        if (tags == null) {
-            return Collections.emptyMap();
-        }
-
-        return Collections.unmodifiableMap(tags);
+        return tags;
     }
 
 
@@ -2,7 +2,6 @@ package com.github.osm.domain;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,7 +22,7 @@ public final class Relation extends OsmEntity {
     }
 
     Relation(long osmId, MetaInfo metaInfo, List<Member> members) {
-        this(osmId, metaInfo, new HashMap<>(), members);
+        this(osmId, metaInfo, Tags.empty(), members);
     }
 
 
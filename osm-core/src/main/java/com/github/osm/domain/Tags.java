@@ -0,0 +1,260 @@
+package com.github.osm.domain;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Immutable, compact tags of an OSM entity, held in two parallel arrays sorted by key. Lookups are
+ * binary searches, which for the handful of tags an entity usually has is as quick as hashing,
+ * without the per entry nodes and the table of a {@link java.util.HashMap}.
+ */
+public final class Tags extends AbstractMap<String, String> {
+
+    private static final String[] NO_STRINGS = new String[0];
+    private static final Tags EMPTY = new Tags(NO_STRINGS, NO_STRINGS);
+
+    private final String[] keys;
+    private final String[] values;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private Tags(String[] keys, String[] values) {
+        super();
+
+        this.keys = keys;
+        this.values = values;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the key at the passed index, in key order
+     */
+    public String key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the value at the passed index, in key order
+     */
+    public String value(int index) {
+        return values[index];
+    }
+
+
+    // Map Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        final int index = this.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (index >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final int current = index++;
+                        return new SimpleImmutableEntry<>(keys[current], values[current]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        return Arrays.binarySearch(keys, key);
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static Tags empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return the passed tags when already compact, a compact copy otherwise
+     */
+    public static Tags of(Map<String, String> tags) {
+        if (tags instanceof Tags) {
+            return (Tags) tags;
+        }
+
+        if (tags == null || tags.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Builder builder = new Builder(tags.size());
+        tags.forEach(builder::put);
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(8);
+    }
+
+
+    // Lookup
+    // ------------------------------------------------------------------------
+
+    /**
+     * Tag value by key, e.g. for a {@link com.github.osm.sax.TagFilter} to read the tags being
+     * parsed without a lambda per entity.
+     */
+    public interface Lookup {
+
+        /**
+         * @return the value of the passed key, or null when it is not set
+         */
+        String get(String key);
+    }
+
+
+    // Builder
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reusable, not thread safe, builder of {@link Tags}. The entries are kept sorted as they are
+     * put, and a later value of a key replaces the earlier one, as with a {@link Map}.
+     */
+    public static final class Builder implements Lookup {
+
+        private String[] keys;
+        private String[] values;
+        private int size = 0;
+
+        private Builder(int capacity) {
+            this.keys = new String[Math.max(capacity, 1)];
+            this.values = new String[keys.length];
+        }
+
+        public Builder put(String key, String value) {
+            // Sanity checks
+            if (key == null) {
+                throw new IllegalArgumentException("put :: key should not be null");
+            }
+
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                values[index] = value;
+                return this;
+            }
+
+            if (size == keys.length) {
+                this.keys = Arrays.copyOf(keys, size * 2);
+                this.values = Arrays.copyOf(values, size * 2);
+            }
+
+            index = -index - 1;
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public String key(int index) {
+            return keys[index];
+        }
+
+        public String value(int index) {
+            return values[index];
+        }
+
+        /**
+         * @return the value of the passed key, or null when it is not put
+         */
+        @Override
+        public String get(String key) {
+            final int index = Arrays.binarySearch(keys, 0, size, key);
+            return index < 0 ? null : values[index];
+        }
+
+        /**
+         * Clears the entries, keeping the capacity for reuse.
+         */
+        public Builder clear() {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            this.size = 0;
+
+            return this;
+        }
+
+        public Tags build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            return new Tags(Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+        }
+    }
+
+}
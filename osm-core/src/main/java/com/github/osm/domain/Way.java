@@ -1,37 +1,72 @@
 package com.github.osm.domain;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
 
 
 public class Way extends OsmEntity {
 
-    private final List<Long> nodeIds;
+    private final NodeRefs nodeIds;
 
 
     // Constructors
     // ------------------------------------------------------------------------
 
-    Way(long osmId, MetaInfo metaInfo, Map<String, String> tags, List<Long> nodeIds) {
+    Way(long osmId, MetaInfo metaInfo, Map<String, String> tags, NodeRefs nodeIds) {
         super(osmId, metaInfo, tags);
 
         // init
-        this.nodeIds = nodeIds == null ? new ArrayList<>() : new ArrayList<>(nodeIds);
+        this.nodeIds = nodeIds == null ? NodeRefs.empty() : nodeIds;
+    }
+
+    Way(long osmId, MetaInfo metaInfo, Map<String, String> tags, List<Long> nodeIds) {
+        this(osmId, metaInfo, tags, nodeIds == null ? null : NodeRefs.of(toArray(nodeIds)));
     }
 
     Way(long osmId, MetaInfo metaInfo, List<Long> nodeIds) {
-        this(osmId, metaInfo, new HashMap<>(), nodeIds);
+        this(osmId, metaInfo, Tags.empty(), nodeIds);
     }
 
 
     // Getters and Setters
     // ------------------------------------------------------------------------
 
+    /**
+     * Boxed view of the node ids, kept for compatibility. Prefer the primitive accessors
+     * {@link #nodeId(int)}, {@link #forEachNodeId(LongConsumer)} and {@link #nodeIdStream()}.
+     *
+     * @return unmodifiable list of the node ids
+     */
     public List<Long> getNodeIds() {
-        return Collections.unmodifiableList(nodeIds);
+        return new NodeIdList(nodeIds);
+    }
+
+
+    // Node refs
+    // ------------------------------------------------------------------------
+
+    public NodeRefs nodeRefs() {
+        return nodeIds;
+    }
+
+    public int nodeIdCount() {
+        return nodeIds.size();
+    }
+
+    public long nodeId(int index) {
+        return nodeIds.get(index);
+    }
+
+    public void forEachNodeId(LongConsumer action) {
+        nodeIds.forEach(action);
+    }
+
+    public LongStream nodeIdStream() {
+        return nodeIds.stream();
     }
 
 
@@ -44,4 +79,47 @@ public class Way extends OsmEntity {
     }
 
 
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    private static long[] toArray(List<Long> nodeIds) {
+        final long[] array = new long[nodeIds.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = nodeIds.get(i);
+        }
+
+        return array;
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Read only {@link List} view over the primitive refs.
+     */
+    private static final class NodeIdList extends AbstractList<Long> implements RandomAccess {
+
+        private final NodeRefs refs;
+        private long[] ids;
+
+        private NodeIdList(NodeRefs refs) {
+            this.refs = refs;
+        }
+
+        @Override
+        public Long get(int index) {
+            if (ids == null) {
+                this.ids = refs.isCompressed() ? refs.toArray() : null;
+            }
+
+            return ids != null ? ids[index] : refs.get(index);
+        }
+
+        @Override
+        public int size() {
+            return refs.size();
+        }
+    }
+
 }
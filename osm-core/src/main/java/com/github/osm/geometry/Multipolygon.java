@@ -0,0 +1,68 @@
+package com.github.osm.geometry;
+
+import java.util.List;
+
+import com.github.osm.domain.Relation;
+
+
+/**
+ * The polygons assembled from the member ways of a multipolygon or boundary {@link Relation}.
+ */
+public final class Multipolygon {
+
+    private final Relation relation;
+    private final List<Polygon> polygons;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private Multipolygon(Relation relation, List<Polygon> polygons) {
+        super();
+
+        this.relation = relation;
+        this.polygons = polygons;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public Relation relation() {
+        return relation;
+    }
+
+    /**
+     * @return unmodifiable list of the polygons
+     */
+    public List<Polygon> polygons() {
+        return polygons;
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "Multipolygon [osmId=" + relation.getOsmId() + ", polygons=" + polygons + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static Multipolygon of(Relation relation, List<Polygon> polygons) {
+        // Sanity checks
+        if (relation == null) {
+            throw new IllegalArgumentException("of :: relation should not be null");
+        }
+
+        if (polygons == null || polygons.isEmpty()) {
+            throw new IllegalArgumentException("of :: polygons should not be empty");
+        }
+
+        return new Multipolygon(relation, List.copyOf(polygons));
+    }
+
+}
@@ -0,0 +1,437 @@
+package com.github.osm.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
+import com.github.osm.domain.Way;
+import com.github.osm.sax.OsmSaxHandler;
+import com.github.osm.sax.WayGeometryOsmSaxHandler;
+import com.github.osm.store.NodeLocationStore;
+import com.github.osm.store.NodeLocations;
+
+
+/**
+ * Two pass, streaming assembler of the <code>type=multipolygon</code> and
+ * <code>type=boundary</code> relations into {@link Multipolygon}s.
+ * <p>
+ * The {@link #relationPass()} collects the relations of interest and the ids of their member
+ * ways. The {@link #wayPass()} then resolves the way geometries, keeping only those of the member
+ * ways, and once the document is completed joins them into closed rings and passes the polygons
+ * on to the {@link MultipolygonHandler}. The memory is bounded by the relations of interest and
+ * their ways, not by the whole input.
+ *
+ * <pre>
+ * final MultipolygonAssembler assembler = new MultipolygonAssembler(handler);
+ * reader.read(assembler.relationPass(), openInput());
+ * reader.read(assembler.wayPass(), openInput());
+ * </pre>
+ *
+ * Ways with the <code>inner</code> role make the holes, any other role the outer rings. Each hole
+ * goes to the smallest outer ring around it. Relations with a member way missing, missing nodes,
+ * or rings which do not close are reported to
+ * {@link MultipolygonHandler#invalidMultipolygon(Relation, String)}.
+ */
+public final class MultipolygonAssembler implements WayGeometryHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultipolygonAssembler.class);
+
+    public static final String TAG_TYPE = "type";
+    public static final String TYPE_MULTIPOLYGON = "multipolygon";
+    public static final String TYPE_BOUNDARY = "boundary";
+    public static final String ROLE_INNER = "inner";
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final MultipolygonHandler downstream;
+
+    // Relations of interest, and the sorted ids of their member ways
+    private final List<Relation> relations = new ArrayList<>();
+    private long[] wayIds = NO_IDS;
+    private int wayIdCount = 0;
+
+    // Coordinates of the member ways, by index of their id
+    private int[][] wayCoordinates;
+
+    private long assembledCount = 0;
+    private long invalidCount = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public MultipolygonAssembler(MultipolygonHandler downstream) {
+        super();
+
+        // Sanity checks
+        if (downstream == null) {
+            throw new IllegalArgumentException("MultipolygonAssembler :: MultipolygonHandler should not be null");
+        }
+
+        this.downstream = downstream;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return no. of relations of interest, once the relation pass is completed
+     */
+    public int getRelationsCount() {
+        return relations.size();
+    }
+
+    public long getAssembledCount() {
+        return assembledCount;
+    }
+
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+
+
+    // Passes
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return handler of the first pass, collecting the relations of interest
+     */
+    public OsmSaxHandler relationPass() {
+        return new RelationPass();
+    }
+
+    /**
+     * @return handler of the second pass, with the node locations in a temporary store
+     */
+    public OsmSaxHandler wayPass() {
+        this.checkRelationPass();
+        return new WayGeometryOsmSaxHandler(this);
+    }
+
+    /**
+     * @return handler of the second pass, with the node locations in the passed store
+     */
+    public OsmSaxHandler wayPass(NodeLocationStore locations) {
+        this.checkRelationPass();
+        return new WayGeometryOsmSaxHandler(locations, this);
+    }
+
+
+    // WayGeometryHandler Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void handleWayGeometry(WayGeometry geometry) {
+        final int index = Arrays.binarySearch(wayIds, 0, wayIdCount, geometry.way().getOsmId());
+        if (index >= 0 && geometry.isComplete()) {
+            wayCoordinates[index] = geometry.toFixedArray();
+        }
+    }
+
+    @Override
+    public void geometriesCompleted() {
+        for (Relation relation : relations) {
+            this.assemble(relation);
+        }
+
+        // OUTPUT
+        LOGGER.info("No of Multipolygons assembled: {}", assembledCount);
+        if (invalidCount > 0) {
+            LOGGER.warn("No of Multipolygons invalid: {}", invalidCount);
+        }
+
+        downstream.multipolygonsCompleted();
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true for the tags of a multipolygon or a boundary relation
+     */
+    public static boolean isArea(Map<String, String> tags) {
+        final String type = tags.get(TAG_TYPE);
+        return TYPE_MULTIPOLYGON.equals(type) || TYPE_BOUNDARY.equals(type);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void checkRelationPass() {
+        if (wayCoordinates == null) {
+            throw new IllegalStateException("wayPass :: the relation pass should be completed first");
+        }
+    }
+
+    private void addRelation(Relation relation) {
+        relations.add(relation);
+
+        for (Member member : relation.getMembers()) {
+            if (member.getType() != Type.way) {
+                continue;
+            }
+
+            if (wayIdCount == wayIds.length) {
+                this.wayIds = Arrays.copyOf(wayIds, Math.max(16, wayIds.length * 2));
+            }
+            wayIds[wayIdCount++] = member.getId();
+        }
+    }
+
+    private void relationsCompleted() {
+        Arrays.sort(wayIds, 0, wayIdCount);
+
+        int unique = 0;
+        for (int i = 0; i < wayIdCount; i++) {
+            if (unique == 0 || wayIds[unique - 1] != wayIds[i]) {
+                wayIds[unique++] = wayIds[i];
+            }
+        }
+
+        this.wayIdCount = unique;
+        this.wayIds = Arrays.copyOf(wayIds, unique);
+        this.wayCoordinates = new int[unique][];
+
+        LOGGER.info("No of Multipolygon relations: {}, with {} member ways", relations.size(), unique);
+    }
+
+    private void assemble(Relation relation) {
+        final List<int[]> outers = new ArrayList<>();
+        final List<int[]> inners = new ArrayList<>();
+
+        for (Member member : relation.getMembers()) {
+            if (member.getType() != Type.way) {
+                continue;
+            }
+
+            final int[] coordinates = wayCoordinates[Arrays.binarySearch(wayIds, member.getId())];
+            if (coordinates == null) {
+                this.invalid(relation, "member way " + member.getId() + " missing or incomplete");
+                return;
+            }
+
+            if (coordinates.length >= 4) {
+                (ROLE_INNER.equals(member.getRole()) ? inners : outers).add(coordinates);
+            }
+        }
+
+        final List<Ring> outerRings = join(outers);
+        final List<Ring> innerRings = join(inners);
+        if (outerRings == null || outerRings.isEmpty()) {
+            this.invalid(relation, "outer rings not closed");
+            return;
+        }
+
+        if (innerRings == null) {
+            this.invalid(relation, "inner rings not closed");
+            return;
+        }
+
+        // Smallest outer ring first, to find the one around each hole
+        outerRings.sort(Comparator.comparingDouble(ring -> Math.abs(ring.signedArea())));
+
+        final List<List<Ring>> holes = new ArrayList<>(outerRings.size());
+        outerRings.forEach(ring -> holes.add(new ArrayList<>()));
+
+        for (Ring inner : innerRings) {
+            int outer = 0;
+            while (outer < outerRings.size() && !outerRings.get(outer).contains(inner.latitudeE7(0), inner.longitudeE7(0))) {
+                outer++;
+            }
+
+            if (outer == outerRings.size()) {
+                this.invalid(relation, "inner ring outside of the outer rings");
+                return;
+            }
+
+            holes.get(outer).add(inner.oriented(false));
+        }
+
+        final List<Polygon> polygons = new ArrayList<>(outerRings.size());
+        for (int i = 0; i < outerRings.size(); i++) {
+            polygons.add(Polygon.of(outerRings.get(i).oriented(true), holes.get(i)));
+        }
+
+        this.assembledCount++;
+        downstream.handleMultipolygon(Multipolygon.of(relation, polygons));
+    }
+
+    private void invalid(Relation relation, String reason) {
+        this.invalidCount++;
+        downstream.invalidMultipolygon(relation, reason);
+    }
+
+    /**
+     * @return the closed rings joining the passed lines end to end, or null when they do not close
+     */
+    private static List<Ring> join(List<int[]> lines) {
+        final List<Ring> rings = new ArrayList<>();
+
+        // Lines by their first and last points
+        final Map<Long, List<Integer>> byEnd = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            final int[] line = lines.get(i);
+            byEnd.computeIfAbsent(first(line), key -> new ArrayList<>(2)).add(i);
+            byEnd.computeIfAbsent(last(line), key -> new ArrayList<>(2)).add(i);
+        }
+
+        final boolean[] used = new boolean[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            if (used[i]) {
+                continue;
+            }
+
+            used[i] = true;
+            int[] ring = lines.get(i);
+            int length = ring.length;
+
+            while (first(ring) != point(ring, length - 2)) {
+                final long end = point(ring, length - 2);
+                final int next = unused(byEnd.get(end), used);
+                if (next < 0) {
+                    return null;
+                }
+
+                used[next] = true;
+                final int[] line = lines.get(next);
+                if (ring.length < length + line.length - 2) {
+                    ring = Arrays.copyOf(ring, Math.max(length + line.length - 2, ring.length * 2));
+                }
+
+                // Append without the shared point, reversed when joined on its last point
+                final boolean reversed = first(line) != end;
+                for (int p = 2; p < line.length; p += 2) {
+                    final int from = reversed ? line.length - 2 - p : p;
+                    ring[length++] = line[from];
+                    ring[length++] = line[from + 1];
+                }
+            }
+
+            if (length < 8) {
+                return null;
+            }
+
+            rings.add(Ring.of(ring.length == length ? ring.clone() : Arrays.copyOf(ring, length)));
+        }
+
+        return rings;
+    }
+
+    private static int unused(List<Integer> candidates, boolean[] used) {
+        if (candidates != null) {
+            for (int candidate : candidates) {
+                if (!used[candidate]) {
+                    return candidate;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private static long first(int[] line) {
+        return point(line, 0);
+    }
+
+    private static long last(int[] line) {
+        return point(line, line.length - 2);
+    }
+
+    private static long point(int[] line, int index) {
+        return NodeLocations.pack(line[index], line[index + 1]);
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * First pass, keeping the relations of interest and skipping everything else, without building
+     * the nodes and the ways.
+     */
+    private final class RelationPass extends OsmSaxHandler {
+
+        private long relationsCount = 0;
+
+        @Override
+        protected void nodeParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, double latitude, double longitude) {
+            // skipped
+        }
+
+        @Override
+        protected void wayParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, long[] nodeIds, int nodeIdCount) {
+            // skipped
+        }
+
+        @Override
+        protected void relationParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, List<Member> members) {
+            this.relationsCount++;
+
+            for (int i = 0; i < tags.size(); i++) {
+                if (TAG_TYPE.equals(tags.key(i))) {
+                    final String type = tags.value(i);
+                    if (TYPE_MULTIPOLYGON.equals(type) || TYPE_BOUNDARY.equals(type)) {
+                        addRelation(OSM.relation(osmId, metaInfo, tags.build(), members));
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void handleNode(Node node) {
+            // skipped
+        }
+
+        @Override
+        public void handleWay(Way way) {
+            // skipped
+        }
+
+        @Override
+        public void handleRelation(Relation relation) {
+            this.relationsCount++;
+
+            if (isArea(relation.getTags())) {
+                addRelation(relation);
+            }
+        }
+
+        @Override
+        public void documentCompleted() {
+            relationsCompleted();
+        }
+
+        @Override
+        public long getNodesCount() {
+            return 0;
+        }
+
+        @Override
+        public long getWaysCount() {
+            return 0;
+        }
+
+        @Override
+        public long getRelationsCount() {
+            return relationsCount;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.github.osm.geometry;
+
+import com.github.osm.domain.Relation;
+
+
+/**
+ * Downstream of the {@link MultipolygonAssembler}, which receives the assembled polygons.
+ */
+public interface MultipolygonHandler {
+
+    /**
+     * Callback for each relation assembled.
+     *
+     * @param multipolygon relation with its polygons
+     */
+    void handleMultipolygon(Multipolygon multipolygon);
+
+    /**
+     * Callback for each relation which could not be assembled.
+     *
+     * @param relation relation skipped
+     * @param reason why it could not be assembled
+     */
+    default void invalidMultipolygon(Relation relation, String reason) {
+        // nothing to do
+    }
+
+    /**
+     * This callback is called once after all the relations are assembled.
+     */
+    default void multipolygonsCompleted() {
+        // nothing to do
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.github.osm.geometry;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Polygon of an outer {@link Ring}, counter clockwise, and of the inner rings of its holes,
+ * clockwise, as in GeoJSON.
+ */
+public final class Polygon {
+
+    private final Ring outer;
+    private final List<Ring> inners;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private Polygon(Ring outer, List<Ring> inners) {
+        super();
+
+        this.outer = outer;
+        this.inners = inners;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public Ring outer() {
+        return outer;
+    }
+
+    /**
+     * @return unmodifiable list of the inner rings
+     */
+    public List<Ring> inners() {
+        return inners;
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "Polygon [outer=" + outer + ", inners=" + inners.size() + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static Polygon of(Ring outer, List<Ring> inners) {
+        // Sanity checks
+        if (outer == null) {
+            throw new IllegalArgumentException("of :: outer ring should not be null");
+        }
+
+        final List<Ring> holes = inners == null ? Collections.emptyList() : List.copyOf(inners);
+        return new Polygon(outer, holes);
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.github.osm.geometry;
+
+import com.github.osm.domain.OSM;
+
+
+/**
+ * Closed ring of a polygon, as fixed point coordinates (see {@link OSM#fixedCoordinate(double)}),
+ * of which the last point repeats the first.
+ */
+public final class Ring {
+
+    // Interleaved latitude, longitude pairs
+    private final int[] coordinates;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private Ring(int[] coordinates) {
+        super();
+
+        this.coordinates = coordinates;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return no. of points, the closing point included
+     */
+    public int pointCount() {
+        return coordinates.length / 2;
+    }
+
+    public int latitudeE7(int index) {
+        return coordinates[index * 2];
+    }
+
+    public int longitudeE7(int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    public double latitude(int index) {
+        return OSM.coordinate(coordinates[index * 2]);
+    }
+
+    public double longitude(int index) {
+        return OSM.coordinate(coordinates[index * 2 + 1]);
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the area in square degrees, positive when the ring is counter clockwise, with the
+     *         longitude as x and the latitude as y
+     */
+    public double signedArea() {
+        double twiceArea = 0;
+        for (int i = 0; i + 3 < coordinates.length; i += 2) {
+            twiceArea += (double) coordinates[i + 1] * coordinates[i + 2]
+                    - (double) coordinates[i + 3] * coordinates[i];
+        }
+
+        return twiceArea / 2 / (OSM.COORDINATE_SCALE * OSM.COORDINATE_SCALE);
+    }
+
+    /**
+     * @return true when the passed point is inside the ring, by the even-odd rule
+     */
+    public boolean contains(int latitudeE7, int longitudeE7) {
+        boolean inside = false;
+        for (int i = 0; i + 3 < coordinates.length; i += 2) {
+            final long y1 = coordinates[i];
+            final long x1 = coordinates[i + 1];
+            final long y2 = coordinates[i + 2];
+            final long x2 = coordinates[i + 3];
+
+            if ((y1 > latitudeE7) != (y2 > latitudeE7)
+                    && longitudeE7 < (double) (x2 - x1) * (latitudeE7 - y1) / (y2 - y1) + x1) {
+                inside = !inside;
+            }
+        }
+
+        return inside;
+    }
+
+    /**
+     * @return this ring, or the reversed ring, with the passed orientation
+     */
+    public Ring oriented(boolean counterClockwise) {
+        if ((this.signedArea() > 0) == counterClockwise) {
+            return this;
+        }
+
+        final int[] reversed = new int[coordinates.length];
+        for (int i = 0; i < coordinates.length; i += 2) {
+            reversed[coordinates.length - 2 - i] = coordinates[i];
+            reversed[coordinates.length - 1 - i] = coordinates[i + 1];
+        }
+
+        return new Ring(reversed);
+    }
+
+    /**
+     * @return a copy of the points, as interleaved fixed point latitude, longitude pairs
+     */
+    public int[] toFixedArray() {
+        return coordinates.clone();
+    }
+
+    /**
+     * @return the points in degrees, as interleaved latitude, longitude pairs
+     */
+    public double[] toArray() {
+        final double[] array = new double[coordinates.length];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = OSM.coordinate(coordinates[i]);
+        }
+
+        return array;
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "Ring [points=" + this.pointCount() + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    /**
+     * @param coordinates interleaved fixed point latitude, longitude pairs, not copied
+     */
+    public static Ring of(int[] coordinates) {
+        // Sanity checks
+        final int length = coordinates == null ? 0 : coordinates.length;
+        if (length < 8 || length % 2 != 0) {
+            throw new IllegalArgumentException("of :: a ring should have at least 4 latitude, longitude pairs");
+        }
+
+        if (coordinates[0] != coordinates[length - 2] || coordinates[1] != coordinates[length - 1]) {
+            throw new IllegalArgumentException("of :: a ring should end on its first point");
+        }
+
+        return new Ring(coordinates);
+    }
+
+}
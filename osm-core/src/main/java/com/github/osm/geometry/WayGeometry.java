@@ -0,0 +1,140 @@
+package com.github.osm.geometry;
+
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.Way;
+
+
+/**
+ * A {@link Way} with the locations of its nodes, in node order, as fixed point coordinates (see
+ * {@link OSM#fixedCoordinate(double)}). The nodes that could not be resolved are left out of the
+ * points, and counted as missing.
+ */
+public final class WayGeometry {
+
+    private final Way way;
+
+    // Interleaved latitude, longitude pairs
+    private final int[] coordinates;
+    private final int missingCount;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private WayGeometry(Way way, int[] coordinates, int missingCount) {
+        super();
+
+        this.way = way;
+        this.coordinates = coordinates;
+        this.missingCount = missingCount;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public Way way() {
+        return way;
+    }
+
+    /**
+     * @return no. of points, i.e. of the node refs resolved
+     */
+    public int pointCount() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * @return no. of node refs which could not be resolved
+     */
+    public int missingCount() {
+        return missingCount;
+    }
+
+    /**
+     * @return true when all the node refs were resolved
+     */
+    public boolean isComplete() {
+        return missingCount == 0;
+    }
+
+    /**
+     * @return true when the first and the last points are the same, as for areas
+     */
+    public boolean isClosed() {
+        final int length = coordinates.length;
+        return length >= 8 && coordinates[0] == coordinates[length - 2] && coordinates[1] == coordinates[length - 1];
+    }
+
+    public int latitudeE7(int index) {
+        return coordinates[index * 2];
+    }
+
+    public int longitudeE7(int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    public double latitude(int index) {
+        return OSM.coordinate(coordinates[index * 2]);
+    }
+
+    public double longitude(int index) {
+        return OSM.coordinate(coordinates[index * 2 + 1]);
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return a copy of the points, as interleaved fixed point latitude, longitude pairs
+     */
+    public int[] toFixedArray() {
+        return coordinates.clone();
+    }
+
+    /**
+     * @return the points in degrees, as interleaved latitude, longitude pairs
+     */
+    public double[] toArray() {
+        final double[] array = new double[coordinates.length];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = OSM.coordinate(coordinates[i]);
+        }
+
+        return array;
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "WayGeometry [osmId=" + way.getOsmId() + ", points=" + this.pointCount() + ", missing=" + missingCount
+                + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    /**
+     * @param way way of the geometry
+     * @param coordinates interleaved fixed point latitude, longitude pairs, not copied
+     * @param missingCount no. of node refs left out
+     */
+    public static WayGeometry of(Way way, int[] coordinates, int missingCount) {
+        // Sanity checks
+        if (way == null) {
+            throw new IllegalArgumentException("of :: way should not be null");
+        }
+
+        if (coordinates == null || coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("of :: coordinates should be latitude, longitude pairs");
+        }
+
+        return new WayGeometry(way, coordinates, missingCount);
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.github.osm.geometry;
+
+
+/**
+ * Downstream of the way geometry stage, which receives the ways with their node locations.
+ */
+public interface WayGeometryHandler {
+
+    /**
+     * Callback for each way, in the order read.
+     *
+     * @param geometry way with the locations of its nodes
+     */
+    void handleWayGeometry(WayGeometry geometry);
+
+    /**
+     * Callback for each node ref of a way whose node was not read before the way.
+     *
+     * @param wayId id of the way
+     * @param nodeId id of the node missing
+     */
+    default void missingNodeRef(long wayId, long nodeId) {
+        // nothing to do
+    }
+
+    /**
+     * This callback is called once after the whole document is read.
+     */
+    default void geometriesCompleted() {
+        // nothing to do
+    }
+
+}
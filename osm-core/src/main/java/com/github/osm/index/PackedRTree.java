@@ -0,0 +1,505 @@
+package com.github.osm.index;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.geometry.WayGeometry;
+
+
+/**
+ * Immutable R-tree over the bounding boxes of entities, bulk loaded with the Sort-Tile-Recursive
+ * algorithm, and packed in primitive arrays: 24 bytes per entry, plus about a fifteenth of that for
+ * the inner nodes, without an object per entry. Points, such as nodes, are boxes of no extent.
+ * <p>
+ * The entries are sorted in to leaves of {@link #NODE_SIZE} in parallel, and each level of the tree
+ * holds the boxes of {@link #NODE_SIZE} consecutive boxes of the level below, so the tree needs no
+ * child pointers. Coordinates are fixed point (see {@link OSM#fixedCoordinate(double)}).
+ * <p>
+ * The ids are opaque; use one tree per entity type, or encode the type in the id. The tree is
+ * thread safe.
+ */
+public final class PackedRTree {
+
+    public static final int NODE_SIZE = 16;
+
+    private final int size;
+
+    // Entries, then each level of the tree bottom up, 4 ints per box
+    private final long[] ids;
+    private final int[] boxes;
+    private final int[] levelEnds;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private PackedRTree(int size, long[] ids, int[] boxes, int[] levelEnds) {
+        super();
+
+        this.size = size;
+        this.ids = ids;
+        this.boxes = boxes;
+        this.levelEnds = levelEnds;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return no. of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return estimated size of the arrays, in bytes
+     */
+    public long estimatedBytes() {
+        return (long) ids.length * Long.BYTES + (long) boxes.length * Integer.BYTES;
+    }
+
+
+    // Queries
+    // ------------------------------------------------------------------------
+
+    /**
+     * Passes the ids of the entries intersecting the passed box, in no particular order.
+     */
+    public void search(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+            LongConsumer action) {
+        this.search(OSM.fixedCoordinate(minLatitude), OSM.fixedCoordinate(minLongitude),
+                OSM.fixedCoordinate(maxLatitude), OSM.fixedCoordinate(maxLongitude), action);
+    }
+
+    /**
+     * Passes the ids of the entries intersecting the passed box, in fixed point coordinates, in no
+     * particular order.
+     */
+    public void search(int minLatitudeE7, int minLongitudeE7, int maxLatitudeE7, int maxLongitudeE7,
+            LongConsumer action) {
+        if (size == 0) {
+            return;
+        }
+
+        // the root is a leaf when there is a single entry, checked as any other box
+        final int root = boxes.length / 4 - 1;
+        if (!this.intersects(root, minLatitudeE7, minLongitudeE7, maxLatitudeE7, maxLongitudeE7)) {
+            return;
+        }
+
+        // Stack of the nodes to visit, by box position and level
+        int[] stack = new int[levelEnds.length * NODE_SIZE * 2];
+        int top = 0;
+        stack[top++] = root;
+        stack[top++] = levelEnds.length - 1;
+
+        while (top > 0) {
+            final int level = stack[--top];
+            final int position = stack[--top];
+
+            if (level == 0) {
+                action.accept(ids[position]);
+                continue;
+            }
+
+            final int start = this.childStart(position, level);
+            final int end = Math.min(start + NODE_SIZE, levelEnds[level - 1]);
+            for (int child = start; child < end; child++) {
+                if (!this.intersects(child, minLatitudeE7, minLongitudeE7, maxLatitudeE7, maxLongitudeE7)) {
+                    continue;
+                }
+
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = child;
+                stack[top++] = level - 1;
+            }
+        }
+    }
+
+    /**
+     * @return the ids of the (up to) <code>k</code> entries nearest to the passed point, nearest
+     *         first. Distances are on an equirectangular projection around the point, which ranks
+     *         the entries as great circle distances would, away from the poles and the antimeridian.
+     */
+    public long[] nearest(double latitude, double longitude, int k) {
+        // Sanity checks
+        if (k < 0) {
+            throw new IllegalArgumentException("nearest :: k should not be negative");
+        }
+
+        final int count = Math.min(k, size);
+        final long[] nearest = new long[count];
+        if (count == 0) {
+            return nearest;
+        }
+
+        final int latitudeE7 = OSM.fixedCoordinate(latitude);
+        final int longitudeE7 = OSM.fixedCoordinate(longitude);
+        final double scale = Math.cos(Math.toRadians(latitude));
+
+        // Best first search, the entries are reached in distance order
+        final Queue queue = new Queue();
+        final int root = boxes.length / 4 - 1;
+        queue.push(this.distance(root, latitudeE7, longitudeE7, scale), root, levelEnds.length - 1);
+
+        int found = 0;
+        while (found < count && queue.size > 0) {
+            final int position = queue.topPosition();
+            final int level = queue.topLevel();
+            queue.pop();
+
+            if (level == 0) {
+                nearest[found++] = ids[position];
+                continue;
+            }
+
+            final int start = this.childStart(position, level);
+            final int end = Math.min(start + NODE_SIZE, levelEnds[level - 1]);
+            for (int child = start; child < end; child++) {
+                queue.push(this.distance(child, latitudeE7, longitudeE7, scale), child, level - 1);
+            }
+        }
+
+        return nearest;
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return position of the first child of the passed node
+     */
+    private int childStart(int position, int level) {
+        final int levelStart = levelEnds[level - 1];
+        final int childLevelStart = level == 1 ? 0 : levelEnds[level - 2];
+        return childLevelStart + (position - levelStart) * NODE_SIZE;
+    }
+
+    /**
+     * @return true when the box at the passed position intersects the passed one
+     */
+    private boolean intersects(int position, int minLatitudeE7, int minLongitudeE7, int maxLatitudeE7,
+            int maxLongitudeE7) {
+        final int box = position * 4;
+        return boxes[box] <= maxLatitudeE7 && boxes[box + 1] <= maxLongitudeE7 && boxes[box + 2] >= minLatitudeE7
+                && boxes[box + 3] >= minLongitudeE7;
+    }
+
+    /**
+     * @return squared, scaled distance between the passed point and box
+     */
+    private double distance(int position, int latitudeE7, int longitudeE7, double scale) {
+        final int box = position * 4;
+        final double dy = axisDistance(latitudeE7, boxes[box], boxes[box + 2]);
+        final double dx = axisDistance(longitudeE7, boxes[box + 1], boxes[box + 3]) * scale;
+        return dx * dx + dy * dy;
+    }
+
+    private static double axisDistance(int value, int min, int max) {
+        if (value < min) {
+            return (double) min - value;
+        }
+
+        return value > max ? (double) value - max : 0;
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static Builder builder() {
+        return new Builder(1024);
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+
+    // Builder
+    // ------------------------------------------------------------------------
+
+    /**
+     * Not thread safe builder of a {@link PackedRTree}.
+     */
+    public static final class Builder {
+
+        private long[] ids;
+        private int[] boxes;
+        private int size = 0;
+
+        private Builder(int capacity) {
+            this.ids = new long[Math.max(capacity, 16)];
+            this.boxes = new int[ids.length * 4];
+        }
+
+        public Builder add(Node node) {
+            return this.add(node.getOsmId(), node.getLatitude(), node.getLongitude());
+        }
+
+        /**
+         * Adds the box of the resolved points of the passed way; ways with no point are skipped.
+         */
+        public Builder add(WayGeometry geometry) {
+            final int points = geometry.pointCount();
+            if (points == 0) {
+                return this;
+            }
+
+            int minLatitude = Integer.MAX_VALUE;
+            int minLongitude = Integer.MAX_VALUE;
+            int maxLatitude = Integer.MIN_VALUE;
+            int maxLongitude = Integer.MIN_VALUE;
+            for (int i = 0; i < points; i++) {
+                minLatitude = Math.min(minLatitude, geometry.latitudeE7(i));
+                minLongitude = Math.min(minLongitude, geometry.longitudeE7(i));
+                maxLatitude = Math.max(maxLatitude, geometry.latitudeE7(i));
+                maxLongitude = Math.max(maxLongitude, geometry.longitudeE7(i));
+            }
+
+            return this.add(geometry.way().getOsmId(), minLatitude, minLongitude, maxLatitude, maxLongitude);
+        }
+
+        public Builder add(long id, double latitude, double longitude) {
+            final int latitudeE7 = OSM.fixedCoordinate(latitude);
+            final int longitudeE7 = OSM.fixedCoordinate(longitude);
+            return this.add(id, latitudeE7, longitudeE7, latitudeE7, longitudeE7);
+        }
+
+        public Builder add(long id, int minLatitudeE7, int minLongitudeE7, int maxLatitudeE7, int maxLongitudeE7) {
+            // Sanity checks
+            if (minLatitudeE7 > maxLatitudeE7 || minLongitudeE7 > maxLongitudeE7) {
+                throw new IllegalArgumentException("add :: min coordinates should not exceed the max ones");
+            }
+
+            if (size == ids.length) {
+                final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size + (long) (size >> 1));
+                if (capacity == size) {
+                    throw new IllegalStateException("add :: too many entries");
+                }
+
+                this.ids = Arrays.copyOf(ids, capacity);
+                this.boxes = Arrays.copyOf(boxes, capacity * 4);
+            }
+
+            ids[size] = id;
+            final int box = size * 4;
+            boxes[box] = minLatitudeE7;
+            boxes[box + 1] = minLongitudeE7;
+            boxes[box + 2] = maxLatitudeE7;
+            boxes[box + 3] = maxLongitudeE7;
+            this.size++;
+
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the tree of the entries added, sorted and packed in parallel
+         */
+        public PackedRTree build() {
+            final int[] order = this.sortTileRecursive();
+
+            // Levels, from the entries up to the root
+            int nodes = size;
+            int total = size;
+            int levels = 1;
+            while (nodes > 1) {
+                nodes = (nodes + NODE_SIZE - 1) / NODE_SIZE;
+                total += nodes;
+                levels++;
+            }
+
+            final long[] packedIds = new long[size];
+            final int[] packedBoxes = new int[Math.max(total, 0) * 4];
+            IntStream.range(0, size).parallel().forEach(i -> {
+                final int entry = order[i];
+                packedIds[i] = ids[entry];
+                System.arraycopy(boxes, entry * 4, packedBoxes, i * 4, 4);
+            });
+
+            final int[] levelEnds = new int[size == 0 ? 0 : levels];
+            int levelStart = 0;
+            int levelEnd = size;
+            for (int level = 0; level < levelEnds.length; level++) {
+                levelEnds[level] = levelEnd;
+                if (levelEnd - levelStart <= 1) {
+                    break;
+                }
+
+                final int childStart = levelStart;
+                final int childEnd = levelEnd;
+                final int parentStart = levelEnd;
+                final int parents = (childEnd - childStart + NODE_SIZE - 1) / NODE_SIZE;
+                IntStream.range(0, parents).parallel()
+                        .forEach(p -> union(packedBoxes, childStart + p * NODE_SIZE,
+                                Math.min(childStart + (p + 1) * NODE_SIZE, childEnd), parentStart + p));
+
+                levelStart = levelEnd;
+                levelEnd += parents;
+            }
+
+            return new PackedRTree(size, packedIds, packedBoxes, levelEnds);
+        }
+
+        /**
+         * @return the entry indexes, sorted by the longitude of their centre in vertical slices,
+         *         and by latitude within each slice
+         */
+        private int[] sortTileRecursive() {
+            final long[] keys = new long[size];
+            IntStream.range(0, size).parallel()
+                    .forEach(i -> keys[i] = key(center(boxes[i * 4 + 1], boxes[i * 4 + 3]), i));
+            Arrays.parallelSort(keys);
+
+            final int leaves = (size + NODE_SIZE - 1) / NODE_SIZE;
+            final int slices = (int) Math.ceil(Math.sqrt(leaves));
+            final int sliceSize = slices * NODE_SIZE;
+
+            final int[] order = new int[size];
+            IntStream.range(0, slices).parallel().forEach(slice -> {
+                final int start = slice * sliceSize;
+                final int end = Math.min(start + sliceSize, size);
+                if (start >= end) {
+                    return;
+                }
+
+                final long[] sliceKeys = new long[end - start];
+                for (int i = start; i < end; i++) {
+                    final int entry = (int) keys[i];
+                    sliceKeys[i - start] = key(center(boxes[entry * 4], boxes[entry * 4 + 2]), entry);
+                }
+
+                Arrays.sort(sliceKeys);
+                for (int i = start; i < end; i++) {
+                    order[i] = (int) sliceKeys[i - start];
+                }
+            });
+
+            return order;
+        }
+
+        private static int center(int min, int max) {
+            return (int) (((long) min + max) >> 1);
+        }
+
+        /**
+         * @return sort key of the passed coordinate, with the entry index in the low bits
+         */
+        private static long key(int coordinate, int index) {
+            return ((long) coordinate << 32) | index;
+        }
+
+        private static void union(int[] boxes, int start, int end, int target) {
+            int minLatitude = Integer.MAX_VALUE;
+            int minLongitude = Integer.MAX_VALUE;
+            int maxLatitude = Integer.MIN_VALUE;
+            int maxLongitude = Integer.MIN_VALUE;
+            for (int child = start; child < end; child++) {
+                final int box = child * 4;
+                minLatitude = Math.min(minLatitude, boxes[box]);
+                minLongitude = Math.min(minLongitude, boxes[box + 1]);
+                maxLatitude = Math.max(maxLatitude, boxes[box + 2]);
+                maxLongitude = Math.max(maxLongitude, boxes[box + 3]);
+            }
+
+            final int box = target * 4;
+            boxes[box] = minLatitude;
+            boxes[box + 1] = minLongitude;
+            boxes[box + 2] = maxLatitude;
+            boxes[box + 3] = maxLongitude;
+        }
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Binary min heap of the boxes to visit, by distance, in primitive arrays.
+     */
+    private static final class Queue {
+
+        private double[] distances = new double[64];
+        private int[] positions = new int[64];
+        private int[] levels = new int[64];
+        private int size = 0;
+
+        private void push(double distance, int position, int level) {
+            if (size == distances.length) {
+                this.distances = Arrays.copyOf(distances, size * 2);
+                this.positions = Arrays.copyOf(positions, size * 2);
+                this.levels = Arrays.copyOf(levels, size * 2);
+            }
+
+            int index = size++;
+            while (index > 0) {
+                final int parent = (index - 1) >>> 1;
+                if (distances[parent] <= distance) {
+                    break;
+                }
+
+                this.set(index, distances[parent], positions[parent], levels[parent]);
+                index = parent;
+            }
+
+            this.set(index, distance, position, level);
+        }
+
+        private int topPosition() {
+            return positions[0];
+        }
+
+        private int topLevel() {
+            return levels[0];
+        }
+
+        private void pop() {
+            final int last = --size;
+            final double distance = distances[last];
+            final int position = positions[last];
+            final int level = levels[last];
+
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+
+                if (child + 1 < size && distances[child + 1] < distances[child]) {
+                    child++;
+                }
+
+                if (distances[child] >= distance) {
+                    break;
+                }
+
+                this.set(index, distances[child], positions[child], levels[child]);
+                index = child;
+            }
+
+            if (size > 0) {
+                this.set(index, distance, position, level);
+            }
+        }
+
+        private void set(int index, double distance, int position, int level) {
+            distances[index] = distance;
+            positions[index] = position;
+            levels[index] = level;
+        }
+    }
+
+}
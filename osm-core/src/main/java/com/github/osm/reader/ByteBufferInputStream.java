@@ -0,0 +1,60 @@
+package com.github.osm.reader;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+
+/**
+ * {@link InputStream} view over the remaining bytes of a {@link ByteBuffer}, typically a mapped
+ * region of a file.
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        super();
+        this.buffer = buffer;
+    }
+
+
+    // InputStream Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        final int count = Math.min(len, buffer.remaining());
+        buffer.get(bytes, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        final int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+}
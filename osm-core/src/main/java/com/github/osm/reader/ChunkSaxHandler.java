@@ -0,0 +1,238 @@
+package com.github.osm.reader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.osm.domain.Bound;
+import com.github.osm.domain.Member;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+import com.github.osm.sax.BoundFilter;
+import com.github.osm.sax.OsmSaxHandler;
+import com.github.osm.sax.ParseOptions;
+import com.github.osm.sax.TagFilter;
+
+
+/**
+ * SAX handler for a single byte range of a file being read in parallel. The parsed entities are
+ * either buffered, to be delivered later in file order, or forwarded straight to the target
+ * handler from the worker thread. The buffering variant also backs the pull based
+ * {@link OsmEntityIterator}.
+ * <p>
+ * With a bound in the {@link com.github.osm.sax.ParseOptions}, the nodes out of it are dropped as
+ * parsed, but the ways and relations are only filtered by the target {@link BoundFilter} when they
+ * are delivered, once the nodes before them are. The tag filter is then only applied once the
+ * bound filter has kept the ids of the entities, as the ways and relations are kept on the ids of
+ * their members whatever the tags of these, see {@link #parseOptions(ParseOptions)}.
+ */
+final class ChunkSaxHandler extends OsmSaxHandler {
+
+    private final OsmSaxHandler target;
+    private final List<OsmEntity> buffer;
+
+    private long nodesCount = 0;
+    private long waysCount = 0;
+    private long relationsCount = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private ChunkSaxHandler(OsmSaxHandler target, List<OsmEntity> buffer) {
+        super();
+
+        this.target = target;
+        this.buffer = buffer;
+
+        if (target != null) {
+            this.setParseOptions(parseOptions(target.getParseOptions()));
+        }
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the entities read so far, when buffering. Empty list otherwise.
+     */
+    List<OsmEntity> getEntities() {
+        return buffer == null ? Collections.emptyList() : buffer;
+    }
+
+
+    // SAX DefaultHandler methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void startDocument() {
+        // Every chunk is a document of its own, the target document lifecycle is driven by the reader
+    }
+
+    @Override
+    public void endDocument() {
+        // Every chunk is a document of its own, the target document lifecycle is driven by the reader
+    }
+
+
+    // Filter hooks
+    // ------------------------------------------------------------------------
+
+    @Override
+    protected boolean keepNode(long osmId, double latitude, double longitude) {
+        final BoundFilter filter = this.getBoundFilter();
+        return filter == null || filter.contains(latitude, longitude);
+    }
+
+    @Override
+    protected boolean keepWay(long osmId, long[] nodeIds, int nodeIdCount) {
+        return true;
+    }
+
+    @Override
+    protected boolean keepRelation(long osmId, List<Member> members) {
+        return true;
+    }
+
+
+    // OsmSaxHandler methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void handleBound(Bound bound) {
+        // The pull based iterators have no target to pass the bound to
+        if (target == null) {
+            return;
+        }
+
+        if (buffer != null) {
+            buffer.add(bound);
+        } else {
+            target.handleBound(bound);
+        }
+    }
+
+    @Override
+    public void handleNode(Node node) {
+        this.nodesCount++;
+
+        if (buffer != null) {
+            buffer.add(node);
+        } else if (keep(target, node)) {
+            target.handleNode(node);
+        }
+    }
+
+    @Override
+    public void handleWay(Way way) {
+        this.waysCount++;
+
+        if (buffer != null) {
+            buffer.add(way);
+        } else if (keep(target, way)) {
+            target.handleWay(way);
+        }
+    }
+
+    @Override
+    public void handleRelation(Relation relation) {
+        this.relationsCount++;
+
+        if (buffer != null) {
+            buffer.add(relation);
+        } else if (keep(target, relation)) {
+            target.handleRelation(relation);
+        }
+    }
+
+    @Override
+    public void documentCompleted() {
+        // Nothing to do here
+    }
+
+
+    // Counts
+
+    @Override
+    public long getNodesCount() {
+        return nodesCount;
+    }
+
+    @Override
+    public long getWaysCount() {
+        return waysCount;
+    }
+
+    @Override
+    public long getRelationsCount() {
+        return relationsCount;
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Delivers the buffered entities to the target handler, in the order they were read.
+     */
+    static void deliver(final OsmSaxHandler target, final List<OsmEntity> entities) {
+        for (OsmEntity entity : entities) {
+            if (!keep(target, entity)) {
+                continue;
+            }
+
+            if (entity instanceof Bound) {
+                target.handleBound((Bound) entity);
+            } else if (entity instanceof Node) {
+                target.handleNode((Node) entity);
+            } else if (entity instanceof Way) {
+                target.handleWay((Way) entity);
+            } else if (entity instanceof Relation) {
+                target.handleRelation((Relation) entity);
+            }
+        }
+    }
+
+
+    /**
+     * @return the options to parse the entities for the passed handler options with: with a bound,
+     *         the tag filter is left to the delivery, once the bound filter has kept the ids
+     */
+    static ParseOptions parseOptions(final ParseOptions options) {
+        if (options.getBound() == null || options.getTagFilter() == null) {
+            return options;
+        }
+
+        return options.withTagFilter(null);
+    }
+
+    private static boolean keep(final OsmSaxHandler target, final OsmEntity entity) {
+        final BoundFilter filter = target.getBoundFilter();
+        if (filter == null) {
+            return true;
+        }
+
+        if (!filter.keep(entity)) {
+            return false;
+        }
+
+        final TagFilter tagFilter = target.getParseOptions().getTagFilter();
+        return tagFilter == null || tagFilter.matches(entity);
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    static ChunkSaxHandler buffering(OsmSaxHandler target) {
+        return new ChunkSaxHandler(target, new ArrayList<>());
+    }
+
+    static ChunkSaxHandler forwarding(OsmSaxHandler target) {
+        return new ChunkSaxHandler(target, null);
+    }
+
+}
@@ -0,0 +1,445 @@
+package com.github.osm.reader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.sax.OsmSaxHandler;
+
+
+/**
+ * Parallel reader of OSM XML files. The file is split in to byte ranges aligned to the top level
+ * <code>&lt;node&gt;</code>, <code>&lt;way&gt;</code> and <code>&lt;relation&gt;</code> elements,
+ * and every range is memory mapped and parsed as a document of its own on a worker thread.
+ * <p>
+ * OSM XML never nests entity elements and <code>&lt;</code> is always escaped within attribute
+ * values, so any <code>&lt;node</code>, <code>&lt;way</code> or <code>&lt;relation</code> found in
+ * the bytes is the start of an entity.
+ */
+final class ChunkedXmlReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedXmlReader.class);
+
+    private static final byte[] ROOT_START = "<osm>".getBytes(UTF_8);
+    private static final byte[] ROOT_END = "</osm>".getBytes(UTF_8);
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ELEMENT_NAME = 10;
+
+    private final SAXParserFactory saxFactory;
+    private final ReadOptions options;
+
+    private final ThreadLocal<SAXParser> saxParsers;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    ChunkedXmlReader(SAXParserFactory saxFactory, ReadOptions options) {
+        super();
+
+        this.saxFactory = saxFactory;
+        this.options = options;
+        this.saxParsers = ThreadLocal.withInitial(this::newSaxParser);
+    }
+
+
+    // Read
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads the file in parallel, delivering the entities to the passed handler.
+     */
+    void read(final OsmSaxHandler handler, final Path path) throws IOException, SAXException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long dataEnd = this.findDataEnd(channel);
+            final Boundary first = this.findEntity(channel, 0, dataEnd);
+            if (first == null) {
+                // Nothing to split, read as a whole
+                this.saxParsers.get().parse(new ByteBufferInputStream(this.map(channel, 0, channel.size())), handler);
+                return;
+            }
+
+            final List<Chunk> chunks = this.split(channel, first, dataEnd);
+            LOGGER.info("Reading {} in {} chunks with {} threads", path, chunks.size(), options.getThreads());
+
+            final ExecutorService executor = Executors.newFixedThreadPool(options.getThreads(), new ReaderThreadFactory("osm-xml-reader"));
+            try {
+                handler.startDocument();
+
+                // Header, to pick any elements before the first entity
+                final Chunk header = new Chunk(0, first.position, null);
+                final ChunkSaxHandler headerHandler = ChunkSaxHandler.buffering(handler);
+                this.parse(channel, header, headerHandler);
+                ChunkSaxHandler.deliver(handler, headerHandler.getEntities());
+
+                if (options.isOrdered()) {
+                    this.readOrdered(executor, channel, chunks, handler);
+                } else {
+                    this.readUnordered(executor, channel, chunks, handler);
+                }
+
+                handler.endDocument();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Parses the chunks in parallel with a bounded window of chunks in flight, and delivers their
+     * entities to the handler in file order from the calling thread.
+     */
+    private void readOrdered(ExecutorService executor, FileChannel channel, List<Chunk> chunks,
+            OsmSaxHandler handler) throws IOException, SAXException {
+        final int window = options.getThreads() * 2;
+        final Deque<Future<List<OsmEntity>>> inFlight = new ArrayDeque<>(window);
+
+        int next = 0;
+        while (next < chunks.size() || !inFlight.isEmpty()) {
+            while (next < chunks.size() && inFlight.size() < window) {
+                final Chunk chunk = chunks.get(next++);
+                inFlight.add(executor.submit(() -> {
+                    final ChunkSaxHandler chunkHandler = ChunkSaxHandler.buffering(handler);
+                    this.parse(channel, chunk, chunkHandler);
+                    return chunkHandler.getEntities();
+                }));
+            }
+
+            ChunkSaxHandler.deliver(handler, this.await(inFlight.poll()));
+        }
+    }
+
+    /**
+     * Parses the chunks in parallel, the entities are forwarded to the handler from the worker
+     * threads. Chunks are processed in phases of a single entity type, so that all nodes are
+     * delivered before any way and all ways before any relation.
+     */
+    private void readUnordered(ExecutorService executor, FileChannel channel, List<Chunk> chunks,
+            OsmSaxHandler handler) throws IOException, SAXException {
+        int phaseStart = 0;
+        while (phaseStart < chunks.size()) {
+            final Type phaseType = chunks.get(phaseStart).type;
+
+            int phaseEnd = phaseStart;
+            final List<Future<List<OsmEntity>>> futures = new ArrayList<>();
+            while (phaseEnd < chunks.size() && chunks.get(phaseEnd).type == phaseType) {
+                final Chunk chunk = chunks.get(phaseEnd++);
+                futures.add(executor.submit(() -> {
+                    this.parse(channel, chunk, ChunkSaxHandler.forwarding(handler));
+                    return Collections.emptyList();
+                }));
+            }
+
+            // Barrier
+            for (Future<List<OsmEntity>> future : futures) {
+                this.await(future);
+            }
+
+            LOGGER.debug("Completed {} phase of {} chunks", phaseType, futures.size());
+            phaseStart = phaseEnd;
+        }
+    }
+
+
+    // Split
+    // ------------------------------------------------------------------------
+
+    /**
+     * Splits the data in to chunks of roughly the configured size, starting at an entity element.
+     * Chunks are further split where the entity type changes, so that each chunk holds a single
+     * type of entities.
+     */
+    private List<Chunk> split(FileChannel channel, Boundary first, long dataEnd) throws IOException {
+        // Boundaries
+        final List<Boundary> boundaries = new ArrayList<>();
+        boundaries.add(first);
+
+        Boundary last = first;
+        while (last.position + options.getChunkSize() < dataEnd) {
+            final Boundary next = this.findEntity(channel, last.position + options.getChunkSize(), dataEnd);
+            if (next == null) {
+                break;
+            }
+
+            boundaries.add(next);
+            last = next;
+        }
+
+        // Chunks
+        final List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i < boundaries.size(); i++) {
+            final Boundary start = boundaries.get(i);
+            final boolean isLast = i == boundaries.size() - 1;
+
+            final long end = isLast ? dataEnd : boundaries.get(i + 1).position;
+            final Type endType = isLast ? null : boundaries.get(i + 1).type;
+
+            // Single type
+            if (start.type == endType) {
+                chunks.add(new Chunk(start.position, end, start.type));
+                continue;
+            }
+
+            // Type change within the chunk
+            Boundary current = start;
+            while (current != null) {
+                final Boundary change = this.findTypeChange(channel, current, end);
+                final long currentEnd = change == null ? end : change.position;
+
+                chunks.add(new Chunk(current.position, currentEnd, current.type));
+                current = change;
+            }
+        }
+
+        return chunks;
+    }
+
+    private Boundary findTypeChange(FileChannel channel, Boundary from, long limit) throws IOException {
+        return this.findEntity(channel, from.position + 1, limit, from.type);
+    }
+
+    /**
+     * Finds the start of the first entity element at or after the passed position.
+     */
+    private Boundary findEntity(FileChannel channel, long from, long limit) throws IOException {
+        return this.findEntity(channel, from, limit, null);
+    }
+
+    /**
+     * Finds the start of the first entity element at or after the passed position, skipping the
+     * entities of the passed type.
+     */
+    private Boundary findEntity(FileChannel channel, long from, long limit, Type skipType) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        final byte[] bytes = buffer.array();
+
+        long position = from;
+        while (position < limit) {
+            buffer.clear();
+            final int count = this.readFully(channel, buffer, position);
+            if (count <= 0) {
+                return null;
+            }
+
+            final boolean more = position + count < channel.size();
+
+            int advance = count;
+            for (int i = 0; i < count; i++) {
+                if (bytes[i] != '<') {
+                    continue;
+                }
+
+                if (position + i >= limit) {
+                    return null;
+                }
+
+                // Element name crosses the buffer end, re-read from here
+                if (more && i > 0 && i + MAX_ELEMENT_NAME >= count) {
+                    advance = i;
+                    break;
+                }
+
+                final Type type = this.entityType(bytes, i + 1, count);
+                if (type != null && type != skipType) {
+                    return new Boundary(position + i, type);
+                }
+            }
+
+            position += advance;
+        }
+
+        return null;
+    }
+
+    private Type entityType(byte[] bytes, int offset, int count) {
+        if (this.matches(bytes, offset, count, Type.node.name())) {
+            return Type.node;
+        } else if (this.matches(bytes, offset, count, Type.way.name())) {
+            return Type.way;
+        } else if (this.matches(bytes, offset, count, Type.relation.name())) {
+            return Type.relation;
+        }
+
+        return null;
+    }
+
+    private boolean matches(byte[] bytes, int offset, int count, String name) {
+        final int end = offset + name.length();
+        if (end >= count) {
+            return false;
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            if (bytes[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+
+        // Delimiter, to tell <node from <nodes
+        final byte delimiter = bytes[end];
+        return delimiter == ' ' || delimiter == '\t' || delimiter == '\n' || delimiter == '\r' || delimiter == '>'
+                || delimiter == '/';
+    }
+
+    /**
+     * Finds the position of the closing root element, the chunks are wrapped in a root element of
+     * their own.
+     */
+    private long findDataEnd(FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final int tailSize = (int) Math.min(size, SCAN_BUFFER_SIZE);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(tailSize);
+        final int count = this.readFully(channel, buffer, size - tailSize);
+        final byte[] bytes = buffer.array();
+
+        for (int i = count - ROOT_END.length; i >= 0; i--) {
+            boolean found = true;
+            for (int j = 0; j < ROOT_END.length && found; j++) {
+                found = bytes[i + j] == ROOT_END[j];
+            }
+
+            if (found) {
+                return size - tailSize + i;
+            }
+        }
+
+        return size;
+    }
+
+
+    // Parse
+    // ------------------------------------------------------------------------
+
+    private void parse(FileChannel channel, Chunk chunk, ChunkSaxHandler chunkHandler)
+            throws IOException, SAXException {
+        // Header carries its own root element opening
+        final InputStream prefix = new ByteArrayInputStream(chunk.type == null ? new byte[0] : ROOT_START);
+        final InputStream body = new ByteBufferInputStream(this.map(channel, chunk.start, chunk.end - chunk.start));
+        final InputStream suffix = new ByteArrayInputStream(ROOT_END);
+
+        final InputSource source =
+                new InputSource(new SequenceInputStream(prefix, new SequenceInputStream(body, suffix)));
+        source.setEncoding(UTF_8.name());
+
+        final SAXParser saxParser = this.saxParsers.get();
+        try {
+            saxParser.parse(source, chunkHandler);
+        } finally {
+            saxParser.reset();
+        }
+    }
+
+    private ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Chunk of " + size + " bytes is too large to be mapped");
+        }
+
+        return channel.map(MapMode.READ_ONLY, position, size);
+    }
+
+    private int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+
+    private List<OsmEntity> await(Future<List<OsmEntity>> future) throws IOException, SAXException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading chunks", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof SAXException) {
+                throw (SAXException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new SAXException("Error parsing chunk", (Exception) cause);
+        }
+    }
+
+    private SAXParser newSaxParser() {
+        try {
+            synchronized (saxFactory) {
+                return saxFactory.newSAXParser();
+            }
+        } catch (ParserConfigurationException | SAXException e) {
+            LOGGER.error("Error creating the SAXParser", e);
+            throw new RuntimeException("Unable to create SAX Parser", e);
+        }
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    private static final class Boundary {
+
+        private final long position;
+        private final Type type;
+
+        private Boundary(long position, Type type) {
+            this.position = position;
+            this.type = type;
+        }
+    }
+
+    private static final class Chunk {
+
+        private final long start;
+        private final long end;
+        private final Type type;
+
+        private Chunk(long start, long end, Type type) {
+            this.start = start;
+            this.end = end;
+            this.type = type;
+        }
+    }
+
+}
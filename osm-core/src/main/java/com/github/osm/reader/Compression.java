@@ -0,0 +1,97 @@
+package com.github.osm.reader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+
+/**
+ * Compression formats of the OSM input, detected from the magic bytes at the start of the data.
+ */
+public enum Compression {
+
+    /**
+     * Plain, uncompressed data.
+     */
+    none,
+
+    /**
+     * gzip data (<code>.osm.gz</code>), possibly of multiple members.
+     */
+    gzip,
+
+    /**
+     * bzip2 data (<code>.osm.bz2</code>), possibly of multiple streams as written by pbzip2.
+     */
+    bzip2;
+
+
+    private static final int MAGIC_LENGTH = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Detects the compression of the passed stream, which should support mark/reset.
+     */
+    public static Compression detect(final InputStream is) throws IOException {
+        // Sanity checks
+        if (is == null || !is.markSupported()) {
+            throw new IllegalArgumentException("detect :: InputStream should support mark/reset");
+        }
+
+        final byte[] magic = new byte[MAGIC_LENGTH];
+
+        is.mark(MAGIC_LENGTH);
+        int count = 0;
+        try {
+            int read;
+            while (count < MAGIC_LENGTH && (read = is.read(magic, count, MAGIC_LENGTH - count)) > 0) {
+                count += read;
+            }
+        } finally {
+            is.reset();
+        }
+
+        if (count >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return gzip;
+        }
+
+        if (count == MAGIC_LENGTH && magic[0] == 'B' && magic[1] == 'Z' && magic[2] == 'h') {
+            return bzip2;
+        }
+
+        return none;
+    }
+
+    /**
+     * Wraps the passed stream with a decompressing stream, when compressed. bzip2 data is decompressed
+     * in parallel when more than one thread is passed.
+     *
+     * @param is the possibly compressed input
+     * @param threads no. of threads to decompress bzip2 data with
+     *
+     * @return the stream of the uncompressed data
+     */
+    public static InputStream decompress(final InputStream is, final int threads) throws IOException {
+        final InputStream buffered = is.markSupported() ? is : new BufferedInputStream(is, BUFFER_SIZE);
+
+        switch (detect(buffered)) {
+            case gzip:
+                return new GZIPInputStream(buffered, BUFFER_SIZE);
+
+            case bzip2:
+                return threads > 1 ? new ParallelBzip2InputStream(buffered, threads)
+                        : new BZip2CompressorInputStream(buffered, true);
+
+            default:
+                return buffered;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.github.osm.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.SAXException;
+
+import com.github.osm.domain.OsmEntity;
+
+
+/**
+ * Lazy, pull based {@link Iterator} of the entities of an OSM XML document, backed by a StAX
+ * {@link XMLStreamReader}. The StAX events are fed to an OSM SAX handler, so the entities are
+ * built exactly as with {@link OsmXmlReader#read}, but only as they are requested. Memory use is
+ * bounded by the size of a single entity.
+ * <p>
+ * The iterator should be closed once done with, which also closes the underlying input.
+ */
+public final class OsmEntityIterator implements Iterator<OsmEntity>, Closeable {
+
+    private final XMLStreamReader reader;
+    private final Closeable source;
+
+    private final ChunkSaxHandler handler;
+    private final StaxAttributes attributes;
+
+    private boolean ended = false;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    OsmEntityIterator(XMLStreamReader reader, Closeable source) {
+        super();
+
+        this.reader = reader;
+        this.source = source;
+
+        this.handler = ChunkSaxHandler.buffering(null);
+        this.attributes = new StaxAttributes(reader);
+    }
+
+
+    // Iterator Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public boolean hasNext() {
+        final List<OsmEntity> entities = handler.getEntities();
+        while (entities.isEmpty() && !ended) {
+            this.pull();
+        }
+
+        return !entities.isEmpty();
+    }
+
+    @Override
+    public OsmEntity next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException("No more OSM entities in the stream");
+        }
+
+        return handler.getEntities().remove(0);
+    }
+
+
+    // Closeable Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void close() throws IOException {
+        this.ended = true;
+
+        try {
+            reader.close();
+        } catch (XMLStreamException ex) {
+            throw new IOException("Error closing the XML stream", ex);
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+        }
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Feeds the next StAX event to the handler.
+     */
+    private void pull() {
+        try {
+            if (!reader.hasNext()) {
+                this.ended = true;
+                return;
+            }
+
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    final String startName = reader.getLocalName();
+                    handler.startElement(reader.getNamespaceURI(), startName, startName, attributes);
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    final String endName = reader.getLocalName();
+                    handler.endElement(reader.getNamespaceURI(), endName, endName);
+                    break;
+
+                case XMLStreamConstants.END_DOCUMENT:
+                    this.ended = true;
+                    break;
+
+                default:
+                    // OSM data is always in attributes
+                    break;
+            }
+        } catch (XMLStreamException | SAXException ex) {
+            this.ended = true;
+            throw new RuntimeException("Error parsing the XML from stream", ex);
+        }
+    }
+
+}
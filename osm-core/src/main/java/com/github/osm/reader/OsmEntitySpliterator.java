@@ -0,0 +1,54 @@
+package com.github.osm.reader;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import com.github.osm.domain.OsmEntity;
+
+
+/**
+ * {@link Spliterator} over an {@link OsmEntityIterator}. Splitting hands out batches of the already
+ * parsed entities, with an estimated size derived from the input size, so that a parallel stream
+ * can distribute the downstream work while the parsing itself stays sequential.
+ */
+final class OsmEntitySpliterator extends Spliterators.AbstractSpliterator<OsmEntity> {
+
+    /**
+     * Rough average size of an entity in OSM XML, including its tags and refs.
+     */
+    static final int AVERAGE_ENTITY_SIZE = 150;
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+
+    private final OsmEntityIterator iterator;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    OsmEntitySpliterator(OsmEntityIterator iterator, long estimatedSize) {
+        super(estimatedSize, CHARACTERISTICS);
+        this.iterator = iterator;
+    }
+
+
+    // Spliterator Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public boolean tryAdvance(Consumer<? super OsmEntity> action) {
+        if (!iterator.hasNext()) {
+            return false;
+        }
+
+        action.accept(iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super OsmEntity> action) {
+        iterator.forEachRemaining(action);
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.github.osm.reader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import com.github.osm.domain.Bound;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.reader.pbf.PbfDecoder;
+import com.github.osm.reader.pbf.PbfDecoder.BlobHeader;
+import com.github.osm.sax.OsmSaxHandler;
+import com.github.osm.sax.ParseOptions;
+
+
+/**
+ * Reader of <a href="https://wiki.openstreetmap.org/wiki/PBF_Format">OSM PBF</a> files. The blobs
+ * are read sequentially, and decompressed and decoded on a pool of worker threads. The decoded
+ * entities are delivered to the handler callbacks in file order, from the calling thread.
+ */
+public class OsmPbfReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OsmPbfReader.class);
+
+    private static final int MAX_BLOB_HEADER_SIZE = 64 * 1024;
+    private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+    private final ReadOptions options;
+
+
+    // Constructor
+    // ------------------------------------------------------------------------
+
+    public OsmPbfReader() {
+        this(ReadOptions.defaults());
+    }
+
+    public OsmPbfReader(final ReadOptions options) {
+        super();
+
+        // Sanity checks
+        if (options == null) {
+            throw new IllegalArgumentException("OsmPbfReader :: ReadOptions should not be null");
+        }
+
+        this.options = options;
+    }
+
+
+    // OSM PBF Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Read the OSM PBF stream, delivering the decoded entities to the handler.
+     * 
+     * @param handler the handler to deliver the entities to
+     * @param is PBF data as {@link InputStream}
+     * 
+     * @return counts of the entities read
+     */
+    public Map<String, Object> read(final OsmSaxHandler handler, final InputStream is) {
+        // Sanity checks
+        if (handler == null) {
+            throw new IllegalArgumentException("read :: SaxHandler should not be null");
+        }
+
+        if (is == null) {
+            throw new IllegalArgumentException("read :: Data InputStream should not be null");
+        }
+
+        final ExecutorService executor = options.getThreads() == 1 ? null
+                : Executors.newFixedThreadPool(options.getThreads(), new ReaderThreadFactory("osm-pbf-reader"));
+        try {
+            handler.startDocument();
+            this.readBlobs(executor, handler, new DataInputStream(new BufferedInputStream(is, 64 * 1024)));
+            handler.endDocument();
+        } catch (SAXException | IOException ex) {
+            LOGGER.error("Error parsing the PBF from stream", ex);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        return OsmXmlReader.results(handler);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void readBlobs(ExecutorService executor, OsmSaxHandler handler, DataInputStream in) throws IOException {
+        final int window = options.getThreads() * 2;
+        final Deque<Future<List<OsmEntity>>> inFlight = new ArrayDeque<>(window);
+        final ParseOptions parseOptions = ChunkSaxHandler.parseOptions(handler.getParseOptions());
+
+        int headerSize;
+        while ((headerSize = this.readHeaderSize(in)) >= 0) {
+            if (headerSize > MAX_BLOB_HEADER_SIZE) {
+                throw new IOException("PBF blob header too large : " + headerSize);
+            }
+
+            final BlobHeader blobHeader = PbfDecoder.blobHeader(this.readBytes(in, headerSize));
+            if (blobHeader.getDataSize() > MAX_BLOB_SIZE) {
+                throw new IOException("PBF blob too large : " + blobHeader.getDataSize());
+            }
+
+            final byte[] blob = this.readBytes(in, blobHeader.getDataSize());
+
+            // Header
+            if (PbfDecoder.BLOB_HEADER.equals(blobHeader.getType())) {
+                final Bound bound = PbfDecoder.headerBlock(PbfDecoder.blob(blob));
+                LOGGER.debug("Read PBF header with bound : {}", bound);
+                if (bound != null) {
+                    handler.handleBound(bound);
+                }
+                continue;
+            }
+
+            // Unknown blobs are to be skipped
+            if (!PbfDecoder.BLOB_DATA.equals(blobHeader.getType())) {
+                LOGGER.info("Skipping PBF blob of type : {}", blobHeader.getType());
+                continue;
+            }
+
+            // Data
+            final Callable<List<OsmEntity>> decodeTask = () -> PbfDecoder.primitiveBlock(PbfDecoder.blob(blob), parseOptions);
+            if (executor == null) {
+                ChunkSaxHandler.deliver(handler, this.call(decodeTask));
+                continue;
+            }
+
+            if (inFlight.size() >= window) {
+                ChunkSaxHandler.deliver(handler, this.await(inFlight.poll()));
+            }
+
+            inFlight.add(executor.submit(decodeTask));
+        }
+
+        while (!inFlight.isEmpty()) {
+            ChunkSaxHandler.deliver(handler, this.await(inFlight.poll()));
+        }
+    }
+
+    /**
+     * @return size of the next blob header, or -1 at the end of the stream.
+     */
+    private int readHeaderSize(DataInputStream in) throws IOException {
+        final int first = in.read();
+        if (first < 0) {
+            return -1;
+        }
+
+        final int size = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8)
+                | in.readUnsignedByte();
+        if (size < 0) {
+            throw new IOException("Invalid PBF blob header size : " + size);
+        }
+
+        return size;
+    }
+
+    private byte[] readBytes(DataInputStream in, int size) throws IOException {
+        final byte[] bytes = new byte[size];
+        try {
+            in.readFully(bytes);
+        } catch (EOFException ex) {
+            throw new IOException("Truncated PBF stream", ex);
+        }
+
+        return bytes;
+    }
+
+    private List<OsmEntity> call(Callable<List<OsmEntity>> task) throws IOException {
+        try {
+            return task.call();
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException("Error decoding PBF block", ex);
+        }
+    }
+
+    private List<OsmEntity> await(Future<List<OsmEntity>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding PBF blocks", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException("Error decoding PBF block", cause);
+        }
+    }
+
+}
@@ -1,18 +1,27 @@
 package com.github.osm.reader;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import com.github.osm.domain.OsmEntity;
 import com.github.osm.sax.OsmResult;
 import com.github.osm.sax.OsmSaxHandler;
 
@@ -22,17 +31,31 @@ public class OsmXmlReader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(OsmXmlReader.class);
 
+    private final ReadOptions options;
+
     private final SAXParserFactory saxFactory;
     private final SAXParser saxParser;
 
+    private final XMLInputFactory staxFactory;
+
 
     // Constructor
     // ------------------------------------------------------------------------
 
     public OsmXmlReader() {
+        this(ReadOptions.defaults());
+    }
+
+    public OsmXmlReader(final ReadOptions options) {
         super();
 
+        // Sanity checks
+        if (options == null) {
+            throw new IllegalArgumentException("OsmXmlReader :: ReadOptions should not be null");
+        }
+
         // init
+        this.options = options;
         try {
             this.saxFactory = SAXParserFactory.newInstance();
             this.saxParser = saxFactory.newSAXParser();
@@ -40,6 +63,10 @@ public class OsmXmlReader {
             LOGGER.error("Error creating the SAXParser", e);
             throw new RuntimeException("Unable to create SAX Parser", e);
         }
+
+        this.staxFactory = XMLInputFactory.newInstance();
+        this.staxFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.staxFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
 
@@ -48,7 +75,8 @@ public class OsmXmlReader {
 
     /**
      * Read the OSM XML using SAX parser. When true is passed for persist flag, the read OsmElements
-     * gets persisted to DB for future processing.
+     * gets persisted to DB for future processing. gzip and bzip2 compressed data is detected and
+     * decompressed transparently, bzip2 in parallel when configured with more than one thread.
      * 
      * @param is XML file as {@link InputStream}
      * 
@@ -65,12 +93,159 @@ public class OsmXmlReader {
         }
 
         try {
-            this.saxParser.parse(is, handler);
+            this.saxParser.parse(Compression.decompress(is, options.getThreads()), handler);
         } catch (SAXException | IOException ex) {
             LOGGER.error("Error parsing the XML from stream", ex);
         }
 
-        // Results
+        return results(handler);
+    }
+
+    /**
+     * Read the OSM XML file. When the reader is configured with more than one thread, the file is
+     * split in to ranges aligned to the entity elements and parsed in parallel.
+     * 
+     * @param handler the handler to deliver the parsed entities to
+     * @param file OSM XML file
+     * 
+     * @return counts of the entities read
+     * 
+     * @see ReadOptions
+     */
+    public Map<String, Object> readFile(final OsmSaxHandler handler, final File file) {
+        // Sanity checks
+        if (handler == null) {
+            throw new IllegalArgumentException("read :: SaxHandler should not be null");
+        }
+
+        if (file == null || !file.isFile()) {
+            throw new IllegalArgumentException("readFile :: Data file should be an existing file");
+        }
+
+        // Sequential, compressed data can only be read as a stream
+        if (options.getThreads() == 1 || this.isCompressed(file)) {
+            try (InputStream is = new FileInputStream(file)) {
+                return this.read(handler, is);
+            } catch (IOException ex) {
+                LOGGER.error("Error reading the XML file : {}", file, ex);
+                return results(handler);
+            }
+        }
+
+        // Parallel
+        try {
+            new ChunkedXmlReader(saxFactory, options).read(handler, file.toPath());
+        } catch (SAXException | IOException ex) {
+            LOGGER.error("Error parsing the XML file : {}", file, ex);
+        }
+
+        return results(handler);
+    }
+
+
+
+    // Streaming Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Pull based alternative to {@link #read(OsmSaxHandler, InputStream)}. The entities are parsed
+     * lazily, as the returned iterator is advanced.
+     * 
+     * @param is XML data as {@link InputStream}
+     * 
+     * @return {@link OsmEntityIterator} over the entities, to be closed once done with.
+     */
+    public OsmEntityIterator iterator(final InputStream is) {
+        // Sanity checks
+        if (is == null) {
+            throw new IllegalArgumentException("iterator :: Data InputStream should not be null");
+        }
+
+        try {
+            final InputStream input = Compression.decompress(is, options.getThreads());
+            return new OsmEntityIterator(staxFactory.createXMLStreamReader(input), input);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to detect the stream compression", ex);
+        } catch (XMLStreamException ex) {
+            LOGGER.error("Error creating the XMLStreamReader", ex);
+            throw new RuntimeException("Unable to create StAX Reader", ex);
+        }
+    }
+
+    /**
+     * Lazy {@link Stream} of the entities of the OSM XML. Closing the stream closes the passed input.
+     * 
+     * @param is XML data as {@link InputStream}
+     * 
+     * @return sequential {@link Stream} of the entities
+     */
+    public Stream<OsmEntity> stream(final InputStream is) {
+        return this.stream(this.iterator(is), Long.MAX_VALUE);
+    }
+
+    /**
+     * Lazy {@link Stream} of the entities of the OSM XML file. The stream size is estimated from the
+     * file size, for better splitting of parallel streams.
+     * 
+     * @param file OSM XML file
+     * 
+     * @return sequential {@link Stream} of the entities, to be closed once done with.
+     */
+    public Stream<OsmEntity> streamFile(final File file) {
+        // Sanity checks
+        if (file == null || !file.isFile()) {
+            throw new IllegalArgumentException("streamFile :: Data file should be an existing file");
+        }
+
+        final InputStream is;
+        try {
+            is = new FileInputStream(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open file : " + file, ex);
+        }
+
+        try {
+            final long estimatedSize = Math.max(1, file.length() / OsmEntitySpliterator.AVERAGE_ENTITY_SIZE);
+            return this.stream(this.iterator(is), estimatedSize);
+        } catch (RuntimeException | Error ex) {
+            // not handed to a stream, to be closed here
+            try {
+                is.close();
+            } catch (IOException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+
+            throw ex;
+        }
+    }
+
+    private boolean isCompressed(final File file) {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            return Compression.detect(is) != Compression.none;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read file : " + file, ex);
+        }
+    }
+
+    private Stream<OsmEntity> stream(final OsmEntityIterator iterator, final long estimatedSize) {
+        final OsmEntitySpliterator spliterator = new OsmEntitySpliterator(iterator, estimatedSize);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                iterator.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return counts of the entities read by the handler
+     */
+    static Map<String, Object> results(final OsmSaxHandler handler) {
         Map<String, Object> detailsMap = new HashMap<>();
         detailsMap.put("nodesCount", handler.getNodesCount());
         detailsMap.put("waysCount", handler.getWaysCount());
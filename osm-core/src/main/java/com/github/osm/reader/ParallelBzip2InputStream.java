@@ -0,0 +1,351 @@
+package com.github.osm.reader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+
+/**
+ * bzip2 decompressing {@link InputStream} that decodes the compressed blocks in parallel, in the
+ * manner of pbzip2/lbzip2.
+ * <p>
+ * bzip2 blocks are independent of each other, but are not byte aligned. The compressed bits are
+ * scanned for the 48 bit block and end of stream magic numbers, and every block is re-wrapped as a
+ * single block bzip2 stream of its own, which is then decoded on a worker thread. The decoded
+ * blocks are handed out in order, with a bounded window of blocks in flight. Both single stream
+ * files and concatenated streams (as written by pbzip2) are supported.
+ * <p>
+ * The block magic number could in theory also appear within the compressed data of a block, in
+ * which case the decoding of that block fails its CRC check and an {@link IOException} is thrown.
+ */
+public final class ParallelBzip2InputStream extends InputStream {
+
+    private static final long BLOCK_MAGIC = 0x314159265359L;
+    private static final long END_MAGIC = 0x177245385090L;
+    private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+
+    private static final int MAGIC_BITS = 48;
+    private static final int CRC_BITS = 32;
+
+    private static final byte[] STREAM_HEADER = {'B', 'Z', 'h', '9'};
+    private static final int HEADER_BITS = STREAM_HEADER.length * 8;
+
+    private static final int READ_SIZE = 1024 * 1024;
+
+    private final InputStream in;
+    private final ThreadPoolExecutor executor;
+
+    private final int window;
+    private final Deque<Future<byte[]>> inFlight;
+
+    // Compressed data being scanned, positions are in bits from the buffer start
+    private byte[] buffer = new byte[2 * READ_SIZE];
+    private int length = 0;
+    private long scanBit = 0;
+    private long blockStartBit = -1;
+    private long bits = 0;
+    private int bitsCount = 0;
+    private boolean expectHeader = true;
+    private boolean scanEnded = false;
+
+    // Decoded block being read
+    private byte[] current = new byte[0];
+    private int currentPosition = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public ParallelBzip2InputStream(InputStream in, int threads) {
+        super();
+
+        // Sanity checks
+        if (in == null) {
+            throw new IllegalArgumentException("ParallelBzip2InputStream :: InputStream should not be null");
+        }
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("ParallelBzip2InputStream :: threads should be at least 1");
+        }
+
+        this.in = in;
+        this.window = threads * 2;
+        this.inFlight = new ArrayDeque<>(window);
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ReaderThreadFactory("osm-bzip2"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+
+    // InputStream Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int read() throws IOException {
+        while (currentPosition >= current.length) {
+            if (!this.advance()) {
+                return -1;
+            }
+        }
+
+        return current[currentPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (currentPosition >= current.length) {
+            if (!this.advance()) {
+                return -1;
+            }
+        }
+
+        final int count = Math.min(len, current.length - currentPosition);
+        System.arraycopy(current, currentPosition, bytes, off, count);
+        currentPosition += count;
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current.length - currentPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.scanEnded = true;
+        this.inFlight.forEach(future -> future.cancel(true));
+        this.inFlight.clear();
+        this.executor.shutdownNow();
+
+        in.close();
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Tops up the blocks in flight, and moves to the next decoded block.
+     *
+     * @return false at the end of the data
+     */
+    private boolean advance() throws IOException {
+        while (!scanEnded && inFlight.size() < window) {
+            final byte[] block = this.nextBlock();
+            if (block == null) {
+                this.scanEnded = true;
+                break;
+            }
+
+            inFlight.add(executor.submit(() -> decode(block)));
+        }
+
+        if (inFlight.isEmpty()) {
+            executor.shutdown();
+            return false;
+        }
+
+        this.current = this.await(inFlight.poll());
+        this.currentPosition = 0;
+        return true;
+    }
+
+    /**
+     * Scans the compressed bits up to the end of the next block.
+     *
+     * @return the block, wrapped as a bzip2 stream of its own. null at the end of the data.
+     */
+    private byte[] nextBlock() throws IOException {
+        while (true) {
+            // Stream header, at the start and after every end of stream
+            if (expectHeader) {
+                if (!this.ensure(scanBit + HEADER_BITS)) {
+                    if (scanBit < (long) length * 8) {
+                        throw new IOException("Truncated bzip2 stream header");
+                    }
+
+                    return null;
+                }
+
+                final int offset = (int) (scanBit >>> 3);
+                if (buffer[offset] != 'B' || buffer[offset + 1] != 'Z' || buffer[offset + 2] != 'h'
+                        || buffer[offset + 3] < '1' || buffer[offset + 3] > '9') {
+                    throw new IOException("Invalid bzip2 stream header");
+                }
+
+                this.scanBit += HEADER_BITS;
+                this.bits = 0;
+                this.bitsCount = 0;
+                this.expectHeader = false;
+            }
+
+            if (!this.ensure(scanBit + 1)) {
+                throw new IOException("Truncated bzip2 stream");
+            }
+
+            final int bit = (buffer[(int) (scanBit >>> 3)] >>> (7 - (scanBit & 7))) & 1;
+            this.bits = (bits << 1) | bit;
+            this.bitsCount++;
+            this.scanBit++;
+
+            if (bitsCount < MAGIC_BITS) {
+                continue;
+            }
+
+            final long tail = bits & MAGIC_MASK;
+            if (tail == BLOCK_MAGIC) {
+                final long magicBit = scanBit - MAGIC_BITS;
+                final byte[] block = blockStartBit < 0 ? null : this.wrap(blockStartBit, magicBit);
+
+                this.blockStartBit = magicBit;
+                if (block != null) {
+                    return block;
+                }
+            } else if (tail == END_MAGIC) {
+                final long magicBit = scanBit - MAGIC_BITS;
+                final byte[] block = blockStartBit < 0 ? null : this.wrap(blockStartBit, magicBit);
+
+                // Skip the stream CRC and the padding to the byte boundary
+                this.blockStartBit = -1;
+                this.scanBit = ((scanBit + CRC_BITS + 7) >>> 3) << 3;
+                this.expectHeader = true;
+
+                if (block != null) {
+                    return block;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps the block bits, magic number included, in a single block bzip2 stream. The combined CRC
+     * of a single block stream is the CRC of its block.
+     */
+    private byte[] wrap(long startBit, long endBit) {
+        final int blockBits = (int) (endBit - startBit);
+        final int totalBits = HEADER_BITS + blockBits + MAGIC_BITS + CRC_BITS;
+        final byte[] stream = new byte[(totalBits + 7) >>> 3];
+
+        System.arraycopy(STREAM_HEADER, 0, stream, 0, STREAM_HEADER.length);
+
+        // Block bits, shifted to the byte boundary
+        final int source = (int) (startBit >>> 3);
+        final int shift = (int) (startBit & 7);
+        final int blockBytes = (blockBits + 7) >>> 3;
+        for (int i = 0; i < blockBytes; i++) {
+            final int high = buffer[source + i] & 0xFF;
+            final int low = source + i + 1 < length ? buffer[source + i + 1] & 0xFF : 0;
+            stream[STREAM_HEADER.length + i] = (byte) ((high << shift) | (low >>> (8 - shift)));
+        }
+
+        // Clear the bits past the block end
+        if ((blockBits & 7) != 0) {
+            stream[STREAM_HEADER.length + blockBytes - 1] &= (byte) (0xFF << (8 - (blockBits & 7)));
+        }
+
+        final long crc = this.readBits(startBit + MAGIC_BITS, CRC_BITS);
+
+        int position = HEADER_BITS + blockBits;
+        position = writeBits(stream, position, END_MAGIC, MAGIC_BITS);
+        writeBits(stream, position, crc, CRC_BITS);
+
+        return stream;
+    }
+
+    private long readBits(long startBit, int count) {
+        long value = 0;
+        for (long bit = startBit; bit < startBit + count; bit++) {
+            value = (value << 1) | ((buffer[(int) (bit >>> 3)] >>> (7 - (bit & 7))) & 1);
+        }
+
+        return value;
+    }
+
+    /**
+     * Makes sure the buffer holds the data up to the passed bit position, reading more of the input
+     * as needed. The data before the current block is discarded.
+     *
+     * @return false when the input ends before the passed position
+     */
+    private boolean ensure(long endBit) throws IOException {
+        while (endBit > (long) length * 8) {
+            // Discard the scanned data
+            final long keepBit = blockStartBit >= 0 ? blockStartBit : scanBit;
+            final int discard = (int) (keepBit >>> 3);
+            if (discard > 0) {
+                System.arraycopy(buffer, discard, buffer, 0, length - discard);
+                this.length -= discard;
+                this.scanBit -= (long) discard * 8;
+                this.blockStartBit = blockStartBit >= 0 ? blockStartBit - (long) discard * 8 : -1;
+                endBit -= (long) discard * 8;
+            }
+
+            if (length + READ_SIZE > buffer.length) {
+                final byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                this.buffer = grown;
+            }
+
+            final int read = in.read(buffer, length, READ_SIZE);
+            if (read < 0) {
+                return false;
+            }
+
+            this.length += read;
+        }
+
+        return true;
+    }
+
+    private byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding bzip2 blocks", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+
+            throw new IOException("Error decoding bzip2 block", cause);
+        }
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    private static byte[] decode(byte[] block) throws IOException {
+        try (InputStream is = new BZip2CompressorInputStream(new ByteArrayInputStream(block))) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static int writeBits(byte[] bytes, int position, long value, int count) {
+        for (int i = count - 1; i >= 0; i--, position++) {
+            if (((value >>> i) & 1) != 0) {
+                bytes[position >>> 3] |= (byte) (0x80 >>> (position & 7));
+            }
+        }
+
+        return position;
+    }
+
+}
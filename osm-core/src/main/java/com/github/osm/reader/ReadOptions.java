@@ -0,0 +1,108 @@
+package com.github.osm.reader;
+
+
+/**
+ * Immutable set of options controlling how {@link OsmXmlReader} reads its input. Instances are
+ * derived from {@link #defaults()} using the <code>with*</code> copy methods.
+ */
+public final class ReadOptions {
+
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024 * 1024;
+
+    private final int threads;
+    private final int chunkSize;
+    private final boolean ordered;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private ReadOptions(int threads, int chunkSize, boolean ordered) {
+        super();
+
+        // Sanity checks
+        if (threads < 1) {
+            throw new IllegalArgumentException("ReadOptions :: threads should be at least 1");
+        }
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("ReadOptions :: chunkSize should be positive");
+        }
+
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.ordered = ordered;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * No. of worker threads used to parse a file. A value of 1 means the file is read sequentially.
+     *
+     * @return worker threads count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Target size in bytes of the ranges a file is split in to when read in parallel. The actual
+     * ranges are aligned to the top level entity elements.
+     *
+     * @return chunk size in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * When true, the entities of a parallel read are delivered to the handler in file order, from a
+     * single thread. When false, the handler callbacks are invoked concurrently from the worker
+     * threads, and only the nodes, ways, relations order is kept.
+     *
+     * @return ordered flag
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+
+    // Copy Methods
+    // ------------------------------------------------------------------------
+
+    public ReadOptions withThreads(int threads) {
+        return new ReadOptions(threads, chunkSize, ordered);
+    }
+
+    public ReadOptions withChunkSize(int chunkSize) {
+        return new ReadOptions(threads, chunkSize, ordered);
+    }
+
+    public ReadOptions withOrdered(boolean ordered) {
+        return new ReadOptions(threads, chunkSize, ordered);
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "ReadOptions [threads=" + threads + ", chunkSize=" + chunkSize + ", ordered=" + ordered + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static ReadOptions defaults() {
+        return new ReadOptions(1, DEFAULT_CHUNK_SIZE, true);
+    }
+
+    public static ReadOptions parallel() {
+        return defaults().withThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+}
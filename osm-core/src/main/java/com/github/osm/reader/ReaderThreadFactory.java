@@ -0,0 +1,35 @@
+package com.github.osm.reader;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Creates the named daemon worker threads of the readers.
+ */
+final class ReaderThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    ReaderThreadFactory(String prefix) {
+        super();
+        this.prefix = prefix;
+    }
+
+
+    // ThreadFactory Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.github.osm.reader;
+
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.Attributes;
+
+
+/**
+ * SAX {@link Attributes} view over the attributes of the current element of a StAX
+ * {@link XMLStreamReader}, so that the StAX events can be fed to an OSM SAX handler.
+ */
+final class StaxAttributes implements Attributes {
+
+    private static final String TYPE_CDATA = "CDATA";
+
+    private final XMLStreamReader reader;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    StaxAttributes(XMLStreamReader reader) {
+        super();
+        this.reader = reader;
+    }
+
+
+    // Attributes Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int getLength() {
+        return reader.getAttributeCount();
+    }
+
+    @Override
+    public String getURI(int index) {
+        return this.inRange(index) ? reader.getAttributeNamespace(index) : null;
+    }
+
+    @Override
+    public String getLocalName(int index) {
+        return this.inRange(index) ? reader.getAttributeLocalName(index) : null;
+    }
+
+    @Override
+    public String getQName(int index) {
+        if (!this.inRange(index)) {
+            return null;
+        }
+
+        final String prefix = reader.getAttributePrefix(index);
+        final String localName = reader.getAttributeLocalName(index);
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    @Override
+    public String getType(int index) {
+        return this.inRange(index) ? TYPE_CDATA : null;
+    }
+
+    @Override
+    public String getValue(int index) {
+        return this.inRange(index) ? reader.getAttributeValue(index) : null;
+    }
+
+    @Override
+    public int getIndex(String uri, String localName) {
+        for (int i = 0; i < this.getLength(); i++) {
+            final String attrUri = reader.getAttributeNamespace(i);
+            if (localName.equals(reader.getAttributeLocalName(i))
+                    && (uri == null || uri.isEmpty() ? attrUri == null || attrUri.isEmpty() : uri.equals(attrUri))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int getIndex(String qName) {
+        for (int i = 0; i < this.getLength(); i++) {
+            if (qName.equals(this.getQName(i))) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public String getType(String uri, String localName) {
+        return this.getType(this.getIndex(uri, localName));
+    }
+
+    @Override
+    public String getType(String qName) {
+        return this.getType(this.getIndex(qName));
+    }
+
+    @Override
+    public String getValue(String uri, String localName) {
+        return this.getValue(this.getIndex(uri, localName));
+    }
+
+    @Override
+    public String getValue(String qName) {
+        return this.getValue(this.getIndex(qName));
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private boolean inRange(int index) {
+        return index >= 0 && index < this.getLength();
+    }
+
+}
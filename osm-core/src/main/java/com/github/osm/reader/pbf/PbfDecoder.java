@@ -0,0 +1,766 @@
+package com.github.osm.reader.pbf;
+
+import static com.github.osm.reader.pbf.ProtoInput.fieldNumber;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.github.osm.domain.Bound;
+import com.github.osm.domain.Member;
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.NodeRefs;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Tags;
+import com.github.osm.sax.ParseOptions;
+import com.github.osm.sax.TagDictionary;
+import com.github.osm.sax.TagFilter;
+
+
+/**
+ * Decoder of the <a href="https://wiki.openstreetmap.org/wiki/PBF_Format">OSM PBF</a> blobs and
+ * blocks in to OSM domain objects. Ids, coordinates and the delta coded fields are accumulated in
+ * primitives, straight from the packed fields.
+ */
+public final class PbfDecoder {
+
+    private PbfDecoder() {
+        // Util Class
+    }
+
+    public static final String BLOB_HEADER = "OSMHeader";
+    public static final String BLOB_DATA = "OSMData";
+
+    private static final Set<String> SUPPORTED_FEATURES =
+            new HashSet<>(Arrays.asList("OsmSchema-V0.6", "DenseNodes"));
+
+    private static final String TAG_CREATED_BY = "created_by";
+
+    private static final double NANO_DEGREES = 1e9;
+
+
+    // Blob
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads the type and the data size of the following blob from a <code>BlobHeader</code>.
+     */
+    public static BlobHeader blobHeader(byte[] data) throws IOException {
+        String type = null;
+        int dataSize = 0;
+
+        final ProtoInput input = new ProtoInput(data);
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    type = input.readString();
+                    break;
+                case 3:
+                    dataSize = input.readInt32();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        return new BlobHeader(type, dataSize);
+    }
+
+    /**
+     * Decompresses the contents of a <code>Blob</code>. Only raw and zlib blobs are supported.
+     */
+    public static byte[] blob(byte[] data) throws IOException {
+        byte[] raw = null;
+        byte[] zlib = null;
+        int rawSize = -1;
+
+        final ProtoInput input = new ProtoInput(data);
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    raw = input.readBytes();
+                    break;
+                case 2:
+                    rawSize = input.readInt32();
+                    break;
+                case 3:
+                    zlib = input.readBytes();
+                    break;
+                case 4:
+                case 5:
+                case 6:
+                case 7:
+                    throw new IOException("Unsupported PBF blob compression, field : " + fieldNumber(key));
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        if (raw != null) {
+            return raw;
+        }
+
+        if (zlib == null || rawSize < 0) {
+            throw new IOException("PBF blob has no data");
+        }
+
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(zlib);
+
+            final byte[] result = new byte[rawSize];
+            int count = 0;
+            while (count < rawSize && !inflater.finished()) {
+                final int inflated = inflater.inflate(result, count, rawSize - count);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                count += inflated;
+            }
+
+            if (count != rawSize) {
+                throw new IOException("PBF blob inflated to " + count + " bytes, expected " + rawSize);
+            }
+
+            return result;
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt zlib data in PBF blob", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+
+    // Header Block
+    // ------------------------------------------------------------------------
+
+    /**
+     * Decodes a <code>HeaderBlock</code>, checking that all of its required features are supported.
+     *
+     * @return the bounding box of the file, null when not present.
+     */
+    public static Bound headerBlock(byte[] data) throws IOException {
+        Bound bound = null;
+        String source = null;
+
+        final ProtoInput input = new ProtoInput(data);
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    bound = headerBBox(input.readMessage());
+                    break;
+                case 4:
+                    final String feature = input.readString();
+                    if (!SUPPORTED_FEATURES.contains(feature)) {
+                        throw new IOException("Unsupported PBF required feature : " + feature);
+                    }
+                    break;
+                case 17:
+                    source = input.readString();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        if (bound != null && source != null) {
+            bound = OSM.bound(bound.getRight(), bound.getLeft(), bound.getTop(), bound.getBottom(), source);
+        }
+
+        return bound;
+    }
+
+    private static Bound headerBBox(ProtoInput input) throws IOException {
+        long left = 0, right = 0, top = 0, bottom = 0;
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    left = input.readSInt64();
+                    break;
+                case 2:
+                    right = input.readSInt64();
+                    break;
+                case 3:
+                    top = input.readSInt64();
+                    break;
+                case 4:
+                    bottom = input.readSInt64();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        return OSM.bound(right / NANO_DEGREES, left / NANO_DEGREES, top / NANO_DEGREES, bottom / NANO_DEGREES,
+                null);
+    }
+
+
+    // Primitive Block
+    // ------------------------------------------------------------------------
+
+    /**
+     * Decodes a <code>PrimitiveBlock</code> in to OSM entities, in the order they are stored.
+     */
+    public static List<OsmEntity> primitiveBlock(byte[] data) throws IOException {
+        return primitiveBlock(data, ParseOptions.defaults());
+    }
+
+    /**
+     * Decodes a <code>PrimitiveBlock</code> in to OSM entities, in the order they are stored.
+     *
+     * @param options the options of the handler the entities are meant for
+     */
+    public static List<OsmEntity> primitiveBlock(byte[] data, ParseOptions options) throws IOException {
+        final Block block = new Block(options);
+        final List<ProtoInput> groups = new ArrayList<>();
+
+        // Block level fields may come after the groups
+        final ProtoInput input = new ProtoInput(data);
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    block.strings(stringTable(input.readMessage()));
+                    break;
+                case 2:
+                    groups.add(input.readMessage());
+                    break;
+                case 17:
+                    block.granularity = input.readInt32();
+                    break;
+                case 18:
+                    block.dateGranularity = input.readInt32();
+                    break;
+                case 19:
+                    block.latOffset = input.readVarint();
+                    break;
+                case 20:
+                    block.lonOffset = input.readVarint();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        final List<OsmEntity> entities = new ArrayList<>();
+        for (ProtoInput group : groups) {
+            primitiveGroup(block, group, entities);
+        }
+
+        return entities;
+    }
+
+    private static String[] stringTable(ProtoInput input) throws IOException {
+        final List<String> strings = new ArrayList<>();
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            if (fieldNumber(key) == 1) {
+                strings.add(input.readString());
+            } else {
+                input.skip(key);
+            }
+        }
+
+        return strings.toArray(new String[0]);
+    }
+
+    private static void primitiveGroup(Block block, ProtoInput input, List<OsmEntity> entities) throws IOException {
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    add(entities, node(block, input.readMessage()));
+                    break;
+                case 2:
+                    denseNodes(block, input.readMessage(), entities);
+                    break;
+                case 3:
+                    add(entities, way(block, input.readMessage()));
+                    break;
+                case 4:
+                    add(entities, relation(block, input.readMessage()));
+                    break;
+                default:
+                    // changesets are not handled
+                    input.skip(key);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Adds the passed entity, unless it was filtered out.
+     */
+    private static void add(List<OsmEntity> entities, OsmEntity entity) {
+        if (entity != null) {
+            entities.add(entity);
+        }
+    }
+
+
+    // Entities
+
+    private static OsmEntity node(Block block, ProtoInput input) throws IOException {
+        long id = 0, lat = 0, lon = 0;
+        ProtoInput keys = null, values = null;
+        MetaInfo metaInfo = null;
+
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    id = input.readSInt64();
+                    break;
+                case 2:
+                    keys = input.readMessage();
+                    break;
+                case 3:
+                    values = input.readMessage();
+                    break;
+                case 4:
+                    metaInfo = info(block, input.readMessage());
+                    break;
+                case 8:
+                    lat = input.readSInt64();
+                    break;
+                case 9:
+                    lon = input.readSInt64();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        final double latitude = block.latitude(lat);
+        final double longitude = block.longitude(lon);
+        if (!block.contains(latitude, longitude)) {
+            return null;
+        }
+
+        final Tags.Builder tags = tags(block, keys, values);
+        if (!block.matches(Type.node, tags)) {
+            return null;
+        }
+
+        return OSM.node(id, metaInfo(block, metaInfo), tags.build(), latitude, longitude);
+    }
+
+    private static void denseNodes(Block block, ProtoInput input, List<OsmEntity> entities) throws IOException {
+        ProtoInput ids = null, lats = null, lons = null, keysValues = null, denseInfo = null;
+
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    ids = input.readMessage();
+                    break;
+                case 5:
+                    denseInfo = input.readMessage();
+                    break;
+                case 8:
+                    lats = input.readMessage();
+                    break;
+                case 9:
+                    lons = input.readMessage();
+                    break;
+                case 10:
+                    keysValues = input.readMessage();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        if (ids == null || lats == null || lons == null) {
+            return;
+        }
+
+        // DenseInfo packed fields
+        ProtoInput versions = null, timestamps = null, changesets = null, uids = null, userSids = null;
+        while (denseInfo != null && denseInfo.hasRemaining()) {
+            final int key = denseInfo.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    versions = denseInfo.readMessage();
+                    break;
+                case 2:
+                    timestamps = denseInfo.readMessage();
+                    break;
+                case 3:
+                    changesets = denseInfo.readMessage();
+                    break;
+                case 4:
+                    uids = denseInfo.readMessage();
+                    break;
+                case 5:
+                    userSids = denseInfo.readMessage();
+                    break;
+                default:
+                    denseInfo.skip(key);
+                    break;
+            }
+        }
+
+        // Delta decoding, all the packed fields are walked in parallel
+        long id = 0, lat = 0, lon = 0, timestamp = 0, changeset = 0;
+        int uid = 0, userSid = 0;
+
+        while (ids.hasRemaining()) {
+            id += ids.readSInt64();
+            lat += lats.readSInt64();
+            lon += lons.readSInt64();
+
+            int version = 0;
+            if (versions != null && versions.hasRemaining()) {
+                version = versions.readInt32();
+            }
+            if (timestamps != null && timestamps.hasRemaining()) {
+                timestamp += timestamps.readSInt64();
+            }
+            if (changesets != null && changesets.hasRemaining()) {
+                changeset += changesets.readSInt64();
+            }
+            if (uids != null && uids.hasRemaining()) {
+                uid += uids.readSInt32();
+            }
+            if (userSids != null && userSids.hasRemaining()) {
+                userSid += userSids.readSInt32();
+            }
+
+            // Nodes out of the bound are dropped before anything is built, their tags skipped
+            final double latitude = block.latitude(lat);
+            final double longitude = block.longitude(lon);
+            final boolean keep = block.contains(latitude, longitude);
+
+            // Tags, key/value pairs terminated with a 0
+            final Tags.Builder tags = block.tags.clear();
+            while (keysValues != null && keysValues.hasRemaining()) {
+                final int keyIndex = keysValues.readInt32();
+                if (keyIndex == 0) {
+                    break;
+                }
+
+                final int valueIndex = keysValues.readInt32();
+                if (keep) {
+                    putTag(tags, block.tagString(keyIndex), block.tagString(valueIndex));
+                }
+            }
+
+            if (!keep || !block.matches(Type.node, tags)) {
+                continue;
+            }
+
+            final MetaInfo metaInfo = denseInfo == null || !block.options.isMetaInfo() ? metaInfo(block, null)
+                    : OSM.metaInfo(version, (int) changeset, block.timestamp(timestamp), block.strings[userSid], uid);
+
+            entities.add(OSM.node(id, metaInfo, tags.build(), latitude, longitude));
+        }
+    }
+
+    private static OsmEntity way(Block block, ProtoInput input) throws IOException {
+        long id = 0;
+        ProtoInput keys = null, values = null, refs = null;
+        MetaInfo metaInfo = null;
+
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    id = input.readVarint();
+                    break;
+                case 2:
+                    keys = input.readMessage();
+                    break;
+                case 3:
+                    values = input.readMessage();
+                    break;
+                case 4:
+                    metaInfo = info(block, input.readMessage());
+                    break;
+                case 8:
+                    refs = input.readMessage();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        int count = 0;
+        long ref = 0;
+        while (refs != null && refs.hasRemaining()) {
+            ref += refs.readSInt64();
+            count = block.addRef(count, ref);
+        }
+
+        final Tags.Builder tags = tags(block, keys, values);
+        if (!block.matches(Type.way, tags)) {
+            return null;
+        }
+
+        return OSM.wayWithRefs(id, metaInfo(block, metaInfo), tags.build(), block.nodeRefs(count));
+    }
+
+    private static OsmEntity relation(Block block, ProtoInput input) throws IOException {
+        long id = 0;
+        ProtoInput keys = null, values = null, roles = null, memberIds = null, types = null;
+        MetaInfo metaInfo = null;
+
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    id = input.readVarint();
+                    break;
+                case 2:
+                    keys = input.readMessage();
+                    break;
+                case 3:
+                    values = input.readMessage();
+                    break;
+                case 4:
+                    metaInfo = info(block, input.readMessage());
+                    break;
+                case 8:
+                    roles = input.readMessage();
+                    break;
+                case 9:
+                    memberIds = input.readMessage();
+                    break;
+                case 10:
+                    types = input.readMessage();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        final List<Member> members = new ArrayList<>();
+        long memberId = 0;
+        while (memberIds != null && memberIds.hasRemaining()) {
+            memberId += memberIds.readSInt64();
+            final String role = roles == null ? "" : block.strings[roles.readInt32()];
+            final Type type = memberType(types == null ? 0 : types.readInt32());
+
+            members.add(OSM.member(type, memberId, role));
+        }
+
+        final Tags.Builder tags = tags(block, keys, values);
+        if (!block.matches(Type.relation, tags)) {
+            return null;
+        }
+
+        return OSM.relation(id, metaInfo(block, metaInfo), tags.build(), members);
+    }
+
+
+    // Common
+
+    private static MetaInfo info(Block block, ProtoInput input) throws IOException {
+        int version = 0, uid = 0, userSid = 0;
+        long timestamp = 0, changeset = 0;
+
+        while (input.hasRemaining()) {
+            final int key = input.readKey();
+            switch (fieldNumber(key)) {
+                case 1:
+                    version = input.readInt32();
+                    break;
+                case 2:
+                    timestamp = input.readVarint();
+                    break;
+                case 3:
+                    changeset = input.readVarint();
+                    break;
+                case 4:
+                    uid = input.readInt32();
+                    break;
+                case 5:
+                    userSid = input.readInt32();
+                    break;
+                default:
+                    input.skip(key);
+                    break;
+            }
+        }
+
+        return OSM.metaInfo(version, (int) changeset, block.timestamp(timestamp), block.strings[userSid], uid);
+    }
+
+    private static MetaInfo metaInfo(Block block, MetaInfo metaInfo) {
+        if (!block.options.isMetaInfo()) {
+            return null;
+        }
+
+        // Same as an XML element without the meta attributes
+        return metaInfo != null ? metaInfo : OSM.metaInfo(0, 0, null, null, 0);
+    }
+
+    /**
+     * @return the reused builder of the block, with the passed tags
+     */
+    private static Tags.Builder tags(Block block, ProtoInput keys, ProtoInput values) throws IOException {
+        final Tags.Builder tags = block.tags.clear();
+        while (keys != null && values != null && keys.hasRemaining()) {
+            putTag(tags, block.tagString(keys.readInt32()), block.tagString(values.readInt32()));
+        }
+
+        return tags;
+    }
+
+    private static void putTag(Tags.Builder tags, String key, String value) {
+        // Same as the XML handler
+        if (!key.equalsIgnoreCase(TAG_CREATED_BY)) {
+            tags.put(key, value);
+        }
+    }
+
+    private static Type memberType(int type) throws IOException {
+        switch (type) {
+            case 0:
+                return Type.node;
+            case 1:
+                return Type.way;
+            case 2:
+                return Type.relation;
+            default:
+                throw new IOException("Unknown PBF relation member type : " + type);
+        }
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Block level decoding context.
+     */
+    private static final class Block {
+
+        private final ParseOptions options;
+
+        private String[] strings = new String[0];
+        private boolean[] interned = new boolean[0];
+
+        private final Tags.Builder tags = Tags.builder();
+        private long[] refs = new long[256];
+
+        private int granularity = 100;
+        private int dateGranularity = 1000;
+        private long latOffset = 0;
+        private long lonOffset = 0;
+
+        private Block(ParseOptions options) {
+            this.options = options;
+        }
+
+        /**
+         * @return true when the passed point is within the bound of the options, if any
+         */
+        private boolean contains(double latitude, double longitude) {
+            final Bound bound = options.getBound();
+            return bound == null || bound.contains(latitude, longitude);
+        }
+
+        /**
+         * @return true when the passed tags pass the tag filter of the options, if any
+         */
+        private boolean matches(Type type, Tags.Builder tags) {
+            final TagFilter tagFilter = options.getTagFilter();
+            return tagFilter == null || tagFilter.matches(type, tags);
+        }
+
+        private void strings(String[] strings) {
+            this.strings = strings;
+            this.interned = new boolean[strings.length];
+        }
+
+        /**
+         * @return the string at the passed index, canonicalised with the tag dictionary, if any, on
+         *         its first use as a tag
+         */
+        private String tagString(int index) {
+            final TagDictionary dictionary = options.getTagDictionary();
+            if (dictionary != null && !interned[index]) {
+                strings[index] = dictionary.intern(strings[index]);
+                interned[index] = true;
+            }
+
+            return strings[index];
+        }
+
+        private int addRef(int count, long ref) {
+            if (count == refs.length) {
+                this.refs = Arrays.copyOf(refs, refs.length * 2);
+            }
+
+            refs[count] = ref;
+            return count + 1;
+        }
+
+        private NodeRefs nodeRefs(int count) {
+            if (options.isCompressNodeRefs()) {
+                return NodeRefs.compress(refs, count);
+            }
+
+            return NodeRefs.of(Arrays.copyOf(refs, count));
+        }
+
+        private double latitude(long value) {
+            return (latOffset + (long) granularity * value) / NANO_DEGREES;
+        }
+
+        private double longitude(long value) {
+            return (lonOffset + (long) granularity * value) / NANO_DEGREES;
+        }
+
+        private String timestamp(long value) {
+            return value == 0 ? null : Instant.ofEpochMilli(value * dateGranularity).toString();
+        }
+    }
+
+    /**
+     * Type and size of a blob, as read from its <code>BlobHeader</code>.
+     */
+    public static final class BlobHeader {
+
+        private final String type;
+        private final int dataSize;
+
+        private BlobHeader(String type, int dataSize) {
+            this.type = type;
+            this.dataSize = dataSize;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getDataSize() {
+            return dataSize;
+        }
+    }
+
+}
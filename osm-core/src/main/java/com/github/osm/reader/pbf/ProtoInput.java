@@ -0,0 +1,179 @@
+package com.github.osm.reader.pbf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+
+
+/**
+ * Minimal reader of the protocol buffers wire format over a byte array. Only what is needed to
+ * decode the OSM PBF messages is supported, and the scalar values are decoded straight in to
+ * primitives.
+ */
+public final class ProtoInput {
+
+    public static final int WIRE_VARINT = 0;
+    public static final int WIRE_FIXED64 = 1;
+    public static final int WIRE_LENGTH_DELIMITED = 2;
+    public static final int WIRE_FIXED32 = 5;
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public ProtoInput(byte[] buffer, int offset, int length) {
+        super();
+
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public ProtoInput(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+
+    // Read Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads the key of the next field.
+     * 
+     * @return the field number, use {@link #wireType(int)} on the returned key for the wire type.
+     */
+    public int readKey() throws IOException {
+        return (int) this.readVarint();
+    }
+
+    public long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new IOException("Truncated protobuf varint");
+            }
+
+            final byte b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+
+        throw new IOException("Malformed protobuf varint");
+    }
+
+    public int readInt32() throws IOException {
+        return (int) this.readVarint();
+    }
+
+    public long readSInt64() throws IOException {
+        final long value = this.readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public int readSInt32() throws IOException {
+        return (int) this.readSInt64();
+    }
+
+    public boolean readBool() throws IOException {
+        return this.readVarint() != 0;
+    }
+
+    /**
+     * Reads a length delimited field as a view over the same buffer, used for both embedded messages
+     * and packed repeated fields.
+     */
+    public ProtoInput readMessage() throws IOException {
+        final int length = this.readLength();
+        final ProtoInput message = new ProtoInput(buffer, position, length);
+        position += length;
+
+        return message;
+    }
+
+    public byte[] readBytes() throws IOException {
+        final int length = this.readLength();
+        final byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+
+        return bytes;
+    }
+
+    public String readString() throws IOException {
+        final int length = this.readLength();
+        final String value = new String(buffer, position, length, UTF_8);
+        position += length;
+
+        return value;
+    }
+
+    /**
+     * Skips the value of a field with the passed key.
+     */
+    public void skip(int key) throws IOException {
+        switch (wireType(key)) {
+            case WIRE_VARINT:
+                this.readVarint();
+                break;
+            case WIRE_FIXED64:
+                this.advance(8);
+                break;
+            case WIRE_LENGTH_DELIMITED:
+                this.advance(this.readLength());
+                break;
+            case WIRE_FIXED32:
+                this.advance(4);
+                break;
+            default:
+                throw new IOException("Unsupported protobuf wire type : " + wireType(key));
+        }
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private int readLength() throws IOException {
+        final int length = (int) this.readVarint();
+        if (length < 0 || position + length > limit) {
+            throw new IOException("Truncated protobuf field of length : " + length);
+        }
+
+        return length;
+    }
+
+    private void advance(int count) throws IOException {
+        if (position + count > limit) {
+            throw new IOException("Truncated protobuf field");
+        }
+
+        position += count;
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    public static int fieldNumber(int key) {
+        return key >>> 3;
+    }
+
+    public static int wireType(int key) {
+        return key & 0x07;
+    }
+
+}
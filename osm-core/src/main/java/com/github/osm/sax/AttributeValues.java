@@ -0,0 +1,92 @@
+package com.github.osm.sax;
+
+import com.github.osm.domain.OSM;
+
+/**
+ * Decoding of the numeric attribute values that the JDK can only parse with allocations.
+ */
+final class AttributeValues {
+
+    /**
+     * Coordinates are stored in the OSM database with 7 decimal places.
+     */
+    static final int COORDINATE_DECIMALS = 7;
+
+    private static final long NOT_FIXED = Long.MIN_VALUE;
+
+    /**
+     * Keeps the scaled values well within the 53 bits a double holds exactly.
+     */
+    private static final int MAX_INTEGER_DIGITS = 8;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L};
+
+
+    private AttributeValues() {
+        // Utility class
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Parses the decimal degrees of a coordinate. Plain decimals of up to 7 decimal places, which is
+     * what the OSM data holds, are decoded through fixed point without allocating. The division of
+     * the two exact integers is correctly rounded, giving the same double as
+     * {@link Double#parseDouble(String)}. Anything else falls back to it.
+     *
+     * @param value the attribute value
+     */
+    static double parseCoordinate(final String value) {
+        final long fixed = parseFixed(value);
+        return fixed == NOT_FIXED ? Double.parseDouble(value) : fixed / OSM.COORDINATE_SCALE;
+    }
+
+    /**
+     * @return the value scaled by 10^7, or {@link #NOT_FIXED} when it is not a plain decimal of up to
+     *         7 decimal places
+     */
+    private static long parseFixed(final String value) {
+        final int length = value.length();
+
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+
+        long fixed = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+
+            if (c < '0' || c > '9') {
+                return NOT_FIXED;
+            }
+
+            fixed = fixed * 10 + (c - '0');
+            digits++;
+
+            if (decimals >= 0 && ++decimals > COORDINATE_DECIMALS) {
+                return NOT_FIXED;
+            }
+        }
+
+        // Negative zero is left to the fallback
+        decimals = Math.max(decimals, 0);
+        if (digits == 0 || digits - decimals > MAX_INTEGER_DIGITS || (negative && fixed == 0)) {
+            return NOT_FIXED;
+        }
+
+        fixed *= POWERS_OF_TEN[COORDINATE_DECIMALS - decimals];
+        return negative ? -fixed : fixed;
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.github.osm.sax;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import com.github.osm.domain.Bound;
+import com.github.osm.domain.Member;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+
+
+/**
+ * Keeps the entities of a sub area of the input: the nodes within a {@link Bound}, the ways with
+ * at least one of the kept nodes, and the relations with at least one kept member. The ids of the
+ * kept entities are remembered, so the nodes should come before the ways, and the ways before the
+ * relations, as in sorted OSM files. Members which come later in the input are not known yet.
+ * <p>
+ * A filter is created by the {@link OsmSaxHandler} for the {@link ParseOptions#getBound()} of its
+ * options, and lives as long as the options; set the options again to start over. The filter is
+ * thread safe.
+ */
+public final class BoundFilter {
+
+    private final Bound bound;
+
+    private final IdSet nodeIds = new IdSet();
+    private final IdSet wayIds = new IdSet();
+    private final IdSet relationIds = new IdSet();
+
+    private long droppedCount = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private BoundFilter(Bound bound) {
+        super();
+
+        this.bound = bound;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public Bound getBound() {
+        return bound;
+    }
+
+    /**
+     * @return no. of entities dropped so far
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return no. of nodes kept so far
+     */
+    public synchronized int getNodesCount() {
+        return nodeIds.size();
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true when the passed point is within the bound. Does not keep anything.
+     */
+    public boolean contains(double latitude, double longitude) {
+        return bound.contains(latitude, longitude);
+    }
+
+    /**
+     * @return true, and keeps the node, when it is within the bound
+     */
+    public synchronized boolean keepNode(long osmId, double latitude, double longitude) {
+        if (!bound.contains(latitude, longitude)) {
+            return this.drop();
+        }
+
+        nodeIds.add(osmId);
+        return true;
+    }
+
+    /**
+     * @return true, and keeps the way, when one of the passed node refs is kept
+     */
+    public synchronized boolean keepWay(long osmId, long[] refs, int refCount) {
+        for (int i = 0; i < refCount; i++) {
+            if (nodeIds.contains(refs[i])) {
+                wayIds.add(osmId);
+                return true;
+            }
+        }
+
+        return this.drop();
+    }
+
+    /**
+     * @return true, and keeps the relation, when one of its members is kept
+     */
+    public synchronized boolean keepRelation(long osmId, List<Member> members) {
+        for (Member member : members) {
+            if (this.isKept(member)) {
+                relationIds.add(osmId);
+                return true;
+            }
+        }
+
+        return this.drop();
+    }
+
+    /**
+     * @return true, and keeps the entity, when it passes the filter
+     */
+    public synchronized boolean keep(OsmEntity entity) {
+        if (entity instanceof Node) {
+            final Node node = (Node) entity;
+            return this.keepNode(node.getOsmId(), node.getLatitude(), node.getLongitude());
+        }
+
+        if (entity instanceof Way) {
+            final Way way = (Way) entity;
+            for (PrimitiveIterator.OfLong refs = way.nodeRefs().iterator(); refs.hasNext();) {
+                if (nodeIds.contains(refs.nextLong())) {
+                    wayIds.add(way.getOsmId());
+                    return true;
+                }
+            }
+
+            return this.drop();
+        }
+
+        if (entity instanceof Relation) {
+            final Relation relation = (Relation) entity;
+            return this.keepRelation(relation.getOsmId(), relation.getMembers());
+        }
+
+        return true;
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private boolean isKept(Member member) {
+        switch (member.getType()) {
+            case node:
+                return nodeIds.contains(member.getId());
+
+            case way:
+                return wayIds.contains(member.getId());
+
+            case relation:
+                return relationIds.contains(member.getId());
+
+            default:
+                return false;
+        }
+    }
+
+    private boolean drop() {
+        this.droppedCount++;
+        return false;
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static BoundFilter of(Bound bound) {
+        // Sanity checks
+        if (bound == null) {
+            throw new IllegalArgumentException("of :: bound should not be null");
+        }
+
+        return new BoundFilter(bound);
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.github.osm.sax;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
+import com.github.osm.domain.Way;
+import com.github.osm.store.ColumnarStore;
+
+
+/**
+ * An In-memory SAX parser event handler for OSM XML, which fills a {@link ColumnarStore} straight
+ * from the parsed values, without building the entity objects. A far more compact alternative to
+ * the {@link SimpleOsmSaxHandler}, for holding large extracts in memory.
+ * <p>
+ * Entities delivered as objects, as with the parallel and PBF readers, are appended as well. The
+ * handler is not thread safe, so parallel reads should be ordered.
+ */
+public final class ColumnarOsmSaxHandler extends OsmSaxHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarOsmSaxHandler.class);
+
+    private ColumnarStore store;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    /**
+     * The store is created on the first entity, keeping the meta info when the {@link ParseOptions}
+     * do.
+     */
+    public ColumnarOsmSaxHandler() {
+        super();
+    }
+
+    public ColumnarOsmSaxHandler(ColumnarStore store) {
+        super();
+
+        // Sanity checks
+        if (store == null) {
+            throw new IllegalArgumentException("ColumnarOsmSaxHandler :: ColumnarStore should not be null");
+        }
+
+        this.store = store;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public ColumnarStore getStore() {
+        return this.store();
+    }
+
+
+    // Parsed entity hooks
+    // ------------------------------------------------------------------------
+
+    @Override
+    protected void nodeParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, double latitude, double longitude) {
+        this.store().addNode(osmId, metaInfo, tags, latitude, longitude);
+    }
+
+    @Override
+    protected void wayParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, long[] nodeIds, int nodeIdCount) {
+        this.store().addWay(osmId, metaInfo, tags, nodeIds, nodeIdCount);
+    }
+
+    @Override
+    protected void relationParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, List<Member> members) {
+        this.store().addRelation(osmId, metaInfo, tags, members);
+    }
+
+
+    // OsmSaxHandler methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void handleNode(Node node) {
+        this.store().addNode(node);
+    }
+
+    @Override
+    public void handleWay(Way way) {
+        this.store().addWay(way);
+    }
+
+    @Override
+    public void handleRelation(Relation relation) {
+        this.store().addRelation(relation);
+    }
+
+    @Override
+    public void documentCompleted() {
+        final ColumnarStore completed = this.store();
+        completed.trim();
+
+        // OUTPUT
+        LOGGER.info("No of Nodes Read: {}", completed.nodeCount());
+        LOGGER.info("No of Ways Read: {}", completed.wayCount());
+        LOGGER.info("No of Relations Read: {}", completed.relationCount());
+        LOGGER.info("Estimated store size: {} bytes", completed.estimatedBytes());
+    }
+
+
+    // Counts
+
+    @Override
+    public long getNodesCount() {
+        return this.store().nodeCount();
+    }
+
+    @Override
+    public long getWaysCount() {
+        return this.store().wayCount();
+    }
+
+    @Override
+    public long getRelationsCount() {
+        return this.store().relationCount();
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private ColumnarStore store() {
+        if (store == null) {
+            this.store = ColumnarStore.create(this.getParseOptions().isMetaInfo());
+        }
+
+        return store;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.github.osm.sax;
+
+import java.util.Arrays;
+
+
+/**
+ * Growable set of entity ids, in a primitive array. Ids added in ascending order, as in sorted
+ * OSM files, are looked up by binary search straight away; otherwise the ids are sorted on the
+ * first lookup after an add.
+ */
+final class IdSet {
+
+    private long[] ids = new long[1024];
+    private int size = 0;
+    private boolean sorted = true;
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    void add(long id) {
+        if (size > 0 && sorted) {
+            if (id == ids[size - 1]) {
+                return;
+            }
+
+            this.sorted = id > ids[size - 1];
+        }
+
+        if (size == ids.length) {
+            this.ids = Arrays.copyOf(ids, size + (size >> 1));
+        }
+
+        ids[size++] = id;
+    }
+
+    boolean contains(long id) {
+        if (!sorted) {
+            this.sort();
+        }
+
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    int size() {
+        if (!sorted) {
+            this.sort();
+        }
+
+        return size;
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void sort() {
+        Arrays.sort(ids, 0, size);
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || ids[unique - 1] != ids[i]) {
+                ids[unique++] = ids[i];
+            }
+        }
+
+        this.size = unique;
+        this.sorted = true;
+    }
+
+}
@@ -1,9 +1,8 @@
 package com.github.osm.sax;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,11 +10,14 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import com.github.osm.domain.Bound;
 import com.github.osm.domain.MetaInfo;
 import com.github.osm.domain.Node;
+import com.github.osm.domain.NodeRefs;
 import com.github.osm.domain.OSM;
 import com.github.osm.domain.OsmEntity.Type;
 import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
 import com.github.osm.domain.Member;
 import com.github.osm.domain.Way;
 
@@ -36,6 +38,18 @@ public abstract class OsmSaxHandler extends DefaultHandler {
 
     public static final String META_ATTR_VISIBLE = "visible";
 
+    public static final String OSM_ELEMENT = "osm";
+
+    public static final String BOUNDS_ELEMENT = "bounds";
+    public static final String BOUNDS_ATTR_MINLAT = "minlat";
+    public static final String BOUNDS_ATTR_MINLON = "minlon";
+    public static final String BOUNDS_ATTR_MAXLAT = "maxlat";
+    public static final String BOUNDS_ATTR_MAXLON = "maxlon";
+    public static final String BOUNDS_ATTR_ORIGIN = "origin";
+
+    public static final String BOUND_ELEMENT = "bound";
+    public static final String BOUND_ATTR_BOX = "box";
+
     public static final String TAG_ELEMENT = "tag";
     public static final String TAG_ATTR_KEY = "k";
     public static final String TAG_ATTR_VALUE = "v";
@@ -56,16 +70,28 @@ public abstract class OsmSaxHandler extends DefaultHandler {
     public static final String MEMBER_ATTR_REF = "ref";
     public static final String MEMBER_ATTR_ROLE = "role";
 
+    private static final int INITIAL_NODE_IDS = 64;
+
+
+    private ParseOptions parseOptions = ParseOptions.defaults();
+    private BoundFilter boundFilter;
 
     // Entity temp variables
     private long osmId;
-    private MetaInfo metaInfo;
-    private Map<String, String> tagsMap = new HashMap<>();
+
+    private int version;
+    private int changesetId;
+    private String timestamp;
+    private String userName;
+    private int userId;
+
+    private final Tags.Builder tags = Tags.builder();
 
     private double latitude;
     private double longitude;
 
-    private List<Long> nodeIds = new ArrayList<>();
+    private long[] nodeIds = new long[INITIAL_NODE_IDS];
+    private int nodeIdsCount = 0;
 
     private List<Member> members = new ArrayList<>();
 
@@ -78,6 +104,31 @@ public abstract class OsmSaxHandler extends DefaultHandler {
     }
 
 
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public ParseOptions getParseOptions() {
+        return parseOptions;
+    }
+
+    public void setParseOptions(ParseOptions parseOptions) {
+        // Sanity checks
+        if (parseOptions == null) {
+            throw new IllegalArgumentException("setParseOptions :: ParseOptions should not be null");
+        }
+
+        this.parseOptions = parseOptions;
+        this.boundFilter = parseOptions.getBound() == null ? null : BoundFilter.of(parseOptions.getBound());
+    }
+
+    /**
+     * @return filter of the {@link ParseOptions#getBound()}, null when nothing is filtered
+     */
+    public BoundFilter getBoundFilter() {
+        return boundFilter;
+    }
+
+
     // SAX DefaultHandler methods
     // ------------------------------------------------------------------------
 
@@ -102,62 +153,36 @@ public abstract class OsmSaxHandler extends DefaultHandler {
     public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
         super.startElement(uri, localName, qName, attrs);
 
-        // read metaInfo
-        if (attrs != null && attrs.getIndex(ENTITY_ATTR_ID) >= 0) {
-
-            this.osmId = Long.valueOf(attrs.getValue(ENTITY_ATTR_ID));
-
-            String inVersion = attrs.getValue(ENTITY_ATTR_VERSION);
-            final int version = Integer.valueOf(inVersion == null ? "0" : inVersion);
-
-            String inChangesetId = attrs.getValue(ENTITY_ATTR_CHANGESET);
-            final int changesetId = Integer.valueOf(inChangesetId == null ? "0" : inChangesetId);
-
-            final String timestamp = attrs.getValue(ENTITY_ATTR_TIMESTAMP);
-            final String userName = attrs.getValue(ENTITY_ATTR_USER);
-
-            String inUserId = attrs.getValue(ENTITY_ATTR_USERID);
-            final int userId = Integer.valueOf(inUserId == null ? "0" : inUserId);
-
-            this.metaInfo = OSM.metaInfo(version, changesetId, timestamp, userName, userId);
-        }
-
         switch (qName) {
             case NODE_ELEMENT:
-                this.latitude = Double.valueOf(attrs.getValue(NODE_ATTR_LAT));
-                this.longitude = Double.valueOf(attrs.getValue(NODE_ATTR_LONG));
-                break;
-
             case WAY_ELEMENT:
             case RELATION_ELEMENT:
-                // Nothing to do here
+                this.readEntityAttributes(attrs);
                 break;
 
             case TAG_ELEMENT:
                 final String key = attrs.getValue(TAG_ATTR_KEY);
                 if (!key.equalsIgnoreCase("created_by"))
-                    this.tagsMap.put(key, attrs.getValue(TAG_ATTR_VALUE));
+                    this.tags.put(this.intern(key), this.intern(attrs.getValue(TAG_ATTR_VALUE)));
                 break;
 
             case WAY_ND_ELEMENT:
-                final long refNodeId = Long.valueOf(attrs.getValue(WAY_ND_ATTR_REF));
-                this.nodeIds.add(refNodeId);
+                final long refNodeId = Long.parseLong(attrs.getValue(WAY_ND_ATTR_REF));
+                this.addNodeId(refNodeId);
                 break;
 
             case MEMBER_ELEMENT:
-                final long refId = Long.valueOf(attrs.getValue(MEMBER_ATTR_REF));
-                final Type type = Type.valueOf(attrs.getValue(MEMBER_ATTR_TYPE).toLowerCase());
-                final String role = attrs.getValue(MEMBER_ATTR_ROLE);
+                this.readMemberAttributes(attrs);
+                break;
 
-                this.members.add(OSM.member(type, refId, role));
+            case BOUNDS_ELEMENT:
+            case BOUND_ELEMENT:
+                this.handleBound(readBound(qName, attrs));
                 break;
 
             default:
                 break;
         }
-
-
-        LOGGER.debug("Element parsing started - qname: {}, meta: {}", qName, "");
     }
 
     @Override
@@ -167,22 +192,25 @@ public abstract class OsmSaxHandler extends DefaultHandler {
 
         switch (qName) {
             case NODE_ELEMENT:
-                Node node = OSM.node(osmId, metaInfo, tagsMap, latitude, longitude);
-                this.handleNode(node);
+                if (this.keepNode(osmId, latitude, longitude) && this.matches(Type.node)) {
+                    this.nodeParsed(osmId, this.metaInfo(), tags, latitude, longitude);
+                }
 
                 resetTempVariables(); // Sanity work
                 break;
 
             case WAY_ELEMENT:
-                Way way = OSM.way(osmId, metaInfo, tagsMap, nodeIds);
-                this.handleWay(way);
+                if (this.keepWay(osmId, nodeIds, nodeIdsCount) && this.matches(Type.way)) {
+                    this.wayParsed(osmId, this.metaInfo(), tags, nodeIds, nodeIdsCount);
+                }
 
                 resetTempVariables(); // Sanity work
                 break;
 
             case RELATION_ELEMENT:
-                Relation relation = OSM.relation(osmId, metaInfo, tagsMap, members);
-                this.handleRelation(relation);
+                if (this.keepRelation(osmId, members) && this.matches(Type.relation)) {
+                    this.relationParsed(osmId, this.metaInfo(), tags, members);
+                }
 
                 resetTempVariables(); // Sanity work
                 break;
@@ -190,6 +218,9 @@ public abstract class OsmSaxHandler extends DefaultHandler {
             case TAG_ELEMENT:
             case WAY_ND_ELEMENT:
             case MEMBER_ELEMENT:
+            case BOUNDS_ELEMENT:
+            case BOUND_ELEMENT:
+            case OSM_ELEMENT: // the root, of every chunk of a parallel read too
                 // No need to handle
                 break;
 
@@ -208,24 +239,275 @@ public abstract class OsmSaxHandler extends DefaultHandler {
     }
 
 
+    // Filter hooks
+    // ------------------------------------------------------------------------
+
+    /**
+     * Called once a node element is parsed, before anything is built for it. Keeps the nodes
+     * passing the {@link BoundFilter}, if any.
+     *
+     * @return true to go on with {@link #nodeParsed(long, MetaInfo, Tags.Builder, double, double)}
+     */
+    protected boolean keepNode(long osmId, double latitude, double longitude) {
+        return boundFilter == null || boundFilter.keepNode(osmId, latitude, longitude);
+    }
+
+    /**
+     * Called once a way element is parsed, before anything is built for it. Keeps the ways passing
+     * the {@link BoundFilter}, if any.
+     *
+     * @return true to go on with {@link #wayParsed(long, MetaInfo, Tags.Builder, long[], int)}
+     */
+    protected boolean keepWay(long osmId, long[] nodeIds, int nodeIdCount) {
+        return boundFilter == null || boundFilter.keepWay(osmId, nodeIds, nodeIdCount);
+    }
+
+    /**
+     * Called once a relation element is parsed, before anything is built for it. Keeps the
+     * relations passing the {@link BoundFilter}, if any.
+     *
+     * @return true to go on with {@link #relationParsed(long, MetaInfo, Tags.Builder, List)}
+     */
+    protected boolean keepRelation(long osmId, List<Member> members) {
+        return boundFilter == null || boundFilter.keepRelation(osmId, members);
+    }
+
+
+    // Parsed entity hooks
+    // ------------------------------------------------------------------------
+
+    /**
+     * Called once a node element is parsed, with its decoded values. Builds the {@link Node} and
+     * passes it to {@link #handleNode(Node)}. Handlers that keep the values in a form of their own
+     * can override this, to skip building the entity.
+     *
+     * @param osmId node id
+     * @param metaInfo meta info, null when disabled in the {@link ParseOptions}
+     * @param tags tags of the node, only valid during the call
+     * @param latitude node latitude
+     * @param longitude node longitude
+     */
+    protected void nodeParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, double latitude, double longitude) {
+        this.handleNode(OSM.node(osmId, metaInfo, tags.build(), latitude, longitude));
+    }
+
+    /**
+     * Called once a way element is parsed, with its decoded values. Builds the {@link Way} and
+     * passes it to {@link #handleWay(Way)}.
+     *
+     * @param osmId way id
+     * @param metaInfo meta info, null when disabled in the {@link ParseOptions}
+     * @param tags tags of the way, only valid during the call
+     * @param nodeIds buffer of the node ids, only valid during the call
+     * @param nodeIdCount no. of node ids in the buffer
+     */
+    protected void wayParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, long[] nodeIds, int nodeIdCount) {
+        this.handleWay(OSM.wayWithRefs(osmId, metaInfo, tags.build(), this.nodeRefs()));
+    }
+
+    /**
+     * Called once a relation element is parsed, with its decoded values. Builds the
+     * {@link Relation} and passes it to {@link #handleRelation(Relation)}.
+     *
+     * @param osmId relation id
+     * @param metaInfo meta info, null when disabled in the {@link ParseOptions}
+     * @param tags tags of the relation, only valid during the call
+     * @param members members of the relation
+     */
+    protected void relationParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, List<Member> members) {
+        this.handleRelation(OSM.relation(osmId, metaInfo, tags.build(), members));
+    }
+
+
     // Private Methods
     // ------------------------------------------------------------------------
 
+    /**
+     * Reads the attributes of a node, way or relation in a single pass, straight into the primitive
+     * temp variables.
+     */
+    private void readEntityAttributes(Attributes attrs) {
+        final boolean readMetaInfo = parseOptions.isMetaInfo();
+
+        for (int i = 0; i < attrs.getLength(); i++) {
+            switch (attrs.getQName(i)) {
+                case ENTITY_ATTR_ID:
+                    this.osmId = Long.parseLong(attrs.getValue(i));
+                    break;
+
+                case NODE_ATTR_LAT:
+                    this.latitude = AttributeValues.parseCoordinate(attrs.getValue(i));
+                    break;
+
+                case NODE_ATTR_LONG:
+                    this.longitude = AttributeValues.parseCoordinate(attrs.getValue(i));
+                    break;
+
+                case ENTITY_ATTR_VERSION:
+                    this.version = readMetaInfo ? Integer.parseInt(attrs.getValue(i)) : 0;
+                    break;
+
+                case ENTITY_ATTR_CHANGESET:
+                    this.changesetId = readMetaInfo ? Integer.parseInt(attrs.getValue(i)) : 0;
+                    break;
+
+                case ENTITY_ATTR_TIMESTAMP:
+                    this.timestamp = readMetaInfo ? attrs.getValue(i) : null;
+                    break;
+
+                case ENTITY_ATTR_USER:
+                    this.userName = readMetaInfo ? attrs.getValue(i) : null;
+                    break;
+
+                case ENTITY_ATTR_USERID:
+                    this.userId = readMetaInfo ? Integer.parseInt(attrs.getValue(i)) : 0;
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void readMemberAttributes(Attributes attrs) {
+        long refId = 0;
+        Type type = null;
+        String role = null;
+
+        for (int i = 0; i < attrs.getLength(); i++) {
+            switch (attrs.getQName(i)) {
+                case MEMBER_ATTR_REF:
+                    refId = Long.parseLong(attrs.getValue(i));
+                    break;
+
+                case MEMBER_ATTR_TYPE:
+                    type = memberType(attrs.getValue(i));
+                    break;
+
+                case MEMBER_ATTR_ROLE:
+                    role = attrs.getValue(i);
+                    break;
+
+                default:
+                    break;
+            }
+        }
+
+        this.members.add(OSM.member(type, refId, role));
+    }
+
+    /**
+     * @return true when the entity parsed passes the {@link TagFilter}, if any
+     */
+    private boolean matches(Type type) {
+        final TagFilter tagFilter = parseOptions.getTagFilter();
+        return tagFilter == null || tagFilter.matches(type, tags);
+    }
+
+    private String intern(String value) {
+        final TagDictionary dictionary = parseOptions.getTagDictionary();
+        return dictionary == null ? value : dictionary.intern(value);
+    }
+
+    /**
+     * The node ids are collected in a reused primitive buffer, and copied out once per way.
+     */
+    private void addNodeId(long nodeId) {
+        if (nodeIdsCount == nodeIds.length) {
+            this.nodeIds = Arrays.copyOf(nodeIds, nodeIds.length * 2);
+        }
+
+        this.nodeIds[nodeIdsCount++] = nodeId;
+    }
+
+    private NodeRefs nodeRefs() {
+        if (parseOptions.isCompressNodeRefs()) {
+            return NodeRefs.compress(nodeIds, nodeIdsCount);
+        }
+
+        return NodeRefs.of(Arrays.copyOf(nodeIds, nodeIdsCount));
+    }
+
+    /**
+     * The {@link MetaInfo} is only built once the entity is complete, and not at all when it is
+     * disabled in the {@link ParseOptions}.
+     */
+    private MetaInfo metaInfo() {
+        if (!parseOptions.isMetaInfo()) {
+            return null;
+        }
+
+        return OSM.metaInfo(version, changesetId, timestamp, userName, userId);
+    }
+
     private void resetTempVariables() {
         this.osmId = 0;
-        this.metaInfo = null;
+        this.version = 0;
+        this.changesetId = 0;
+        this.timestamp = null;
+        this.userName = null;
+        this.userId = 0;
         this.latitude = 0;
         this.longitude = 0;
 
-        this.tagsMap = new HashMap<>();
-        this.nodeIds = new ArrayList<>();
+        this.tags.clear();
+        this.nodeIdsCount = 0;
         this.members = new ArrayList<>();
     }
 
 
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads either the <code>bounds</code> element of the API and osmium, or the
+     * <code>bound</code> element of osmosis, with a <code>box</code> of
+     * <code>minlat,minlon,maxlat,maxlon</code>.
+     */
+    private static Bound readBound(String qName, Attributes attrs) {
+        final String origin = attrs.getValue(BOUNDS_ATTR_ORIGIN);
+        if (BOUND_ELEMENT.equals(qName)) {
+            final String[] box = attrs.getValue(BOUND_ATTR_BOX).split(",");
+            return OSM.bound(Double.parseDouble(box[3]), Double.parseDouble(box[1]), Double.parseDouble(box[2]),
+                    Double.parseDouble(box[0]), origin);
+        }
+
+        return OSM.bound(Double.parseDouble(attrs.getValue(BOUNDS_ATTR_MAXLON)),
+                Double.parseDouble(attrs.getValue(BOUNDS_ATTR_MINLON)),
+                Double.parseDouble(attrs.getValue(BOUNDS_ATTR_MAXLAT)),
+                Double.parseDouble(attrs.getValue(BOUNDS_ATTR_MINLAT)), origin);
+    }
+
+    private static Type memberType(String value) {
+        switch (value) {
+            case OSM.ELEMENT_NODE:
+                return Type.node;
+
+            case OSM.ELEMENT_WAY:
+                return Type.way;
+
+            case OSM.ELEMENT_RELATION:
+                return Type.relation;
+
+            default:
+                return Type.valueOf(value.toLowerCase());
+        }
+    }
+
+
     // Abstract callbacks
     // ------------------------------------------------------------------------
 
+    /**
+     * Callback for the bound of the input, read from the <code>bounds</code> element or the PBF
+     * header. Ignored unless overridden.
+     * 
+     * @param bound object
+     */
+    public void handleBound(Bound bound) {
+        // Nothing to do here
+    }
+
     /**
      * Callback for handling nodes.
      * 
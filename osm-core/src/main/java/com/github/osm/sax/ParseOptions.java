@@ -0,0 +1,129 @@
+package com.github.osm.sax;
+
+import com.github.osm.domain.Bound;
+
+/**
+ * Immutable set of options controlling what an {@link OsmSaxHandler} decodes from the elements.
+ * Instances are derived from {@link #defaults()} using the <code>with*</code> copy methods.
+ */
+public final class ParseOptions {
+
+    private final boolean metaInfo;
+    private final boolean compressNodeRefs;
+    private final TagDictionary tagDictionary;
+    private final Bound bound;
+    private final TagFilter tagFilter;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private ParseOptions(boolean metaInfo, boolean compressNodeRefs, TagDictionary tagDictionary, Bound bound,
+            TagFilter tagFilter) {
+        super();
+
+        this.metaInfo = metaInfo;
+        this.compressNodeRefs = compressNodeRefs;
+        this.tagDictionary = tagDictionary;
+        this.bound = bound;
+        this.tagFilter = tagFilter;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * When false, the version, changeset, timestamp and user attributes are skipped, and the
+     * entities are built without a {@link com.github.osm.domain.MetaInfo}.
+     *
+     * @return metaInfo flag
+     */
+    public boolean isMetaInfo() {
+        return metaInfo;
+    }
+
+    /**
+     * When true, the node refs of the ways are kept delta/varint compressed, trading cheaper memory
+     * for slower index access. See {@link com.github.osm.domain.NodeRefs}.
+     *
+     * @return compressNodeRefs flag
+     */
+    public boolean isCompressNodeRefs() {
+        return compressNodeRefs;
+    }
+
+    /**
+     * Dictionary the tag keys and values are canonicalised with, shared by all the handlers using
+     * these options. null when the tags are kept as parsed.
+     *
+     * @return tag dictionary, or null
+     */
+    public TagDictionary getTagDictionary() {
+        return tagDictionary;
+    }
+
+    /**
+     * Area the entities are filtered to, as they are parsed: the nodes out of it are dropped before
+     * they are built, and so are the ways and relations referencing none of the kept entities. null
+     * when nothing is filtered. See {@link BoundFilter}.
+     *
+     * @return bound, or null
+     */
+    public Bound getBound() {
+        return bound;
+    }
+
+    /**
+     * Filter the entities are matched with on their type and tags, as they are parsed: the
+     * entities it rejects are dropped before they are built. null when nothing is filtered.
+     *
+     * @return tag filter, or null
+     */
+    public TagFilter getTagFilter() {
+        return tagFilter;
+    }
+
+
+    // Copy Methods
+    // ------------------------------------------------------------------------
+
+    public ParseOptions withMetaInfo(boolean metaInfo) {
+        return new ParseOptions(metaInfo, compressNodeRefs, tagDictionary, bound, tagFilter);
+    }
+
+    public ParseOptions withCompressNodeRefs(boolean compressNodeRefs) {
+        return new ParseOptions(metaInfo, compressNodeRefs, tagDictionary, bound, tagFilter);
+    }
+
+    public ParseOptions withTagDictionary(TagDictionary tagDictionary) {
+        return new ParseOptions(metaInfo, compressNodeRefs, tagDictionary, bound, tagFilter);
+    }
+
+    public ParseOptions withBound(Bound bound) {
+        return new ParseOptions(metaInfo, compressNodeRefs, tagDictionary, bound, tagFilter);
+    }
+
+    public ParseOptions withTagFilter(TagFilter tagFilter) {
+        return new ParseOptions(metaInfo, compressNodeRefs, tagDictionary, bound, tagFilter);
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "ParseOptions [metaInfo=" + metaInfo + ", compressNodeRefs=" + compressNodeRefs
+                + ", tagDictionary=" + (tagDictionary != null) + ", bound=" + bound + ", tagFilter=" + tagFilter + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static ParseOptions defaults() {
+        return new ParseOptions(true, false, null, null, null);
+    }
+
+}
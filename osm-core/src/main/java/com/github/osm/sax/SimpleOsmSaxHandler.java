@@ -22,7 +22,7 @@ public final class SimpleOsmSaxHandler extends OsmSaxHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleOsmSaxHandler.class);
 
     // Element Stores
-    private final Bound bound;
+    private Bound bound;
     private final List<Node> nodes;
     private final List<Way> ways;
     private final List<Relation> relations;
@@ -63,6 +63,13 @@ public final class SimpleOsmSaxHandler extends OsmSaxHandler {
         return Collections.unmodifiableList(relations);
     }
 
+    /**
+     * @return the bound and the entities read
+     */
+    public OsmResult getResult() {
+        return new OsmResult(bound, nodes, ways, relations);
+    }
+
 
     // OsmEntityHandler methods
     // ------------------------------------------------------------------------
@@ -76,6 +83,11 @@ public final class SimpleOsmSaxHandler extends OsmSaxHandler {
         LOGGER.info("No of Relations Read: {}", relations.size());
     }
 
+    @Override
+    public void handleBound(Bound bound) {
+        this.bound = bound;
+    }
+
     @Override
     public void handleNode(Node node) {
         if (node == null) {
@@ -118,7 +130,7 @@ public final class SimpleOsmSaxHandler extends OsmSaxHandler {
 
     @Override
     public long getRelationsCount() {
-        return this.ways.size();
+        return this.relations.size();
     }
 
 }
@@ -0,0 +1,169 @@
+package com.github.osm.sax;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Bounded, thread safe dictionary of the tag keys and values seen while parsing. Frequent strings
+ * like <code>highway</code>, <code>building</code>, <code>yes</code> or <code>residential</code>
+ * are canonicalised to a single shared instance, and given a small integer code.
+ * <p>
+ * Strings longer than the max length (names, notes, ...) are rarely repeated, and are passed
+ * through as is. Once the dictionary is full, new strings are passed through as well, so the
+ * entries are the first distinct strings seen, which for OSM data are the frequent ones. Lookups
+ * are lock free; adding an entry takes a lock.
+ */
+public final class TagDictionary {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64 * 1024;
+    public static final int DEFAULT_MAX_LENGTH = 32;
+
+    /**
+     * Code of the strings not in the dictionary.
+     */
+    public static final int NO_CODE = -1;
+
+    private final int maxEntries;
+    private final int maxLength;
+
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    // Strings by code, written before the entry is published
+    private volatile String[] strings;
+    private int size = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private TagDictionary(int maxEntries, int maxLength) {
+        super();
+
+        // Sanity checks
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("TagDictionary :: maxEntries should be positive");
+        }
+
+        if (maxLength < 1) {
+            throw new IllegalArgumentException("TagDictionary :: maxLength should be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxLength = maxLength;
+
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+        this.strings = new String[Math.min(maxEntries, 1024)];
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return no. of strings in the dictionary
+     */
+    public int size() {
+        return entries.size();
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the shared instance of the passed string, or the string itself when it is not
+     *         admitted to the dictionary
+     */
+    public String intern(final String value) {
+        final Entry entry = this.entry(value);
+        return entry == null ? value : entry.value;
+    }
+
+    /**
+     * @return the code of the passed string, or {@link #NO_CODE} when it is not admitted to the
+     *         dictionary
+     */
+    public int code(final String value) {
+        final Entry entry = this.entry(value);
+        return entry == null ? NO_CODE : entry.code;
+    }
+
+    /**
+     * @return the string of the passed code
+     */
+    public String string(final int code) {
+        final String[] current = strings;
+        if (code < 0 || code >= current.length || current[code] == null) {
+            throw new IllegalArgumentException("string :: unknown code " + code);
+        }
+
+        return current[code];
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private Entry entry(final String value) {
+        if (value == null || value.length() > maxLength) {
+            return null;
+        }
+
+        final Entry entry = entries.get(value);
+        return entry != null ? entry : this.add(value);
+    }
+
+    private synchronized Entry add(final String value) {
+        final Entry existing = entries.get(value);
+        if (existing != null || size >= maxEntries) {
+            return existing;
+        }
+
+        if (size == strings.length) {
+            this.strings = Arrays.copyOf(strings, Math.min(size * 2, maxEntries));
+        }
+
+        final Entry entry = new Entry(value, size);
+        strings[size++] = value;
+        entries.put(value, entry);
+
+        return entry;
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static TagDictionary create() {
+        return new TagDictionary(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LENGTH);
+    }
+
+    public static TagDictionary create(int maxEntries, int maxLength) {
+        return new TagDictionary(maxEntries, maxLength);
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    private static final class Entry {
+
+        private final String value;
+        private final int code;
+
+        private Entry(String value, int code) {
+            this.value = value;
+            this.code = code;
+        }
+    }
+
+}
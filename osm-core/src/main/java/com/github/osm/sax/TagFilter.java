@@ -0,0 +1,481 @@
+package com.github.osm.sax;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
+import com.github.osm.domain.Tags.Lookup;
+import com.github.osm.domain.Way;
+
+
+/**
+ * Filter of the entities on their type and tags, compiled from an expression such as
+ * <code>highway=* and not access=private</code>. Set in the {@link ParseOptions}, it is evaluated
+ * on the parsed tags, before the entity is built, so the rejected entities are never allocated nor
+ * passed to the handler.
+ * <p>
+ * The expression language, from the lowest to the highest precedence:
+ * <ul>
+ * <li><code>a or b</code>, <code>a and b</code>, <code>not a</code>, and parentheses</li>
+ * <li><code>node</code>, <code>way</code>, <code>relation</code>: the entity type</li>
+ * <li><code>key</code> or <code>key=*</code>: the tag is set; <code>key!=*</code>: it is not</li>
+ * <li><code>key=value</code>, <code>key=v1|v2|v3</code>: the tag has one of the values</li>
+ * <li><code>key!=value</code>: the tag is not set, or has another value</li>
+ * <li><code>key~regex</code>: the tag value matches the regular expression, the only case using
+ * one</li>
+ * </ul>
+ * Keys and values with spaces or operator characters are double quoted, with <code>\"</code> and
+ * <code>\\</code> escapes. Quoted words are never read as keywords. Filters are immutable and
+ * thread safe.
+ */
+public final class TagFilter {
+
+    private final String expression;
+    private final Matcher matcher;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private TagFilter(String expression, Matcher matcher) {
+        super();
+
+        this.expression = expression;
+        this.matcher = matcher;
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true when an entity of the passed type with the tags being parsed passes the filter
+     */
+    public boolean matches(Type type, Tags.Builder tags) {
+        return matcher.matches(type, tags);
+    }
+
+    /**
+     * @return true when an entity of the passed type with the passed tags passes the filter
+     */
+    public boolean matches(Type type, Map<String, String> tags) {
+        return matcher.matches(type, tags::get);
+    }
+
+    /**
+     * @return true when the passed entity passes the filter
+     */
+    public boolean matches(OsmEntity entity) {
+        if (entity instanceof Node) {
+            return this.matches(Type.node, entity.getTags());
+        }
+
+        if (entity instanceof Way) {
+            return this.matches(Type.way, entity.getTags());
+        }
+
+        if (entity instanceof Relation) {
+            return this.matches(Type.relation, entity.getTags());
+        }
+
+        return true;
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the filter of the passed expression
+     * @throws IllegalArgumentException when the expression is not valid
+     */
+    public static TagFilter compile(String expression) {
+        // Sanity checks
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("compile :: expression should not be empty");
+        }
+
+        return new TagFilter(expression, new Parser(expression).parse());
+    }
+
+
+    // Matchers
+    // ------------------------------------------------------------------------
+
+    private abstract static class Matcher {
+
+        abstract boolean matches(Type type, Lookup tags);
+    }
+
+    private static final class TypeMatcher extends Matcher {
+
+        private final Type type;
+
+        private TypeMatcher(Type type) {
+            this.type = type;
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            return this.type == type;
+        }
+    }
+
+    private static final class ExistsMatcher extends Matcher {
+
+        private final String key;
+
+        private ExistsMatcher(String key) {
+            this.key = key;
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            return tags.get(key) != null;
+        }
+    }
+
+    private static final class EqualsMatcher extends Matcher {
+
+        private final String key;
+        private final String value;
+
+        private EqualsMatcher(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            return value.equals(tags.get(key));
+        }
+    }
+
+    private static final class AnyOfMatcher extends Matcher {
+
+        private final String key;
+        private final Set<String> values;
+
+        private AnyOfMatcher(String key, Set<String> values) {
+            this.key = key;
+            this.values = values;
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            final String value = tags.get(key);
+            return value != null && values.contains(value);
+        }
+    }
+
+    private static final class RegexMatcher extends Matcher {
+
+        private final String key;
+        private final Pattern pattern;
+
+        private RegexMatcher(String key, Pattern pattern) {
+            this.key = key;
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            final String value = tags.get(key);
+            return value != null && pattern.matcher(value).matches();
+        }
+    }
+
+    private static final class NotMatcher extends Matcher {
+
+        private final Matcher operand;
+
+        private NotMatcher(Matcher operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            return !operand.matches(type, tags);
+        }
+    }
+
+    private static final class AndMatcher extends Matcher {
+
+        private final Matcher[] operands;
+
+        private AndMatcher(List<Matcher> operands) {
+            this.operands = operands.toArray(new Matcher[0]);
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            for (Matcher operand : operands) {
+                if (!operand.matches(type, tags)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private static final class OrMatcher extends Matcher {
+
+        private final Matcher[] operands;
+
+        private OrMatcher(List<Matcher> operands) {
+            this.operands = operands.toArray(new Matcher[0]);
+        }
+
+        @Override
+        boolean matches(Type type, Lookup tags) {
+            for (Matcher operand : operands) {
+                if (operand.matches(type, tags)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+
+    // Parser
+    // ------------------------------------------------------------------------
+
+    /**
+     * Recursive descent parser of an expression in to its matchers.
+     */
+    private static final class Parser {
+
+        private static final String OPERATORS = "()=!~|\"";
+
+        private final String expression;
+        private int position = 0;
+
+        // Current token, a word or an operator
+        private String token;
+        private boolean quoted;
+        private int tokenStart;
+
+        private Parser(String expression) {
+            this.expression = expression;
+            this.next();
+        }
+
+        private Matcher parse() {
+            final Matcher matcher = this.or();
+            if (token != null) {
+                throw this.error("unexpected '" + token + "'");
+            }
+
+            return matcher;
+        }
+
+        private Matcher or() {
+            final List<Matcher> operands = new ArrayList<>();
+            operands.add(this.and());
+            while (this.keyword("or")) {
+                this.next();
+                operands.add(this.and());
+            }
+
+            return operands.size() == 1 ? operands.get(0) : new OrMatcher(operands);
+        }
+
+        private Matcher and() {
+            final List<Matcher> operands = new ArrayList<>();
+            operands.add(this.unary());
+            while (this.keyword("and")) {
+                this.next();
+                operands.add(this.unary());
+            }
+
+            return operands.size() == 1 ? operands.get(0) : new AndMatcher(operands);
+        }
+
+        private Matcher unary() {
+            if (this.keyword("not")) {
+                this.next();
+                return new NotMatcher(this.unary());
+            }
+
+            if (this.operator("(")) {
+                this.next();
+                final Matcher matcher = this.or();
+                this.expect(")");
+                return matcher;
+            }
+
+            return this.term();
+        }
+
+        private Matcher term() {
+            final String key = this.word("a key or an entity type");
+
+            if (this.operator("=")) {
+                this.next();
+                if (this.wildcard()) {
+                    this.next();
+                    return new ExistsMatcher(key);
+                }
+
+                return this.values(key);
+            }
+
+            if (this.operator("!")) {
+                this.next();
+                this.expect("=");
+                if (this.wildcard()) {
+                    this.next();
+                    return new NotMatcher(new ExistsMatcher(key));
+                }
+
+                return new NotMatcher(this.values(key));
+            }
+
+            if (this.operator("~")) {
+                this.next();
+                final int start = tokenStart;
+                final String regex = this.word("a regular expression");
+                try {
+                    return new RegexMatcher(key, Pattern.compile(regex));
+                } catch (PatternSyntaxException ex) {
+                    throw new IllegalArgumentException("compile :: invalid regular expression at " + start + " in '"
+                            + expression + "' : " + ex.getDescription(), ex);
+                }
+            }
+
+            // A bare word, either a type or a key
+            if (!quoted) {
+                for (Type type : new Type[] {Type.node, Type.way, Type.relation}) {
+                    if (type.name().equals(key)) {
+                        return new TypeMatcher(type);
+                    }
+                }
+            }
+
+            return new ExistsMatcher(key);
+        }
+
+        private Matcher values(String key) {
+            final Set<String> values = new HashSet<>();
+            values.add(this.word("a value"));
+            while (this.operator("|")) {
+                this.next();
+                values.add(this.word("a value"));
+            }
+
+            return values.size() == 1 ? new EqualsMatcher(key, values.iterator().next())
+                    : new AnyOfMatcher(key, values);
+        }
+
+
+        // Tokens
+
+        private boolean keyword(String keyword) {
+            return token != null && !quoted && token.equalsIgnoreCase(keyword);
+        }
+
+        private boolean operator(String operator) {
+            return token != null && !quoted && token.equals(operator);
+        }
+
+        private boolean wildcard() {
+            return this.operator("*");
+        }
+
+        private String word(String expected) {
+            if (token == null || (!quoted && OPERATORS.contains(token))) {
+                throw this.error("expected " + expected);
+            }
+
+            final String word = token;
+            this.next();
+            return word;
+        }
+
+        private void expect(String operator) {
+            if (!this.operator(operator)) {
+                throw this.error("expected '" + operator + "'");
+            }
+
+            this.next();
+        }
+
+        private void next() {
+            while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+
+            this.tokenStart = position;
+            this.quoted = false;
+            if (position == expression.length()) {
+                this.token = null;
+                return;
+            }
+
+            final char c = expression.charAt(position);
+            if (c == '"') {
+                this.token = this.quotedWord();
+                this.quoted = true;
+                return;
+            }
+
+            if (OPERATORS.indexOf(c) >= 0) {
+                this.token = String.valueOf(c);
+                position++;
+                return;
+            }
+
+            while (position < expression.length() && !Character.isWhitespace(expression.charAt(position))
+                    && OPERATORS.indexOf(expression.charAt(position)) < 0) {
+                position++;
+            }
+            this.token = expression.substring(tokenStart, position);
+        }
+
+        private String quotedWord() {
+            final StringBuilder word = new StringBuilder();
+            position++;
+            while (position < expression.length()) {
+                final char c = expression.charAt(position++);
+                if (c == '"') {
+                    return word.toString();
+                }
+
+                if (c == '\\' && position < expression.length()) {
+                    word.append(expression.charAt(position++));
+                } else {
+                    word.append(c);
+                }
+            }
+
+            throw this.error("unterminated quote");
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("compile :: " + message + " at " + tokenStart + " in '" + expression
+                    + "'");
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.github.osm.sax;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
+import com.github.osm.domain.Way;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.geometry.WayGeometryHandler;
+import com.github.osm.store.NodeLocationStore;
+import com.github.osm.store.NodeLocations;
+
+
+/**
+ * A streaming SAX parser event handler, which resolves the node refs of the ways into locations,
+ * and passes the ways with their geometry on to a {@link WayGeometryHandler}.
+ * <p>
+ * Expects the nodes before the ways, as in sorted OSM files. The node locations are kept in a
+ * {@link NodeLocationStore} off the heap, so that the input can be far larger than the heap; the
+ * nodes themselves are not built. Node refs of a way which are not in the store are reported to
+ * {@link WayGeometryHandler#missingNodeRef(long, long)} and counted. Relations are counted, and
+ * otherwise skipped.
+ */
+public final class WayGeometryOsmSaxHandler extends OsmSaxHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WayGeometryOsmSaxHandler.class);
+
+    private final NodeLocationStore locations;
+    private final boolean ownsLocations;
+    private final WayGeometryHandler downstream;
+
+    // Buffer of the way coordinates
+    private int[] coordinates = new int[128];
+    private boolean waysStarted = false;
+    private boolean unsorted = false;
+
+    // Counts
+    private long nodesCount = 0;
+    private long waysCount = 0;
+    private long relationsCount = 0;
+    private long missingRefsCount = 0;
+    private long incompleteWaysCount = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    /**
+     * The node locations are kept in a temporary {@link NodeLocations#sparse()} store, which takes
+     * the nodes in any order and any id range, closed once the document is completed. For a whole
+     * planet, pass a {@link NodeLocations#dense()} or {@link NodeLocations#hybrid()} store instead.
+     */
+    public WayGeometryOsmSaxHandler(WayGeometryHandler downstream) {
+        this(NodeLocations.sparse(), true, downstream);
+    }
+
+    /**
+     * @param locations store of the node locations, left open for the caller to close
+     * @param downstream handler of the way geometries
+     */
+    public WayGeometryOsmSaxHandler(NodeLocationStore locations, WayGeometryHandler downstream) {
+        this(locations, false, downstream);
+    }
+
+    private WayGeometryOsmSaxHandler(NodeLocationStore locations, boolean ownsLocations,
+            WayGeometryHandler downstream) {
+        super();
+
+        // Sanity checks
+        if (locations == null) {
+            throw new IllegalArgumentException("WayGeometryOsmSaxHandler :: NodeLocationStore should not be null");
+        }
+
+        if (downstream == null) {
+            throw new IllegalArgumentException("WayGeometryOsmSaxHandler :: WayGeometryHandler should not be null");
+        }
+
+        this.locations = locations;
+        this.ownsLocations = ownsLocations;
+        this.downstream = downstream;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public NodeLocationStore getLocations() {
+        return locations;
+    }
+
+    /**
+     * @return no. of node refs which could not be resolved
+     */
+    public long getMissingRefsCount() {
+        return missingRefsCount;
+    }
+
+    /**
+     * @return no. of ways with at least one node ref which could not be resolved
+     */
+    public long getIncompleteWaysCount() {
+        return incompleteWaysCount;
+    }
+
+
+    // Parsed entity hooks
+    // ------------------------------------------------------------------------
+
+    @Override
+    protected void nodeParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, double latitude, double longitude) {
+        this.putLocation(osmId, OSM.fixedCoordinate(latitude), OSM.fixedCoordinate(longitude));
+    }
+
+    @Override
+    protected void relationParsed(long osmId, MetaInfo metaInfo, Tags.Builder tags, List<Member> members) {
+        this.relationsCount++;
+    }
+
+
+    // OsmSaxHandler methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void handleNode(Node node) {
+        this.putLocation(node.getOsmId(), OSM.fixedCoordinate(node.getLatitude()),
+                OSM.fixedCoordinate(node.getLongitude()));
+    }
+
+    @Override
+    public void handleWay(Way way) {
+        if (!waysStarted) {
+            this.waysStarted = true;
+            locations.complete();
+        }
+
+        final int count = way.nodeIdCount();
+        if (coordinates.length < count * 2) {
+            this.coordinates = new int[Math.max(count * 2, coordinates.length * 2)];
+        }
+
+        final int[] resolved = {0, 0};
+        way.forEachNodeId(nodeId -> {
+            final long location = locations.get(nodeId);
+            if (location == NodeLocations.MISSING) {
+                resolved[1]++;
+                downstream.missingNodeRef(way.getOsmId(), nodeId);
+                return;
+            }
+
+            coordinates[resolved[0]++] = NodeLocations.latitudeE7(location);
+            coordinates[resolved[0]++] = NodeLocations.longitudeE7(location);
+        });
+
+        this.waysCount++;
+        if (resolved[1] > 0) {
+            this.missingRefsCount += resolved[1];
+            this.incompleteWaysCount++;
+        }
+
+        downstream.handleWayGeometry(WayGeometry.of(way, Arrays.copyOf(coordinates, resolved[0]), resolved[1]));
+    }
+
+    @Override
+    public void handleRelation(Relation relation) {
+        this.relationsCount++;
+    }
+
+    @Override
+    public void documentCompleted() {
+        downstream.geometriesCompleted();
+
+        // OUTPUT
+        LOGGER.info("No of Node locations stored: {}", nodesCount);
+        LOGGER.info("No of Way geometries: {}", waysCount);
+        if (missingRefsCount > 0) {
+            LOGGER.warn("{} Node refs missing in {} Ways", missingRefsCount, incompleteWaysCount);
+        }
+
+        if (ownsLocations) {
+            try {
+                locations.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to close the node locations", ex);
+            }
+        }
+    }
+
+
+    // Counts
+
+    @Override
+    public long getNodesCount() {
+        return nodesCount;
+    }
+
+    @Override
+    public long getWaysCount() {
+        return waysCount;
+    }
+
+    @Override
+    public long getRelationsCount() {
+        return relationsCount;
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void putLocation(long nodeId, int latitudeE7, int longitudeE7) {
+        if (waysStarted && !unsorted) {
+            this.unsorted = true;
+            LOGGER.warn("Node {} read after the ways, refs to the nodes from earlier ways are missing, and the "
+                    + "store may ignore them", nodeId);
+        }
+
+        locations.put(nodeId, latitudeE7, longitudeE7);
+        this.nodesCount++;
+    }
+
+}
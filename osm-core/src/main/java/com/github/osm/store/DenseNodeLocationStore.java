@@ -0,0 +1,67 @@
+package com.github.osm.store;
+
+import java.io.IOException;
+
+
+/**
+ * Node locations indexed by id, 8 bytes per id slot in a mapped file.
+ */
+final class DenseNodeLocationStore implements NodeLocationStore {
+
+    private final MappedFile file;
+    private long size = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    DenseNodeLocationStore(MappedFile file) {
+        super();
+
+        this.file = file;
+    }
+
+
+    // NodeLocationStore Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void put(long nodeId, int latitudeE7, int longitudeE7) {
+        // Sanity checks
+        if (nodeId < 0) {
+            throw new IllegalArgumentException("put :: nodeId should not be negative");
+        }
+
+        final long position = nodeId << 3;
+        if (file.getLong(position) == 0) {
+            this.size++;
+        }
+
+        file.putLong(position, NodeLocations.pack(latitudeE7, longitudeE7) ^ NodeLocations.STORED_MASK);
+    }
+
+    @Override
+    public long get(long nodeId) {
+        if (nodeId < 0) {
+            return NodeLocations.MISSING;
+        }
+
+        return file.getLongIfMapped(nodeId << 3) ^ NodeLocations.STORED_MASK;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void complete() {
+        // nothing to do
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.github.osm.store;
+
+import java.time.Instant;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.Tags;
+
+
+/**
+ * The columns common to every entity type: ids, tags and, optionally, the meta info. Tags are
+ * pooled as key/value string codes, with the start of the tags of every entity.
+ */
+final class EntityColumns {
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final StringPool strings;
+    private final boolean metaInfo;
+
+    private final LongColumn ids;
+    private final IntColumn tagStarts;
+    private final IntColumn tagCodes;
+
+    // Meta info, when kept
+    private final IntColumn versions;
+    private final IntColumn changesets;
+    private final LongColumn timestamps;
+    private final IntColumn users;
+    private final IntColumn userIds;
+
+    // Lookup by id
+    private boolean sorted = true;
+    private int[] order;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    EntityColumns(StringPool strings, boolean metaInfo, int capacity) {
+        super();
+
+        this.strings = strings;
+        this.metaInfo = metaInfo;
+
+        this.ids = new LongColumn(capacity);
+        this.tagStarts = new IntColumn(capacity);
+        this.tagCodes = new IntColumn(capacity);
+
+        this.versions = metaInfo ? new IntColumn(capacity) : null;
+        this.changesets = metaInfo ? new IntColumn(capacity) : null;
+        this.timestamps = metaInfo ? new LongColumn(capacity) : null;
+        this.users = metaInfo ? new IntColumn(capacity) : null;
+        this.userIds = metaInfo ? new IntColumn(capacity) : null;
+    }
+
+
+    // Append
+    // ------------------------------------------------------------------------
+
+    /**
+     * Appends an entity. Its tags are to be added right after.
+     *
+     * @return index of the entity
+     */
+    int add(long id, MetaInfo meta) {
+        final int index = ids.size();
+        if (index > 0 && id <= ids.get(index - 1)) {
+            this.sorted = false;
+        }
+
+        this.order = null;
+        ids.add(id);
+        tagStarts.add(tagCodes.size());
+
+        if (metaInfo) {
+            versions.add(meta == null ? 0 : meta.getVersion());
+            changesets.add(meta == null ? 0 : meta.getChangesetId());
+            timestamps.add(meta == null || meta.getTimestamp() == null ? NO_TIMESTAMP
+                    : Instant.parse(meta.getTimestamp()).getEpochSecond());
+            users.add(strings.code(meta == null ? null : meta.getUserName()));
+            userIds.add(meta == null ? 0 : meta.getUserId());
+        }
+
+        return index;
+    }
+
+    void addTag(String key, String value) {
+        tagCodes.add(strings.code(key));
+        tagCodes.add(strings.code(value));
+    }
+
+
+    // Accessors
+    // ------------------------------------------------------------------------
+
+    int size() {
+        return ids.size();
+    }
+
+    long id(int index) {
+        return ids.get(index);
+    }
+
+    int tagCount(int index) {
+        final int end = index + 1 < ids.size() ? tagStarts.get(index + 1) : tagCodes.size();
+        return (end - tagStarts.get(index)) / 2;
+    }
+
+    String tagKey(int index, int tag) {
+        return strings.string(tagCodes.get(tagStarts.get(index) + tag * 2));
+    }
+
+    String tagValue(int index, int tag) {
+        return strings.string(tagCodes.get(tagStarts.get(index) + tag * 2 + 1));
+    }
+
+    Tags tags(int index) {
+        final int count = this.tagCount(index);
+        if (count == 0) {
+            return Tags.empty();
+        }
+
+        final Tags.Builder builder = Tags.builder();
+        for (int tag = 0; tag < count; tag++) {
+            builder.put(this.tagKey(index, tag), this.tagValue(index, tag));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the meta info of the entity, null when not kept
+     */
+    MetaInfo metaInfo(int index) {
+        if (!metaInfo) {
+            return null;
+        }
+
+        final long timestamp = timestamps.get(index);
+        return OSM.metaInfo(versions.get(index), changesets.get(index),
+                timestamp == NO_TIMESTAMP ? null : Instant.ofEpochSecond(timestamp).toString(),
+                strings.string(users.get(index)), userIds.get(index));
+    }
+
+    /**
+     * Looks up an entity by id. A binary search over the ids when they were appended in ascending
+     * order, as they are in OSM files, or over an index sorted on first use otherwise.
+     *
+     * @return index of the entity, -1 when missing
+     */
+    int indexOf(long id) {
+        if (sorted) {
+            final int found = binarySearch(id, null);
+            return found >= 0 ? found : -1;
+        }
+
+        if (order == null) {
+            this.order = this.sortedOrder();
+        }
+
+        final int found = binarySearch(id, order);
+        return found >= 0 ? order[found] : -1;
+    }
+
+
+    // Memory
+    // ------------------------------------------------------------------------
+
+    void trim() {
+        ids.trim();
+        tagStarts.trim();
+        tagCodes.trim();
+
+        if (metaInfo) {
+            versions.trim();
+            changesets.trim();
+            timestamps.trim();
+            users.trim();
+            userIds.trim();
+        }
+    }
+
+    /**
+     * @return bytes held by the columns, the string pool excluded
+     */
+    long bytes() {
+        long bytes = ids.bytes() + tagStarts.bytes() + tagCodes.bytes();
+        if (metaInfo) {
+            bytes += versions.bytes() + changesets.bytes() + timestamps.bytes() + users.bytes() + userIds.bytes();
+        }
+
+        return bytes + (order == null ? 0 : (long) order.length * Integer.BYTES);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private int binarySearch(long id, int[] permutation) {
+        int low = 0;
+        int high = ids.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long value = ids.get(permutation == null ? mid : permutation[mid]);
+            if (value < id) {
+                low = mid + 1;
+            } else if (value > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Bottom up merge sort of the entity indexes by id.
+     */
+    private int[] sortedOrder() {
+        final int size = ids.size();
+        int[] source = new int[size];
+        int[] target = new int[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = i;
+        }
+
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                final int mid = Math.min(low + width, size);
+                final int high = Math.min(low + 2 * width, size);
+
+                int left = low, right = mid, out = low;
+                while (left < mid && right < high) {
+                    target[out++] = ids.get(source[left]) <= ids.get(source[right]) ? source[left++] : source[right++];
+                }
+                while (left < mid) {
+                    target[out++] = source[left++];
+                }
+                while (right < high) {
+                    target[out++] = source[right++];
+                }
+            }
+
+            final int[] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        return source;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.github.osm.store;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.Tags;
+
+
+/**
+ * Cursor over the entities of a type in a {@link ColumnarStore}. The accessors read the columns at
+ * the current position, without materialising the entity.
+ *
+ * <pre>
+ * final NodeCursor cursor = store.nodes();
+ * while (cursor.next()) {
+ *     cursor.id(); cursor.latitude(); cursor.tagValue("name");
+ * }
+ * </pre>
+ *
+ * @param <T> type of the entities
+ */
+public abstract class EntityCursor<T extends OsmEntity> {
+
+    final ColumnarStore store;
+    private final EntityColumns columns;
+
+    int index = -1;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    EntityCursor(ColumnarStore store, EntityColumns columns) {
+        super();
+
+        this.store = store;
+        this.columns = columns;
+    }
+
+
+    // Position
+    // ------------------------------------------------------------------------
+
+    /**
+     * Moves to the next entity.
+     *
+     * @return false when there are no more entities
+     */
+    public boolean next() {
+        if (index + 1 >= columns.size()) {
+            return false;
+        }
+
+        this.index++;
+        return true;
+    }
+
+    /**
+     * Moves to the entity at the passed index, as given by the store lookups.
+     */
+    public EntityCursor<T> moveTo(int index) {
+        // Sanity checks
+        if (index < 0 || index >= columns.size()) {
+            throw new IndexOutOfBoundsException("moveTo :: index " + index + " out of bounds for size " + columns.size());
+        }
+
+        this.index = index;
+        return this;
+    }
+
+    public int index() {
+        return index;
+    }
+
+
+    // Accessors
+    // ------------------------------------------------------------------------
+
+    public long id() {
+        return columns.id(index);
+    }
+
+    public int tagCount() {
+        return columns.tagCount(index);
+    }
+
+    public String tagKey(int tag) {
+        return columns.tagKey(index, tag);
+    }
+
+    public String tagValue(int tag) {
+        return columns.tagValue(index, tag);
+    }
+
+    /**
+     * @return the value of the passed tag key, null when the entity does not have it
+     */
+    public String tagValue(String key) {
+        final int count = this.tagCount();
+        for (int tag = 0; tag < count; tag++) {
+            if (key.equals(this.tagKey(tag))) {
+                return this.tagValue(tag);
+            }
+        }
+
+        return null;
+    }
+
+    public Tags tags() {
+        return columns.tags(index);
+    }
+
+    /**
+     * @return the meta info, null when the store does not keep it
+     */
+    public MetaInfo metaInfo() {
+        return columns.metaInfo(index);
+    }
+
+
+    // Materialisation
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the entity at the current position, as a domain object
+     */
+    public abstract T materialize();
+
+}
@@ -0,0 +1,171 @@
+package com.github.osm.store;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Node locations in pages of 64K consecutive ids. The nodes of a page are buffered on heap until
+ * the ids move past it, then the page is written to a mapped file either dense, indexed by id,
+ * when at least half of its ids are used, or as sparse (id, location) records otherwise; whichever
+ * is smaller. Lookups go through a page table of a few bytes per page.
+ * <p>
+ * This keeps the dense lookups where the ids are dense, as in a whole planet, without the cost of
+ * the unused ids of an extract.
+ */
+final class HybridNodeLocationStore implements NodeLocationStore {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long PAGE_MASK = PAGE_SIZE - 1;
+    private static final long MAX_ID = (long) Integer.MAX_VALUE << PAGE_BITS;
+
+    private static final int DENSE = -1;
+    private static final int RECORD_BYTES = 16;
+
+    private final MappedFile file;
+    private long end = 0;
+    private long size = 0;
+
+    // Pages written, by page no.
+    private long[] pageOffsets = new long[1024];
+    private int[] pageCounts = new int[1024];
+
+    // Page being filled
+    private final long[] pageIds = new long[PAGE_SIZE];
+    private final long[] pageLocations = new long[PAGE_SIZE];
+    private int pageCount = 0;
+    private long page = -1;
+    private long lastId = -1;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    HybridNodeLocationStore(MappedFile file) {
+        super();
+
+        this.file = file;
+    }
+
+
+    // NodeLocationStore Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void put(long nodeId, int latitudeE7, int longitudeE7) {
+        // Sanity checks
+        if (nodeId <= lastId) {
+            throw new IllegalArgumentException("put :: nodeId should be positive and in ascending order, got "
+                    + nodeId + " after " + lastId);
+        }
+
+        if (nodeId >= MAX_ID) {
+            throw new IllegalArgumentException("put :: nodeId should be less than " + MAX_ID);
+        }
+
+        final long nodePage = nodeId >>> PAGE_BITS;
+        if (nodePage != page) {
+            this.flush();
+            this.page = nodePage;
+        }
+
+        pageIds[pageCount] = nodeId;
+        pageLocations[pageCount] = NodeLocations.pack(latitudeE7, longitudeE7);
+        this.pageCount++;
+        this.lastId = nodeId;
+        this.size++;
+    }
+
+    @Override
+    public long get(long nodeId) {
+        if (nodeId < 0) {
+            return NodeLocations.MISSING;
+        }
+
+        final long nodePage = nodeId >>> PAGE_BITS;
+        if (nodePage == page) {
+            final int index = Arrays.binarySearch(pageIds, 0, pageCount, nodeId);
+            return index < 0 ? NodeLocations.MISSING : pageLocations[index];
+        }
+
+        if (nodePage >= pageCounts.length || pageCounts[(int) nodePage] == 0) {
+            return NodeLocations.MISSING;
+        }
+
+        final long offset = pageOffsets[(int) nodePage];
+        final int count = pageCounts[(int) nodePage];
+        if (count == DENSE) {
+            return file.getLong(offset + ((nodeId & PAGE_MASK) << 3)) ^ NodeLocations.STORED_MASK;
+        }
+
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final long id = file.getLong(offset + (long) middle * RECORD_BYTES);
+            if (id < nodeId) {
+                low = middle + 1;
+            } else if (id > nodeId) {
+                high = middle - 1;
+            } else {
+                return file.getLong(offset + (long) middle * RECORD_BYTES + 8);
+            }
+        }
+
+        return NodeLocations.MISSING;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void complete() {
+        this.flush();
+        this.page = -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void flush() {
+        if (pageCount == 0) {
+            return;
+        }
+
+        if (page >= pageCounts.length) {
+            final int length = (int) Math.max(page + 1, pageCounts.length * 2L);
+            this.pageOffsets = Arrays.copyOf(pageOffsets, length);
+            this.pageCounts = Arrays.copyOf(pageCounts, length);
+        }
+
+        pageOffsets[(int) page] = end;
+        if (pageCount >= PAGE_SIZE / 2) {
+            for (int i = 0; i < pageCount; i++) {
+                file.putLong(end + ((pageIds[i] & PAGE_MASK) << 3), pageLocations[i] ^ NodeLocations.STORED_MASK);
+            }
+
+            pageCounts[(int) page] = DENSE;
+            this.end += (long) PAGE_SIZE << 3;
+        } else {
+            for (int i = 0; i < pageCount; i++) {
+                file.putLong(end + (long) i * RECORD_BYTES, pageIds[i]);
+                file.putLong(end + (long) i * RECORD_BYTES + 8, pageLocations[i]);
+            }
+
+            pageCounts[(int) page] = pageCount;
+            this.end += (long) pageCount * RECORD_BYTES;
+        }
+
+        this.pageCount = 0;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.github.osm.store;
+
+import java.util.Arrays;
+
+
+/**
+ * Growable column of primitive <code>int</code> values.
+ */
+final class IntColumn {
+
+    private int[] values;
+    private int size = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    IntColumn(int capacity) {
+        super();
+
+        this.values = new int[Math.max(capacity, 16)];
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    void add(int value) {
+        if (size == values.length) {
+            this.values = Arrays.copyOf(values, Math.max(16, values.length + (values.length >> 1)));
+        }
+
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Shrinks the backing array to the values held.
+     */
+    void trim() {
+        if (values.length > size) {
+            this.values = Arrays.copyOf(values, size);
+        }
+    }
+
+    long bytes() {
+        return (long) values.length * Integer.BYTES;
+    }
+
+}
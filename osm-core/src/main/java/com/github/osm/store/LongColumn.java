@@ -0,0 +1,57 @@
+package com.github.osm.store;
+
+import java.util.Arrays;
+
+
+/**
+ * Growable column of primitive <code>long</code> values.
+ */
+final class LongColumn {
+
+    private long[] values;
+    private int size = 0;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    LongColumn(int capacity) {
+        super();
+
+        this.values = new long[Math.max(capacity, 16)];
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    void add(long value) {
+        if (size == values.length) {
+            this.values = Arrays.copyOf(values, Math.max(16, values.length + (values.length >> 1)));
+        }
+
+        values[size++] = value;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Shrinks the backing array to the values held.
+     */
+    void trim() {
+        if (values.length > size) {
+            this.values = Arrays.copyOf(values, size);
+        }
+    }
+
+    long bytes() {
+        return (long) values.length * Long.BYTES;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.github.osm.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * File mapped in to memory as 1 GB segments, mapped on first access, for the 8 byte aligned
+ * values of the off-heap stores. The file grows with the segments, as a sparse file where the
+ * file system supports it, so untouched ranges take neither memory nor disk.
+ */
+final class MappedFile implements Closeable {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final Path path;
+    private final boolean temporary;
+    private final FileChannel channel;
+
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    MappedFile(Path path, boolean temporary) {
+        super();
+
+        this.path = path;
+        this.temporary = temporary;
+
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open the mapped file : " + path, ex);
+        }
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    long getLong(long position) {
+        return this.segment(position, true).getLong((int) (position & SEGMENT_MASK));
+    }
+
+    void putLong(long position, long value) {
+        this.segment(position, true).putLong((int) (position & SEGMENT_MASK), value);
+    }
+
+    /**
+     * @return the value at the passed position, or 0 when its segment was never written
+     */
+    long getLongIfMapped(long position) {
+        final MappedByteBuffer segment = this.segment(position, false);
+        return segment == null ? 0 : segment.getLong((int) (position & SEGMENT_MASK));
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mappings are released once collected
+        this.segments = new MappedByteBuffer[0];
+        channel.close();
+
+        if (temporary) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private MappedByteBuffer segment(long position, boolean create) {
+        // Sanity checks
+        if (position < 0) {
+            throw new IllegalArgumentException("segment :: position should not be negative");
+        }
+
+        final int index = (int) (position >>> SEGMENT_BITS);
+        if (index < segments.length && segments[index] != null) {
+            return segments[index];
+        }
+
+        return create ? this.map(index) : null;
+    }
+
+    private MappedByteBuffer map(int index) {
+        if (index >= segments.length) {
+            this.segments = Arrays.copyOf(segments, Math.max(index + 1, segments.length * 2));
+        }
+
+        try {
+            segments[index] = channel.map(MapMode.READ_WRITE, index * SEGMENT_SIZE, SEGMENT_SIZE);
+            return segments[index];
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to map the segment " + index + " of : " + path, ex);
+        }
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    static MappedFile temporary(String prefix) {
+        try {
+            return new MappedFile(Files.createTempFile(prefix, ".bin"), true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create a temporary mapped file", ex);
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.github.osm.store;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+
+
+/**
+ * Cursor over the nodes of a {@link ColumnarStore}.
+ */
+public final class NodeCursor extends EntityCursor<Node> {
+
+    NodeCursor(ColumnarStore store) {
+        super(store, store.nodeColumns());
+    }
+
+
+    // Accessors
+    // ------------------------------------------------------------------------
+
+    public double latitude() {
+        return OSM.coordinate(store.latitudeE7(index));
+    }
+
+    public double longitude() {
+        return OSM.coordinate(store.longitudeE7(index));
+    }
+
+    /**
+     * @return the latitude as a 7 decimal places fixed point integer
+     */
+    public int latitudeE7() {
+        return store.latitudeE7(index);
+    }
+
+    /**
+     * @return the longitude as a 7 decimal places fixed point integer
+     */
+    public int longitudeE7() {
+        return store.longitudeE7(index);
+    }
+
+
+    // Materialisation
+    // ------------------------------------------------------------------------
+
+    @Override
+    public NodeCursor moveTo(int index) {
+        super.moveTo(index);
+        return this;
+    }
+
+    @Override
+    public Node materialize() {
+        return OSM.node(this.id(), this.metaInfo(), this.tags(), this.latitude(), this.longitude());
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.github.osm.store;
+
+import java.io.Closeable;
+
+import com.github.osm.domain.OSM;
+
+
+/**
+ * Index of node id to location, filled during the node pass and looked up to build way
+ * geometries. Locations are kept as fixed point ints (see {@link OSM#fixedCoordinate(double)}),
+ * packed in a single <code>long</code> by {@link NodeLocations}, so that a lookup allocates
+ * nothing.
+ * <p>
+ * Stores are written by one thread. Once {@link #complete()} is called they can be read by any
+ * number of threads.
+ */
+public interface NodeLocationStore extends Closeable {
+
+    /**
+     * Stores the location of the passed node, in fixed point coordinates.
+     */
+    void put(long nodeId, int latitudeE7, int longitudeE7);
+
+    /**
+     * Stores the location of the passed node.
+     */
+    default void put(long nodeId, double latitude, double longitude) {
+        this.put(nodeId, OSM.fixedCoordinate(latitude), OSM.fixedCoordinate(longitude));
+    }
+
+    /**
+     * @return the packed location of the passed node, or {@link NodeLocations#MISSING} when it
+     *         was not stored
+     */
+    long get(long nodeId);
+
+    default boolean contains(long nodeId) {
+        return this.get(nodeId) != NodeLocations.MISSING;
+    }
+
+    /**
+     * @return no. of locations stored
+     */
+    long size();
+
+    /**
+     * Completes the writes, once all the nodes are stored.
+     */
+    void complete();
+
+}
@@ -0,0 +1,99 @@
+package com.github.osm.store;
+
+import java.nio.file.Path;
+
+import com.github.osm.domain.OSM;
+
+
+/**
+ * Packing of the node locations of a {@link NodeLocationStore}, and factories of the stores.
+ * <p>
+ * A location packs the fixed point latitude in the high int and the longitude in the low int.
+ * The stores keep it xor'ed with {@link #STORED_MASK}, which maps the {@link #MISSING} location to
+ * zero, so that the zero filled pages of a fresh file read as missing, and a node at 0, 0 does
+ * not.
+ */
+public final class NodeLocations {
+
+    /**
+     * Location of the nodes not in a store; out of the range of any valid coordinate.
+     */
+    public static final long MISSING = pack(Integer.MIN_VALUE, Integer.MIN_VALUE);
+
+    static final long STORED_MASK = MISSING;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private NodeLocations() {
+        super();
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    public static long pack(int latitudeE7, int longitudeE7) {
+        return ((long) latitudeE7 << 32) | (longitudeE7 & 0xFFFFFFFFL);
+    }
+
+    public static int latitudeE7(long location) {
+        return (int) (location >> 32);
+    }
+
+    public static int longitudeE7(long location) {
+        return (int) location;
+    }
+
+    public static double latitude(long location) {
+        return OSM.coordinate(latitudeE7(location));
+    }
+
+    public static double longitude(long location) {
+        return OSM.coordinate(longitudeE7(location));
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return a store indexed by node id, in a temporary file. Takes 8 bytes per id up to the
+     *         highest id stored, of which only the pages written are backed, and is the quickest
+     *         for whole planet or large extracts.
+     */
+    public static NodeLocationStore dense() {
+        return new DenseNodeLocationStore(MappedFile.temporary("osm-locations-dense"));
+    }
+
+    public static NodeLocationStore dense(Path path) {
+        return new DenseNodeLocationStore(new MappedFile(path, false));
+    }
+
+    /**
+     * @return a store of the locations sorted by node id, in a temporary file. Takes 16 bytes per
+     *         node stored, with binary search lookups, and suits small extracts.
+     */
+    public static NodeLocationStore sparse() {
+        return new SparseNodeLocationStore(MappedFile.temporary("osm-locations-sparse"));
+    }
+
+    public static NodeLocationStore sparse(Path path) {
+        return new SparseNodeLocationStore(new MappedFile(path, false));
+    }
+
+    /**
+     * @return a store of pages of consecutive node ids, each held dense or sparse depending on
+     *         how many of its ids are used, in a temporary file. Needs the nodes in ascending id
+     *         order, as in sorted OSM files.
+     */
+    public static NodeLocationStore hybrid() {
+        return new HybridNodeLocationStore(MappedFile.temporary("osm-locations-hybrid"));
+    }
+
+    public static NodeLocationStore hybrid(Path path) {
+        return new HybridNodeLocationStore(new MappedFile(path, false));
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.github.osm.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+
+
+/**
+ * Cursor over the relations of a {@link ColumnarStore}.
+ */
+public final class RelationCursor extends EntityCursor<Relation> {
+
+    RelationCursor(ColumnarStore store) {
+        super(store, store.relationColumns());
+    }
+
+
+    // Accessors
+    // ------------------------------------------------------------------------
+
+    public int memberCount() {
+        return store.memberEnd(index) - store.memberStart(index);
+    }
+
+    public long memberId(int position) {
+        return store.memberId(this.memberPosition(position));
+    }
+
+    public Type memberType(int position) {
+        return store.memberType(this.memberPosition(position));
+    }
+
+    public String memberRole(int position) {
+        return store.memberRole(this.memberPosition(position));
+    }
+
+    public List<Member> members() {
+        final int count = this.memberCount();
+
+        final List<Member> members = new ArrayList<>(count);
+        for (int position = 0; position < count; position++) {
+            members.add(OSM.member(this.memberType(position), this.memberId(position), this.memberRole(position)));
+        }
+
+        return members;
+    }
+
+
+    // Materialisation
+    // ------------------------------------------------------------------------
+
+    @Override
+    public RelationCursor moveTo(int index) {
+        super.moveTo(index);
+        return this;
+    }
+
+    @Override
+    public Relation materialize() {
+        return OSM.relation(this.id(), this.metaInfo(), this.tags(), this.members());
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private int memberPosition(int position) {
+        // Sanity checks
+        if (position < 0 || position >= this.memberCount()) {
+            throw new IndexOutOfBoundsException("member :: position " + position + " out of bounds");
+        }
+
+        return store.memberStart(index) + position;
+    }
+
+}
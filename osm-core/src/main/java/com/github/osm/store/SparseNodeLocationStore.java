@@ -0,0 +1,148 @@
+package com.github.osm.store;
+
+import java.io.IOException;
+
+
+/**
+ * Node locations as (id, location) records sorted by id, 16 bytes per node in a mapped file.
+ * Nodes in ascending id order are appended as is; otherwise the records are sorted in place on
+ * {@link #complete()}. Once complete, nodes past the last id are still appended, and the others,
+ * which would break the order, are ignored.
+ */
+final class SparseNodeLocationStore implements NodeLocationStore {
+
+    private static final int RECORD_BYTES = 16;
+
+    private final MappedFile file;
+
+    private long size = 0;
+    private long lastId = Long.MIN_VALUE;
+    private boolean sorted = true;
+    private boolean completed = false;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    SparseNodeLocationStore(MappedFile file) {
+        super();
+
+        this.file = file;
+    }
+
+
+    // NodeLocationStore Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void put(long nodeId, int latitudeE7, int longitudeE7) {
+        // read after complete(), e.g. a node after the ways, out of order
+        if (completed && nodeId <= lastId) {
+            return;
+        }
+
+        final long position = size * RECORD_BYTES;
+        file.putLong(position, nodeId);
+        file.putLong(position + 8, NodeLocations.pack(latitudeE7, longitudeE7));
+
+        this.sorted &= nodeId > lastId;
+        this.lastId = nodeId;
+        this.size++;
+    }
+
+    @Override
+    public long get(long nodeId) {
+        // Sanity checks
+        if (!sorted) {
+            throw new IllegalStateException("get :: nodes out of order should be sorted by complete() first");
+        }
+
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            final long middle = (low + high) >>> 1;
+            final long id = this.id(middle);
+            if (id < nodeId) {
+                low = middle + 1;
+            } else if (id > nodeId) {
+                high = middle - 1;
+            } else {
+                return file.getLong(middle * RECORD_BYTES + 8);
+            }
+        }
+
+        return NodeLocations.MISSING;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void complete() {
+        this.completed = true;
+        if (sorted) {
+            return;
+        }
+
+        // Heap sort, in place in the file
+        for (long i = size / 2 - 1; i >= 0; i--) {
+            this.siftDown(i, size);
+        }
+
+        for (long end = size - 1; end > 0; end--) {
+            this.swap(0, end);
+            this.siftDown(0, end);
+        }
+
+        this.sorted = true;
+        this.lastId = size == 0 ? Long.MIN_VALUE : this.id(size - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private long id(long index) {
+        return file.getLong(index * RECORD_BYTES);
+    }
+
+    private void siftDown(long root, long end) {
+        while (true) {
+            long child = 2 * root + 1;
+            if (child >= end) {
+                return;
+            }
+
+            if (child + 1 < end && this.id(child + 1) > this.id(child)) {
+                child++;
+            }
+
+            if (this.id(root) >= this.id(child)) {
+                return;
+            }
+
+            this.swap(root, child);
+            root = child;
+        }
+    }
+
+    private void swap(long i, long j) {
+        final long iPosition = i * RECORD_BYTES;
+        final long jPosition = j * RECORD_BYTES;
+
+        final long id = file.getLong(iPosition);
+        final long location = file.getLong(iPosition + 8);
+        file.putLong(iPosition, file.getLong(jPosition));
+        file.putLong(iPosition + 8, file.getLong(jPosition + 8));
+        file.putLong(jPosition, id);
+        file.putLong(jPosition + 8, location);
+    }
+
+}
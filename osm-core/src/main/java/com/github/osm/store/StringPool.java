@@ -0,0 +1,62 @@
+package com.github.osm.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Pool of the distinct strings of a store, each given an integer code. Not thread safe.
+ */
+final class StringPool {
+
+    /**
+     * Code of a null string.
+     */
+    static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    int code(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        final Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        final int added = strings.size();
+        strings.add(value);
+        codes.put(value, added);
+        return added;
+    }
+
+    String string(int code) {
+        return code == NULL ? null : strings.get(code);
+    }
+
+    int size() {
+        return strings.size();
+    }
+
+    /**
+     * Rough estimate of the retained size: the strings, the table entries and the boxed codes.
+     */
+    long bytes() {
+        long bytes = 0;
+        for (String value : strings) {
+            bytes += 40 + value.length();
+        }
+
+        return bytes + strings.size() * (32L + 16L + 8L);
+    }
+
+}
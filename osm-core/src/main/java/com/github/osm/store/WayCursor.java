@@ -0,0 +1,68 @@
+package com.github.osm.store;
+
+import java.util.function.LongConsumer;
+
+import com.github.osm.domain.NodeRefs;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.Way;
+
+
+/**
+ * Cursor over the ways of a {@link ColumnarStore}.
+ */
+public final class WayCursor extends EntityCursor<Way> {
+
+    WayCursor(ColumnarStore store) {
+        super(store, store.wayColumns());
+    }
+
+
+    // Accessors
+    // ------------------------------------------------------------------------
+
+    public int nodeIdCount() {
+        return store.refEnd(index) - store.refStart(index);
+    }
+
+    public long nodeId(int position) {
+        // Sanity checks
+        if (position < 0 || position >= this.nodeIdCount()) {
+            throw new IndexOutOfBoundsException("nodeId :: position " + position + " out of bounds");
+        }
+
+        return store.ref(store.refStart(index) + position);
+    }
+
+    public void forEachNodeId(LongConsumer action) {
+        final int end = store.refEnd(index);
+        for (int position = store.refStart(index); position < end; position++) {
+            action.accept(store.ref(position));
+        }
+    }
+
+    public NodeRefs nodeRefs() {
+        final int start = store.refStart(index);
+        final long[] ids = new long[store.refEnd(index) - start];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.ref(start + i);
+        }
+
+        return NodeRefs.of(ids);
+    }
+
+
+    // Materialisation
+    // ------------------------------------------------------------------------
+
+    @Override
+    public WayCursor moveTo(int index) {
+        super.moveTo(index);
+        return this;
+    }
+
+    @Override
+    public Way materialize() {
+        return OSM.wayWithRefs(this.id(), this.metaInfo(), this.tags(), this.nodeRefs());
+    }
+
+}
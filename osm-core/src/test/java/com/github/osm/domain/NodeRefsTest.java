@@ -0,0 +1,93 @@
+package com.github.osm.domain;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.reader.OsmXmlReader;
+import com.github.osm.sax.ParseOptions;
+import com.github.osm.sax.SimpleOsmSaxHandler;
+
+
+public class NodeRefsTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_compress_roundtrip() {
+        final Random random = new Random(7);
+        final long[] ids = new long[1000];
+        ids[0] = 7_000_000_000L;
+        for (int i = 1; i < ids.length; i++) {
+            ids[i] = ids[i - 1] + random.nextInt(2000) - 1000;
+        }
+        ids[500] = Long.MIN_VALUE;
+        ids[501] = Long.MAX_VALUE;
+
+        final NodeRefs plain = NodeRefs.of(ids.clone());
+        final NodeRefs compressed = NodeRefs.compress(ids, ids.length);
+
+        Assert.assertTrue(compressed.isCompressed());
+        Assert.assertEquals(plain, compressed);
+        Assert.assertEquals(plain.hashCode(), compressed.hashCode());
+        Assert.assertArrayEquals(ids, compressed.toArray());
+        Assert.assertArrayEquals(ids, compressed.stream().toArray());
+        Assert.assertEquals(ids[501], compressed.get(501));
+        Assert.assertEquals(plain, compressed.uncompressed());
+
+        final long[] visited = new long[ids.length];
+        final int[] count = {0};
+        compressed.forEach(id -> visited[count[0]++] = id);
+        Assert.assertArrayEquals(ids, visited);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void test_get_out_of_bounds() {
+        NodeRefs.compress(new long[] {1, 2, 3}, 2).get(2);
+    }
+
+    @Test
+    public void test_way_factories() {
+        // a null list of node ids still resolves to the List<Long> factory
+        Assert.assertEquals(0, OSM.way(1L, null, null, null).nodeIdCount());
+        Assert.assertEquals(OSM.way(1L, null, null, Arrays.asList(1L, 2L)).getNodeIds(),
+                OSM.wayOf(1L, null, null, new long[] {1L, 2L}).getNodeIds());
+    }
+
+    @Test
+    public void test_way_compat_view() throws IOException {
+        final SimpleOsmSaxHandler plain = read(ParseOptions.defaults());
+        final SimpleOsmSaxHandler compressed = read(ParseOptions.defaults().withCompressNodeRefs(true));
+
+        final Way expected = plain.getWays().get(0);
+        final Way actual = compressed.getWays().get(0);
+        Assert.assertTrue(actual.nodeRefs().isCompressed());
+        Assert.assertEquals(expected.getNodeIds(), actual.getNodeIds());
+        Assert.assertEquals(expected.nodeIdCount(), actual.getNodeIds().size());
+
+        final List<Long> boxed = Arrays.asList(expected.nodeIdStream().boxed().toArray(Long[]::new));
+        Assert.assertEquals(boxed, actual.getNodeIds());
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private static SimpleOsmSaxHandler read(ParseOptions options) throws IOException {
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        handler.setParseOptions(options);
+        try (InputStream is = new FileInputStream("src/test/resources/samples/osm_bbox.xml")) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        return handler;
+    }
+
+}
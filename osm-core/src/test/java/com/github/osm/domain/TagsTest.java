@@ -0,0 +1,59 @@
+package com.github.osm.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TagsTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_map_semantics() {
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("name", "Anna Salai");
+        expected.put("highway", "primary");
+        expected.put("oneway", "yes");
+        expected.put("lanes", "4");
+
+        final Tags tags = Tags.of(expected);
+
+        Assert.assertEquals(expected, tags);
+        Assert.assertEquals(tags, expected);
+        Assert.assertEquals(expected.hashCode(), tags.hashCode());
+        Assert.assertEquals("primary", tags.get("highway"));
+        Assert.assertNull(tags.get("surface"));
+        Assert.assertNull(tags.get(42));
+        Assert.assertTrue(tags.containsKey("oneway"));
+        Assert.assertEquals("highway", tags.key(0));
+        Assert.assertSame(tags, Tags.of(tags));
+        Assert.assertSame(Tags.empty(), Tags.of(null));
+    }
+
+    @Test
+    public void test_builder_replaces_and_reuses() {
+        final Tags.Builder builder = Tags.builder();
+        for (int i = 0; i < 20; i++) {
+            builder.put("k" + (19 - i), "v" + i);
+        }
+        builder.put("k0", "last");
+
+        final Tags tags = builder.build();
+        Assert.assertEquals(20, tags.size());
+        Assert.assertEquals("last", tags.get("k0"));
+        Assert.assertEquals("v0", tags.get("k19"));
+
+        Assert.assertSame(Tags.empty(), builder.clear().build());
+        Assert.assertEquals(20, tags.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_immutable() {
+        Tags.builder().put("highway", "primary").build().put("oneway", "yes");
+    }
+
+}
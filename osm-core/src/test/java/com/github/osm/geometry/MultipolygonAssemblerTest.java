@@ -0,0 +1,133 @@
+package com.github.osm.geometry;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.Relation;
+import com.github.osm.reader.OsmXmlReader;
+
+
+public class MultipolygonAssemblerTest {
+
+    private static final String SAMPLE = "src/test/resources/samples/osm_bbox.xml";
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_assemble_sample_incomplete() throws IOException {
+        final Collector collector = new Collector();
+        final MultipolygonAssembler assembler = new MultipolygonAssembler(collector);
+
+        final OsmXmlReader reader = new OsmXmlReader();
+        try (InputStream is = new FileInputStream(SAMPLE)) {
+            reader.read(assembler.relationPass(), is);
+        }
+        try (InputStream is = new FileInputStream(SAMPLE)) {
+            reader.read(assembler.wayPass(), is);
+        }
+
+        // The inner ways of the building are out of the extract
+        Assert.assertEquals(1, assembler.getRelationsCount());
+        Assert.assertEquals(List.of(5417515L), collector.invalid);
+        Assert.assertEquals(0, collector.multipolygons.size());
+    }
+
+    @Test
+    public void test_assemble_split_rings() {
+        // Outer square of two ways, the second reversed, a hole, and a second outer ring
+        final String xml = "<osm>"
+                + node(1, 0, 0) + node(2, 0, 10) + node(3, 10, 10) + node(4, 10, 0)
+                + node(5, 4, 4) + node(6, 4, 6) + node(7, 6, 6)
+                + node(8, 20, 20) + node(9, 20, 21) + node(10, 21, 21)
+                + way(100, 1, 2, 3) + way(101, 1, 4, 3) + way(102, 5, 6, 7, 5) + way(103, 8, 9, 10, 8)
+                + way(104, 1, 2)
+                + relation(1000, "multipolygon", "outer:100", "outer:101", "inner:102", ":103")
+                + relation(1001, "boundary", "outer:104")
+                + relation(1002, "route", "outer:104")
+                + "</osm>";
+
+        final Collector collector = new Collector();
+        final MultipolygonAssembler assembler = new MultipolygonAssembler(collector);
+        final OsmXmlReader reader = new OsmXmlReader();
+        reader.read(assembler.relationPass(), stream(xml));
+        reader.read(assembler.wayPass(), stream(xml));
+
+        Assert.assertEquals(2, assembler.getRelationsCount());
+        Assert.assertEquals(List.of(1001L), collector.invalid);
+        Assert.assertEquals(1, collector.multipolygons.size());
+
+        final List<Polygon> polygons = collector.multipolygons.get(0).polygons();
+        Assert.assertEquals(2, polygons.size());
+
+        // Smallest first
+        Assert.assertEquals(0, polygons.get(0).inners().size());
+        Assert.assertEquals(1, polygons.get(1).inners().size());
+        Assert.assertEquals(5, polygons.get(1).outer().pointCount());
+        Assert.assertEquals(100.0, polygons.get(1).outer().signedArea(), 1e-9);
+        Assert.assertEquals(-2.0, polygons.get(1).inners().get(0).signedArea(), 1e-9);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_way_pass_first() {
+        new MultipolygonAssembler(multipolygon -> {}).wayPass();
+    }
+
+
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static String node(long id, double lat, double lon) {
+        return "<node id=\"" + id + "\" lat=\"" + lat + "\" lon=\"" + lon + "\"/>";
+    }
+
+    private static String way(long id, long... refs) {
+        final StringBuilder xml = new StringBuilder("<way id=\"" + id + "\">");
+        for (long ref : refs) {
+            xml.append("<nd ref=\"").append(ref).append("\"/>");
+        }
+
+        return xml.append("</way>").toString();
+    }
+
+    private static String relation(long id, String type, String... members) {
+        final StringBuilder xml = new StringBuilder("<relation id=\"" + id + "\">");
+        for (String member : members) {
+            final String[] roleRef = member.split(":");
+            xml.append("<member type=\"way\" ref=\"").append(roleRef[1]).append("\" role=\"").append(roleRef[0])
+                    .append("\"/>");
+        }
+
+        return xml.append("<tag k=\"type\" v=\"").append(type).append("\"/></relation>").toString();
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Collector implements MultipolygonHandler {
+
+        private final List<Multipolygon> multipolygons = new ArrayList<>();
+        private final List<Long> invalid = new ArrayList<>();
+
+        @Override
+        public void handleMultipolygon(Multipolygon multipolygon) {
+            multipolygons.add(multipolygon);
+        }
+
+        @Override
+        public void invalidMultipolygon(Relation relation, String reason) {
+            invalid.add(relation.getOsmId());
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.github.osm.index;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.Node;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.reader.OsmXmlReader;
+import com.github.osm.sax.SimpleOsmSaxHandler;
+import com.github.osm.sax.WayGeometryOsmSaxHandler;
+
+
+public class PackedRTreeTest {
+
+    private static final String SAMPLE = "src/test/resources/samples/osm_bbox.xml";
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_search_random() {
+        final Random random = new Random(3);
+        final int size = 50_000;
+        final int[][] boxes = new int[size][];
+
+        final PackedRTree.Builder builder = PackedRTree.builder();
+        for (int i = 0; i < size; i++) {
+            final int latitude = random.nextInt(1_000_000);
+            final int longitude = random.nextInt(1_000_000);
+            boxes[i] = new int[] {latitude, longitude, latitude + random.nextInt(5000), longitude + random.nextInt(5000)};
+            builder.add(i, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]);
+        }
+
+        final PackedRTree tree = builder.build();
+        Assert.assertEquals(size, tree.size());
+
+        for (int query = 0; query < 50; query++) {
+            final int minLatitude = random.nextInt(1_000_000);
+            final int minLongitude = random.nextInt(1_000_000);
+            final int maxLatitude = minLatitude + random.nextInt(50_000);
+            final int maxLongitude = minLongitude + random.nextInt(50_000);
+
+            final List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (boxes[i][0] <= maxLatitude && boxes[i][1] <= maxLongitude && boxes[i][2] >= minLatitude
+                        && boxes[i][3] >= minLongitude) {
+                    expected.add((long) i);
+                }
+            }
+
+            final List<Long> found = new ArrayList<>();
+            tree.search(minLatitude, minLongitude, maxLatitude, maxLongitude, found::add);
+            found.sort(null);
+
+            Assert.assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void test_search_single() {
+        final PackedRTree tree = PackedRTree.builder().add(7, 100, 200, 300, 400).build();
+
+        final List<Long> found = new ArrayList<>();
+        tree.search(500, 500, 600, 600, found::add);
+        Assert.assertTrue(found.isEmpty());
+
+        tree.search(250, 350, 600, 600, found::add);
+        Assert.assertEquals(Arrays.asList(7L), found);
+        Assert.assertArrayEquals(new long[] {7}, tree.nearest(50.0, 50.0, 1));
+    }
+
+    @Test
+    public void test_nearest() throws IOException {
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(SAMPLE)) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        final List<Node> nodes = handler.getNodes();
+        final PackedRTree.Builder builder = PackedRTree.builder();
+        nodes.forEach(builder::add);
+        final PackedRTree tree = builder.build();
+
+        final double latitude = 13.0797;
+        final double longitude = 80.2830;
+        final long[] nearest = tree.nearest(latitude, longitude, 10);
+        Assert.assertEquals(10, nearest.length);
+
+        final double[] expected = nodes.stream().mapToDouble(node -> distance(node, latitude, longitude)).sorted()
+                .limit(10).toArray();
+        final double[] found = Arrays.stream(nearest)
+                .mapToDouble(id -> distance(nodes.stream().filter(node -> node.getOsmId() == id).findFirst().get(),
+                        latitude, longitude))
+                .toArray();
+        Assert.assertArrayEquals(expected, found, 1e-12);
+
+        Assert.assertEquals(nodes.size(), tree.nearest(latitude, longitude, Integer.MAX_VALUE).length);
+        Assert.assertEquals(0, PackedRTree.builder().build().nearest(latitude, longitude, 3).length);
+    }
+
+    @Test
+    public void test_ways() throws IOException {
+        final List<WayGeometry> geometries = new ArrayList<>();
+        try (InputStream is = new FileInputStream(SAMPLE)) {
+            new OsmXmlReader().read(new WayGeometryOsmSaxHandler(geometries::add), is);
+        }
+
+        final PackedRTree.Builder builder = PackedRTree.builder();
+        geometries.forEach(builder::add);
+        final PackedRTree tree = builder.build();
+
+        // Every way is found by a search on one of its points
+        for (WayGeometry geometry : geometries) {
+            final List<Long> found = new ArrayList<>();
+            tree.search(geometry.latitude(0), geometry.longitude(0), geometry.latitude(0), geometry.longitude(0),
+                    found::add);
+            Assert.assertTrue(found.contains(geometry.way().getOsmId()));
+        }
+    }
+
+
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static double distance(Node node, double latitude, double longitude) {
+        final double dx = (node.getLongitude() - longitude) * Math.cos(Math.toRadians(latitude));
+        final double dy = node.getLatitude() - latitude;
+        return dx * dx + dy * dy;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.github.osm.reader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.sax.SimpleOsmSaxHandler;
+
+
+public class CompressionTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressionTest.class);
+
+    private byte[] _osmXml_sample;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Before
+    public void setup() throws IOException {
+        _osmXml_sample = Files.readAllBytes(Paths.get("src/test/resources/samples/osm_bbox.xml"));
+    }
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_detect() throws IOException {
+        Assert.assertEquals(Compression.none, detect(_osmXml_sample));
+        Assert.assertEquals(Compression.gzip, detect(gzip(_osmXml_sample)));
+        Assert.assertEquals(Compression.bzip2, detect(bzip2(_osmXml_sample)));
+        Assert.assertEquals(Compression.none, detect(new byte[0]));
+    }
+
+    @Test
+    public void test_parallelBzip2_single_stream() throws IOException {
+        // Repeated, to get several 100k blocks
+        final byte[] data = repeat(_osmXml_sample, 8);
+        final byte[] compressed = bzip2(data);
+
+        Assert.assertArrayEquals(data, decompress(compressed, 4));
+    }
+
+    @Test
+    public void test_parallelBzip2_multi_stream() throws IOException {
+        // Concatenated streams, as written by pbzip2
+        final int half = _osmXml_sample.length / 2;
+        final byte[] first = bzip2(Arrays.copyOfRange(_osmXml_sample, 0, half));
+        final byte[] second = bzip2(Arrays.copyOfRange(_osmXml_sample, half, _osmXml_sample.length));
+
+        Assert.assertArrayEquals(_osmXml_sample, decompress(concat(first, second), 3));
+    }
+
+    @Test
+    public void test_read_compressed() throws IOException {
+        final OsmXmlReader reader = new OsmXmlReader(ReadOptions.defaults().withThreads(2));
+
+        final SimpleOsmSaxHandler gzHandler = new SimpleOsmSaxHandler();
+        Map<String, Object> gzResult = reader.read(gzHandler, new ByteArrayInputStream(gzip(_osmXml_sample)));
+        LOGGER.info("OsmXMLread Result for gzip is : {}", gzResult);
+
+        final SimpleOsmSaxHandler bz2Handler = new SimpleOsmSaxHandler();
+        Map<String, Object> bz2Result = reader.read(bz2Handler, new ByteArrayInputStream(bzip2(_osmXml_sample)));
+        LOGGER.info("OsmXMLread Result for bzip2 is : {}", bz2Result);
+
+        Assert.assertEquals(521, gzHandler.getNodes().size());
+        Assert.assertEquals(54, gzHandler.getWays().size());
+        Assert.assertEquals(521, bz2Handler.getNodes().size());
+        Assert.assertEquals(54, bz2Handler.getWays().size());
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private static Compression detect(byte[] data) throws IOException {
+        return Compression.detect(new BufferedInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private static byte[] decompress(byte[] data, int threads) throws IOException {
+        try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(data), threads)) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream os = new GZIPOutputStream(bytes)) {
+            os.write(data);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] bzip2(byte[] data) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream os = new BZip2CompressorOutputStream(bytes, 1)) {
+            os.write(data);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] repeat(byte[] data, int times) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < times; i++) {
+            bytes.write(data, 0, data.length);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        final byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.github.osm.reader;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+import com.github.osm.sax.SimpleOsmSaxHandler;
+
+
+public class OsmPbfReaderTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OsmPbfReaderTest.class);
+
+    private String _osmXml_sample;
+    private String _osmPbf_sample;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Before
+    public void setup() {
+        // files, the PBF is a conversion of the XML
+        _osmXml_sample = "src/test/resources/samples/osm_bbox.xml";
+        _osmPbf_sample = "src/test/resources/samples/osm_bbox.osm.pbf";
+    }
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_read_null_stream() {
+        new OsmPbfReader().read(new SimpleOsmSaxHandler(), null);
+    }
+
+    @Test
+    public void test_read_sequential() throws IOException {
+        this.assertSameAsXml(ReadOptions.defaults());
+    }
+
+    @Test
+    public void test_read_parallel() throws IOException {
+        this.assertSameAsXml(ReadOptions.defaults().withThreads(3));
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void assertSameAsXml(ReadOptions options) throws IOException {
+        final SimpleOsmSaxHandler expected = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(_osmXml_sample)) {
+            new OsmXmlReader().read(expected, is);
+        }
+
+        final SimpleOsmSaxHandler actual = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(_osmPbf_sample)) {
+            Map<String, Object> result = new OsmPbfReader(options).read(actual, is);
+            LOGGER.info("OsmPbfRead Result for - {} is : {}", _osmPbf_sample, result);
+        }
+
+        // Nodes
+        final List<Node> expectedNodes = expected.getNodes();
+        final List<Node> actualNodes = actual.getNodes();
+        Assert.assertEquals(expectedNodes.size(), actualNodes.size());
+        for (int i = 0; i < expectedNodes.size(); i++) {
+            final Node expectedNode = expectedNodes.get(i);
+            final Node actualNode = actualNodes.get(i);
+
+            Assert.assertEquals(expectedNode.getOsmId(), actualNode.getOsmId());
+            Assert.assertEquals(expectedNode.getLatitude(), actualNode.getLatitude(), 0.0);
+            Assert.assertEquals(expectedNode.getLongitude(), actualNode.getLongitude(), 0.0);
+            Assert.assertEquals(expectedNode.getTags(), actualNode.getTags());
+            Assert.assertEquals(expectedNode.getMetaInfo().getVersion(), actualNode.getMetaInfo().getVersion());
+            Assert.assertEquals(expectedNode.getMetaInfo().getTimestamp(), actualNode.getMetaInfo().getTimestamp());
+            Assert.assertEquals(expectedNode.getMetaInfo().getUserName(), actualNode.getMetaInfo().getUserName());
+        }
+
+        // Ways
+        final List<Way> expectedWays = expected.getWays();
+        final List<Way> actualWays = actual.getWays();
+        Assert.assertEquals(expectedWays.size(), actualWays.size());
+        for (int i = 0; i < expectedWays.size(); i++) {
+            Assert.assertEquals(expectedWays.get(i).getOsmId(), actualWays.get(i).getOsmId());
+            Assert.assertEquals(expectedWays.get(i).getNodeIds(), actualWays.get(i).getNodeIds());
+            Assert.assertEquals(expectedWays.get(i).getTags(), actualWays.get(i).getTags());
+        }
+
+        // Relations
+        final List<Relation> expectedRelations = expected.getRelations();
+        final List<Relation> actualRelations = actual.getRelations();
+        Assert.assertEquals(expectedRelations.size(), actualRelations.size());
+        for (int i = 0; i < expectedRelations.size(); i++) {
+            final List<Member> expectedMembers = expectedRelations.get(i).getMembers();
+            final List<Member> actualMembers = actualRelations.get(i).getMembers();
+
+            Assert.assertEquals(expectedRelations.get(i).getOsmId(), actualRelations.get(i).getOsmId());
+            Assert.assertEquals(expectedMembers.size(), actualMembers.size());
+            for (int j = 0; j < expectedMembers.size(); j++) {
+                Assert.assertEquals(expectedMembers.get(j).getType(), actualMembers.get(j).getType());
+                Assert.assertEquals(expectedMembers.get(j).getId(), actualMembers.get(j).getId());
+                Assert.assertEquals(expectedMembers.get(j).getRole(), actualMembers.get(j).getRole());
+            }
+        }
+    }
+
+}
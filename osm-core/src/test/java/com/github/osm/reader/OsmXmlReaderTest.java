@@ -0,0 +1,227 @@
+package com.github.osm.reader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+import com.github.osm.sax.OsmSaxHandler;
+import com.github.osm.sax.SimpleOsmSaxHandler;
+
+
+public class OsmXmlReaderTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OsmXmlReaderTest.class);
+
+    private File _osmXml_sample1;
+    private File _osmXml_sample2;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Before
+    public void setup() {
+        // files
+        _osmXml_sample1 = new File("src/test/resources/samples/osm_node.xml");
+        _osmXml_sample2 = new File("src/test/resources/samples/osm_bbox.xml");
+    }
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_read_null_file() {
+        new OsmXmlReader(ReadOptions.parallel()).readFile(new SimpleOsmSaxHandler(), null);
+    }
+
+    @Test
+    public void test_read_parallel_ordered() throws IOException {
+        final SimpleOsmSaxHandler expected = this.readSequential(_osmXml_sample2);
+
+        // Small chunks, to have many of them
+        final ReadOptions options = ReadOptions.defaults().withThreads(4).withChunkSize(2048);
+        final SimpleOsmSaxHandler actual = new SimpleOsmSaxHandler();
+        Map<String, Object> result = new OsmXmlReader(options).readFile(actual, _osmXml_sample2);
+        LOGGER.info("Parallel OsmXMLread Result for - {} is : {}", _osmXml_sample2, result);
+
+        Assert.assertEquals(ids(expected.getNodes()), ids(actual.getNodes()));
+        Assert.assertEquals(ids(expected.getWays()), ids(actual.getWays()));
+        Assert.assertEquals(ids(expected.getRelations()), ids(actual.getRelations()));
+        Assert.assertEquals(expected.getWays().get(0).getNodeIds(), actual.getWays().get(0).getNodeIds());
+    }
+
+    @Test
+    public void test_read_parallel_unordered() throws IOException {
+        final SimpleOsmSaxHandler expected = this.readSequential(_osmXml_sample2);
+
+        final ReadOptions options = ReadOptions.defaults().withThreads(4).withChunkSize(1024).withOrdered(false);
+        final ConcurrentOsmSaxHandler actual = new ConcurrentOsmSaxHandler();
+        new OsmXmlReader(options).readFile(actual, _osmXml_sample2);
+
+        Assert.assertEquals(expected.getNodes().size(), actual.getNodesCount());
+        Assert.assertEquals(expected.getWays().size(), actual.getWaysCount());
+        Assert.assertEquals(expected.getRelations().size(), actual.getRelationsCount());
+        Assert.assertTrue(actual.completed);
+
+        // nodes, then ways, then relations
+        Type previous = Type.node;
+        for (OsmEntity entity : actual.entities) {
+            final Type type = type(entity);
+            Assert.assertTrue(type.compareTo(previous) >= 0);
+            previous = type;
+        }
+    }
+
+    @Test
+    public void test_read_parallel_single_entity() throws IOException {
+        final ReadOptions options = ReadOptions.defaults().withThreads(2).withChunkSize(64);
+        final SimpleOsmSaxHandler actual = new SimpleOsmSaxHandler();
+        new OsmXmlReader(options).readFile(actual, _osmXml_sample1);
+
+        Assert.assertEquals(1, actual.getNodes().size());
+        Assert.assertEquals(3233393892L, actual.getNodes().get(0).getOsmId());
+        Assert.assertEquals("Chennai", actual.getNodes().get(0).getTags().get("name"));
+    }
+
+
+    @Test
+    public void test_stream() throws IOException {
+        final SimpleOsmSaxHandler expected = this.readSequential(_osmXml_sample2);
+
+        final List<OsmEntity> entities;
+        try (Stream<OsmEntity> stream = new OsmXmlReader().stream(new FileInputStream(_osmXml_sample2))) {
+            entities = stream.collect(Collectors.toList());
+        }
+
+        final List<Long> expectedIds = ids(expected.getNodes());
+        expectedIds.addAll(ids(expected.getWays()));
+        expectedIds.addAll(ids(expected.getRelations()));
+        Assert.assertEquals(expectedIds, ids(entities));
+
+        final Way way = (Way) entities.get(expected.getNodes().size());
+        Assert.assertEquals(expected.getWays().get(0).getNodeIds(), way.getNodeIds());
+        Assert.assertEquals(expected.getWays().get(0).getTags(), way.getTags());
+    }
+
+    @Test
+    public void test_stream_parallel() {
+        final Map<Type, Long> counts;
+        try (Stream<OsmEntity> stream = new OsmXmlReader().streamFile(_osmXml_sample2)) {
+            counts = stream.parallel().collect(Collectors.groupingByConcurrent(OsmXmlReaderTest::type,
+                    Collectors.counting()));
+        }
+
+        Assert.assertEquals(Long.valueOf(521), counts.get(Type.node));
+        Assert.assertEquals(Long.valueOf(54), counts.get(Type.way));
+        Assert.assertEquals(Long.valueOf(1), counts.get(Type.relation));
+    }
+
+    @Test
+    public void test_iterator_lazy() throws IOException {
+        try (OsmEntityIterator iterator = new OsmXmlReader().iterator(new FileInputStream(_osmXml_sample1))) {
+            Assert.assertTrue(iterator.hasNext());
+            Assert.assertEquals(3233393892L, iterator.next().getOsmId());
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private SimpleOsmSaxHandler readSequential(File file) throws IOException {
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(file)) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        return handler;
+    }
+
+    private static List<Long> ids(List<? extends OsmEntity> entities) {
+        return entities.stream().map(OsmEntity::getOsmId).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Type type(OsmEntity entity) {
+        if (entity instanceof Node) {
+            return Type.node;
+        }
+
+        return entity instanceof Way ? Type.way : Type.relation;
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    private static final class ConcurrentOsmSaxHandler extends OsmSaxHandler {
+
+        private final Queue<OsmEntity> entities = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong nodesCount = new AtomicLong();
+        private final AtomicLong waysCount = new AtomicLong();
+        private final AtomicLong relationsCount = new AtomicLong();
+
+        private volatile boolean completed = false;
+
+        @Override
+        public void handleNode(Node node) {
+            entities.add(node);
+            nodesCount.incrementAndGet();
+        }
+
+        @Override
+        public void handleWay(Way way) {
+            entities.add(way);
+            waysCount.incrementAndGet();
+        }
+
+        @Override
+        public void handleRelation(Relation relation) {
+            entities.add(relation);
+            relationsCount.incrementAndGet();
+        }
+
+        @Override
+        public void documentCompleted() {
+            completed = true;
+        }
+
+        @Override
+        public long getNodesCount() {
+            return nodesCount.get();
+        }
+
+        @Override
+        public long getWaysCount() {
+            return waysCount.get();
+        }
+
+        @Override
+        public long getRelationsCount() {
+            return relationsCount.get();
+        }
+    }
+
+}
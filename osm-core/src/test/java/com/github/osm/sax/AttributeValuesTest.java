@@ -0,0 +1,45 @@
+package com.github.osm.sax;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class AttributeValuesTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_parseCoordinate_matches_parseDouble() {
+        final String[] values = {"0", "0.0", "13.0826802", "-13.0826802", "80.2707184", "-180", "180.0000000", "+1.5",
+                "0.0000001", "-0.0000001", ".5", "5.", "-0", "-0.0", "1.00000001", "1E-7", "123456789.5"};
+        for (String value : values) {
+            assertSame(value);
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            final long fixed = (long) ((random.nextDouble() * 2 - 1) * 1_800_000_000L);
+            final String value = (fixed < 0 ? "-" : "") + Math.abs(fixed) / 10_000_000 + "."
+                    + String.format("%07d", Math.abs(fixed) % 10_000_000);
+            assertSame(value);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void test_parseCoordinate_invalid() {
+        AttributeValues.parseCoordinate("13.08.26");
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private static void assertSame(String value) {
+        Assert.assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                Double.doubleToLongBits(AttributeValues.parseCoordinate(value)));
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.github.osm.sax;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.Bound;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.reader.OsmPbfReader;
+import com.github.osm.reader.OsmXmlReader;
+import com.github.osm.reader.ReadOptions;
+
+
+public class BoundFilterTest {
+
+    private static final String XML_SAMPLE = "src/test/resources/samples/osm_bbox.xml";
+    private static final String PBF_SAMPLE = "src/test/resources/samples/osm_bbox.osm.pbf";
+
+    // South west quarter of the sample bounds
+    private static final Bound QUARTER = OSM.bound(80.27074, 80.26906, 13.00100, 13.00011, null);
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_read_bounds() throws IOException {
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(XML_SAMPLE)) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        final Bound bound = handler.getResult().getBound();
+        Assert.assertNotNull(bound);
+        Assert.assertEquals(13.00011, bound.getBottom(), 0);
+        Assert.assertEquals(80.26906, bound.getLeft(), 0);
+        Assert.assertEquals(13.00188, bound.getTop(), 0);
+        Assert.assertEquals(80.27241, bound.getRight(), 0);
+        Assert.assertEquals(1, handler.getRelationsCount());
+    }
+
+    @Test
+    public void test_filter() throws IOException {
+        final SimpleOsmSaxHandler all = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(XML_SAMPLE)) {
+            new OsmXmlReader().read(all, is);
+        }
+
+        final SimpleOsmSaxHandler filtered = filtered();
+        try (InputStream is = new FileInputStream(XML_SAMPLE)) {
+            new OsmXmlReader().read(filtered, is);
+        }
+
+        // Nodes within the bound, ways with at least one of them
+        final Set<Long> kept = filtered.getNodes().stream().map(Node::getOsmId).collect(Collectors.toSet());
+        final long expectedNodes = all.getNodes().stream()
+                .filter(node -> QUARTER.contains(node.getLatitude(), node.getLongitude())).count();
+        final long expectedWays = all.getWays().stream()
+                .filter(way -> way.nodeIdStream().anyMatch(kept::contains)).count();
+
+        Assert.assertTrue(expectedNodes > 0 && expectedNodes < all.getNodesCount());
+        Assert.assertEquals(expectedNodes, filtered.getNodesCount());
+        Assert.assertEquals(expectedWays, filtered.getWaysCount());
+        Assert.assertTrue(expectedWays < all.getWaysCount());
+        Assert.assertEquals(all.getNodesCount() - expectedNodes + all.getWaysCount() - expectedWays
+                + all.getRelationsCount() - filtered.getRelationsCount(),
+                filtered.getBoundFilter().getDroppedCount());
+
+        // The same through the parallel and the PBF readers
+        final SimpleOsmSaxHandler parallel = filtered();
+        new OsmXmlReader(ReadOptions.defaults().withThreads(3).withChunkSize(16 * 1024)).readFile(parallel,
+                new File(XML_SAMPLE));
+        assertSameEntities(filtered, parallel);
+
+        final SimpleOsmSaxHandler pbf = filtered();
+        try (InputStream is = new FileInputStream(PBF_SAMPLE)) {
+            new OsmPbfReader(ReadOptions.defaults().withThreads(2)).read(pbf, is);
+        }
+        assertSameEntities(filtered, pbf);
+    }
+
+    @Test
+    public void test_filter_tags() throws IOException {
+        final TagFilter tagFilter = TagFilter.compile("way and highway=* or node and amenity=*");
+
+        final SimpleOsmSaxHandler filtered = filtered(tagFilter);
+        try (InputStream is = new FileInputStream(XML_SAMPLE)) {
+            new OsmXmlReader().read(filtered, is);
+        }
+
+        // The ways are kept on their nodes in the bound, even those without amenity
+        Assert.assertTrue(filtered.getWaysCount() > 0);
+        filtered.getNodes().forEach(node -> Assert.assertNotNull(node.getTags().get("amenity")));
+        filtered.getWays().forEach(way -> Assert.assertNotNull(way.getTags().get("highway")));
+
+        // The same through the parallel and the PBF readers
+        for (boolean ordered : new boolean[] {true, false}) {
+            final SimpleOsmSaxHandler parallel = filtered(tagFilter);
+            new OsmXmlReader(ReadOptions.defaults().withThreads(4).withChunkSize(4 * 1024).withOrdered(ordered))
+                    .readFile(parallel, new File(XML_SAMPLE));
+            assertSameEntities(filtered, parallel);
+        }
+
+        final SimpleOsmSaxHandler pbf = filtered(tagFilter);
+        try (InputStream is = new FileInputStream(PBF_SAMPLE)) {
+            new OsmPbfReader(ReadOptions.defaults().withThreads(2)).read(pbf, is);
+        }
+        assertSameEntities(filtered, pbf);
+    }
+
+
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static SimpleOsmSaxHandler filtered() {
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        handler.setParseOptions(ParseOptions.defaults().withBound(QUARTER));
+        return handler;
+    }
+
+    private static SimpleOsmSaxHandler filtered(TagFilter tagFilter) {
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        handler.setParseOptions(ParseOptions.defaults().withBound(QUARTER).withTagFilter(tagFilter));
+        return handler;
+    }
+
+    private static void assertSameEntities(SimpleOsmSaxHandler expected, SimpleOsmSaxHandler actual) {
+        Assert.assertEquals(ids(expected.getNodes()), ids(actual.getNodes()));
+        Assert.assertEquals(ids(expected.getWays()), ids(actual.getWays()));
+        Assert.assertEquals(ids(expected.getRelations()), ids(actual.getRelations()));
+    }
+
+    private static Set<Long> ids(List<? extends OsmEntity> entities) {
+        return new HashSet<>(entities.stream().map(OsmEntity::getOsmId).collect(Collectors.toList()));
+    }
+
+}
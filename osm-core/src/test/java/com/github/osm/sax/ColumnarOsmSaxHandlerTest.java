@@ -0,0 +1,155 @@
+package com.github.osm.sax;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
+import com.github.osm.domain.Way;
+import com.github.osm.reader.OsmXmlReader;
+import com.github.osm.reader.ReadOptions;
+import com.github.osm.store.ColumnarStore;
+import com.github.osm.store.NodeCursor;
+import com.github.osm.store.WayCursor;
+
+
+public class ColumnarOsmSaxHandlerTest {
+
+    private File _osmXml_sample2;
+
+    private SimpleOsmSaxHandler expected;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Before
+    public void setup() throws IOException {
+        _osmXml_sample2 = new File("src/test/resources/samples/osm_bbox.xml");
+
+        expected = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(_osmXml_sample2)) {
+            new OsmXmlReader().read(expected, is);
+        }
+    }
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_read_materialize() throws IOException {
+        final ColumnarOsmSaxHandler handler = new ColumnarOsmSaxHandler();
+        try (InputStream is = new FileInputStream(_osmXml_sample2)) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        this.assertStore(handler.getStore());
+    }
+
+    @Test
+    public void test_read_parallel_objects() {
+        final ColumnarOsmSaxHandler handler = new ColumnarOsmSaxHandler();
+        new OsmXmlReader(ReadOptions.defaults().withThreads(2).withChunkSize(4096)).readFile(handler, _osmXml_sample2);
+
+        this.assertStore(handler.getStore());
+    }
+
+    @Test
+    public void test_cursors() throws IOException {
+        final ColumnarOsmSaxHandler handler = new ColumnarOsmSaxHandler();
+        handler.setParseOptions(ParseOptions.defaults().withMetaInfo(false));
+        try (InputStream is = new FileInputStream(_osmXml_sample2)) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        final ColumnarStore store = handler.getStore();
+        Assert.assertFalse(store.isMetaInfo());
+
+        final NodeCursor nodes = store.nodes();
+        int count = 0;
+        while (nodes.next()) {
+            final Node node = expected.getNodes().get(count++);
+            Assert.assertEquals(node.getOsmId(), nodes.id());
+            Assert.assertEquals(node.getLatitude(), nodes.latitude(), 0);
+            Assert.assertEquals(node.getTags().get("name"), nodes.tagValue("name"));
+            Assert.assertNull(nodes.metaInfo());
+        }
+        Assert.assertEquals(expected.getNodes().size(), count);
+
+        final Way way = expected.getWays().get(3);
+        final WayCursor ways = store.ways().moveTo(store.wayIndex(way.getOsmId()));
+        Assert.assertEquals(way.nodeIdCount(), ways.nodeIdCount());
+        Assert.assertEquals(way.nodeId(1), ways.nodeId(1));
+        Assert.assertEquals(-1, store.wayIndex(-42));
+    }
+
+    @Test
+    public void test_lookup_unsorted() {
+        final ColumnarStore store = ColumnarStore.create(false);
+        final long[] ids = {50, 10, 40, 20, 30, 10};
+        for (long id : ids) {
+            store.addNode(OSM.node(id, null, Tags.empty(), id, -id));
+        }
+
+        Assert.assertEquals(2, store.nodeIndex(40));
+        Assert.assertEquals(-30, store.node(30).getLongitude(), 0);
+        Assert.assertTrue(store.nodeIndex(10) == 1 || store.nodeIndex(10) == 5);
+        Assert.assertEquals(-1, store.nodeIndex(60));
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void assertStore(ColumnarStore store) {
+        Assert.assertEquals(expected.getNodes().size(), store.nodeCount());
+        Assert.assertEquals(expected.getWays().size(), store.wayCount());
+        Assert.assertEquals(expected.getRelations().size(), store.relationCount());
+
+        for (Node node : expected.getNodes()) {
+            final Node actual = store.node(node.getOsmId());
+            assertEntity(node, actual);
+            Assert.assertEquals(node.getLatitude(), actual.getLatitude(), 0);
+            Assert.assertEquals(node.getLongitude(), actual.getLongitude(), 0);
+        }
+
+        for (Way way : expected.getWays()) {
+            final Way actual = store.way(way.getOsmId());
+            assertEntity(way, actual);
+            Assert.assertEquals(way.nodeRefs(), actual.nodeRefs());
+        }
+
+        for (Relation relation : expected.getRelations()) {
+            final Relation actual = store.relation(relation.getOsmId());
+            assertEntity(relation, actual);
+
+            final List<Member> members = relation.getMembers();
+            Assert.assertEquals(members.size(), actual.getMembers().size());
+            for (int i = 0; i < members.size(); i++) {
+                Assert.assertEquals(members.get(i).getId(), actual.getMembers().get(i).getId());
+                Assert.assertEquals(members.get(i).getType(), actual.getMembers().get(i).getType());
+                Assert.assertEquals(members.get(i).getRole(), actual.getMembers().get(i).getRole());
+            }
+        }
+    }
+
+    private static void assertEntity(OsmEntity expected, OsmEntity actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getOsmId(), actual.getOsmId());
+        Assert.assertEquals(expected.getTags(), actual.getTags());
+        Assert.assertEquals(expected.getMetaInfo().asMap(), actual.getMetaInfo().asMap());
+    }
+
+}
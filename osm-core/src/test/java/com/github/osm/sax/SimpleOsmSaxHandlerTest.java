@@ -91,5 +91,19 @@ public class SimpleOsmSaxHandlerTest {
         Assert.assertTrue(result != null && result.size() >0);
     }
 
+    @Test
+    public void test_readOsmXml_without_metaInfo() throws FileNotFoundException {
+        _osmSaxHandler.setParseOptions(ParseOptions.defaults().withMetaInfo(false));
+
+        final InputStream is = new FileInputStream(_osmXml_sample1);
+        _osmXmlReader.read(_osmSaxHandler, is);
+
+        final Node node = ((SimpleOsmSaxHandler) _osmSaxHandler).getNodes().get(0);
+        Assert.assertNull(node.getMetaInfo());
+        Assert.assertEquals(3233393892L, node.getOsmId());
+        Assert.assertEquals(13.0796914, node.getLatitude(), 0);
+        Assert.assertEquals(80.2829533, node.getLongitude(), 0);
+    }
+
 
 }
@@ -0,0 +1,73 @@
+package com.github.osm.sax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TagDictionaryTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_intern_shares_instances() {
+        final TagDictionary dictionary = TagDictionary.create();
+
+        final String first = dictionary.intern(new String("highway"));
+        Assert.assertSame(first, dictionary.intern(new String("highway")));
+        Assert.assertEquals(dictionary.code("highway"), dictionary.code(new String("highway")));
+        Assert.assertSame(first, dictionary.string(dictionary.code("highway")));
+    }
+
+    @Test
+    public void test_bounds() {
+        final TagDictionary dictionary = TagDictionary.create(2, 8);
+
+        final String name = new String("Anna Salai Road");
+        Assert.assertSame(name, dictionary.intern(name));
+        Assert.assertEquals(TagDictionary.NO_CODE, dictionary.code(name));
+
+        dictionary.intern("highway");
+        dictionary.intern("yes");
+        final String full = new String("oneway");
+        Assert.assertSame(full, dictionary.intern(full));
+        Assert.assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void test_concurrent_intern() throws Exception {
+        final TagDictionary dictionary = TagDictionary.create();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    final String[] interned = new String[1000];
+                    for (int i = 0; i < interned.length; i++) {
+                        interned[i] = dictionary.intern(new String("value" + i));
+                    }
+                    return interned;
+                }));
+            }
+
+            final String[] expected = futures.get(0).get();
+            for (Future<String[]> future : futures) {
+                final String[] actual = future.get();
+                for (int i = 0; i < expected.length; i++) {
+                    Assert.assertSame(expected[i], actual[i]);
+                    Assert.assertSame(expected[i], dictionary.string(dictionary.code(expected[i])));
+                }
+            }
+            Assert.assertEquals(1000, dictionary.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.github.osm.sax;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.reader.OsmPbfReader;
+import com.github.osm.reader.OsmXmlReader;
+
+
+public class TagFilterTest {
+
+    private static final Map<String, String> ROAD = Map.of("highway", "residential", "name", "Main Street");
+    private static final Map<String, String> PRIVATE_ROAD = Map.of("highway", "service", "access", "private");
+    private static final Map<String, String> BUILDING = Map.of("building", "yes");
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_expressions() {
+        final TagFilter roads = TagFilter.compile("highway=* and not access=private");
+        Assert.assertTrue(roads.matches(Type.way, ROAD));
+        Assert.assertFalse(roads.matches(Type.way, PRIVATE_ROAD));
+        Assert.assertFalse(roads.matches(Type.way, BUILDING));
+
+        final TagFilter ways = TagFilter.compile("way and (highway=residential|service or building)");
+        Assert.assertTrue(ways.matches(Type.way, ROAD));
+        Assert.assertTrue(ways.matches(Type.way, PRIVATE_ROAD));
+        Assert.assertTrue(ways.matches(Type.way, BUILDING));
+        Assert.assertFalse(ways.matches(Type.node, BUILDING));
+
+        Assert.assertTrue(TagFilter.compile("access!=private").matches(Type.way, ROAD));
+        Assert.assertFalse(TagFilter.compile("access!=*").matches(Type.way, PRIVATE_ROAD));
+        Assert.assertTrue(TagFilter.compile("name~\"Main .*\"").matches(Type.way, ROAD));
+        Assert.assertTrue(TagFilter.compile("\"name\"=\"Main Street\"").matches(Type.node, ROAD));
+        Assert.assertTrue(TagFilter.compile("NOT relation Or \"way\"").matches(Type.node, ROAD));
+    }
+
+    @Test
+    public void test_invalid_expressions() {
+        for (String expression : new String[] {"", "highway=", "(highway", "highway and", "a=b c", "name~\"(\"",
+                "\"open"}) {
+            try {
+                TagFilter.compile(expression);
+                Assert.fail("Compiled : " + expression);
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void test_filter_while_parsing() throws IOException {
+        final ParseOptions options = ParseOptions.defaults().withTagFilter(TagFilter.compile("way and building=yes"));
+
+        final SimpleOsmSaxHandler xml = new SimpleOsmSaxHandler();
+        xml.setParseOptions(options);
+        try (InputStream is = new FileInputStream("src/test/resources/samples/osm_bbox.xml")) {
+            new OsmXmlReader().read(xml, is);
+        }
+
+        Assert.assertEquals(0, xml.getNodesCount());
+        Assert.assertEquals(0, xml.getRelationsCount());
+        Assert.assertTrue(xml.getWaysCount() > 0);
+        xml.getWays().forEach(way -> Assert.assertEquals("yes", way.getTags().get("building")));
+
+        final SimpleOsmSaxHandler pbf = new SimpleOsmSaxHandler();
+        pbf.setParseOptions(options);
+        try (InputStream is = new FileInputStream("src/test/resources/samples/osm_bbox.osm.pbf")) {
+            new OsmPbfReader().read(pbf, is);
+        }
+
+        Assert.assertEquals(xml.getWays(), pbf.getWays());
+        Assert.assertEquals(0, pbf.getNodesCount());
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.github.osm.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.Way;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.geometry.WayGeometryHandler;
+import com.github.osm.reader.OsmXmlReader;
+
+
+public class WayGeometryOsmSaxHandlerTest {
+
+    private static final String SAMPLE = "src/test/resources/samples/osm_bbox.xml";
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_geometries() throws IOException {
+        final SimpleOsmSaxHandler simple = new SimpleOsmSaxHandler();
+        try (InputStream is = new FileInputStream(SAMPLE)) {
+            new OsmXmlReader().read(simple, is);
+        }
+
+        final Map<Long, Node> nodes = new HashMap<>();
+        simple.getNodes().forEach(node -> nodes.put(node.getOsmId(), node));
+
+        final List<WayGeometry> geometries = new ArrayList<>();
+        final WayGeometryOsmSaxHandler handler = new WayGeometryOsmSaxHandler(geometries::add);
+        try (InputStream is = new FileInputStream(SAMPLE)) {
+            new OsmXmlReader().read(handler, is);
+        }
+
+        Assert.assertEquals(simple.getWays().size(), geometries.size());
+        Assert.assertEquals(nodes.size(), handler.getNodesCount());
+        Assert.assertEquals(0, handler.getMissingRefsCount());
+
+        for (int i = 0; i < geometries.size(); i++) {
+            final Way way = simple.getWays().get(i);
+            final WayGeometry geometry = geometries.get(i);
+
+            Assert.assertEquals(way.getOsmId(), geometry.way().getOsmId());
+            Assert.assertEquals(way.getTags(), geometry.way().getTags());
+            Assert.assertTrue(geometry.isComplete());
+            Assert.assertEquals(way.nodeIdCount(), geometry.pointCount());
+
+            for (int p = 0; p < way.nodeIdCount(); p++) {
+                final Node node = nodes.get(way.nodeId(p));
+                Assert.assertEquals(node.getLatitude(), geometry.latitude(p), 0);
+                Assert.assertEquals(node.getLongitude(), geometry.longitude(p), 0);
+            }
+        }
+    }
+
+    @Test
+    public void test_missing_refs() {
+        final String xml = "<osm>"
+                + "<node id=\"1\" lat=\"1.5\" lon=\"2.5\"/><node id=\"2\" lat=\"0\" lon=\"0\"/>"
+                + "<way id=\"10\"><nd ref=\"1\"/><nd ref=\"3\"/><nd ref=\"2\"/></way>"
+                + "</osm>";
+
+        final List<WayGeometry> geometries = new ArrayList<>();
+        final List<Long> missing = new ArrayList<>();
+        final WayGeometryOsmSaxHandler handler = new WayGeometryOsmSaxHandler(new WayGeometryHandler() {
+
+            @Override
+            public void handleWayGeometry(WayGeometry geometry) {
+                geometries.add(geometry);
+            }
+
+            @Override
+            public void missingNodeRef(long wayId, long nodeId) {
+                missing.add(nodeId);
+            }
+        });
+
+        new OsmXmlReader().read(handler, new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(1, geometries.size());
+        Assert.assertEquals(List.of(3L), missing);
+        Assert.assertEquals(1, handler.getIncompleteWaysCount());
+
+        final WayGeometry geometry = geometries.get(0);
+        Assert.assertEquals(1, geometry.missingCount());
+        Assert.assertArrayEquals(new double[] {1.5, 2.5, 0, 0}, geometry.toArray(), 0);
+    }
+
+    @Test
+    public void test_late_node() {
+        final String xml = "<osm>"
+                + "<node id=\"5\" lat=\"1.5\" lon=\"2.5\"/>"
+                + "<way id=\"10\"><nd ref=\"5\"/></way>"
+                + "<node id=\"2\" lat=\"0\" lon=\"0\"/>"
+                + "<way id=\"11\"><nd ref=\"5\"/><nd ref=\"2\"/></way>"
+                + "</osm>";
+
+        final List<WayGeometry> geometries = new ArrayList<>();
+        final WayGeometryOsmSaxHandler handler = new WayGeometryOsmSaxHandler(geometries::add);
+        new OsmXmlReader().read(handler, new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        // the late node is reported missing, the parse goes on
+        Assert.assertEquals(2, geometries.size());
+        Assert.assertEquals(1, handler.getMissingRefsCount());
+        Assert.assertArrayEquals(new double[] {1.5, 2.5}, geometries.get(1).toArray(), 0);
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.github.osm.store;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class NodeLocationStoreTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_pack() {
+        final long location = NodeLocations.pack(-900000000, 1800000000);
+        Assert.assertEquals(-90.0, NodeLocations.latitude(location), 0);
+        Assert.assertEquals(180.0, NodeLocations.longitude(location), 0);
+        Assert.assertNotEquals(NodeLocations.MISSING, NodeLocations.pack(0, 0));
+    }
+
+    @Test
+    public void test_dense() throws IOException {
+        try (NodeLocationStore store = NodeLocations.dense()) {
+            assertStore(store, 1);
+        }
+    }
+
+    @Test
+    public void test_sparse() throws IOException {
+        try (NodeLocationStore store = NodeLocations.sparse()) {
+            assertStore(store, 1);
+        }
+    }
+
+    @Test
+    public void test_sparse_unsorted() throws IOException {
+        try (NodeLocationStore store = NodeLocations.sparse()) {
+            for (long id = 1000; id > 0; id--) {
+                store.put(id, (int) id, (int) -id);
+            }
+            store.complete();
+
+            for (long id = 1; id <= 1000; id++) {
+                Assert.assertEquals(NodeLocations.pack((int) id, (int) -id), store.get(id));
+            }
+            Assert.assertFalse(store.contains(1001));
+        }
+    }
+
+    @Test
+    public void test_sparse_late() throws IOException {
+        try (NodeLocationStore store = NodeLocations.sparse()) {
+            store.put(5, 5, 5);
+            store.put(3, 3, 3);
+            store.complete();
+
+            // out of order once complete, ignored
+            store.put(4, 4, 4);
+            store.put(6, 6, 6);
+
+            Assert.assertEquals(NodeLocations.pack(3, 3), store.get(3));
+            Assert.assertFalse(store.contains(4));
+            Assert.assertEquals(NodeLocations.pack(6, 6), store.get(6));
+            Assert.assertEquals(3, store.size());
+        }
+    }
+
+    @Test
+    public void test_hybrid() throws IOException {
+        // Both the dense and the sparse pages
+        try (NodeLocationStore store = NodeLocations.hybrid()) {
+            assertStore(store, 1);
+        }
+
+        try (NodeLocationStore store = NodeLocations.hybrid()) {
+            assertStore(store, 100);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_hybrid_unsorted() throws IOException {
+        try (NodeLocationStore store = NodeLocations.hybrid()) {
+            store.put(10, 0, 0);
+            store.put(9, 0, 0);
+        }
+    }
+
+
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static void assertStore(NodeLocationStore store, int maxGap) {
+        final Random random = new Random(9);
+        final long[] ids = new long[200_000];
+        final long[] locations = new long[ids.length];
+
+        long id = 5_000_000_000L;
+        for (int i = 0; i < ids.length; i++) {
+            id += 1 + random.nextInt(maxGap);
+            ids[i] = id;
+            locations[i] = NodeLocations.pack(random.nextInt(1800000001) - 900000000, random.nextInt());
+            store.put(id, NodeLocations.latitudeE7(locations[i]), NodeLocations.longitudeE7(locations[i]));
+        }
+
+        // A node at 0, 0 is not missing
+        store.put(id + 1, 0.0, 0.0);
+        store.complete();
+
+        Assert.assertEquals(ids.length + 1, store.size());
+        for (int i = 0; i < ids.length; i++) {
+            Assert.assertEquals(locations[i], store.get(ids[i]));
+        }
+
+        Assert.assertEquals(NodeLocations.pack(0, 0), store.get(id + 1));
+        Assert.assertFalse(store.contains(id + 2));
+        Assert.assertFalse(store.contains(1));
+        Assert.assertFalse(store.contains(-1));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.github.osm.mongo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.mongo.helper.MongoConfig;
+
+
+/**
+ * Node documents written per second, one <code>insertOne</code> per document against the unordered
+ * batches of the {@link BatchWriter}, written on the benchmark thread or pipelined to writer
+ * threads. Both hand the nodes to the driver, which encodes them with the codecs of the store, as
+ * the import does. Every document is an operation, so the score is in documents per second.
+ * <p>
+ * Needs a mongod on <code>localhost:27017</code>; run with
+ * <code>gradle jmh -PjmhArgs=MongoInsertBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MongoInsertBenchmark {
+
+    private static final String COLLECTION = OsmMongoStore.COLLECTION_NODE;
+    private static final int DOCUMENTS = 10_000;
+
+    private OsmMongoStore store;
+    private Node[] nodes;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Setup
+    public void setup() {
+        this.store = OsmMongoStore.withConfig(MongoConfig.with("localhost", 27017, "mongo_java_bench"));
+
+        final MetaInfo metaInfo = OSM.metaInfo(4, 35092393, "2015-11-04T10:29:58Z", "PlaneMad", 253663);
+        this.nodes = new Node[DOCUMENTS];
+        for (int i = 0; i < DOCUMENTS; i++) {
+            nodes[i] = OSM.node(3233393892L + i, metaInfo, null, 13.0826802 + i * 1e-5, 80.2707184 + i * 1e-5);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyCollection() {
+        store.database.getCollection(COLLECTION).drop();
+    }
+
+
+    // Benchmarks
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void insertOne() {
+        for (Node node : nodes) {
+            store.insert(node);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public long batched(Batch batch) {
+        final WriteOptions options = WriteOptions.defaults().withBatchSize(batch.size).withWriters(batch.writers);
+        try (BatchWriter writer = BatchWriter.of(store, options, (collection, document, code, message) -> {
+            throw new IllegalStateException(message);
+        })) {
+            for (Node node : nodes) {
+                writer.add(COLLECTION, node);
+            }
+            writer.flush();
+
+            return writer.getWrittenCount();
+        }
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Batch sizes and writer threads (0 for writes on the benchmark thread), only for the batched
+     * benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class Batch {
+
+        @Param({"1000", "5000", "10000"})
+        private int size;
+
+        @Param({"0", "4"})
+        private int writers;
+    }
+
+}
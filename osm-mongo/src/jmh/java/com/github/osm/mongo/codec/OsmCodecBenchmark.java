@@ -0,0 +1,147 @@
+package com.github.osm.mongo.codec;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.Way;
+import com.github.osm.mongo.helper.MongoMapper;
+
+
+/**
+ * Entity to BSON bytes and back, through Jackson <code>convertValue</code> and a {@link Document}
+ * (the {@link MongoMapper} path), against the {@link OsmCodecs} codecs. This is the work the driver
+ * does per document on insert and find, without the database; no mongod is needed.
+ * <p>
+ * Run with <code>gradle jmh -PjmhArgs=OsmCodecBenchmark,-prof,gc</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OsmCodecBenchmark {
+
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private Codec<Document> documentCodec;
+    private Codec<Node> nodeCodec;
+    private Codec<Way> wayCodec;
+
+    private Node node;
+    private Way way;
+
+    private byte[] nodeBytes;
+    private byte[] wayBytes;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Setup
+    public void setup() {
+        this.documentCodec = OsmCodecs.registry().get(Document.class);
+        this.nodeCodec = OsmCodecs.registry().get(Node.class);
+        this.wayCodec = OsmCodecs.registry().get(Way.class);
+
+        final MetaInfo metaInfo = OSM.metaInfo(4, 35092393, "2015-11-04T10:29:58Z", "PlaneMad", 253663);
+        final Map<String, String> tags = new HashMap<>();
+        tags.put("highway", "residential");
+        tags.put("name", "Kamarajar Salai");
+
+        this.node = OSM.node(3233393892L, metaInfo, null, 13.0826802, 80.2707184);
+        this.way = OSM.wayOf(317225950L, metaInfo, tags, new long[] {3233393892L, 3233393893L, 3233393901L,
+            3233393907L, 3233393912L, 3233393920L, 3233393927L, 3233393892L});
+
+        this.nodeBytes = this.encodeNode();
+        this.wayBytes = this.encodeWay();
+    }
+
+
+    // Benchmarks
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    public byte[] encodeNode_jackson() {
+        return encode(documentCodec, MongoMapper.document(node));
+    }
+
+    @Benchmark
+    public byte[] encodeNode() {
+        return encode(nodeCodec, node);
+    }
+
+    @Benchmark
+    public Node decodeNode_jackson() {
+        return MongoMapper.node(decode(documentCodec, nodeBytes));
+    }
+
+    @Benchmark
+    public Node decodeNode() {
+        return decode(nodeCodec, nodeBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeWay_jackson() {
+        return encode(documentCodec, MongoMapper.document(way));
+    }
+
+    @Benchmark
+    public byte[] encodeWay() {
+        return encode(wayCodec, way);
+    }
+
+    @Benchmark
+    public Way decodeWay_jackson() {
+        return MongoMapper.way(decode(documentCodec, wayBytes));
+    }
+
+    @Benchmark
+    public Way decodeWay() {
+        return decode(wayCodec, wayBytes);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private static <T> byte[] encode(Codec<T> codec, T value) {
+        final BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, value, ENCODER_CONTEXT);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    private static <T> T decode(Codec<T> codec, byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return codec.decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+}
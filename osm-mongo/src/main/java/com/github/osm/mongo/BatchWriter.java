@@ -0,0 +1,417 @@
+package com.github.osm.mongo;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.bulk.BulkWriteError;
+
+
+/**
+ * Buffers documents per collection, and writes each buffer to the {@link MongoStore} with a single
+ * unordered <code>insertMany</code> once it holds a batch. Against one <code>insertOne</code> per
+ * document, this saves a round trip and a server side write per document. The documents are either
+ * {@link org.bson.Document}s, or objects the codecs of the store encode directly (e.g. the OSM
+ * entities with an {@link OsmMongoStore}); those of a collection should be of a single class.
+ * <p>
+ * When pipelined (see {@link WriteOptions#getWriters()}), full batches are handed to a pool of
+ * writer threads sharing the connection pool of the store, so that the caller (typically the parser
+ * thread) keeps producing documents while earlier batches are written. At most
+ * <code>writers + queueSize</code> batches are queued or in flight; past that, {@link #add} blocks
+ * until a writer is done with one. Otherwise, batches are written on the calling thread.
+ * <p>
+ * Documents that fail to write (duplicate keys, validation) are reported to the
+ * {@link WriteFailureHandler}, from the writer threads when pipelined, and do not stop the rest of
+ * the batch. Any other {@link MongoException}, e.g. of the connection, a timeout or an interrupt,
+ * leaves the whole batch unwritten and is thrown by {@link #add} or {@link #flush()}; when
+ * pipelined, by the next call, and the batches still queued are dropped. Call {@link #flush()} once
+ * done, to write the partial batches and wait for the writers. Thread safe.
+ */
+public final class BatchWriter implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchWriter.class);
+
+    private final MongoStore store;
+    private final WriteOptions options;
+    private final WriteFailureHandler failureHandler;
+
+    private final Map<String, List<Object>> buffers = new HashMap<>();
+    private volatile boolean upserts = false;
+    private volatile ImportMetrics metrics = ImportMetrics.noop();
+
+    // Pipeline, null when writing on the calling thread
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicReference<RuntimeException> writerError = new AtomicReference<>();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchesCount = new AtomicLong();
+    private final LatencyHistogram batchLatencies = new LatencyHistogram();
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private BatchWriter(MongoStore store, WriteOptions options, WriteFailureHandler failureHandler) {
+        super();
+
+        // Sanity checks
+        if (store == null) {
+            throw new IllegalArgumentException("BatchWriter :: mongo store should not be null");
+        }
+
+        if (options == null) {
+            throw new IllegalArgumentException("BatchWriter :: write options should not be null");
+        }
+
+        if (failureHandler == null) {
+            throw new IllegalArgumentException("BatchWriter :: failure handler should not be null");
+        }
+
+        this.store = store;
+        this.options = options;
+        this.failureHandler = failureHandler;
+
+        if (options.isPipelined()) {
+            final int writers = options.getWriters();
+            this.executor = new ThreadPoolExecutor(writers, writers, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    writerThreadFactory());
+            this.executor.allowCoreThreadTimeOut(true);
+            this.permits = new Semaphore(writers + options.getQueueSize());
+        } else {
+            this.executor = null;
+            this.permits = null;
+        }
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public WriteOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return time spent writing each batch so far
+     */
+    public LatencyHistogram getBatchLatencies() {
+        return batchLatencies;
+    }
+
+    public ImportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics notified of every batch written, from the writer threads when pipelined
+     */
+    public void setMetrics(ImportMetrics metrics) {
+        // Sanity checks
+        if (metrics == null) {
+            throw new IllegalArgumentException("setMetrics :: metrics should not be null, see ImportMetrics.noop()");
+        }
+
+        this.metrics = metrics;
+    }
+
+    public boolean isUpserts() {
+        return upserts;
+    }
+
+    /**
+     * Writes the next batches with {@link MongoStore#upsertMany(String, List)} rather than
+     * inserts, so that documents written already are replaced instead of failing, e.g. while
+     * resuming an import. Applies to the batches written from then on, so {@link #flush()} first to
+     * switch back for the buffered documents too.
+     */
+    public void setUpserts(boolean upserts) {
+        this.upserts = upserts;
+    }
+
+    /**
+     * @return no. of documents written so far
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * @return no. of documents reported to the failure handler so far
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return no. of batches sent so far
+     */
+    public long getBatchesCount() {
+        return batchesCount.get();
+    }
+
+    /**
+     * @return no. of documents buffered, not handed to a writer yet
+     */
+    public int getPendingCount() {
+        synchronized (buffers) {
+            int pending = 0;
+            for (List<Object> buffer : buffers.values()) {
+                pending += buffer.size();
+            }
+
+            return pending;
+        }
+    }
+
+    /**
+     * @return no. of full batches waiting for a writer
+     */
+    public int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * @return no. of batches being written
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Resets the counts and the batch latencies, e.g. when the writer is reused for another import;
+     * to be called once flushed.
+     */
+    public void resetStatistics() {
+        writtenCount.set(0);
+        failedCount.set(0);
+        batchesCount.set(0);
+        batchLatencies.reset();
+    }
+
+    /**
+     * Adds a document to the buffer of its collection, writing the buffer when it is full.
+     */
+    public void add(final String collectionName, final Object document) {
+        // Sanity checks
+        if (StringUtils.isEmpty(collectionName)) {
+            throw new IllegalArgumentException("add :: Collection name should not be blank");
+        }
+
+        if (document == null) {
+            throw new IllegalArgumentException("add :: Document should not be null");
+        }
+
+        final int batchSize = options.getBatchSize();
+
+        List<Object> batch = null;
+        synchronized (buffers) {
+            final List<Object> buffer = buffers.computeIfAbsent(collectionName, k -> new ArrayList<>(batchSize));
+            buffer.add(document);
+
+            if (buffer.size() >= batchSize) {
+                batch = buffer;
+                buffers.put(collectionName, new ArrayList<>(batchSize));
+            }
+        }
+
+        if (batch != null) {
+            this.submit(collectionName, batch);
+        }
+    }
+
+    /**
+     * Writes the buffered documents of all the collections, and waits for the writers to be done
+     * with all the batches handed to them.
+     */
+    public void flush() {
+        final Map<String, List<Object>> batches = new HashMap<>();
+        synchronized (buffers) {
+            for (Map.Entry<String, List<Object>> entry : buffers.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    batches.put(entry.getKey(), entry.getValue());
+                    entry.setValue(new ArrayList<>(options.getBatchSize()));
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Object>> entry : batches.entrySet()) {
+            this.submit(entry.getKey(), entry.getValue());
+        }
+
+        this.awaitWriters();
+        this.rethrowWriterError();
+    }
+
+    /**
+     * Flushes, and stops the writer threads.
+     */
+    @Override
+    public void close() {
+        try {
+            this.flush();
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private void submit(final String collectionName, final List<Object> batch) {
+        this.rethrowWriterError();
+
+        if (executor == null) {
+            this.write(collectionName, batch);
+            return;
+        }
+
+        // Backpressure
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while waiting for a Mongo writer", ex);
+        }
+
+        try {
+            executor.execute(() -> {
+                inFlightCount.incrementAndGet();
+                try {
+                    // past a fatal error, the batches left are not written
+                    if (writerError.get() == null) {
+                        this.write(collectionName, batch);
+                    }
+                } catch (RuntimeException ex) {
+                    writerError.compareAndSet(null, ex);
+                } finally {
+                    inFlightCount.decrementAndGet();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            permits.release();
+            throw new IllegalStateException("submit :: batch writer is closed", ex);
+        }
+    }
+
+    private void awaitWriters() {
+        if (executor == null) {
+            return;
+        }
+
+        // All the permits are back once every batch is written
+        final int total = options.getWriters() + options.getQueueSize();
+        try {
+            permits.acquire(total);
+            permits.release(total);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while waiting for the Mongo writers", ex);
+        }
+    }
+
+    private void rethrowWriterError() {
+        final RuntimeException error = writerError.getAndSet(null);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void write(final String collectionName, final List<Object> batch) {
+        batchesCount.incrementAndGet();
+
+        final long start = System.nanoTime();
+        int failed = 0;
+        try {
+            if (upserts) {
+                store.upsertMany(collectionName, batch);
+            } else {
+                store.insertMany(collectionName, batch);
+            }
+            writtenCount.addAndGet(batch.size());
+
+        } catch (MongoBulkWriteException ex) {
+            // unordered, so every document but the listed ones is written
+            final List<BulkWriteError> errors = ex.getWriteErrors();
+            writtenCount.addAndGet(batch.size() - errors.size());
+            failed = errors.size();
+
+            for (BulkWriteError error : errors) {
+                this.failed(collectionName, batch.get(error.getIndex()), error.getCode(), error.getMessage());
+            }
+
+            if (ex.getWriteConcernError() != null) {
+                LOGGER.warn("Write concern error on {} : {}", collectionName, ex.getWriteConcernError());
+            }
+
+        } catch (MongoException ex) {
+            // not of the documents, the next batches would fail the same
+            failed = batch.size();
+            throw ex;
+
+        } finally {
+            final long nanos = System.nanoTime() - start;
+            batchLatencies.record(nanos);
+            metrics.batchWritten(collectionName, batch.size(), failed, nanos);
+        }
+    }
+
+    private void failed(String collectionName, Object document, int code, String message) {
+        failedCount.incrementAndGet();
+        failureHandler.writeFailed(collectionName, document, code, message);
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    private static ThreadFactory writerThreadFactory() {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "osm-mongo-writer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static BatchWriter of(MongoStore store, int batchSize, WriteFailureHandler failureHandler) {
+        return new BatchWriter(store, WriteOptions.defaults().withBatchSize(batchSize), failureHandler);
+    }
+
+    public static BatchWriter of(MongoStore store, WriteOptions options, WriteFailureHandler failureHandler) {
+        return new BatchWriter(store, options, failureHandler);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.github.osm.mongo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Time spent in each phase of a bulk load, from {@link OsmMongoStore#beginBulkLoad()} to
+ * {@link OsmMongoStore#endBulkLoad()}: dropping the secondary indexes, loading the documents, and
+ * building the indexes back, per collection.
+ */
+public final class BulkLoadReport {
+
+    private final long dropIndexesMillis;
+    private final long loadMillis;
+    private final Map<String, Long> indexMillis;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    BulkLoadReport(long dropIndexesMillis, long loadMillis, Map<String, Long> indexMillis) {
+        super();
+
+        this.dropIndexesMillis = dropIndexesMillis;
+        this.loadMillis = loadMillis;
+        this.indexMillis = Collections.unmodifiableMap(new LinkedHashMap<>(indexMillis));
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public long getDropIndexesMillis() {
+        return dropIndexesMillis;
+    }
+
+    /**
+     * @return time between the begin and the end of the bulk load, indexes aside
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * @return time spent building the indexes of each collection, by collection name
+     */
+    public Map<String, Long> getIndexMillis() {
+        return indexMillis;
+    }
+
+    /**
+     * @return time spent building the indexes of all the collections
+     */
+    public long getTotalIndexMillis() {
+        long total = 0;
+        for (long millis : indexMillis.values()) {
+            total += millis;
+        }
+
+        return total;
+    }
+
+    public long getTotalMillis() {
+        return dropIndexesMillis + loadMillis + this.getTotalIndexMillis();
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "BulkLoadReport [dropIndexesMillis=" + dropIndexesMillis + ", loadMillis=" + loadMillis
+                + ", indexMillis=" + indexMillis + "]";
+    }
+
+}
@@ -0,0 +1,456 @@
+package com.github.osm.mongo;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+
+
+/**
+ * Size bounded cache of OSM entities, by type and id, in front of the lookups of an
+ * {@link OsmMongoStore} (see {@link OsmMongoStore#setCache(EntityCache)}). Each entity weighs an
+ * estimate of its heap size (see {@link #weigh(OsmEntity)}), and the cache holds up to a max total
+ * weight.
+ * <p>
+ * The entries are spread over segments, each a segmented LRU of its own: new entries go to a
+ * probation segment, and move to a protected one when read again. Evictions take the least recently
+ * used entry of the probation segment first, so that a scan over many entities read once, e.g. a
+ * large bound, does not flush the hot streets and boundaries read over and over. Thread safe, each
+ * segment being locked on its own.
+ * <p>
+ * Only the entities are cached: the beans are built from them on every lookup, as a way bean
+ * embeds the beans of its nodes, and would be stale once any of them is invalidated.
+ * <p>
+ * A lookup racing with a write could cache the version it read after the write invalidated it. To
+ * read through, take a {@link #stamp()} before reading the store, and cache what was read with
+ * {@link #put(OsmEntity, Stamp)}, which drops it when its segment was invalidated since.
+ */
+public final class EntityCache {
+
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    /** Share of the weight of a segment held by its protected entries */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Segment[] segments;
+    private final AtomicLongArray invalidations;
+    private final long maxWeight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private EntityCache(long maxWeight, int segmentsCount) {
+        super();
+
+        // Sanity checks
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("EntityCache :: max weight should be positive");
+        }
+
+        if (segmentsCount < 1 || Integer.bitCount(segmentsCount) != 1) {
+            throw new IllegalArgumentException("EntityCache :: segments count should be a power of 2");
+        }
+
+        this.maxWeight = maxWeight;
+        this.invalidations = new AtomicLongArray(segmentsCount);
+        this.segments = new Segment[segmentsCount];
+        for (int i = 0; i < segmentsCount; i++) {
+            this.segments[i] = new Segment(Math.max(1, maxWeight / segmentsCount));
+        }
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @return total weight of the cached entities
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                weight += segment.probationWeight + segment.protectedWeight;
+            }
+        }
+
+        return weight;
+    }
+
+    /**
+     * @return no. of cached entities
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.probation.size() + segment.protectedEntries.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return no. of lookups answered by the cache so far
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return no. of lookups of entities not in the cache so far
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return no. of entities evicted to make room so far, invalidations aside
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return share of the lookups answered by the cache, 0 when there was none
+     */
+    public double getHitRate() {
+        final long hits = hitCount.sum();
+        final long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the cached entity, or null on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends OsmEntity> T get(final Type type, final long osmId) {
+        final long key = IdScheme.typedId(type, osmId);
+        final Segment segment = segments[this.segmentIndex(key)];
+
+        final OsmEntity entity;
+        synchronized (segment) {
+            entity = segment.get(key);
+        }
+
+        if (entity == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+
+        return (T) entity;
+    }
+
+    /**
+     * Caches the entity, replacing the one of the same type and id if any. Entities heavier than a
+     * segment are not cached.
+     */
+    public void put(final OsmEntity entity) {
+        this.put(entity, null);
+    }
+
+    /**
+     * Caches the entity read from the store, unless an entity of its segment was invalidated since
+     * the passed stamp, as the entity read may then be stale.
+     *
+     * @param stamp taken before the entity was read from the store, null to cache it anyway
+     *
+     * @return true when cached
+     */
+    public boolean put(final OsmEntity entity, final Stamp stamp) {
+        // Sanity checks
+        if (entity == null) {
+            throw new IllegalArgumentException("put :: entity should not be null");
+        }
+
+        final long key = IdScheme.typedId(typeOf(entity), entity.getOsmId());
+        final int index = this.segmentIndex(key);
+        final Segment segment = segments[index];
+
+        final int evicted;
+        synchronized (segment) {
+            if (stamp != null && stamp.invalidations[index] != invalidations.get(index)) {
+                return false;
+            }
+
+            evicted = segment.put(key, entity, weigh(entity));
+        }
+
+        evictionCount.add(evicted);
+        return true;
+    }
+
+    /**
+     * @return the point from which the invalidations are tracked, to be taken before reading the
+     *         entities to cache from the store, see {@link #put(OsmEntity, Stamp)}
+     */
+    public Stamp stamp() {
+        final long[] counts = new long[segments.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = invalidations.get(i);
+        }
+
+        return new Stamp(counts);
+    }
+
+    /**
+     * Drops the cached entity of the passed type and id, if any; to be called once it is updated or
+     * deleted in the store.
+     */
+    public void invalidate(final Type type, final long osmId) {
+        final long key = IdScheme.typedId(type, osmId);
+        final int index = this.segmentIndex(key);
+        final Segment segment = segments[index];
+
+        synchronized (segment) {
+            segment.remove(key);
+            invalidations.incrementAndGet(index);
+        }
+    }
+
+    /**
+     * Drops the cached entity of the same type and id as the passed one, if any.
+     */
+    public void invalidate(final OsmEntity entity) {
+        this.invalidate(typeOf(entity), entity.getOsmId());
+    }
+
+    /**
+     * Drops all the cached entities, keeping the counters.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < segments.length; i++) {
+            synchronized (segments[i]) {
+                segments[i].clear();
+                invalidations.incrementAndGet(i);
+            }
+        }
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "EntityCache [size=" + this.size() + ", weight=" + this.getWeight() + ", maxWeight=" + maxWeight
+                + ", hits=" + hitCount.sum() + ", misses=" + missCount.sum() + ", evictions="
+                + evictionCount.sum() + "]";
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private int segmentIndex(final long key) {
+        // spread the low bits, which hold the type
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 40) & (segments.length - 1);
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Estimate of the heap size of the entity, in bytes: a fixed cost per entity and tag, and 8
+     * bytes per node ref or 32 per member.
+     *
+     * @return weight of the entity
+     */
+    public static int weigh(final OsmEntity entity) {
+        int weight = 96 + 64 * entity.getTags().size();
+        if (entity instanceof Way) {
+            weight += 8 * ((Way) entity).nodeIdCount();
+        } else if (entity instanceof Relation) {
+            weight += 32 * ((Relation) entity).getMembers().size();
+        }
+
+        return weight;
+    }
+
+    static Type typeOf(final OsmEntity entity) {
+        if (entity instanceof Node) {
+            return Type.node;
+        } else if (entity instanceof Way) {
+            return Type.way;
+        } else if (entity instanceof Relation) {
+            return Type.relation;
+        }
+
+        throw new IllegalArgumentException("typeOf :: unhandled entity " + entity.getClass().getName());
+    }
+
+
+    // Stamp
+    // ------------------------------------------------------------------------
+
+    /**
+     * Invalidation counts of the segments of a cache at some point, see {@link EntityCache#stamp()}.
+     */
+    public static final class Stamp {
+
+        private final long[] invalidations;
+
+        private Stamp(long[] invalidations) {
+            this.invalidations = invalidations;
+        }
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    private static final class Entry {
+
+        private final OsmEntity entity;
+        private final int weight;
+
+        private Entry(OsmEntity entity, int weight) {
+            this.entity = entity;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Segmented LRU, guarded by its own monitor. Both maps are in access order, least recently
+     * used first.
+     */
+    private static final class Segment {
+
+        private final long maxWeight;
+        private final long maxProtectedWeight;
+
+        private final LinkedHashMap<Long, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Long, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        private long probationWeight;
+        private long protectedWeight;
+
+        private Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+            this.maxProtectedWeight = (long) (maxWeight * PROTECTED_RATIO);
+        }
+
+        private OsmEntity get(final long key) {
+            final Entry hot = protectedEntries.get(key);
+            if (hot != null) {
+                return hot.entity;
+            }
+
+            // read again, promoted
+            final Entry entry = probation.remove(key);
+            if (entry == null) {
+                return null;
+            }
+
+            probationWeight -= entry.weight;
+            protectedEntries.put(key, entry);
+            protectedWeight += entry.weight;
+
+            // demoted back to probation, where they are evicted first
+            final Iterator<Map.Entry<Long, Entry>> iterator = protectedEntries.entrySet().iterator();
+            while (protectedWeight > maxProtectedWeight && iterator.hasNext()) {
+                final Map.Entry<Long, Entry> eldest = iterator.next();
+                if (eldest.getKey() == key) {
+                    break;
+                }
+
+                iterator.remove();
+                protectedWeight -= eldest.getValue().weight;
+                probation.put(eldest.getKey(), eldest.getValue());
+                probationWeight += eldest.getValue().weight;
+            }
+
+            return entry.entity;
+        }
+
+        private int put(final long key, final OsmEntity entity, final int weight) {
+            this.remove(key);
+            if (weight > maxWeight) {
+                return 0;
+            }
+
+            probation.put(key, new Entry(entity, weight));
+            probationWeight += weight;
+
+            // make room, probation first
+            int evicted = 0;
+            while (probationWeight + protectedWeight > maxWeight) {
+                final LinkedHashMap<Long, Entry> victims = probation.isEmpty() ? protectedEntries : probation;
+                final Iterator<Entry> iterator = victims.values().iterator();
+                final Entry eldest = iterator.next();
+                iterator.remove();
+
+                if (victims == probation) {
+                    probationWeight -= eldest.weight;
+                } else {
+                    protectedWeight -= eldest.weight;
+                }
+                evicted++;
+            }
+
+            return evicted;
+        }
+
+        private void remove(final long key) {
+            final Entry entry = probation.remove(key);
+            if (entry != null) {
+                probationWeight -= entry.weight;
+            }
+
+            final Entry hot = protectedEntries.remove(key);
+            if (hot != null) {
+                protectedWeight -= hot.weight;
+            }
+        }
+
+        private void clear() {
+            probation.clear();
+            protectedEntries.clear();
+            probationWeight = 0;
+            protectedWeight = 0;
+        }
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    /**
+     * @param maxWeight max total weight, roughly the heap held by the cached entities in bytes
+     */
+    public static EntityCache of(final long maxWeight) {
+        return new EntityCache(maxWeight, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param maxWeight max total weight, roughly the heap held by the cached entities in bytes
+     * @param segments no. of independently locked segments, a power of 2
+     */
+    public static EntityCache of(final long maxWeight, final int segments) {
+        return new EntityCache(maxWeight, segments);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.github.osm.mongo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+
+import com.github.osm.domain.OsmEntity.Type;
+
+
+/**
+ * How the entity documents are keyed. With {@link #objectId}, the server generates an ObjectId
+ * <code>_id</code> and the lookups go through a secondary index on <code>osmId</code>, so every
+ * insert maintains two B-trees. The other schemes derive the <code>_id</code> from the OSM id, so the
+ * primary index is the only one, and lookups hit it directly.
+ * <p>
+ * The <code>osmId</code> field is written with every scheme, so the documents read back the same.
+ */
+public enum IdScheme {
+
+    /**
+     * Server generated ObjectId <code>_id</code>, with a secondary index on <code>osmId</code>.
+     */
+    objectId,
+
+    /**
+     * The OSM id is the <code>_id</code>. The ids are only unique per entity type, which is enough
+     * as long as each type has its own collection.
+     */
+    osmId,
+
+    /**
+     * The <code>_id</code> is the OSM id tagged with the entity type in its 2 low bits, see
+     * {@link #typedId(Type, long)}; unique across the types, for collections holding more than one.
+     */
+    typed;
+
+
+    public static final String FIELD_ID = "_id";
+    public static final String FIELD_OSM_ID = "osmId";
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true when the <code>_id</code> is derived from the OSM id
+     */
+    public boolean isOsmKeyed() {
+        return this != objectId;
+    }
+
+    /**
+     * @return the field looked up by OSM id
+     */
+    public String keyField() {
+        return this == objectId ? FIELD_OSM_ID : FIELD_ID;
+    }
+
+    /**
+     * @return the value of the {@link #keyField()} of the entity
+     */
+    public long key(final Type type, final long osmId) {
+        return this == typed ? typedId(type, osmId) : osmId;
+    }
+
+    /**
+     * @return filter matching the entity of the passed id
+     */
+    public Document filter(final Type type, final long osmId) {
+        return new Document(this.keyField(), this.key(type, osmId));
+    }
+
+    /**
+     * @return filter matching the entities of the passed ids
+     */
+    public Document filterIn(final Type type, final Collection<Long> osmIds) {
+        final List<Long> keys = new ArrayList<>(osmIds.size());
+        for (Long osmId : osmIds) {
+            keys.add(this.key(type, osmId));
+        }
+
+        return new Document(this.keyField(), new Document("$in", keys));
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the OSM id shifted left by 2, with the ordinal of the type in the low bits
+     */
+    public static long typedId(final Type type, final long osmId) {
+        return (osmId << 2) | type.ordinal();
+    }
+
+    /**
+     * @return the OSM id of a {@link #typedId(Type, long)}
+     */
+    public static long osmId(final long typedId) {
+        return typedId >> 2;
+    }
+
+}
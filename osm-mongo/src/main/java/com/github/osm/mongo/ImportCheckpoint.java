@@ -0,0 +1,308 @@
+package com.github.osm.mongo;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.mongo.helper.CountingInputStream;
+
+
+/**
+ * Point up to which an import is persisted: every entity up to and including the last one, in the
+ * order of the input, is written, and the input can be read again from the byte offset on. Written
+ * every n entities by the {@link com.github.osm.mongo.sax.MongoOsmSaxHandler}, once its writer is
+ * flushed, to a small properties file.
+ * <p>
+ * To resume an import, the input is reopened at the offset with {@link #seek(InputStream)}, and the
+ * handler skips the entities up to the last one, see
+ * {@link com.github.osm.mongo.sax.MongoOsmSaxHandler#resumeFrom(ImportCheckpoint)}. The entities
+ * should be sorted by type then id, as in the planet and extract files. The offset is only usable
+ * with uncompressed XML; other inputs are read again from their start, skipping the persisted
+ * entities, as are the inputs of an import keeping the node locations (see {@link #fromStart()}).
+ */
+public final class ImportCheckpoint {
+
+    private static final byte[] ROOT_START = "<osm>".getBytes(UTF_8);
+    private static final byte[][] ENTITY_STARTS =
+        {"<node".getBytes(UTF_8), "<way".getBytes(UTF_8), "<relation".getBytes(UTF_8)};
+
+    private static final String KEY_OFFSET = "offset";
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_OSM_ID = "osmId";
+    private static final String KEY_NODES = "nodes";
+    private static final String KEY_WAYS = "ways";
+    private static final String KEY_RELATIONS = "relations";
+    private static final String KEY_INTERVAL = "interval";
+
+    private final long offset;
+    private final Type type;
+    private final long osmId;
+
+    private final long nodesCount;
+    private final long waysCount;
+    private final long relationsCount;
+    private final long interval;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private ImportCheckpoint(long offset, Type type, long osmId, long nodesCount, long waysCount, long relationsCount,
+            long interval) {
+        super();
+
+        // Sanity checks
+        if (offset < 0) {
+            throw new IllegalArgumentException("ImportCheckpoint :: offset should not be negative");
+        }
+
+        if (type == null) {
+            throw new IllegalArgumentException("ImportCheckpoint :: type should not be null");
+        }
+
+        this.offset = offset;
+        this.type = type;
+        this.osmId = osmId;
+        this.nodesCount = nodesCount;
+        this.waysCount = waysCount;
+        this.relationsCount = relationsCount;
+        this.interval = interval;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * Offset in the input before which no entity past the checkpoint starts.
+     *
+     * @return byte offset
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return type of the last persisted entity
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return id of the last persisted entity
+     */
+    public long getOsmId() {
+        return osmId;
+    }
+
+    public long getNodesCount() {
+        return nodesCount;
+    }
+
+    public long getWaysCount() {
+        return waysCount;
+    }
+
+    public long getRelationsCount() {
+        return relationsCount;
+    }
+
+    /**
+     * No. of entities between two checkpoints, which bounds the entities written after this one
+     * before the import stopped.
+     *
+     * @return checkpoint interval
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true when the passed entity is at or before this checkpoint, in type then id order,
+     *         and so persisted already
+     */
+    public boolean covers(final Type entityType, final long entityId) {
+        final int order = Integer.compare(entityType.ordinal(), type.ordinal());
+        return order < 0 || (order == 0 && entityId <= osmId);
+    }
+
+    /**
+     * @return this checkpoint with an offset of 0, for an input read again from its start
+     */
+    public ImportCheckpoint fromStart() {
+        return offset == 0 ? this
+                : new ImportCheckpoint(0, type, osmId, nodesCount, waysCount, relationsCount, interval);
+    }
+
+    /**
+     * Skips the passed input up to the offset, then up to the start of the next entity element, and
+     * reopens the <code>&lt;osm&gt;</code> root for the parser. The returned stream counts the bytes
+     * from the start of the input.
+     *
+     * @param is uncompressed OSM XML input, read from its start
+     *
+     * @return input positioned at the first entity at or after the offset
+     */
+    public CountingInputStream seek(final InputStream is) {
+        // Sanity checks
+        if (is == null) {
+            throw new IllegalArgumentException("seek :: input stream should not be null");
+        }
+
+        if (offset == 0) {
+            return new CountingInputStream(is);
+        }
+
+        try {
+            final CountingInputStream counting = new CountingInputStream(new BufferedInputStream(is));
+            while (counting.getCount() < offset) {
+                if (counting.skip(offset - counting.getCount()) <= 0 && counting.read() == -1) {
+                    throw new IOException("Input ends before the checkpoint offset " + offset);
+                }
+            }
+
+            // Entity boundary
+            final byte[] head = new byte[ENTITY_STARTS[2].length + 1];
+            while (true) {
+                counting.mark(head.length);
+                final int read = counting.readNBytes(head, 0, head.length);
+                counting.reset();
+                if (read == 0) {
+                    throw new IOException("No entity after the checkpoint offset " + offset);
+                }
+
+                if (startsEntity(head, read)) {
+                    break;
+                }
+
+                counting.skip(1);
+            }
+
+            final InputStream rooted = new SequenceInputStream(new ByteArrayInputStream(ROOT_START), counting);
+            return new CountingInputStream(rooted, counting.getCount() - ROOT_START.length);
+
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to seek to the checkpoint offset " + offset, ex);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to the passed file, replacing it in one move so that a crash leaves
+     * either the previous checkpoint or this one.
+     */
+    public void write(final Path file) {
+        final Properties properties = new Properties();
+        properties.setProperty(KEY_OFFSET, Long.toString(offset));
+        properties.setProperty(KEY_TYPE, type.name());
+        properties.setProperty(KEY_OSM_ID, Long.toString(osmId));
+        properties.setProperty(KEY_NODES, Long.toString(nodesCount));
+        properties.setProperty(KEY_WAYS, Long.toString(waysCount));
+        properties.setProperty(KEY_RELATIONS, Long.toString(relationsCount));
+        properties.setProperty(KEY_INTERVAL, Long.toString(interval));
+
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, UTF_8)) {
+                properties.store(writer, "OSM import checkpoint");
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write the import checkpoint " + file, ex);
+        }
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "ImportCheckpoint [offset=" + offset + ", type=" + type + ", osmId=" + osmId + ", nodesCount="
+                + nodesCount + ", waysCount=" + waysCount + ", relationsCount=" + relationsCount + ", interval="
+                + interval + "]";
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the checkpoint of the passed file, or null when there is none
+     */
+    public static ImportCheckpoint read(final Path file) {
+        // Sanity checks
+        if (file == null) {
+            throw new IllegalArgumentException("read :: checkpoint file should not be null");
+        }
+
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+            properties.load(reader);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read the import checkpoint " + file, ex);
+        }
+
+        return new ImportCheckpoint(Long.parseLong(properties.getProperty(KEY_OFFSET)),
+                Type.valueOf(properties.getProperty(KEY_TYPE)), Long.parseLong(properties.getProperty(KEY_OSM_ID)),
+                Long.parseLong(properties.getProperty(KEY_NODES)), Long.parseLong(properties.getProperty(KEY_WAYS)),
+                Long.parseLong(properties.getProperty(KEY_RELATIONS)),
+                Long.parseLong(properties.getProperty(KEY_INTERVAL)));
+    }
+
+    private static boolean startsEntity(final byte[] head, final int length) {
+        for (byte[] start : ENTITY_STARTS) {
+            // the name should end there, e.g. not <nodes
+            if (length > start.length && matches(head, start) && isNameEnd(head[start.length])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matches(final byte[] head, final byte[] start) {
+        for (int i = 0; i < start.length; i++) {
+            if (head[i] != start[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isNameEnd(final byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '>' || b == '/';
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static ImportCheckpoint of(long offset, Type type, long osmId, long nodesCount, long waysCount,
+            long relationsCount, long interval) {
+        return new ImportCheckpoint(offset, type, osmId, nodesCount, waysCount, relationsCount, interval);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.github.osm.mongo;
+
+import com.github.osm.domain.OsmEntity.Type;
+
+
+/**
+ * Callbacks of an import through the {@link com.github.osm.mongo.sax.MongoOsmSaxHandler} and its
+ * {@link BatchWriter}, to bridge them to a metrics library, e.g. as timers and gauges. Every method
+ * does nothing by default, and {@link #noop()} is used when none is set.
+ * <p>
+ * {@link #entityHandled(Type, long)} is called from the parser thread, and
+ * {@link #batchWritten(String, int, int, long)} from the writer threads when pipelined; both are on
+ * the hot path, and should only update counters.
+ */
+public interface ImportMetrics {
+
+    /**
+     * Metrics doing nothing.
+     */
+    ImportMetrics NOOP = new ImportMetrics() {
+        // defaults only
+    };
+
+
+    /**
+     * Called once an entity is handed to the writer.
+     *
+     * @param type type of the entity
+     * @param nanos time spent in the handler callback, waiting on the writer included
+     */
+    default void entityHandled(Type type, long nanos) {
+        // nothing to do
+    }
+
+    /**
+     * Called once a batch is written.
+     *
+     * @param collectionName collection of the batch
+     * @param size no. of documents of the batch
+     * @param failed no. of documents of the batch that failed to write
+     * @param nanos time spent writing the batch
+     */
+    default void batchWritten(String collectionName, int size, int failed, long nanos) {
+        // nothing to do
+    }
+
+    /**
+     * Called periodically during the import, from the parser thread.
+     *
+     * @param report the import so far
+     */
+    default void progress(ImportReport report) {
+        // nothing to do
+    }
+
+    /**
+     * Called once the document is completed.
+     *
+     * @param report the whole import
+     */
+    default void completed(ImportReport report) {
+        // nothing to do
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    static ImportMetrics noop() {
+        return NOOP;
+    }
+
+}
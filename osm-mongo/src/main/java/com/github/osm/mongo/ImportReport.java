@@ -0,0 +1,352 @@
+package com.github.osm.mongo;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.osm.domain.OsmEntity.Type;
+
+
+/**
+ * Immutable figures of an import, so far or once done: the entities handled per type, the bytes
+ * read, the documents written, the batch latencies, the writer queue, and the GC activity over the
+ * import. Built by the {@link com.github.osm.mongo.sax.MongoOsmSaxHandler}, see
+ * {@link #builder()}.
+ * <p>
+ * The entity counts of a resumed import go on from the ones of its checkpoint (see
+ * {@link #getResumedCount()}); all the other figures, and the rates, are of this run only.
+ */
+public final class ImportReport {
+
+    private final long elapsedNanos;
+    private final long bytesRead;
+
+    private final long nodesCount;
+    private final long waysCount;
+    private final long relationsCount;
+    private final long resumedNodesCount;
+    private final long resumedWaysCount;
+    private final long resumedRelationsCount;
+    private final long handlerNanos;
+
+    private final long writtenCount;
+    private final long failedCount;
+    private final long batchesCount;
+    private final double batchP50Millis;
+    private final double batchP95Millis;
+    private final double batchP99Millis;
+    private final double batchMaxMillis;
+
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final int inFlightCount;
+
+    private final long gcCount;
+    private final long gcMillis;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private ImportReport(Builder builder) {
+        super();
+
+        this.elapsedNanos = builder.elapsedNanos;
+        this.bytesRead = builder.bytesRead;
+        this.nodesCount = builder.nodesCount;
+        this.waysCount = builder.waysCount;
+        this.relationsCount = builder.relationsCount;
+        this.resumedNodesCount = builder.resumedNodesCount;
+        this.resumedWaysCount = builder.resumedWaysCount;
+        this.resumedRelationsCount = builder.resumedRelationsCount;
+        this.handlerNanos = builder.handlerNanos;
+        this.writtenCount = builder.writtenCount;
+        this.failedCount = builder.failedCount;
+        this.batchesCount = builder.batchesCount;
+        this.batchP50Millis = builder.batchP50Millis;
+        this.batchP95Millis = builder.batchP95Millis;
+        this.batchP99Millis = builder.batchP99Millis;
+        this.batchMaxMillis = builder.batchMaxMillis;
+        this.queueDepth = builder.queueDepth;
+        this.maxQueueDepth = builder.maxQueueDepth;
+        this.inFlightCount = builder.inFlightCount;
+        this.gcCount = builder.gcCount;
+        this.gcMillis = builder.gcMillis;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return no. of bytes of input read in this run, 0 when not counted
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getNodesCount() {
+        return nodesCount;
+    }
+
+    public long getWaysCount() {
+        return waysCount;
+    }
+
+    public long getRelationsCount() {
+        return relationsCount;
+    }
+
+    public long getEntitiesCount() {
+        return nodesCount + waysCount + relationsCount;
+    }
+
+    /**
+     * @return no. of entities persisted before a resumed import, 0 when not resumed; counted in
+     *         the entity counts, not in the rates
+     */
+    public long getResumedCount() {
+        return resumedNodesCount + resumedWaysCount + resumedRelationsCount;
+    }
+
+    /**
+     * @return time spent in the handler callbacks, waiting on the writer included
+     */
+    public long getHandlerMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(handlerNanos);
+    }
+
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getBatchesCount() {
+        return batchesCount;
+    }
+
+    public double getBatchP50Millis() {
+        return batchP50Millis;
+    }
+
+    public double getBatchP95Millis() {
+        return batchP95Millis;
+    }
+
+    public double getBatchP99Millis() {
+        return batchP99Millis;
+    }
+
+    public double getBatchMaxMillis() {
+        return batchMaxMillis;
+    }
+
+    /**
+     * @return no. of full batches waiting for a writer, when the report was built
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return max no. of full batches waiting for a writer, as sampled during the import
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return no. of batches being written, when the report was built
+     */
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    /**
+     * @return no. of garbage collections during the import, of all the collectors
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * @return time spent in garbage collections during the import, as reported by the collectors
+     */
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    public double getBytesPerSecond() {
+        return this.perSecond(bytesRead);
+    }
+
+    public double getEntitiesPerSecond() {
+        return this.perSecond(this.getEntitiesCount() - this.getResumedCount());
+    }
+
+    /**
+     * @return no. of entities of the passed type handled per second
+     */
+    public double getEntitiesPerSecond(final Type type) {
+        switch (type) {
+            case node:
+                return this.perSecond(nodesCount - resumedNodesCount);
+            case way:
+                return this.perSecond(waysCount - resumedWaysCount);
+            case relation:
+                return this.perSecond(relationsCount - resumedRelationsCount);
+            default:
+                return 0;
+        }
+    }
+
+    public double getWrittenPerSecond() {
+        return this.perSecond(writtenCount);
+    }
+
+    /**
+     * @return share of the elapsed time spent in garbage collections
+     */
+    public double getGcRatio() {
+        return elapsedNanos == 0 ? 0 : (double) TimeUnit.MILLISECONDS.toNanos(gcMillis) / elapsedNanos;
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport [elapsed=%d ms, read=%d bytes (%.1f MB/s), nodes=%d, ways=%d, "
+                + "relations=%d (%.0f/s), resumed=%d, handler=%d ms, written=%d, failed=%d, batches=%d, "
+                + "batch p50/p95/p99/max=%.1f/%.1f/%.1f/%.1f ms, queue=%d (max %d), inFlight=%d, gc=%d (%d ms)]",
+                this.getElapsedMillis(), bytesRead, this.getBytesPerSecond() / (1024 * 1024), nodesCount, waysCount,
+                relationsCount, this.getEntitiesPerSecond(), this.getResumedCount(), this.getHandlerMillis(), writtenCount, failedCount,
+                batchesCount, batchP50Millis, batchP95Millis, batchP99Millis, batchMaxMillis, queueDepth,
+                maxQueueDepth, inFlightCount, gcCount, gcMillis);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private double perSecond(final long count) {
+        return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+
+
+    // Builder
+    // ------------------------------------------------------------------------
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder of an {@link ImportReport}, not thread safe.
+     */
+    public static final class Builder {
+
+        private long elapsedNanos;
+        private long bytesRead;
+        private long nodesCount;
+        private long waysCount;
+        private long relationsCount;
+        private long resumedNodesCount;
+        private long resumedWaysCount;
+        private long resumedRelationsCount;
+        private long handlerNanos;
+        private long writtenCount;
+        private long failedCount;
+        private long batchesCount;
+        private double batchP50Millis;
+        private double batchP95Millis;
+        private double batchP99Millis;
+        private double batchMaxMillis;
+        private int queueDepth;
+        private int maxQueueDepth;
+        private int inFlightCount;
+        private long gcCount;
+        private long gcMillis;
+
+        private Builder() {
+            super();
+        }
+
+        public Builder elapsedNanos(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+            return this;
+        }
+
+        public Builder bytesRead(long bytesRead) {
+            this.bytesRead = bytesRead;
+            return this;
+        }
+
+        public Builder entities(long nodesCount, long waysCount, long relationsCount) {
+            this.nodesCount = nodesCount;
+            this.waysCount = waysCount;
+            this.relationsCount = relationsCount;
+            return this;
+        }
+
+        /**
+         * Counts of the entities persisted before a resumed import, part of the counts of
+         * {@link #entities(long, long, long)}.
+         */
+        public Builder resumed(long nodesCount, long waysCount, long relationsCount) {
+            this.resumedNodesCount = nodesCount;
+            this.resumedWaysCount = waysCount;
+            this.resumedRelationsCount = relationsCount;
+            return this;
+        }
+
+        public Builder handlerNanos(long handlerNanos) {
+            this.handlerNanos = handlerNanos;
+            return this;
+        }
+
+        /**
+         * Takes the counts, latencies and queue of the passed writer.
+         */
+        public Builder writer(BatchWriter writer) {
+            this.writtenCount = writer.getWrittenCount();
+            this.failedCount = writer.getFailedCount();
+            this.batchesCount = writer.getBatchesCount();
+            this.queueDepth = writer.getQueueDepth();
+            this.inFlightCount = writer.getInFlightCount();
+
+            final LatencyHistogram latencies = writer.getBatchLatencies();
+            this.batchP50Millis = latencies.percentileMillis(50);
+            this.batchP95Millis = latencies.percentileMillis(95);
+            this.batchP99Millis = latencies.percentileMillis(99);
+            this.batchMaxMillis = latencies.percentileMillis(100);
+            return this;
+        }
+
+        public Builder maxQueueDepth(int maxQueueDepth) {
+            this.maxQueueDepth = maxQueueDepth;
+            return this;
+        }
+
+        public Builder gc(long gcCount, long gcMillis) {
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            return this;
+        }
+
+        public ImportReport build() {
+            return new ImportReport(this);
+        }
+    }
+
+}
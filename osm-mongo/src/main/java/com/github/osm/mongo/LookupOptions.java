@@ -0,0 +1,94 @@
+package com.github.osm.mongo;
+
+
+/**
+ * Immutable set of options controlling how an {@link OsmMongoStore} looks up entities by id.
+ * Instances are derived from {@link #defaults()} using the <code>with*</code> copy methods.
+ */
+public final class LookupOptions {
+
+    public static final int DEFAULT_CHUNK_SIZE = 2000;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final int chunkSize;
+    private final int parallelism;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private LookupOptions(int chunkSize, int parallelism) {
+        super();
+
+        // Sanity checks
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("LookupOptions :: chunkSize should be positive");
+        }
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("LookupOptions :: parallelism should be positive");
+        }
+
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * Max no. of ids of one <code>$in</code> lookup. Larger lookups are split in chunks of this
+     * size, which keeps each query and its reply well under the BSON document limit, and lets the
+     * chunks be fetched in parallel.
+     *
+     * @return chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Max no. of chunks of a lookup fetched at the same time. A value of 1 fetches the chunks one
+     * after the other, on the calling thread.
+     *
+     * @return parallel chunks count
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isParallel() {
+        return parallelism > 1;
+    }
+
+
+    // Copy Methods
+    // ------------------------------------------------------------------------
+
+    public LookupOptions withChunkSize(int chunkSize) {
+        return new LookupOptions(chunkSize, parallelism);
+    }
+
+    public LookupOptions withParallelism(int parallelism) {
+        return new LookupOptions(chunkSize, parallelism);
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "LookupOptions [chunkSize=" + chunkSize + ", parallelism=" + parallelism + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static LookupOptions defaults() {
+        return new LookupOptions(DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+}
@@ -7,6 +7,8 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,12 +16,18 @@ import com.github.osm.mongo.helper.MongoConfig;
 import com.mongodb.Block;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.connection.ConnectionPoolSettings;
 import com.mongodb.connection.SocketSettings;
 
@@ -33,10 +41,20 @@ public class MongoStore {
     protected final MongoClient client;
     protected final MongoDatabase database;
 
+    private volatile WriteConcern writeConcern;
+
 
     // Constructor
 
     public MongoStore(final MongoConfig config) {
+        this(config, MongoClientSettings.getDefaultCodecRegistry());
+    }
+
+    /**
+     * @param codecRegistry the codecs of the typed collections, see
+     *        {@link #collection(String, Class)}
+     */
+    protected MongoStore(final MongoConfig config, final CodecRegistry codecRegistry) {
         super();
 
         // Sanity checks
@@ -44,6 +62,10 @@ public class MongoStore {
             throw new IllegalArgumentException("MongoStore :: config, should not be blank");
         }
 
+        if (codecRegistry == null) {
+            throw new IllegalArgumentException("MongoStore :: codec registry should not be null");
+        }
+
         // Inputs
         final String host = config.getHost();
         final int port = config.getPort();
@@ -66,6 +88,7 @@ public class MongoStore {
                 .applyConnectionString(new ConnectionString(mongoURI)) //
                 .applyToConnectionPoolSettings(connPoolSettings) //
                 .applyToSocketSettings(socketSettings) //
+                .codecRegistry(codecRegistry) //
                 .build();
 
         // MongoDB Client
@@ -77,9 +100,41 @@ public class MongoStore {
     }
 
 
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+
+    /**
+     * @param writeConcern write concern of the collections of {@link #collection(String, Class)} and
+     *        of the inserts; null for the default one of the database
+     */
+    public void setWriteConcern(final WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
+
     // DB Methods
     // ------------------------------------------------------------------------
 
+    /**
+     * @return the collection, with its documents encoded and decoded as the passed class by the
+     *         codec registry of the store
+     */
+    public <T> MongoCollection<T> collection(final String collectionName, final Class<T> documentClass) {
+        // Sanity checks
+        if (StringUtils.isEmpty(collectionName)) {
+            throw new IllegalArgumentException("collection :: Collection name should not be blank");
+        }
+
+        final MongoCollection<T> collection = this.database.getCollection(collectionName, documentClass);
+        final WriteConcern concern = this.writeConcern;
+        return concern == null ? collection : collection.withWriteConcern(concern);
+    }
+
+
     // Index
 
     public void indexCollection(final String collectionName, final String field) {
@@ -147,10 +202,72 @@ public class MongoStore {
         }
 
         // Collection
-        final MongoCollection<Document> collection = this.database.getCollection(collectionName);
+        final MongoCollection<Document> collection = this.collection(collectionName, Document.class);
         collection.insertOne(dbObject);
     }
 
+    /**
+     * Insert a batch of documents in to a collection, in a single unordered bulk write. The server
+     * keeps going past a failed document, so a failure only loses that document.
+     * 
+     * @param collectionName name of the collection to insert the documents in to.
+     * @param documents the documents to be inserted, {@link Document}s or objects of a class the
+     *        codec registry of the store encodes, all of the same class.
+     * 
+     * @throws com.mongodb.MongoBulkWriteException listing the documents that failed, by index.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void insertMany(final String collectionName, final List<? extends T> documents) {
+        // Sanity checks
+        if (StringUtils.isEmpty(collectionName)) {
+            throw new IllegalArgumentException("insertMany :: Collection name should not be blank");
+        }
+
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+
+        // Collection
+        final Class<T> documentClass = (Class<T>) documents.get(0).getClass();
+        final MongoCollection<T> collection = this.collection(collectionName, documentClass);
+        collection.insertMany(documents, new InsertManyOptions().ordered(false));
+    }
+
+    /**
+     * Insert or replace a batch of documents of a collection, in a single unordered bulk write;
+     * each document replaces the one matching its {@link #upsertFilter(Object)}, if any. Writing
+     * the same documents again is then harmless, unlike with
+     * {@link #insertMany(String, List)}.
+     * 
+     * @param collectionName name of the collection to write the documents in to.
+     * @param documents the documents to be written, all of the same class.
+     * 
+     * @throws com.mongodb.MongoBulkWriteException listing the documents that failed, by index.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void upsertMany(final String collectionName, final List<? extends T> documents) {
+        // Sanity checks
+        if (StringUtils.isEmpty(collectionName)) {
+            throw new IllegalArgumentException("upsertMany :: Collection name should not be blank");
+        }
+
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+
+        // Replacements
+        final ReplaceOptions options = new ReplaceOptions().upsert(true);
+        final List<ReplaceOneModel<T>> replacements = new ArrayList<>(documents.size());
+        for (T document : documents) {
+            replacements.add(new ReplaceOneModel<>(this.upsertFilter(document), document, options));
+        }
+
+        // Collection
+        final Class<T> documentClass = (Class<T>) documents.get(0).getClass();
+        final MongoCollection<T> collection = this.collection(collectionName, documentClass);
+        collection.bulkWrite(replacements, new BulkWriteOptions().ordered(false));
+    }
+
 
     // Find
 
@@ -253,4 +370,19 @@ public class MongoStore {
     }
 
 
+    // Protected Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return filter matching the stored version of the passed document, by <code>_id</code> for a
+     *         {@link Document}
+     */
+    protected Bson upsertFilter(final Object document) {
+        if (document instanceof Document && ((Document) document).containsKey("_id")) {
+            return Filters.eq("_id", ((Document) document).get("_id"));
+        }
+
+        throw new IllegalArgumentException("upsertFilter :: no key for a " + document.getClass().getName());
+    }
+
 }
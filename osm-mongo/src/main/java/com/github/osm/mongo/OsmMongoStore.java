@@ -1,33 +1,64 @@
 package com.github.osm.mongo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
-
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWrapper;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.osm.bean.MemberBean;
 import com.github.osm.bean.NodeBean;
 import com.github.osm.bean.RelationBean;
 import com.github.osm.bean.WayBean;
-import com.github.osm.domain.Member;
+import com.github.osm.domain.Bound;
 import com.github.osm.domain.Node;
 import com.github.osm.domain.OsmEntity;
 import com.github.osm.domain.OsmEntity.Type;
 import com.github.osm.domain.Relation;
 import com.github.osm.domain.Way;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.mongo.codec.GeoJson;
+import com.github.osm.mongo.codec.OsmCodecs;
+import com.github.osm.mongo.codec.WayGeometryEncoder;
 import com.github.osm.mongo.helper.MongoConfig;
-import com.github.osm.mongo.helper.MongoMapper;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.geojson.Point;
+import com.mongodb.client.model.geojson.Position;
 
 
 /**
- * Mongo Store for OSM Entities
+ * Mongo Store for OSM Entities. The entities are encoded and decoded by the codecs of
+ * {@link OsmCodecs}, straight to and from BSON, through the typed collections of
+ * {@link #nodeCollection()}, {@link #wayCollection()} and {@link #relationCollection()}. The
+ * documents are keyed as per the {@link IdScheme} of the store.
+ * <p>
+ * The lookups by id go through an optional {@link EntityCache}, see {@link #setCache(EntityCache)}.
  */
 public class OsmMongoStore extends MongoStore {
 
@@ -39,29 +70,138 @@ public class OsmMongoStore extends MongoStore {
     public static final String COLLECTION_WAY = "osm_ways";
     public static final String COLLECTION_RELATION = "osm_relations";
 
+    private static final int ERROR_NAMESPACE_NOT_FOUND = 26;
+
+    private static final List<String> COLLECTIONS =
+            Collections.unmodifiableList(Arrays.asList(COLLECTION_NODE, COLLECTION_WAY, COLLECTION_RELATION));
+
+
+    private final IdScheme idScheme;
+    private final WayGeometryEncoder wayGeometryEncoder;
+
+    private volatile LookupOptions lookupOptions = LookupOptions.defaults();
+    private volatile EntityCache cache;
+
+    // Bulk load, started at 0 when not loading
+    private long bulkLoadStartNanos;
+    private long dropIndexesMillis;
+    private WriteConcern previousWriteConcern;
+    private ThreadPoolExecutor lookupExecutor;
+
 
     // Constructor
     // ------------------------------------------------------------------------
 
-    private OsmMongoStore(MongoConfig config) {
-        super(config);
+    private OsmMongoStore(MongoConfig config, IdScheme idScheme) {
+        super(config, OsmCodecs.registry(idScheme));
+
+        this.idScheme = idScheme;
+        this.wayGeometryEncoder = new WayGeometryEncoder(idScheme);
     }
 
     // Factory
 
     public static OsmMongoStore withConfig(MongoConfig config) {
-        return new OsmMongoStore(config);
+        return new OsmMongoStore(config, IdScheme.objectId);
+    }
+
+    /**
+     * @param idScheme how the documents are keyed, which should be the same for all the stores over
+     *        a database
+     */
+    public static OsmMongoStore withConfig(MongoConfig config, IdScheme idScheme) {
+        // Sanity checks
+        if (idScheme == null) {
+            throw new IllegalArgumentException("withConfig :: id scheme should not be null");
+        }
+
+        return new OsmMongoStore(config, idScheme);
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    public IdScheme getIdScheme() {
+        return idScheme;
+    }
+
+    public EntityCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @param cache entities looked up by id, read through by the find methods and invalidated by
+     *        the insert ones; null for none, the default
+     */
+    public void setCache(final EntityCache cache) {
+        this.cache = cache;
+    }
+
+    public LookupOptions getLookupOptions() {
+        return lookupOptions;
+    }
+
+    /**
+     * @param lookupOptions how the lookups by id, e.g. of {@link #wayBeans(Collection)}, are split
+     *        and fetched
+     */
+    public synchronized void setLookupOptions(final LookupOptions lookupOptions) {
+        // Sanity checks
+        if (lookupOptions == null) {
+            throw new IllegalArgumentException("setLookupOptions :: lookup options should not be null");
+        }
+
+        this.lookupOptions = lookupOptions;
+
+        // sized on the next parallel lookup
+        if (lookupExecutor != null) {
+            lookupExecutor.shutdown();
+            lookupExecutor = null;
+        }
     }
 
 
     // DB Methods
     // ------------------------------------------------------------------------
 
+    public MongoCollection<Node> nodeCollection() {
+        return this.collection(COLLECTION_NODE, Node.class);
+    }
+
+    public MongoCollection<Way> wayCollection() {
+        return this.collection(COLLECTION_WAY, Way.class);
+    }
+
+    public MongoCollection<Relation> relationCollection() {
+        return this.collection(COLLECTION_RELATION, Relation.class);
+    }
+
+    /**
+     * Creates the <code>2dsphere</code> indexes of the GeoJSON fields, and the index on the
+     * <code>osmId</code> field, only needed by the {@link IdScheme#objectId} scheme; the others look
+     * up the primary <code>_id</code> index.
+     */
     public void ensureIndexes() {
-        // index on id field
-        this.indexCollection(COLLECTION_NODE, "osmId");
-        this.indexCollection(COLLECTION_WAY, "osmId");
-        this.indexCollection(COLLECTION_RELATION, "osmId");
+        for (String collectionName : COLLECTIONS) {
+            this.ensureIndexes(collectionName);
+        }
+    }
+
+    /**
+     * Creates the index on the <code>osmId</code> field that the lookups and upserts of the
+     * {@link IdScheme#objectId} scheme go through; nothing to do with the other schemes, keyed on the
+     * primary <code>_id</code> index. Needed before upserting into a loaded collection, e.g. to
+     * resume an import, as {@link #beginBulkLoad(WriteConcern)} drops it.
+     */
+    public void ensureKeyIndexes() {
+        if (idScheme.isOsmKeyed()) {
+            return;
+        }
+
+        for (String collectionName : COLLECTIONS) {
+            this.indexCollection(collectionName, IdScheme.FIELD_OSM_ID);
+        }
     }
 
     @Override
@@ -70,6 +210,97 @@ public class OsmMongoStore extends MongoStore {
         this.database.getCollection(COLLECTION_NODE).drop();
         this.database.getCollection(COLLECTION_WAY).drop();
         this.database.getCollection(COLLECTION_RELATION).drop();
+
+        final EntityCache entityCache = this.cache;
+        if (entityCache != null) {
+            entityCache.invalidateAll();
+        }
+    }
+
+
+    // Bulk Load Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Starts a bulk load, keeping the write concern, see {@link #beginBulkLoad(WriteConcern)}.
+     */
+    public void beginBulkLoad() {
+        this.beginBulkLoad(null);
+    }
+
+    /**
+     * Starts a bulk load, e.g. a full import: drops the secondary indexes of the collections, so
+     * that the inserts only maintain the primary one, and switches to the passed write concern
+     * until {@link #endBulkLoad()}. Building an index once over the loaded collection is much
+     * cheaper than updating it on every insert.
+     * <p>
+     * The lookups by <code>osmId</code> of the {@link IdScheme#objectId} scheme, and the spatial
+     * queries, scan the collections until the bulk load ends; call {@link #ensureKeyIndexes()} to
+     * keep the former indexed, e.g. when resuming an import into the loaded collections.
+     *
+     * @param writeConcern write concern of the load, e.g. {@link WriteConcern#W1} without journal;
+     *        null to keep the current one
+     */
+    public synchronized void beginBulkLoad(final WriteConcern writeConcern) {
+        // Sanity checks
+        if (this.isBulkLoading()) {
+            throw new IllegalStateException("beginBulkLoad :: a bulk load is already started");
+        }
+
+        final long start = System.nanoTime();
+        for (String collectionName : COLLECTIONS) {
+            try {
+                this.collection(collectionName, Document.class).dropIndexes();
+            } catch (MongoCommandException ex) {
+                // a first import, into a new database
+                if (ex.getErrorCode() != ERROR_NAMESPACE_NOT_FOUND) {
+                    throw ex;
+                }
+            }
+        }
+
+        this.dropIndexesMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        this.previousWriteConcern = this.getWriteConcern();
+        if (writeConcern != null) {
+            this.setWriteConcern(writeConcern);
+        }
+
+        this.bulkLoadStartNanos = System.nanoTime();
+        LOGGER.info("Bulk load started, secondary indexes dropped in {} ms, write concern : {}", dropIndexesMillis,
+                writeConcern == null ? "unchanged" : writeConcern);
+    }
+
+    /**
+     * Ends the bulk load: restores the write concern, and builds the indexes of
+     * {@link #ensureIndexes()}.
+     *
+     * @return time spent in each phase of the bulk load
+     */
+    public synchronized BulkLoadReport endBulkLoad() {
+        // Sanity checks
+        if (!this.isBulkLoading()) {
+            throw new IllegalStateException("endBulkLoad :: no bulk load is started");
+        }
+
+        final long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - bulkLoadStartNanos);
+        this.bulkLoadStartNanos = 0;
+        this.setWriteConcern(previousWriteConcern);
+
+        final Map<String, Long> indexMillis = new LinkedHashMap<>();
+        for (String collectionName : COLLECTIONS) {
+            final long start = System.nanoTime();
+            this.ensureIndexes(collectionName);
+            indexMillis.put(collectionName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        final BulkLoadReport report = new BulkLoadReport(dropIndexesMillis, loadMillis, indexMillis);
+        LOGGER.info("Bulk load done : {}", report);
+
+        return report;
+    }
+
+    public synchronized boolean isBulkLoading() {
+        return bulkLoadStartNanos != 0;
     }
 
 
@@ -82,8 +313,8 @@ public class OsmMongoStore extends MongoStore {
             throw new IllegalArgumentException("insert :: Node object should not be null");
         }
 
-        final Document nodeDoc = MongoMapper.document(node);
-        this.insert(COLLECTION_NODE, nodeDoc);
+        this.nodeCollection().insertOne(node);
+        this.invalidate(node);
     }
 
     public void insert(final Way way) {
@@ -92,8 +323,8 @@ public class OsmMongoStore extends MongoStore {
             throw new IllegalArgumentException("insert :: Way object should not be null");
         }
 
-        final Document wayDoc = MongoMapper.document(way);
-        this.insert(COLLECTION_WAY, wayDoc);
+        this.wayCollection().insertOne(way);
+        this.invalidate(way);
     }
 
     public void insert(final Relation relation) {
@@ -102,8 +333,47 @@ public class OsmMongoStore extends MongoStore {
             throw new IllegalArgumentException("insert :: Relation object should not be null");
         }
 
-        final Document relationDoc = MongoMapper.document(relation);
-        this.insert(COLLECTION_RELATION, relationDoc);
+        this.relationCollection().insertOne(relation);
+        this.invalidate(relation);
+    }
+
+    /**
+     * Inserts the documents, dropping the cached entities among them; see
+     * {@link MongoStore#insertMany(String, List)}. Way geometries are written through a
+     * {@link WayGeometryEncoder}.
+     */
+    @Override
+    public <T> void insertMany(final String collectionName, final List<? extends T> documents) {
+        super.insertMany(collectionName, this.encodable(documents));
+        this.invalidateAll(documents);
+    }
+
+    /**
+     * Inserts or replaces the documents by OSM id, dropping the cached entities among them; see
+     * {@link MongoStore#upsertMany(String, List)}. Way geometries are written through a
+     * {@link WayGeometryEncoder}.
+     */
+    @Override
+    public <T> void upsertMany(final String collectionName, final List<? extends T> documents) {
+        super.upsertMany(collectionName, this.encodable(documents));
+        this.invalidateAll(documents);
+    }
+
+    /**
+     * @return filter on the key of the entity as per the {@link IdScheme}, for the entities and way
+     *         geometries
+     */
+    @Override
+    protected Bson upsertFilter(final Object document) {
+        final Object wrapped =
+                document instanceof BsonDocumentWrapper ? ((BsonDocumentWrapper<?>) document).getWrappedDocument()
+                        : document;
+        final OsmEntity entity = entityOf(wrapped);
+        if (entity != null) {
+            return idScheme.filter(EntityCache.typeOf(entity), entity.getOsmId());
+        }
+
+        return super.upsertFilter(document);
     }
 
 
@@ -123,11 +393,28 @@ public class OsmMongoStore extends MongoStore {
     // Node
 
     public Node node(final long osmId) {
+        // Cache
+        final EntityCache entityCache = this.cache;
+        EntityCache.Stamp stamp = null;
+        if (entityCache != null) {
+            final Node cached = entityCache.get(Type.node, osmId);
+            if (cached != null) {
+                return cached;
+            }
+
+            // to cache the result unless invalidated meanwhile
+            stamp = entityCache.stamp();
+        }
+
         // Result
-        final Document result = this.findOne(COLLECTION_NODE, new Document("osmId", osmId));
+        final Node result = this.nodeCollection().find(idScheme.filter(Type.node, osmId)).first();
         LOGGER.debug("Fetched Node with OSM id : {} - {}", osmId, result);
 
-        return Objects.isNull(result) ? null : MongoMapper.node(result);
+        if (entityCache != null && result != null) {
+            entityCache.put(result, stamp);
+        }
+
+        return result;
     }
 
     public NodeBean nodeBean(final long osmId) {
@@ -141,51 +428,112 @@ public class OsmMongoStore extends MongoStore {
         return new NodeBean(node);
     }
 
-    public Map<Long, NodeBean> nodeBeans(final List<Long> osmIds) {
+    /**
+     * @return beans of the nodes of the passed ids found in the store, by id
+     */
+    public Map<Long, NodeBean> nodeBeans(final Collection<Long> osmIds) {
         // Sanity checks
         if (Objects.isNull(osmIds)) {
             return new HashMap<>();
         }
 
-        // Filter
-        final Document filter = new Document("osmId", new Document("$in", osmIds));
-
         // Result
-        final List<Document> nodes = this.find(COLLECTION_NODE, filter, 1, osmIds.size());
-        final Map<Long, NodeBean> nodeBeanMap = //
-                nodes.stream().map(MongoMapper::node).collect(Collectors.toMap(n -> n.getOsmId(), NodeBean::new));
+        final Map<Long, NodeBean> nodeBeanMap = new HashMap<>();
+        this.nodesById(osmIds).forEach((osmId, node) -> nodeBeanMap.put(osmId, new NodeBean(node)));
 
         return nodeBeanMap;
     }
 
+    /**
+     * @return the nodes of the passed ids found in the store, by id, fetched in chunks as per the
+     *         {@link LookupOptions} of the store
+     */
+    public Map<Long, Node> nodesById(final Collection<Long> osmIds) {
+        return this.lookup(this.nodeCollection(), Type.node, osmIds);
+    }
+
 
     // Way
 
     public Way way(final long osmId) {
+        // Cache
+        final EntityCache entityCache = this.cache;
+        EntityCache.Stamp stamp = null;
+        if (entityCache != null) {
+            final Way cached = entityCache.get(Type.way, osmId);
+            if (cached != null) {
+                return cached;
+            }
+
+            // to cache the result unless invalidated meanwhile
+            stamp = entityCache.stamp();
+        }
+
         // Result
-        final Document result = this.findOne(COLLECTION_WAY, new Document("osmId", osmId));
+        final Way result = this.wayCollection().find(idScheme.filter(Type.way, osmId)).first();
         LOGGER.debug("Fetched Way with OSM id : {} - {}", osmId, result);
 
-        return Objects.isNull(result) ? null : MongoMapper.way(result);
+        if (entityCache != null && result != null) {
+            entityCache.put(result, stamp);
+        }
+
+        return result;
     }
 
     public WayBean wayBean(final long osmId) {
         // Way
-        final Way way = this.way(osmId);
-        if (Objects.isNull(way)) {
+        final WayBean wayBean = this.wayBeans(Collections.singleton(osmId)).get(osmId);
+        if (Objects.isNull(wayBean)) {
             LOGGER.error("No Way object found with the passed id : {}", osmId);
-            return null;
         }
 
-        // NodeIds
-        final List<Long> nodeIds = way.getNodeIds();
+        return wayBean;
+    }
+
+    /**
+     * Resolves the ways of the passed ids with their nodes, fetching the ways with one lookup, and
+     * the union of their nodes with another. The nodes shared by several ways are resolved to the
+     * same {@link NodeBean}; the nodes missing from the store are left <code>null</code>.
+     *
+     * @return beans of the ways found in the store, by id, in the order of the passed ids
+     */
+    public Map<Long, WayBean> wayBeans(final Collection<Long> osmIds) {
+        // Sanity checks
+        if (Objects.isNull(osmIds) || osmIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        // Ways
+        final Map<Long, Way> ways = this.waysById(osmIds);
+
+        // Nodes, of all the ways
+        final Set<Long> nodeIds = new LinkedHashSet<>();
+        for (Way way : ways.values()) {
+            way.forEachNodeId(nodeIds::add);
+        }
 
-        // NodesList
         final Map<Long, NodeBean> nodeBeansMap = this.nodeBeans(nodeIds);
-        final List<NodeBean> nodeBeans =
-                nodeIds.stream().map(nodeId -> nodeBeansMap.get(nodeId)).collect(Collectors.toList());
 
-        return new WayBean(way, nodeBeans);
+        // Result
+        final Map<Long, WayBean> wayBeanMap = new LinkedHashMap<>();
+        for (Long osmId : osmIds) {
+            final Way way = ways.get(osmId);
+            if (way != null && !wayBeanMap.containsKey(osmId)) {
+                final List<NodeBean> nodeBeans = new ArrayList<>(way.nodeIdCount());
+                way.forEachNodeId(nodeId -> nodeBeans.add(nodeBeansMap.get(nodeId)));
+                wayBeanMap.put(osmId, new WayBean(way, nodeBeans));
+            }
+        }
+
+        return wayBeanMap;
+    }
+
+    /**
+     * @return the ways of the passed ids found in the store, by id, fetched in chunks as per the
+     *         {@link LookupOptions} of the store
+     */
+    public Map<Long, Way> waysById(final Collection<Long> osmIds) {
+        return this.lookup(this.wayCollection(), Type.way, osmIds);
     }
 
 
@@ -193,48 +541,127 @@ public class OsmMongoStore extends MongoStore {
     // Relation
 
     public Relation relation(final long osmId) {
+        // Cache
+        final EntityCache entityCache = this.cache;
+        EntityCache.Stamp stamp = null;
+        if (entityCache != null) {
+            final Relation cached = entityCache.get(Type.relation, osmId);
+            if (cached != null) {
+                return cached;
+            }
+
+            // to cache the result unless invalidated meanwhile
+            stamp = entityCache.stamp();
+        }
+
         // Result
-        final Document result = this.findOne(COLLECTION_RELATION, new Document("osmId", osmId));
+        final Relation result = this.relationCollection().find(idScheme.filter(Type.relation, osmId)).first();
         LOGGER.debug("Fetched Relation with OSM id : {} - {}", osmId, result);
 
-        return Objects.isNull(result) ? null : MongoMapper.relation(result);
+        if (entityCache != null && result != null) {
+            entityCache.put(result, stamp);
+        }
+
+        return result;
     }
 
+    /**
+     * @return the relation with its members resolved, nested relations included up to
+     *         {@link RelationResolver#DEFAULT_MAX_DEPTH} levels
+     * 
+     * @see RelationResolver
+     */
     public RelationBean relationBean(final long osmId) {
-        // Way
-        final Relation relation = this.relation(osmId);
-        if (Objects.isNull(relation)) {
-            LOGGER.error("No Relation object found with the passed id : {}", osmId);
-            return null;
+        return RelationResolver.of(this).resolve(osmId);
+    }
+
+    /**
+     * @param maxDepth no. of levels of nested relations resolved, 0 for the direct members only
+     * 
+     * @return the relation with its members resolved
+     * 
+     * @see RelationResolver
+     */
+    public RelationBean relationBean(final long osmId, final int maxDepth) {
+        return RelationResolver.of(this, maxDepth).resolve(osmId);
+    }
+
+    /**
+     * @return the relations of the passed ids found in the store, by id, fetched in chunks as per
+     *         the {@link LookupOptions} of the store
+     */
+    public Map<Long, Relation> relationsById(final Collection<Long> osmIds) {
+        return this.lookup(this.relationCollection(), Type.relation, osmIds);
+    }
+
+
+
+    // Spatial Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the nodes within the passed bound, see {@link GeoJson#polygon(Bound)}
+     */
+    public FindIterable<Node> nodesWithin(final Bound bound) {
+        return this.nodesWithin(bound, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize no. of nodes fetched per round trip while iterating
+     * 
+     * @return the nodes within the passed bound, see {@link GeoJson#polygon(Bound)}
+     */
+    public FindIterable<Node> nodesWithin(final Bound bound, final int batchSize) {
+        final Bson filter = Filters.geoWithin(OsmCodecs.FIELD_LOCATION, GeoJson.polygon(bound));
+        return this.nodeCollection().find(filter).batchSize(batchSize);
+    }
+
+    /**
+     * @return the nodes within the passed distance of a point, nearest first
+     */
+    public FindIterable<Node> nodesNear(final double latitude, final double longitude, final double radiusMeters) {
+        return this.nodesNear(latitude, longitude, radiusMeters, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param radiusMeters max distance to the point, in meters
+     * @param batchSize no. of nodes fetched per round trip while iterating
+     * 
+     * @return the nodes within the passed distance of a point, nearest first
+     */
+    public FindIterable<Node> nodesNear(final double latitude, final double longitude, final double radiusMeters,
+            final int batchSize) {
+        // Sanity checks
+        if (!GeoJson.isValid(latitude, longitude)) {
+            throw new IllegalArgumentException("nodesNear :: invalid coordinates " + latitude + ", " + longitude);
         }
 
-        // NodesMap
-        final List<MemberBean> memberBeans = new ArrayList<>();
-        for (Member member : relation.getMembers()) {
-            final Type type = member.getType();
-            final long id = member.getId();
-            final String role = member.getRole();
-
-            // prepare bean
-            switch (type) {
-                case node:
-                    NodeBean nBean = this.nodeBean(id);
-                    memberBeans.add(MemberBean.from(id, role, nBean));
-                    break;
-                case way:
-                    WayBean wBean = this.wayBean(id);
-                    memberBeans.add(MemberBean.from(id, role, wBean));
-                    break;
-                case relation:
-                    RelationBean relBean = this.relationBean(id);
-                    memberBeans.add(MemberBean.from(id, role, relBean));
-                    break;
-                default:
-                    throw new RuntimeException("Unhandled member type  found : " + type);
-            }
+        if (radiusMeters < 0) {
+            throw new IllegalArgumentException("nodesNear :: radius should not be negative");
         }
 
-        return new RelationBean(relation, memberBeans);
+        final Point point = new Point(new Position(longitude, latitude));
+        final Bson filter = Filters.nearSphere(OsmCodecs.FIELD_LOCATION, point, radiusMeters, 0.0);
+        return this.nodeCollection().find(filter).batchSize(batchSize);
+    }
+
+    /**
+     * @return the ways whose bounding box intersects the passed bound; only the ways written with
+     *         their geometry have one
+     */
+    public FindIterable<Way> waysIntersecting(final Bound bound) {
+        return this.waysIntersecting(bound, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize no. of ways fetched per round trip while iterating
+     * 
+     * @return the ways whose bounding box intersects the passed bound; only the ways written with
+     *         their geometry have one
+     */
+    public FindIterable<Way> waysIntersecting(final Bound bound, final int batchSize) {
+        final Bson filter = Filters.geoIntersects(OsmCodecs.FIELD_BBOX, GeoJson.polygon(bound));
+        return this.wayCollection().find(filter).batchSize(batchSize);
     }
 
 
@@ -259,6 +686,164 @@ public class OsmMongoStore extends MongoStore {
     // Private Methods
     // ------------------------------------------------------------------------
 
+    private <T extends OsmEntity> Map<Long, T> lookup(final MongoCollection<T> collection, final Type type,
+            final Collection<Long> osmIds) {
+        // Sanity checks
+        if (Objects.isNull(osmIds) || osmIds.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        // Cache, the misses left to fetch
+        final EntityCache entityCache = this.cache;
+        final Map<Long, T> cached = new HashMap<>();
+        Collection<Long> missing = osmIds;
+        if (entityCache != null) {
+            missing = new ArrayList<>();
+            for (Long osmId : osmIds) {
+                final T entity = entityCache.get(type, osmId);
+                if (entity == null) {
+                    missing.add(osmId);
+                } else {
+                    cached.put(osmId, entity);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return cached;
+            }
+        }
+
+        final EntityCache.Stamp stamp = entityCache == null ? null : entityCache.stamp();
+        final Map<Long, T> result = this.fetchAll(collection, type, missing);
+        if (entityCache != null) {
+            result.values().forEach(entity -> entityCache.put(entity, stamp));
+            result.putAll(cached);
+        }
+
+        return result;
+    }
+
+    private <T extends OsmEntity> Map<Long, T> fetchAll(final MongoCollection<T> collection, final Type type,
+            final Collection<Long> osmIds) {
+        final LookupOptions options = this.lookupOptions;
+        final List<List<Long>> chunks = partition(osmIds, options.getChunkSize());
+        if (chunks.size() == 1 || !options.isParallel()) {
+            final Map<Long, T> result = new HashMap<>();
+            for (List<Long> chunk : chunks) {
+                result.putAll(this.fetch(collection, type, chunk));
+            }
+
+            return result;
+        }
+
+        // Parallel chunks
+        final ExecutorService executor = this.lookupExecutor();
+        final List<Future<Map<Long, T>>> futures = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks) {
+            futures.add(executor.submit(() -> this.fetch(collection, type, chunk)));
+        }
+
+        final Map<Long, T> result = new HashMap<>();
+        try {
+            for (Future<Map<Long, T>> future : futures) {
+                result.putAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new MongoInterruptedException("Interrupted while looking up " + type + "s", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw new MongoException("Failed to look up " + type + "s", ex.getCause());
+        }
+
+        LOGGER.debug("Fetched {} {}s in {} chunks", result.size(), type, chunks.size());
+        return result;
+    }
+
+    private <T extends OsmEntity> Map<Long, T> fetch(final MongoCollection<T> collection, final Type type,
+            final List<Long> osmIds) {
+        final Map<Long, T> result = new HashMap<>();
+        collection.find(idScheme.filterIn(type, osmIds)).batchSize(osmIds.size())
+                .forEach(entity -> result.put(entity.getOsmId(), entity));
+
+        return result;
+    }
+
+    /**
+     * @return the passed documents, the way geometries among them wrapped by the
+     *         {@link WayGeometryEncoder}, as the codec registry only holds the entity codecs
+     */
+    private List<?> encodable(final List<?> documents) {
+        if (documents == null || documents.isEmpty() || !(documents.get(0) instanceof WayGeometry)) {
+            return documents;
+        }
+
+        final List<BsonDocument> wrapped = new ArrayList<>(documents.size());
+        for (Object document : documents) {
+            wrapped.add(wayGeometryEncoder.wrap((WayGeometry) document));
+        }
+
+        return wrapped;
+    }
+
+    private void invalidateAll(final List<?> documents) {
+        if (this.cache == null || documents == null) {
+            return;
+        }
+
+        for (Object document : documents) {
+            final OsmEntity entity = entityOf(document);
+            if (entity != null) {
+                this.invalidate(entity);
+            }
+        }
+    }
+
+    private void invalidate(final OsmEntity entity) {
+        final EntityCache entityCache = this.cache;
+        if (entityCache != null) {
+            entityCache.invalidate(entity);
+        }
+    }
+
+    private void ensureIndexes(final String collectionName) {
+        // spatial indexes
+        if (COLLECTION_NODE.equals(collectionName)) {
+            this.nodeCollection().createIndex(Indexes.geo2dsphere(OsmCodecs.FIELD_LOCATION));
+        } else if (COLLECTION_WAY.equals(collectionName)) {
+            this.wayCollection().createIndex(Indexes.geo2dsphere(OsmCodecs.FIELD_BBOX));
+        }
+
+        if (idScheme.isOsmKeyed()) {
+            LOGGER.debug("No secondary index on {} needed with the {} id scheme", collectionName, idScheme);
+            return;
+        }
+
+        // index on id field
+        this.indexCollection(collectionName, IdScheme.FIELD_OSM_ID);
+    }
+
+    private synchronized ExecutorService lookupExecutor() {
+        if (lookupExecutor == null) {
+            final int threads = lookupOptions.getParallelism();
+            final AtomicInteger counter = new AtomicInteger();
+            lookupExecutor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        final Thread thread = new Thread(runnable, "osm-mongo-lookup-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            lookupExecutor.allowCoreThreadTimeOut(true);
+        }
+
+        return lookupExecutor;
+    }
+
     private <T extends OsmEntity> String getCollectionName(final Class<T> osmEntityClz) {
         // Sanity checks
         if (osmEntityClz == null) {
@@ -269,4 +854,43 @@ public class OsmMongoStore extends MongoStore {
     }
 
 
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the passed ids split in lists of at most the passed size
+     */
+    static List<List<Long>> partition(final Collection<Long> osmIds, final int size) {
+        final List<List<Long>> chunks = new ArrayList<>((osmIds.size() + size - 1) / size);
+
+        List<Long> chunk = new ArrayList<>(Math.min(size, osmIds.size()));
+        for (Long osmId : osmIds) {
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(Math.min(size, osmIds.size() - chunks.size() * size));
+            }
+            chunk.add(osmId);
+        }
+
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    /**
+     * @return the entity of the passed document, the way of a way geometry, or null
+     */
+    private static OsmEntity entityOf(final Object document) {
+        if (document instanceof OsmEntity) {
+            return (OsmEntity) document;
+        } else if (document instanceof WayGeometry) {
+            return ((WayGeometry) document).way();
+        }
+
+        return null;
+    }
+
+
 }
@@ -0,0 +1,290 @@
+package com.github.osm.mongo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.osm.bean.MemberBean;
+import com.github.osm.bean.NodeBean;
+import com.github.osm.bean.RelationBean;
+import com.github.osm.bean.WayBean;
+import com.github.osm.domain.Member;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+
+
+/**
+ * Resolves a relation and its members, walking the member graph breadth first: the relations of a
+ * level are fetched with a single <code>$in</code> lookup, then the ways of all the levels with
+ * one, then their nodes and the node members with one. Against a lookup per member, a relation of
+ * n members costs a handful of round trips, and the nodes and ways shared by several members are
+ * fetched once and resolved to the same bean.
+ * <p>
+ * Relations nested deeper than the max depth are not fetched, and a relation that is a member of
+ * itself, directly or not, is not resolved again; both are left as members with a <code>null</code>
+ * bean, like the members missing from the store. A relation reached at several depths is resolved
+ * as deep as its shallowest occurrence allows, whatever the order of the members.
+ */
+public final class RelationResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RelationResolver.class);
+
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    private final Function<Collection<Long>, Map<Long, Node>> nodeSource;
+    private final Function<Collection<Long>, Map<Long, Way>> waySource;
+    private final Function<Collection<Long>, Map<Long, Relation>> relationSource;
+    private final int maxDepth;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private RelationResolver(Function<Collection<Long>, Map<Long, Node>> nodeSource,
+            Function<Collection<Long>, Map<Long, Way>> waySource,
+            Function<Collection<Long>, Map<Long, Relation>> relationSource, int maxDepth) {
+        super();
+
+        // Sanity checks
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("RelationResolver :: max depth should not be negative");
+        }
+
+        this.nodeSource = nodeSource;
+        this.waySource = waySource;
+        this.relationSource = relationSource;
+        this.maxDepth = maxDepth;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * No. of levels of nested relations resolved below the root one; 0 resolves the direct members
+     * only.
+     *
+     * @return max depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the relation with its members resolved, or null when there is no such relation
+     */
+    public RelationBean resolve(final long osmId) {
+        final Resolution resolution = new Resolution();
+
+        // Relations, level by level
+        Set<Long> level = new LinkedHashSet<>();
+        level.add(osmId);
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            final Map<Long, Relation> fetched = relationSource.apply(level);
+            resolution.relations.putAll(fetched);
+
+            final Set<Long> next = new LinkedHashSet<>();
+            for (Relation relation : fetched.values()) {
+                for (Member member : relation.getMembers()) {
+                    switch (member.getType()) {
+                        case node:
+                            resolution.nodeIds.add(member.getId());
+                            break;
+                        case way:
+                            resolution.wayIds.add(member.getId());
+                            break;
+                        case relation:
+                            if (depth < maxDepth && !resolution.relations.containsKey(member.getId())) {
+                                next.add(member.getId());
+                            }
+                            break;
+                        default:
+                            throw new IllegalStateException("resolve :: unhandled member type " + member.getType());
+                    }
+                }
+            }
+
+            level = next;
+        }
+
+        if (!resolution.relations.containsKey(osmId)) {
+            LOGGER.error("No Relation object found with the passed id : {}", osmId);
+            return null;
+        }
+
+        // Ways, then the nodes of both
+        if (!resolution.wayIds.isEmpty()) {
+            resolution.ways.putAll(waySource.apply(resolution.wayIds));
+            for (Way way : resolution.ways.values()) {
+                way.forEachNodeId(resolution.nodeIds::add);
+            }
+        }
+
+        if (!resolution.nodeIds.isEmpty()) {
+            resolution.nodes.putAll(nodeSource.apply(resolution.nodeIds));
+        }
+
+        LOGGER.debug("Resolved relation {} : {} relations, {} ways, {} nodes", osmId, resolution.relations.size(),
+                resolution.ways.size(), resolution.nodes.size());
+
+        return resolution.relationBean(osmId, 0);
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * The entities fetched for one {@link #resolve(long)}, and the beans built from them.
+     */
+    private final class Resolution {
+
+        private final Set<Long> nodeIds = new LinkedHashSet<>();
+        private final Set<Long> wayIds = new LinkedHashSet<>();
+
+        private final Map<Long, Relation> relations = new HashMap<>();
+        private final Map<Long, Way> ways = new HashMap<>();
+        private final Map<Long, Node> nodes = new HashMap<>();
+
+        // beans resolved in full, by id, and the ones cut by the max depth or a cycle, by depth then id
+        private final Map<Long, RelationBean> relationBeans = new HashMap<>();
+        private final Map<Integer, Map<Long, RelationBean>> cutRelationBeans = new HashMap<>();
+        private final Map<Long, WayBean> wayBeans = new HashMap<>();
+        private final Map<Long, NodeBean> nodeBeans = new HashMap<>();
+
+        // relations being built, to break the cycles
+        private final Set<Long> path = new HashSet<>();
+
+        // no. of fetched relations left unresolved so far, by the max depth or a cycle
+        private int cuts = 0;
+
+        private RelationBean relationBean(final long osmId, final int depth) {
+            final RelationBean resolved = relationBeans.get(osmId);
+            if (resolved != null) {
+                return resolved;
+            }
+
+            final RelationBean cut = cutRelationBeans.getOrDefault(depth, Collections.emptyMap()).get(osmId);
+            if (cut != null) {
+                this.cuts++;
+                return cut;
+            }
+
+            final Relation relation = relations.get(osmId);
+            if (relation == null) {
+                return null;
+            }
+
+            if (!path.add(osmId)) {
+                LOGGER.warn("Relation {} is a member of itself, not resolved again", osmId);
+                this.cuts++;
+                return null;
+            }
+
+            final int cutsBefore = cuts;
+
+            final List<MemberBean> memberBeans = new ArrayList<>(relation.getMembers().size());
+            for (Member member : relation.getMembers()) {
+                final long id = member.getId();
+                final String role = member.getRole();
+
+                switch (member.getType()) {
+                    case node:
+                        memberBeans.add(MemberBean.from(id, role, this.nodeBean(id)));
+                        break;
+                    case way:
+                        memberBeans.add(MemberBean.from(id, role, this.wayBean(id)));
+                        break;
+                    case relation:
+                        if (depth < maxDepth) {
+                            memberBeans.add(MemberBean.from(id, role, this.relationBean(id, depth + 1)));
+                        } else {
+                            if (relations.containsKey(id)) {
+                                this.cuts++;
+                            }
+                            memberBeans.add(MemberBean.from(id, role, (RelationBean) null));
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("resolve :: unhandled member type " + member.getType());
+                }
+            }
+
+            path.remove(osmId);
+
+            // a cut bean is only reused at the same depth, it may resolve further from higher up
+            final RelationBean relationBean = new RelationBean(relation, memberBeans);
+            if (cuts == cutsBefore) {
+                relationBeans.put(osmId, relationBean);
+            } else {
+                cutRelationBeans.computeIfAbsent(depth, k -> new HashMap<>()).put(osmId, relationBean);
+            }
+
+            return relationBean;
+        }
+
+        private WayBean wayBean(final long osmId) {
+            final Way way = ways.get(osmId);
+            if (way == null) {
+                return null;
+            }
+
+            return wayBeans.computeIfAbsent(osmId, k -> {
+                final List<NodeBean> beans = new ArrayList<>(way.nodeIdCount());
+                way.forEachNodeId(nodeId -> beans.add(this.nodeBean(nodeId)));
+                return new WayBean(way, beans);
+            });
+        }
+
+        private NodeBean nodeBean(final long osmId) {
+            final Node node = nodes.get(osmId);
+            if (node == null) {
+                return null;
+            }
+
+            return nodeBeans.computeIfAbsent(osmId, k -> new NodeBean(node));
+        }
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static RelationResolver of(final OsmMongoStore store) {
+        return of(store, DEFAULT_MAX_DEPTH);
+    }
+
+    public static RelationResolver of(final OsmMongoStore store, final int maxDepth) {
+        // Sanity checks
+        if (store == null) {
+            throw new IllegalArgumentException("of :: mongo store should not be null");
+        }
+
+        return new RelationResolver(store::nodesById, store::waysById, store::relationsById, maxDepth);
+    }
+
+    /**
+     * @return resolver over lookups other than those of a store, e.g. in memory ones
+     */
+    static RelationResolver of(final Function<Collection<Long>, Map<Long, Node>> nodeSource,
+            final Function<Collection<Long>, Map<Long, Way>> waySource,
+            final Function<Collection<Long>, Map<Long, Relation>> relationSource, final int maxDepth) {
+        return new RelationResolver(nodeSource, waySource, relationSource, maxDepth);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.github.osm.mongo;
+
+
+/**
+ * Callback for the documents a {@link BatchWriter} could not write.
+ */
+@FunctionalInterface
+public interface WriteFailureHandler {
+
+    /**
+     * Handle a document that was not written.
+     *
+     * @param collectionName name of the collection the document was written to
+     * @param document the failed document, a {@link org.bson.Document} or an entity
+     * @param code the error code, e.g. 11000 for a duplicate key
+     * @param message the error message
+     */
+    void writeFailed(String collectionName, Object document, int code, String message);
+
+}
@@ -0,0 +1,120 @@
+package com.github.osm.mongo;
+
+
+/**
+ * Immutable set of options controlling how a {@link BatchWriter} writes its documents. Instances
+ * are derived from {@link #defaults()} or {@link #pipelined()} using the <code>with*</code> copy
+ * methods.
+ */
+public final class WriteOptions {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_WRITERS = 4;
+    public static final int DEFAULT_QUEUE_SIZE = 8;
+
+    private final int batchSize;
+    private final int writers;
+    private final int queueSize;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    private WriteOptions(int batchSize, int writers, int queueSize) {
+        super();
+
+        // Sanity checks
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("WriteOptions :: batchSize should be positive");
+        }
+
+        if (writers < 0) {
+            throw new IllegalArgumentException("WriteOptions :: writers should not be negative");
+        }
+
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("WriteOptions :: queueSize should be positive");
+        }
+
+        this.batchSize = batchSize;
+        this.writers = writers;
+        this.queueSize = queueSize;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * No. of documents of a collection written in one unordered <code>insertMany</code>, typically
+     * 1k to 10k.
+     *
+     * @return batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * No. of threads writing the batches. A value of 0 means the batches are written on the thread
+     * adding the documents, which then waits on every write.
+     *
+     * @return writer threads count
+     */
+    public int getWriters() {
+        return writers;
+    }
+
+    /**
+     * No. of full batches waiting for a writer, beyond those being written. Once the queue is full,
+     * adding a document that completes a batch blocks until a writer takes one, so that a slow
+     * database holds back the parser instead of piling up batches in memory.
+     *
+     * @return queued batches count
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public boolean isPipelined() {
+        return writers > 0;
+    }
+
+
+    // Copy Methods
+    // ------------------------------------------------------------------------
+
+    public WriteOptions withBatchSize(int batchSize) {
+        return new WriteOptions(batchSize, writers, queueSize);
+    }
+
+    public WriteOptions withWriters(int writers) {
+        return new WriteOptions(batchSize, writers, queueSize);
+    }
+
+    public WriteOptions withQueueSize(int queueSize) {
+        return new WriteOptions(batchSize, writers, queueSize);
+    }
+
+
+    // Object Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+        return "WriteOptions [batchSize=" + batchSize + ", writers=" + writers + ", queueSize=" + queueSize + "]";
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    public static WriteOptions defaults() {
+        return new WriteOptions(DEFAULT_BATCH_SIZE, 0, DEFAULT_QUEUE_SIZE);
+    }
+
+    public static WriteOptions pipelined() {
+        return defaults().withWriters(DEFAULT_WRITERS);
+    }
+
+}
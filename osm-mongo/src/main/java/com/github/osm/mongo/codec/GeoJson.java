@@ -0,0 +1,205 @@
+package com.github.osm.mongo.codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.BsonWriter;
+
+import com.github.osm.domain.Bound;
+import com.github.osm.domain.OSM;
+import com.github.osm.geometry.WayGeometry;
+import com.mongodb.client.model.geojson.Polygon;
+import com.mongodb.client.model.geojson.Position;
+
+
+/**
+ * GeoJSON fields of the entity documents, indexed with <code>2dsphere</code> indexes. Positions are
+ * <code>[longitude, latitude]</code>, as GeoJSON has them.
+ */
+public final class GeoJson {
+
+    private static final String TYPE = "type";
+    private static final String COORDINATES = "coordinates";
+
+    private static final String POINT = "Point";
+    private static final String LINE_STRING = "LineString";
+    private static final String POLYGON = "Polygon";
+
+    // Max longitude span of a densified bound edge, in degrees
+    private static final double EDGE_STEP = 1.0;
+
+
+    private GeoJson() {
+        // Util Class
+    }
+
+
+    // Write Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true when the passed coordinates are valid for a <code>2dsphere</code> index, which
+     *         rejects the whole document otherwise
+     */
+    public static boolean isValid(final double latitude, final double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * Writes a Point field of the passed coordinates, when valid.
+     */
+    static void writePoint(final BsonWriter writer, final String name, final double latitude,
+            final double longitude) {
+        if (!isValid(latitude, longitude)) {
+            return;
+        }
+
+        writer.writeStartDocument(name);
+        writer.writeString(TYPE, POINT);
+        writer.writeStartArray(COORDINATES);
+        writer.writeDouble(longitude);
+        writer.writeDouble(latitude);
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Writes the bounding box of the resolved points of a way geometry, as a Polygon, or as a
+     * LineString / Point when the box is flat. The north and south edges are densified as in
+     * {@link #polygon(Bound)}, so that the box covers the whole extent of long ways. Nothing is
+     * written for a geometry without points, or spanning more than 180 degrees of longitude, which
+     * is taken as crossing the antimeridian.
+     */
+    static void writeBox(final BsonWriter writer, final String name, final WayGeometry geometry) {
+        final int count = geometry.pointCount();
+        if (count == 0) {
+            return;
+        }
+
+        int minLat = Integer.MAX_VALUE;
+        int minLon = Integer.MAX_VALUE;
+        int maxLat = Integer.MIN_VALUE;
+        int maxLon = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            minLat = Math.min(minLat, geometry.latitudeE7(i));
+            maxLat = Math.max(maxLat, geometry.latitudeE7(i));
+            minLon = Math.min(minLon, geometry.longitudeE7(i));
+            maxLon = Math.max(maxLon, geometry.longitudeE7(i));
+        }
+
+        final double south = OSM.coordinate(minLat);
+        final double north = OSM.coordinate(maxLat);
+        final double west = OSM.coordinate(minLon);
+        final double east = OSM.coordinate(maxLon);
+
+        if (!isValid(south, west) || !isValid(north, east) || east - west > 180) {
+            return;
+        }
+
+        if (minLat == maxLat && minLon == maxLon) {
+            writePoint(writer, name, south, west);
+            return;
+        }
+
+        writer.writeStartDocument(name);
+        if (minLon == maxLon) {
+            // along a meridian, a great circle
+            writer.writeString(TYPE, LINE_STRING);
+            writer.writeStartArray(COORDINATES);
+            writePosition(writer, position(west, south));
+            writePosition(writer, position(west, north));
+            writer.writeEndArray();
+        } else if (minLat == maxLat) {
+            writer.writeString(TYPE, LINE_STRING);
+            writer.writeStartArray(COORDINATES);
+            parallel(west, east - west, south).forEach(position -> writePosition(writer, position));
+            writer.writeEndArray();
+        } else {
+            writer.writeString(TYPE, POLYGON);
+            writer.writeStartArray(COORDINATES);
+            writer.writeStartArray();
+            ring(west, east - west, south, north).forEach(position -> writePosition(writer, position));
+            writer.writeEndArray();
+            writer.writeEndArray();
+        }
+        writer.writeEndDocument();
+    }
+
+    private static void writePosition(final BsonWriter writer, final Position position) {
+        writer.writeStartArray();
+        for (Double value : position.getValues()) {
+            writer.writeDouble(value);
+        }
+        writer.writeEndArray();
+    }
+
+
+    // Query Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * The passed bound as a counter clockwise Polygon. The edges of a <code>2dsphere</code> polygon
+     * are great circle arcs, so the north and south edges are densified to a vertex per degree of
+     * longitude, to keep them close to the parallels of the bound. A bound with its left edge east
+     * of its right edge crosses the antimeridian.
+     */
+    public static Polygon polygon(final Bound bound) {
+        // Sanity checks
+        if (bound == null) {
+            throw new IllegalArgumentException("polygon :: bound should not be null");
+        }
+
+        final double west = bound.getLeft();
+        final double south = bound.getBottom();
+        final double north = bound.getTop();
+
+        double width = bound.getRight() - west;
+        if (width < 0) {
+            width += 360;
+        }
+
+        return new Polygon(ring(west, width, south, north));
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the closed, counter clockwise ring of the passed box, its north and south edges
+     *         densified, see {@link #parallel(double, double, double)}
+     */
+    private static List<Position> ring(final double west, final double width, final double south,
+            final double north) {
+        final List<Position> southEdge = parallel(west, width, south);
+        final List<Position> northEdge = parallel(west, width, north);
+        Collections.reverse(northEdge);
+
+        final List<Position> ring = new ArrayList<>(southEdge.size() + northEdge.size() + 1);
+        ring.addAll(southEdge);
+        ring.addAll(northEdge);
+        ring.add(ring.get(0));
+        return ring;
+    }
+
+    /**
+     * @return the positions along the passed parallel, west to east, a vertex per degree of
+     *         longitude, so that the great circle arcs between them stay close to the parallel
+     */
+    private static List<Position> parallel(final double west, final double width, final double latitude) {
+        final int steps = Math.max(1, (int) Math.ceil(width / EDGE_STEP));
+        final List<Position> positions = new ArrayList<>(steps + 1);
+        for (int i = 0; i <= steps; i++) {
+            positions.add(position(west + width * i / steps, latitude));
+        }
+
+        return positions;
+    }
+
+    private static Position position(final double longitude, final double latitude) {
+        final double normalized = longitude > 180 ? longitude - 360 : longitude;
+        return new Position(normalized, latitude);
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.github.osm.mongo.codec;
+
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_LATITUDE;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_LOCATION;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_LONGITUDE;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_META_INFO;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_OSM_ID;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_TAGS;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Tags;
+import com.github.osm.mongo.IdScheme;
+
+
+/**
+ * BSON {@link Codec} of {@link Node}, see {@link OsmCodecs} for the layout.
+ */
+public final class NodeCodec implements Codec<Node> {
+
+    private final IdScheme idScheme;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public NodeCodec() {
+        this(IdScheme.objectId);
+    }
+
+    public NodeCodec(IdScheme idScheme) {
+        super();
+
+        // Sanity checks
+        if (idScheme == null) {
+            throw new IllegalArgumentException("NodeCodec :: id scheme should not be null");
+        }
+
+        this.idScheme = idScheme;
+    }
+
+
+    // Codec Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void encode(final BsonWriter writer, final Node node, final EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        OsmCodecs.writeEntity(writer, node, Type.node, idScheme);
+        writer.writeDouble(FIELD_LATITUDE, node.getLatitude());
+        writer.writeDouble(FIELD_LONGITUDE, node.getLongitude());
+        GeoJson.writePoint(writer, FIELD_LOCATION, node.getLatitude(), node.getLongitude());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Node decode(final BsonReader reader, final DecoderContext decoderContext) {
+        long osmId = 0;
+        MetaInfo metaInfo = null;
+        Tags tags = Tags.empty();
+        double latitude = 0;
+        double longitude = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case FIELD_OSM_ID:
+                    osmId = OsmCodecs.readLong(reader);
+                    break;
+                case FIELD_META_INFO:
+                    metaInfo = OsmCodecs.readMetaInfo(reader);
+                    break;
+                case FIELD_TAGS:
+                    tags = OsmCodecs.readTags(reader);
+                    break;
+                case FIELD_LATITUDE:
+                    latitude = OsmCodecs.readDouble(reader);
+                    break;
+                case FIELD_LONGITUDE:
+                    longitude = OsmCodecs.readDouble(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return OSM.node(osmId, metaInfo, tags, latitude, longitude);
+    }
+
+    @Override
+    public Class<Node> getEncoderClass() {
+        return Node.class;
+    }
+
+}
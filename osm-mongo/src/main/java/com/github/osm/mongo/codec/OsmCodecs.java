@@ -0,0 +1,243 @@
+package com.github.osm.mongo.codec;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Tags;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.mongo.IdScheme;
+import com.mongodb.MongoClientSettings;
+
+
+/**
+ * The BSON codecs of the OSM entities, and the document layout they share. The layout is the one
+ * the Jackson based {@link com.github.osm.mongo.helper.MongoMapper} produces, so that documents
+ * written either way read back either way:
+ * 
+ * <pre>
+ * { _id: long                                    (unless {@link IdScheme#objectId})
+ *   osmId: long, metaInfo: { version: int, changesetId: int, timestamp, userName, userId: int } | null,
+ *   tags: { key: value, ... },
+ *   latitude: double, longitude: double          (node)
+ *   location: GeoJSON Point                      (node, unless out of range)
+ *   nodeIds: [ long, ... ]                       (way)
+ *   bbox: GeoJSON Polygon                        (way, written from a {@link WayGeometry} by a {@link WayGeometryEncoder})
+ *   members: [ { type, id: long, role }, ... ]   (relation) }
+ * </pre>
+ * 
+ * Fields the codecs do not know of, like <code>_id</code>, are skipped when decoding. The GeoJSON
+ * fields (see {@link GeoJson}) are only written, for the <code>2dsphere</code> indexes.
+ */
+public final class OsmCodecs {
+
+    // Fields
+    public static final String FIELD_OSM_ID = "osmId";
+    public static final String FIELD_META_INFO = "metaInfo";
+    public static final String FIELD_TAGS = "tags";
+    public static final String FIELD_LATITUDE = "latitude";
+    public static final String FIELD_LONGITUDE = "longitude";
+    public static final String FIELD_NODE_IDS = "nodeIds";
+    public static final String FIELD_MEMBERS = "members";
+    public static final String FIELD_LOCATION = "location";
+    public static final String FIELD_BBOX = "bbox";
+
+    // MetaInfo fields
+    static final String META_VERSION = "version";
+    static final String META_CHANGESET_ID = "changesetId";
+    static final String META_TIMESTAMP = "timestamp";
+    static final String META_USER_NAME = "userName";
+    static final String META_USER_ID = "userId";
+
+    // Member fields
+    static final String MEMBER_TYPE = "type";
+    static final String MEMBER_ID = "id";
+    static final String MEMBER_ROLE = "role";
+
+    private static final Map<IdScheme, CodecRegistry> REGISTRIES = new EnumMap<>(IdScheme.class);
+
+    static {
+        for (IdScheme idScheme : IdScheme.values()) {
+            REGISTRIES.put(idScheme, CodecRegistries.fromRegistries( //
+                    CodecRegistries.fromCodecs(new NodeCodec(idScheme), new WayCodec(idScheme),
+                            new RelationCodec(idScheme)), //
+                    MongoClientSettings.getDefaultCodecRegistry()));
+        }
+    }
+
+
+    private OsmCodecs() {
+        // Util Class
+    }
+
+
+    // Factory
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the driver's default registry, with the {@link NodeCodec}, {@link WayCodec} and
+     *         {@link RelationCodec} of the {@link IdScheme#objectId} scheme ahead of it
+     */
+    public static CodecRegistry registry() {
+        return registry(IdScheme.objectId);
+    }
+
+    /**
+     * @return the driver's default registry, with the {@link NodeCodec}, {@link WayCodec} and
+     *         {@link RelationCodec} of the passed scheme ahead of it
+     */
+    public static CodecRegistry registry(final IdScheme idScheme) {
+        // Sanity checks
+        if (idScheme == null) {
+            throw new IllegalArgumentException("registry :: id scheme should not be null");
+        }
+
+        return REGISTRIES.get(idScheme);
+    }
+
+
+    // Write Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Writes the key and the fields common to all the entities, in to an open document.
+     */
+    static void writeEntity(final BsonWriter writer, final OsmEntity entity, final Type type,
+            final IdScheme idScheme) {
+        if (idScheme.isOsmKeyed()) {
+            writer.writeInt64(IdScheme.FIELD_ID, idScheme.key(type, entity.getOsmId()));
+        }
+
+        writer.writeInt64(FIELD_OSM_ID, entity.getOsmId());
+
+        final MetaInfo metaInfo = entity.getMetaInfo();
+        writer.writeName(FIELD_META_INFO);
+        if (metaInfo == null) {
+            writer.writeNull();
+        } else {
+            writer.writeStartDocument();
+            writer.writeInt32(META_VERSION, metaInfo.getVersion());
+            writer.writeInt32(META_CHANGESET_ID, metaInfo.getChangesetId());
+            writeString(writer, META_TIMESTAMP, metaInfo.getTimestamp());
+            writeString(writer, META_USER_NAME, metaInfo.getUserName());
+            writer.writeInt32(META_USER_ID, metaInfo.getUserId());
+            writer.writeEndDocument();
+        }
+
+        final Map<String, String> tags = entity.getTags();
+        writer.writeStartDocument(FIELD_TAGS);
+        tags.forEach((key, value) -> writeString(writer, key, value));
+        writer.writeEndDocument();
+    }
+
+    static void writeString(final BsonWriter writer, final String name, final String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+
+    // Read Methods
+    // ------------------------------------------------------------------------
+
+    static long readLong(final BsonReader reader) {
+        final BsonType type = reader.getCurrentBsonType();
+        switch (type) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                throw new IllegalArgumentException("readLong :: expected a number, found " + type);
+        }
+    }
+
+    static int readInt(final BsonReader reader) {
+        return (int) readLong(reader);
+    }
+
+    static double readDouble(final BsonReader reader) {
+        final BsonType type = reader.getCurrentBsonType();
+        return type == BsonType.DOUBLE ? reader.readDouble() : readLong(reader);
+    }
+
+    static String readString(final BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        return reader.readString();
+    }
+
+    static MetaInfo readMetaInfo(final BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        int version = 0;
+        int changesetId = 0;
+        String timestamp = null;
+        String userName = null;
+        int userId = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case META_VERSION:
+                    version = readInt(reader);
+                    break;
+                case META_CHANGESET_ID:
+                    changesetId = readInt(reader);
+                    break;
+                case META_TIMESTAMP:
+                    timestamp = readString(reader);
+                    break;
+                case META_USER_NAME:
+                    userName = readString(reader);
+                    break;
+                case META_USER_ID:
+                    userId = readInt(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return OSM.metaInfo(version, changesetId, timestamp, userName, userId);
+    }
+
+    static Tags readTags(final BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return Tags.empty();
+        }
+
+        final Tags.Builder tags = Tags.builder();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String key = reader.readName();
+            tags.put(key, readString(reader));
+        }
+        reader.readEndDocument();
+
+        return tags.build();
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.github.osm.mongo.codec;
+
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_MEMBERS;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_META_INFO;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_OSM_ID;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_TAGS;
+import static com.github.osm.mongo.codec.OsmCodecs.MEMBER_ID;
+import static com.github.osm.mongo.codec.OsmCodecs.MEMBER_ROLE;
+import static com.github.osm.mongo.codec.OsmCodecs.MEMBER_TYPE;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import com.github.osm.domain.Member;
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Tags;
+import com.github.osm.mongo.IdScheme;
+
+
+/**
+ * BSON {@link Codec} of {@link Relation}, see {@link OsmCodecs} for the layout.
+ */
+public final class RelationCodec implements Codec<Relation> {
+
+    private final IdScheme idScheme;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public RelationCodec() {
+        this(IdScheme.objectId);
+    }
+
+    public RelationCodec(IdScheme idScheme) {
+        super();
+
+        // Sanity checks
+        if (idScheme == null) {
+            throw new IllegalArgumentException("RelationCodec :: id scheme should not be null");
+        }
+
+        this.idScheme = idScheme;
+    }
+
+
+    // Codec Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void encode(final BsonWriter writer, final Relation relation, final EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        OsmCodecs.writeEntity(writer, relation, Type.relation, idScheme);
+
+        writer.writeStartArray(FIELD_MEMBERS);
+        for (Member member : relation.getMembers()) {
+            writer.writeStartDocument();
+            writer.writeString(MEMBER_TYPE, member.getType().name());
+            writer.writeInt64(MEMBER_ID, member.getId());
+            OsmCodecs.writeString(writer, MEMBER_ROLE, member.getRole());
+            writer.writeEndDocument();
+        }
+        writer.writeEndArray();
+
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Relation decode(final BsonReader reader, final DecoderContext decoderContext) {
+        long osmId = 0;
+        MetaInfo metaInfo = null;
+        Tags tags = Tags.empty();
+        List<Member> members = new ArrayList<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case FIELD_OSM_ID:
+                    osmId = OsmCodecs.readLong(reader);
+                    break;
+                case FIELD_META_INFO:
+                    metaInfo = OsmCodecs.readMetaInfo(reader);
+                    break;
+                case FIELD_TAGS:
+                    tags = OsmCodecs.readTags(reader);
+                    break;
+                case FIELD_MEMBERS:
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        members.add(readMember(reader));
+                    }
+                    reader.readEndArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return OSM.relation(osmId, metaInfo, tags, members);
+    }
+
+    @Override
+    public Class<Relation> getEncoderClass() {
+        return Relation.class;
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private static Member readMember(final BsonReader reader) {
+        Type type = null;
+        long id = 0;
+        String role = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case MEMBER_TYPE:
+                    type = Type.valueOf(reader.readString());
+                    break;
+                case MEMBER_ID:
+                    id = OsmCodecs.readLong(reader);
+                    break;
+                case MEMBER_ROLE:
+                    role = OsmCodecs.readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return OSM.member(type, id, role);
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.github.osm.mongo.codec;
+
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_META_INFO;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_NODE_IDS;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_OSM_ID;
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_TAGS;
+
+import java.util.Arrays;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.NodeRefs;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Tags;
+import com.github.osm.domain.Way;
+import com.github.osm.mongo.IdScheme;
+
+
+/**
+ * BSON {@link Codec} of {@link Way}, see {@link OsmCodecs} for the layout. The node ids go straight
+ * between the BSON array and the primitive {@link NodeRefs}, without boxing.
+ */
+public final class WayCodec implements Codec<Way> {
+
+    private final IdScheme idScheme;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public WayCodec() {
+        this(IdScheme.objectId);
+    }
+
+    public WayCodec(IdScheme idScheme) {
+        super();
+
+        // Sanity checks
+        if (idScheme == null) {
+            throw new IllegalArgumentException("WayCodec :: id scheme should not be null");
+        }
+
+        this.idScheme = idScheme;
+    }
+
+
+    // Codec Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void encode(final BsonWriter writer, final Way way, final EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        OsmCodecs.writeEntity(writer, way, Type.way, idScheme);
+
+        writeNodeIds(writer, way);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Way decode(final BsonReader reader, final DecoderContext decoderContext) {
+        long osmId = 0;
+        MetaInfo metaInfo = null;
+        Tags tags = Tags.empty();
+        NodeRefs nodeIds = NodeRefs.empty();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case FIELD_OSM_ID:
+                    osmId = OsmCodecs.readLong(reader);
+                    break;
+                case FIELD_META_INFO:
+                    metaInfo = OsmCodecs.readMetaInfo(reader);
+                    break;
+                case FIELD_TAGS:
+                    tags = OsmCodecs.readTags(reader);
+                    break;
+                case FIELD_NODE_IDS:
+                    nodeIds = readNodeIds(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return OSM.wayWithRefs(osmId, metaInfo, tags, nodeIds);
+    }
+
+    @Override
+    public Class<Way> getEncoderClass() {
+        return Way.class;
+    }
+
+
+    // Static Methods
+    // ------------------------------------------------------------------------
+
+    static void writeNodeIds(final BsonWriter writer, final Way way) {
+        writer.writeStartArray(FIELD_NODE_IDS);
+        way.forEachNodeId(writer::writeInt64);
+        writer.writeEndArray();
+    }
+
+    private static NodeRefs readNodeIds(final BsonReader reader) {
+        long[] ids = new long[16];
+        int size = 0;
+
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = OsmCodecs.readLong(reader);
+        }
+        reader.readEndArray();
+
+        return NodeRefs.of(size == ids.length ? ids : Arrays.copyOf(ids, size));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.github.osm.mongo.codec;
+
+import static com.github.osm.mongo.codec.OsmCodecs.FIELD_BBOX;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWrapper;
+import org.bson.BsonWriter;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Way;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.mongo.IdScheme;
+
+
+/**
+ * BSON {@link Encoder} writing a {@link WayGeometry} as the document of its {@link Way}, with the
+ * bounding box of its resolved points as a GeoJSON <code>bbox</code> field, see {@link OsmCodecs}.
+ * Write only, and so kept out of the codec registries: the coordinates are not kept, and the
+ * documents read back as {@link Way}s. The store wraps the geometries it writes, see
+ * {@link #wrap(WayGeometry)}.
+ */
+public final class WayGeometryEncoder implements Encoder<WayGeometry> {
+
+    private final IdScheme idScheme;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public WayGeometryEncoder() {
+        this(IdScheme.objectId);
+    }
+
+    public WayGeometryEncoder(IdScheme idScheme) {
+        super();
+
+        // Sanity checks
+        if (idScheme == null) {
+            throw new IllegalArgumentException("WayGeometryEncoder :: id scheme should not be null");
+        }
+
+        this.idScheme = idScheme;
+    }
+
+
+    // Encoder Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void encode(final BsonWriter writer, final WayGeometry geometry, final EncoderContext encoderContext) {
+        final Way way = geometry.way();
+
+        writer.writeStartDocument();
+        OsmCodecs.writeEntity(writer, way, Type.way, idScheme);
+        WayCodec.writeNodeIds(writer, way);
+        GeoJson.writeBox(writer, FIELD_BBOX, geometry);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<WayGeometry> getEncoderClass() {
+        return WayGeometry.class;
+    }
+
+
+    // Custom Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return document encoding the passed geometry with this encoder once written, e.g. by an
+     *         insert or a replace of a collection of {@link BsonDocument}s
+     */
+    public BsonDocument wrap(final WayGeometry geometry) {
+        return new BsonDocumentWrapper<>(geometry, this);
+    }
+
+}
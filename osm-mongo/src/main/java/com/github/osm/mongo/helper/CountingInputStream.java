@@ -0,0 +1,97 @@
+package com.github.osm.mongo.helper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * Input stream counting the bytes read from it, from an initial offset, e.g. to checkpoint the
+ * position of an import in its input file. Not thread safe.
+ */
+public final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+    private long mark = -1;
+
+
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    public CountingInputStream(InputStream in) {
+        this(in, 0);
+    }
+
+    /**
+     * @param count no. of bytes of the input before the passed stream
+     */
+    public CountingInputStream(InputStream in, long count) {
+        super(in);
+
+        // Sanity checks
+        if (in == null) {
+            throw new IllegalArgumentException("CountingInputStream :: input stream should not be null");
+        }
+
+        this.count = count;
+    }
+
+
+    // Getters and Setters
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return offset of the next byte to be read
+     */
+    public long getCount() {
+        return count;
+    }
+
+
+    // InputStream Methods
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b != -1) {
+            count++;
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int read = in.read(b, off, len);
+        if (read > 0) {
+            count += read;
+        }
+
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        final long skipped = in.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        in.mark(readlimit);
+        mark = count;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        if (mark == -1) {
+            throw new IOException("Mark not set");
+        }
+
+        in.reset();
+        count = mark;
+    }
+
+}
@@ -1,20 +1,66 @@
 package com.github.osm.mongo.sax;
 
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import com.github.osm.domain.Member;
 import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
 import com.github.osm.domain.Relation;
 import com.github.osm.domain.Way;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.mongo.BatchWriter;
+import com.github.osm.mongo.IdScheme;
+import com.github.osm.mongo.ImportCheckpoint;
+import com.github.osm.mongo.ImportMetrics;
+import com.github.osm.mongo.ImportReport;
 import com.github.osm.mongo.OsmMongoStore;
+import com.github.osm.mongo.WriteFailureHandler;
+import com.github.osm.mongo.WriteOptions;
 import com.github.osm.sax.OsmSaxHandler;
+import com.github.osm.store.NodeLocationStore;
+import com.github.osm.store.NodeLocations;
 
 
 /**
  * A SAX parser event handler for OSM XML primarily intended for large XML files (typically of sizes
  * more the 0.5GB). Instead of keeping the parsed element objects in memory, this uses a docstore to
  * store them.
+ * <p>
+ * The entities are written in unordered batches per collection (see {@link BatchWriter}), and the
+ * last partial batches once the document is completed. With {@link WriteOptions#pipelined()}, the
+ * batches are written by a pool of writer threads while parsing goes on, and the parser only waits
+ * when the writers fall behind. Documents that fail to write are passed to the
+ * {@link WriteFailureHandler}, which by default logs them.
+ * <p>
+ * Once given a {@link NodeLocationStore} (see {@link #setNodeLocations(NodeLocationStore)}), the
+ * node locations are kept while the nodes go by, and the ways are written with the GeoJSON bounding
+ * box of their nodes, for {@link OsmMongoStore#waysIntersecting}. The nodes should then be
+ * delivered before the ways, from a single thread.
+ * <p>
+ * Long imports can be checkpointed (see {@link #setCheckpoints(Path, long, LongSupplier)}): every n
+ * entities, the writer is flushed and an {@link ImportCheckpoint} written, so that a failed import
+ * is resumed with {@link #resumeFrom(ImportCheckpoint)} rather than started over. The entities up
+ * to the checkpoint are then skipped before they are built, and the next n entities, which may have
+ * been written before the import stopped, are upserted. Once a document fails to write, no
+ * checkpoint is written past it, and the checkpoint file is kept when the document is completed.
+ * <p>
+ * The import is instrumented: the time spent in the callbacks, the batch latencies, the writer
+ * queue and the GC activity are summed up in an {@link ImportReport}, logged periodically (see
+ * {@link #setProgressInterval(long)}) and once the document is completed, and passed to the
+ * {@link ImportMetrics} if any (see {@link #setMetrics(ImportMetrics)}).
  * 
  * @see InMemoryOsmHandler
  */
@@ -22,17 +68,65 @@ public class MongoOsmSaxHandler extends OsmSaxHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoOsmSaxHandler.class);
 
+    public static final long DEFAULT_PROGRESS_INTERVAL_SECONDS = 30;
+
     private final OsmMongoStore mongoStore;
+    private final BatchWriter writer;
+
+    private NodeLocationStore nodeLocations;
+    private boolean waysStarted = false;
+    private int[] coordinates = new int[64];
 
     private long nodesCount = 0;
     private long waysCount = 0;
     private long relationsCount = 0;
 
+    // Checkpoints
+    private Path checkpointFile;
+    private long checkpointInterval;
+    private LongSupplier offsetSupplier;
+    private long checkpointOffset = 0;
+    private long sinceCheckpoint = 0;
+    private ImportCheckpoint lastCheckpoint;
+
+    // Resume
+    private ImportCheckpoint resumeCheckpoint;
+    private long overlapRemaining = 0;
+
+    // Metrics
+    private ImportMetrics metrics = ImportMetrics.noop();
+    private LongSupplier bytesRead;
+    private long bytesStart = 0;
+    private long[] resumedCounts = new long[3];
+    private long progressIntervalNanos = TimeUnit.SECONDS.toNanos(DEFAULT_PROGRESS_INTERVAL_SECONDS);
+    private long startNanos = 0;
+    private long lastProgressNanos = 0;
+    private long handlerNanos = 0;
+    private int maxQueueDepth = 0;
+    private long[] gcStart = gcTotals();
+    private ImportReport report;
+
 
     // Constructors
     // ------------------------------------------------------------------------
 
     public MongoOsmSaxHandler(OsmMongoStore mongoStore) {
+        this(mongoStore, WriteOptions.defaults());
+    }
+
+    public MongoOsmSaxHandler(OsmMongoStore mongoStore, int batchSize) {
+        this(mongoStore, WriteOptions.defaults().withBatchSize(batchSize));
+    }
+
+    public MongoOsmSaxHandler(OsmMongoStore mongoStore, WriteOptions writeOptions) {
+        this(mongoStore, writeOptions, null);
+    }
+
+    /**
+     * @param writeOptions batch size, and the writer threads when pipelined
+     * @param failureHandler handler of the documents that failed to write, or null to log them
+     */
+    public MongoOsmSaxHandler(OsmMongoStore mongoStore, WriteOptions writeOptions, WriteFailureHandler failureHandler) {
         super();
 
         // Sanity checks
@@ -42,6 +136,8 @@ public class MongoOsmSaxHandler extends OsmSaxHandler {
 
         // init
         this.mongoStore = mongoStore;
+        this.writer = BatchWriter.of(mongoStore, writeOptions,
+                failureHandler != null ? failureHandler : MongoOsmSaxHandler::logFailure);
 
         LOGGER.info("Successfully Initialized new OsmHandler with MongoStore : {}", mongoStore);
     }
@@ -64,6 +160,162 @@ public class MongoOsmSaxHandler extends OsmSaxHandler {
         return relationsCount;
     }
 
+    public OsmMongoStore getMongoStore() {
+        return mongoStore;
+    }
+
+    /**
+     * @return the writer of the batches, with the written and failed counts
+     */
+    public BatchWriter getWriter() {
+        return writer;
+    }
+
+    public NodeLocationStore getNodeLocations() {
+        return nodeLocations;
+    }
+
+    /**
+     * Keeps the node locations in the passed store, to write the ways with their bounding box. The
+     * store is not closed by this handler. A resumed import should then read the input from its
+     * start, see {@link #resumeFrom(ImportCheckpoint)}.
+     */
+    public void setNodeLocations(NodeLocationStore nodeLocations) {
+        // Sanity checks
+        if (nodeLocations != null && resumeCheckpoint != null && resumeCheckpoint.getOffset() > 0) {
+            throw new IllegalArgumentException("setNodeLocations :: the import is resumed from an offset, past "
+                    + "node locations, see ImportCheckpoint.fromStart()");
+        }
+
+        this.nodeLocations = nodeLocations;
+    }
+
+    /**
+     * Checkpoints the import every n entities in to the passed file, which is deleted once the
+     * document is completed, unless some documents failed to write.
+     * <p>
+     * The offset of a checkpoint is the input offset at the previous one, as the parser reads ahead
+     * of the entity it delivers; the interval should span more bytes than the read ahead buffer of
+     * the parser, which a few thousands entities always do.
+     *
+     * @param file checkpoint file
+     * @param interval no. of entities between checkpoints; each flushes the writer
+     * @param offset count of the bytes read from the input, e.g. of a
+     *        {@link com.github.osm.mongo.helper.CountingInputStream}, or null to read the input
+     *        again from its start on resume
+     */
+    public void setCheckpoints(Path file, long interval, LongSupplier offset) {
+        // Sanity checks
+        if (file == null) {
+            throw new IllegalArgumentException("setCheckpoints :: checkpoint file should not be null");
+        }
+
+        if (interval < 1) {
+            throw new IllegalArgumentException("setCheckpoints :: interval should be positive");
+        }
+
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+        this.offsetSupplier = offset;
+    }
+
+    /**
+     * Resumes the import of the next document from the passed checkpoint: the entities it covers
+     * are skipped, and the counts go on from its own. The input should be the one of the
+     * checkpoint, read from its start or from {@link ImportCheckpoint#seek(java.io.InputStream)}.
+     * <p>
+     * With a {@link NodeLocationStore} (see {@link #setNodeLocations(NodeLocationStore)}), the input
+     * should be read from its start, with a checkpoint of offset 0 (see
+     * {@link ImportCheckpoint#fromStart()}): the persisted nodes are then skipped but still go
+     * through the store, which starts empty, for the bounding boxes of the ways.
+     * <p>
+     * The entities written after the checkpoint are upserted on the key of the {@link IdScheme} of
+     * the store. The {@link IdScheme#osmId} and {@link IdScheme#typed} schemes key on the primary
+     * <code>_id</code> index; with {@link IdScheme#objectId}, the index on <code>osmId</code> is
+     * created when the document starts, see {@link OsmMongoStore#ensureKeyIndexes()}, in a bulk
+     * load too.
+     */
+    public void resumeFrom(ImportCheckpoint checkpoint) {
+        // Sanity checks
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("resumeFrom :: checkpoint should not be null");
+        }
+
+        if (nodeLocations != null && checkpoint.getOffset() > 0) {
+            throw new IllegalArgumentException("resumeFrom :: the node locations need the input from its start, "
+                    + "see ImportCheckpoint.fromStart()");
+        }
+
+        this.resumeCheckpoint = checkpoint;
+        LOGGER.info("Resuming the import from : {}", checkpoint);
+    }
+
+    public ImportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics notified of every entity handled and batch written, and of the progress
+     */
+    public void setMetrics(ImportMetrics metrics) {
+        // Sanity checks
+        if (metrics == null) {
+            throw new IllegalArgumentException("setMetrics :: metrics should not be null, see ImportMetrics.noop()");
+        }
+
+        this.metrics = metrics;
+        this.writer.setMetrics(metrics);
+    }
+
+    /**
+     * @param bytesRead count of the bytes read from the input, e.g. of a
+     *        {@link com.github.osm.mongo.helper.CountingInputStream}, for the read throughput; the
+     *        bytes counted before the document starts, e.g. up to a checkpoint, are left out
+     */
+    public void setBytesRead(LongSupplier bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    /**
+     * @param seconds time between two progress reports, 0 for none
+     */
+    public void setProgressInterval(long seconds) {
+        // Sanity checks
+        if (seconds < 0) {
+            throw new IllegalArgumentException("setProgressInterval :: seconds should not be negative");
+        }
+
+        this.progressIntervalNanos = TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    /**
+     * @return report of the last completed document, or of the import so far
+     */
+    public ImportReport getReport() {
+        return report != null ? report : this.snapshot(System.nanoTime());
+    }
+
+    /**
+     * @return the last checkpoint written, or null
+     */
+    public ImportCheckpoint getLastCheckpoint() {
+        return lastCheckpoint;
+    }
+
+    /**
+     * @return no. of full batches waiting for a writer thread
+     */
+    public int getQueueDepth() {
+        return writer.getQueueDepth();
+    }
+
+    /**
+     * @return no. of batches being written
+     */
+    public int getInFlightBatches() {
+        return writer.getInFlightCount();
+    }
+
 
     // SAX Handler methods
     // ------------------------------------------------------------------------
@@ -76,14 +328,101 @@ public class MongoOsmSaxHandler extends OsmSaxHandler {
         this.nodesCount = 0;
         this.waysCount = 0;
         this.relationsCount = 0;
+        this.waysStarted = false;
+
+        this.checkpointOffset = 0;
+        this.sinceCheckpoint = 0;
+        this.lastCheckpoint = null;
+        this.overlapRemaining = 0;
+        this.writer.setUpserts(false);
+
+        this.startNanos = System.nanoTime();
+        this.lastProgressNanos = startNanos;
+        this.handlerNanos = 0;
+        this.maxQueueDepth = 0;
+        this.gcStart = gcTotals();
+        this.report = null;
+
+        // the figures of this run only, the writer is flushed once a document is completed
+        this.writer.resetStatistics();
+        this.bytesStart = bytesRead == null ? 0 : bytesRead.getAsLong();
+        this.resumedCounts = new long[3];
+
+        // Resume
+        final ImportCheckpoint checkpoint = this.resumeCheckpoint;
+        if (checkpoint != null) {
+            this.nodesCount = checkpoint.getNodesCount();
+            this.waysCount = checkpoint.getWaysCount();
+            this.relationsCount = checkpoint.getRelationsCount();
+            this.resumedCounts = new long[] {nodesCount, waysCount, relationsCount};
+
+            // the upserts look up the key of the documents, indexed whatever the bulk load
+            this.mongoStore.ensureKeyIndexes();
+
+            this.checkpointOffset = checkpoint.getOffset();
+            this.overlapRemaining = checkpoint.getInterval();
+            this.writer.setUpserts(true);
+        }
     }
 
     @Override
     public void documentCompleted() {
+        // Write the partial batches, and wait for the writers
+        this.writer.flush();
+        this.writer.setUpserts(false);
+        this.resumeCheckpoint = null;
+
+        // Done, nothing to resume unless some documents failed
+        if (checkpointFile != null && writer.getFailedCount() > 0) {
+            LOGGER.warn("Keeping the checkpoint file {}, {} documents failed to write", checkpointFile,
+                    writer.getFailedCount());
+        } else if (checkpointFile != null) {
+            try {
+                Files.deleteIfExists(checkpointFile);
+            } catch (IOException ex) {
+                LOGGER.warn("Failed to delete the checkpoint file {}", checkpointFile, ex);
+            }
+        }
+
         // OUTPUT
         LOGGER.info("No of Nodes Read: {}", this.nodesCount);
         LOGGER.info("No of Ways Read: {}", this.waysCount);
         LOGGER.info("No of Relations Read: {}", this.relationsCount);
+        LOGGER.info("No of Documents Written: {}, Failed: {}, in {} batches", writer.getWrittenCount(),
+                writer.getFailedCount(), writer.getBatchesCount());
+
+        this.report = this.snapshot(System.nanoTime());
+        LOGGER.info("Import done : {}", report);
+        metrics.completed(report);
+    }
+
+
+    // Filters
+    // ------------------------------------------------------------------------
+
+    @Override
+    protected boolean keepNode(long osmId, double latitude, double longitude) {
+        final boolean keep = super.keepNode(osmId, latitude, longitude);
+        if (keep && this.isPersisted(Type.node, osmId)) {
+            // the ways still need it
+            if (nodeLocations != null) {
+                nodeLocations.put(osmId, OSM.fixedCoordinate(latitude), OSM.fixedCoordinate(longitude));
+            }
+
+            return false;
+        }
+
+        return keep;
+    }
+
+    @Override
+    protected boolean keepWay(long osmId, long[] nodeIds, int nodeIdCount) {
+        return super.keepWay(osmId, nodeIds, nodeIdCount) && !this.isPersisted(Type.way, osmId);
+    }
+
+    @Override
+    protected boolean keepRelation(long osmId, List<Member> members) {
+        return super.keepRelation(osmId, members) && !this.isPersisted(Type.relation, osmId);
     }
 
 
@@ -96,52 +435,181 @@ public class MongoOsmSaxHandler extends OsmSaxHandler {
             return;
         }
 
-        // Save to DB
-        try {
-            this.mongoStore.insert(node);
-        } catch (Exception ex) {
-            String errMsg = String.format("Failed to insert Node in to DB : %s - ", node, node.getTags());
-            LOGGER.error(errMsg, ex);
+        final long start = System.nanoTime();
+
+        // Location
+        if (nodeLocations != null) {
+            nodeLocations.put(node.getOsmId(), OSM.fixedCoordinate(node.getLatitude()),
+                    OSM.fixedCoordinate(node.getLongitude()));
         }
 
+        // Written before the import stopped, from readers not calling the filters
+        if (this.isPersisted(Type.node, node.getOsmId())) {
+            return;
+        }
+
+        // Save to DB
+        this.writer.add(OsmMongoStore.COLLECTION_NODE, node);
+
         this.nodesCount++;
-        LOGGER.debug("Created new Node in the DB : {}", node);
+        LOGGER.debug("Queued new Node for the DB : {}", node);
+
+        this.queued(Type.node, node.getOsmId(), start);
     }
 
     @Override
     public void handleWay(Way way) {
-        if (way == null) {
+        if (way == null || this.isPersisted(Type.way, way.getOsmId())) {
             return;
         }
 
-        // Save to DB
-        try {
-            this.mongoStore.insert(way);
-        } catch (Exception ex) {
-            String errMsg = String.format("Failed to insert Way in to DB : %s - ", way, way.getTags());
-            LOGGER.error(errMsg, ex);
+        final long start = System.nanoTime();
+
+        // Save to DB, with the geometry when the locations are kept
+        if (nodeLocations != null) {
+            this.writer.add(OsmMongoStore.COLLECTION_WAY, this.geometry(way));
+        } else {
+            this.writer.add(OsmMongoStore.COLLECTION_WAY, way);
         }
 
         this.waysCount++;
-        LOGGER.debug("Created new Way in the DB : {}", way);
+        LOGGER.debug("Queued new Way for the DB : {}", way);
+
+        this.queued(Type.way, way.getOsmId(), start);
     }
 
     @Override
     public void handleRelation(Relation relation) {
-        if (relation == null) {
+        if (relation == null || this.isPersisted(Type.relation, relation.getOsmId())) {
             return;
         }
 
+        final long start = System.nanoTime();
+
         // Save to DB
-        try {
-            this.mongoStore.insert(relation);
-        } catch (Exception ex) {
-            String errMsg = String.format("Failed to insert Relation in to DB : %s - ", relation, relation.getTags());
-            LOGGER.error(errMsg, ex);
-        }
+        this.writer.add(OsmMongoStore.COLLECTION_RELATION, relation);
 
         this.relationsCount++;
-        LOGGER.debug("Created new Relation in the DB : {}", relation);
+        LOGGER.debug("Queued new Relation for the DB : {}", relation);
+
+        this.queued(Type.relation, relation.getOsmId(), start);
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private boolean isPersisted(final Type type, final long osmId) {
+        return resumeCheckpoint != null && resumeCheckpoint.covers(type, osmId);
+    }
+
+    private void queued(final Type type, final long osmId, final long start) {
+        final long now = System.nanoTime();
+        handlerNanos += now - start;
+        metrics.entityHandled(type, now - start);
+
+        // sampled, as the depth is only seen between the batches
+        if (((nodesCount + waysCount + relationsCount) & 1023) == 0) {
+            maxQueueDepth = Math.max(maxQueueDepth, writer.getQueueDepth());
+        }
+
+        if (progressIntervalNanos > 0 && now - lastProgressNanos >= progressIntervalNanos) {
+            this.progress(now);
+        }
+
+        // past the entities written before the import stopped, back to inserts
+        if (overlapRemaining > 0 && --overlapRemaining == 0) {
+            writer.flush();
+            writer.setUpserts(false);
+        }
+
+        if (checkpointFile != null && ++sinceCheckpoint >= checkpointInterval) {
+            this.checkpoint(type, osmId);
+        }
+    }
+
+    private void checkpoint(final Type type, final long osmId) {
+        // everything up to this entity is written once flushed, unless some documents failed
+        writer.flush();
+        this.sinceCheckpoint = 0;
+
+        // the failed documents are only written again when resumed from before them
+        if (writer.getFailedCount() > 0) {
+            LOGGER.warn("No checkpoint past {} {}, {} documents failed to write", type, osmId,
+                    writer.getFailedCount());
+            return;
+        }
+
+        final ImportCheckpoint checkpoint = ImportCheckpoint.of(checkpointOffset, type, osmId, nodesCount, waysCount,
+                relationsCount, checkpointInterval);
+        checkpoint.write(checkpointFile);
+
+        this.lastCheckpoint = checkpoint;
+        this.checkpointOffset = offsetSupplier == null ? 0 : offsetSupplier.getAsLong();
+        LOGGER.debug("Checkpoint : {}", checkpoint);
+    }
+
+    private void progress(final long now) {
+        this.lastProgressNanos = now;
+        this.maxQueueDepth = Math.max(maxQueueDepth, writer.getQueueDepth());
+
+        final ImportReport progress = this.snapshot(now);
+        LOGGER.info("Import progress : {}", progress);
+        metrics.progress(progress);
+    }
+
+    private ImportReport snapshot(final long now) {
+        final long[] gc = gcTotals();
+        return ImportReport.builder() //
+                .elapsedNanos(now - startNanos) //
+                .bytesRead(bytesRead == null ? 0 : bytesRead.getAsLong() - bytesStart) //
+                .entities(nodesCount, waysCount, relationsCount) //
+                .resumed(resumedCounts[0], resumedCounts[1], resumedCounts[2]) //
+                .handlerNanos(handlerNanos) //
+                .writer(writer) //
+                .maxQueueDepth(maxQueueDepth) //
+                .gc(gc[0] - gcStart[0], gc[1] - gcStart[1]) //
+                .build();
+    }
+
+    private WayGeometry geometry(final Way way) {
+        if (!waysStarted) {
+            this.waysStarted = true;
+            nodeLocations.complete();
+        }
+
+        final int count = way.nodeIdCount();
+        if (coordinates.length < count * 2) {
+            this.coordinates = new int[Math.max(count * 2, coordinates.length * 2)];
+        }
+
+        final int[] size = {0};
+        way.forEachNodeId(nodeId -> {
+            final long location = nodeLocations.get(nodeId);
+            if (location != NodeLocations.MISSING) {
+                coordinates[size[0]++] = NodeLocations.latitudeE7(location);
+                coordinates[size[0]++] = NodeLocations.longitudeE7(location);
+            }
+        });
+
+        return WayGeometry.of(way, Arrays.copyOf(coordinates, size[0]), count - size[0] / 2);
+    }
+
+    /**
+     * @return collections count and time in ms, of all the garbage collectors
+     */
+    private static long[] gcTotals() {
+        final long[] totals = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, gc.getCollectionCount());
+            totals[1] += Math.max(0, gc.getCollectionTime());
+        }
+
+        return totals;
+    }
+
+    private static void logFailure(String collectionName, Object document, int code, String message) {
+        LOGGER.error("Failed to insert in to {} - code {} : {} - {}", collectionName, code, message, document);
     }
 
 
@@ -0,0 +1,229 @@
+package com.github.osm.mongo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.mongo.helper.MongoConfig;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+
+/**
+ * {@link BatchWriter} over a store that records the batches instead of writing them, so that these
+ * run without a mongod.
+ */
+public class BatchWriterTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_options_invalid() {
+        WriteOptions.defaults().withWriters(-1);
+    }
+
+    @Test
+    public void test_batches() {
+        final RecordingStore store = new RecordingStore();
+        final BatchWriter writer = BatchWriter.of(store, 3, (c, d, code, msg) -> Assert.fail(msg));
+
+        for (int i = 0; i < 7; i++) {
+            writer.add("a", new Document("i", i));
+        }
+        writer.add("b", new Document("i", 0));
+
+        Assert.assertEquals(2, store.batches.size());
+        Assert.assertEquals(2, writer.getPendingCount());
+
+        writer.flush();
+        Assert.assertEquals(4, store.batches.size());
+        Assert.assertEquals(8, writer.getWrittenCount());
+        Assert.assertEquals(0, writer.getPendingCount());
+        Assert.assertEquals(4, writer.getBatchLatencies().getCount());
+
+        writer.resetStatistics();
+        Assert.assertEquals(0, writer.getWrittenCount());
+        Assert.assertEquals(0, writer.getBatchesCount());
+        Assert.assertEquals(0, writer.getBatchLatencies().getCount());
+        Assert.assertEquals(0, writer.getBatchLatencies().getMax());
+    }
+
+    @Test
+    public void test_failures_reported() {
+        final RecordingStore store = new RecordingStore();
+        store.failIndex = 1;
+
+        final List<Document> failed = new ArrayList<>();
+        final BatchWriter writer = BatchWriter.of(store, 2, (c, d, code, msg) -> failed.add((Document) d));
+
+        final AtomicInteger reported = new AtomicInteger();
+        writer.setMetrics(new ImportMetrics() {
+            @Override
+            public void batchWritten(String collectionName, int size, int failedCount, long nanos) {
+                reported.addAndGet(failedCount);
+            }
+        });
+
+        for (int i = 0; i < 4; i++) {
+            writer.add("a", new Document("i", i));
+        }
+
+        Assert.assertEquals(2, writer.getFailedCount());
+        Assert.assertEquals(2, writer.getWrittenCount());
+        Assert.assertEquals(1, failed.get(0).get("i"));
+        Assert.assertEquals(3, failed.get(1).get("i"));
+        Assert.assertEquals(2, reported.get());
+    }
+
+    @Test
+    public void test_fatal_errors() {
+        final RecordingStore store = new RecordingStore();
+        store.fatal = new MongoSocketReadException("connection reset", new ServerAddress());
+
+        final BatchWriter writer = BatchWriter.of(store, 2, (c, d, code, msg) -> Assert.fail(msg));
+        writer.add("a", new Document("i", 0));
+        try {
+            writer.add("a", new Document("i", 1));
+            Assert.fail("Batch written");
+        } catch (MongoSocketReadException ex) {
+            // expected
+        }
+
+        // not reported per document
+        Assert.assertEquals(0, writer.getFailedCount());
+        Assert.assertEquals(0, writer.getWrittenCount());
+
+        final WriteOptions options = WriteOptions.pipelined().withBatchSize(1).withWriters(1);
+        final BatchWriter pipelined = BatchWriter.of(store, options, (c, d, code, msg) -> Assert.fail(msg));
+        try {
+            // thrown by the next call once a writer failed
+            for (int i = 0; i < 3; i++) {
+                pipelined.add("a", new Document("i", i));
+            }
+            pipelined.flush();
+            Assert.fail("Batches written");
+        } catch (MongoSocketReadException ex) {
+            // expected
+        }
+
+        Assert.assertEquals(0, pipelined.getFailedCount());
+        pipelined.close();
+    }
+
+    @Test
+    public void test_upserts() {
+        final RecordingStore store = new RecordingStore();
+        final BatchWriter writer = BatchWriter.of(store, 2, (c, d, code, msg) -> Assert.fail(msg));
+
+        writer.setUpserts(true);
+        for (int i = 0; i < 3; i++) {
+            writer.add("a", new Document("_id", i));
+        }
+        writer.flush();
+        writer.setUpserts(false);
+        writer.add("a", new Document("_id", 3));
+        writer.flush();
+
+        Assert.assertEquals(2, store.upserted.size());
+        Assert.assertEquals(3, store.batches.size());
+        Assert.assertEquals(4, writer.getWrittenCount());
+    }
+
+    @Test
+    public void test_pipelined_backpressure() throws InterruptedException {
+        final RecordingStore store = new RecordingStore();
+        store.gate = new CountDownLatch(1);
+
+        final WriteOptions options = WriteOptions.pipelined().withBatchSize(1).withWriters(2).withQueueSize(2);
+        final BatchWriter writer = BatchWriter.of(store, options, (c, d, code, msg) -> Assert.fail(msg));
+
+        // 2 in flight + 2 queued, the 5th batch blocks until the writers move on
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                writer.add("a", new Document("i", i));
+            }
+        });
+        producer.start();
+
+        producer.join(500);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertEquals(2, writer.getInFlightCount());
+        Assert.assertEquals(2, writer.getQueueDepth());
+
+        store.gate.countDown();
+        producer.join(5000);
+        writer.close();
+
+        Assert.assertEquals(5, writer.getWrittenCount());
+        Assert.assertEquals(5, store.batches.size());
+        Assert.assertEquals(0, writer.getInFlightCount());
+        Assert.assertTrue(store.maxConcurrent.get() <= 2);
+    }
+
+
+    // Private definitions
+    // ------------------------------------------------------------------------
+
+    private static final class RecordingStore extends MongoStore {
+
+        private final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<Object>> upserted = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private volatile CountDownLatch gate;
+        private int failIndex = -1;
+        private volatile MongoException fatal;
+
+        private RecordingStore() {
+            super(MongoConfig.with("localhost", 27017, "mongo_java_test"));
+        }
+
+        @Override
+        public <T> void insertMany(String collectionName, List<? extends T> documents) {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                if (gate != null) {
+                    gate.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+
+            if (fatal != null) {
+                throw fatal;
+            }
+
+            batches.add(new ArrayList<>(documents));
+
+            if (failIndex >= 0) {
+                final BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), failIndex);
+                throw new MongoBulkWriteException(BulkWriteResult.unacknowledged(), Collections.singletonList(error),
+                        null, new ServerAddress(), Collections.emptySet());
+            }
+        }
+
+        @Override
+        public <T> void upsertMany(String collectionName, List<? extends T> documents) {
+            upserted.add(new ArrayList<>(documents));
+            this.insertMany(collectionName, documents);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.github.osm.mongo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Way;
+
+
+public class EntityCacheTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_segments_invalid() {
+        EntityCache.of(1024, 3);
+    }
+
+    @Test
+    public void test_get_put() {
+        final EntityCache cache = EntityCache.of(1 << 20);
+        final Node node = node(1L);
+        final Way way = OSM.wayOf(1L, null, null, new long[] {1L, 2L});
+
+        cache.put(node);
+        cache.put(way);
+
+        // same id, different types
+        Assert.assertSame(node, cache.get(Type.node, 1L));
+        Assert.assertSame(way, cache.get(Type.way, 1L));
+        Assert.assertNull(cache.get(Type.relation, 1L));
+
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(EntityCache.weigh(node) + EntityCache.weigh(way), cache.getWeight());
+
+        cache.invalidate(Type.node, 1L);
+        Assert.assertNull(cache.get(Type.node, 1L));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void test_put_stamped() {
+        final EntityCache cache = EntityCache.of(1 << 20);
+
+        // read before a write, invalidated meanwhile, the read version is stale
+        final EntityCache.Stamp stamp = cache.stamp();
+        cache.invalidate(Type.node, 1L);
+        Assert.assertFalse(cache.put(node(1L), stamp));
+        Assert.assertNull(cache.get(Type.node, 1L));
+
+        // read after it
+        Assert.assertTrue(cache.put(node(1L), cache.stamp()));
+        Assert.assertNotNull(cache.get(Type.node, 1L));
+
+        final EntityCache.Stamp beforeAll = cache.stamp();
+        cache.invalidateAll();
+        Assert.assertFalse(cache.put(node(2L), beforeAll));
+    }
+
+    @Test
+    public void test_eviction_scan_resistant() {
+        final int weight = EntityCache.weigh(node(1L));
+        final EntityCache cache = EntityCache.of(10 * weight, 1);
+
+        // 1 and 2 read again, protected
+        cache.put(node(1L));
+        cache.put(node(2L));
+        cache.get(Type.node, 1L);
+        cache.get(Type.node, 2L);
+
+        // a scan over many nodes read once
+        for (long id = 100; id < 200; id++) {
+            cache.put(node(id));
+        }
+
+        Assert.assertNotNull(cache.get(Type.node, 1L));
+        Assert.assertNotNull(cache.get(Type.node, 2L));
+        Assert.assertNull(cache.get(Type.node, 150L));
+        Assert.assertNotNull(cache.get(Type.node, 199L));
+
+        Assert.assertEquals(10, cache.size());
+        Assert.assertEquals(92, cache.getEvictionCount());
+        Assert.assertTrue(cache.getWeight() <= cache.getMaxWeight());
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private static Node node(long osmId) {
+        return OSM.node(osmId, null, null, 13.0, 80.0);
+    }
+
+}
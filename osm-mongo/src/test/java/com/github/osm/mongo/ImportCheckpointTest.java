@@ -0,0 +1,101 @@
+package com.github.osm.mongo;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.mongo.helper.CountingInputStream;
+import com.github.osm.reader.OsmXmlReader;
+import com.github.osm.sax.SimpleOsmSaxHandler;
+
+
+public class ImportCheckpointTest {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+            + "<osm version=\"0.6\">\n" //
+            + " <bounds minlat=\"13.0\" minlon=\"80.0\" maxlat=\"13.1\" maxlon=\"80.1\"/>\n" //
+            + " <node id=\"1\" lat=\"13.01\" lon=\"80.01\"/>\n" //
+            + " <node id=\"2\" lat=\"13.02\" lon=\"80.02\">\n" //
+            + "  <tag k=\"nodes\" v=\"&lt;node\"/>\n" //
+            + " </node>\n" //
+            + " <way id=\"3\">\n" //
+            + "  <nd ref=\"1\"/>\n" //
+            + "  <nd ref=\"2\"/>\n" //
+            + " </way>\n" //
+            + "</osm>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_write_read() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("import.checkpoint");
+        Assert.assertNull(ImportCheckpoint.read(file));
+
+        ImportCheckpoint.of(1024, Type.way, 42L, 100, 10, 0, 50).write(file);
+        final ImportCheckpoint checkpoint = ImportCheckpoint.read(file);
+
+        Assert.assertEquals(1024, checkpoint.getOffset());
+        Assert.assertEquals(Type.way, checkpoint.getType());
+        Assert.assertEquals(42L, checkpoint.getOsmId());
+        Assert.assertEquals(100, checkpoint.getNodesCount());
+        Assert.assertEquals(10, checkpoint.getWaysCount());
+        Assert.assertEquals(50, checkpoint.getInterval());
+    }
+
+    @Test
+    public void test_from_start() {
+        final ImportCheckpoint checkpoint = ImportCheckpoint.of(1024, Type.way, 42L, 100, 10, 0, 50).fromStart();
+
+        Assert.assertEquals(0, checkpoint.getOffset());
+        Assert.assertEquals(42L, checkpoint.getOsmId());
+        Assert.assertEquals(100, checkpoint.getNodesCount());
+        Assert.assertSame(checkpoint, checkpoint.fromStart());
+    }
+
+    @Test
+    public void test_covers() {
+        final ImportCheckpoint checkpoint = ImportCheckpoint.of(0, Type.way, 42L, 0, 0, 0, 1);
+
+        Assert.assertTrue(checkpoint.covers(Type.node, Long.MAX_VALUE));
+        Assert.assertTrue(checkpoint.covers(Type.way, 42L));
+        Assert.assertFalse(checkpoint.covers(Type.way, 43L));
+        Assert.assertFalse(checkpoint.covers(Type.relation, 1L));
+    }
+
+    @Test
+    public void test_seek() {
+        final byte[] bytes = XML.getBytes(UTF_8);
+        final int node1 = XML.indexOf("<node id=\"1\"");
+
+        // within node 1, past the <node of the tag value
+        final ImportCheckpoint checkpoint = ImportCheckpoint.of(node1 + 3, Type.node, 1L, 1, 0, 0, 10);
+        final CountingInputStream is = checkpoint.seek(new ByteArrayInputStream(bytes));
+
+        final SimpleOsmSaxHandler handler = new SimpleOsmSaxHandler();
+        new OsmXmlReader().read(handler, is);
+
+        Assert.assertEquals(1, handler.getNodesCount());
+        Assert.assertEquals(2L, handler.getNodes().get(0).getOsmId());
+        Assert.assertEquals(1, handler.getWaysCount());
+        Assert.assertEquals(bytes.length, is.getCount());
+
+        // from the start
+        final CountingInputStream whole = ImportCheckpoint.of(0, Type.node, 0L, 0, 0, 0, 10)
+                .seek(new ByteArrayInputStream(bytes));
+        Assert.assertEquals(0, whole.getCount());
+    }
+
+}
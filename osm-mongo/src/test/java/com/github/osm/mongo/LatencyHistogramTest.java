@@ -0,0 +1,55 @@
+package com.github.osm.mongo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.osm.domain.OsmEntity.Type;
+
+
+public class LatencyHistogramTest {
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_buckets() {
+        for (long value : new long[] {0, 7, 8, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE}) {
+            final long upper = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+            Assert.assertTrue(value + " <= " + upper, value <= upper);
+            Assert.assertTrue(value + " within 12.5% of " + upper, upper - value <= value / 8);
+        }
+    }
+
+    @Test
+    public void test_percentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.percentile(99));
+
+        // 1 to 1000 ms
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1_000_000_000L, histogram.getMax());
+        Assert.assertEquals(500.5, histogram.getMean() / 1e6, 1e-9);
+
+        Assert.assertEquals(500, histogram.percentileMillis(50), 500 / 8.0);
+        Assert.assertEquals(990, histogram.percentileMillis(99), 990 / 8.0);
+        Assert.assertEquals(1000, histogram.percentileMillis(100), 0);
+    }
+
+    @Test
+    public void test_report_rates() {
+        // resumed from 900 nodes, 100 more in this run of a second
+        final ImportReport report = ImportReport.builder().elapsedNanos(1_000_000_000L).bytesRead(2048)
+                .entities(1000, 0, 0).resumed(900, 0, 0).build();
+
+        Assert.assertEquals(1000, report.getEntitiesCount());
+        Assert.assertEquals(900, report.getResumedCount());
+        Assert.assertEquals(100, report.getEntitiesPerSecond(), 1e-9);
+        Assert.assertEquals(100, report.getEntitiesPerSecond(Type.node), 1e-9);
+        Assert.assertEquals(2048, report.getBytesPerSecond(), 1e-9);
+    }
+
+}
@@ -1,7 +1,11 @@
 package com.github.osm.mongo;
 
 import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -48,6 +52,26 @@ public class OsmMongoStoreTest {
         _osmMongoStore.insert(node);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void test_lookup_options_invalid() {
+        _osmMongoStore.setLookupOptions(LookupOptions.defaults().withChunkSize(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_endBulkLoad_not_started() {
+        _osmMongoStore.endBulkLoad();
+    }
+
+    @Test
+    public void test_partition() {
+        final List<Long> osmIds = LongStream.rangeClosed(1, 7).boxed().collect(Collectors.toList());
+
+        final List<List<Long>> chunks = OsmMongoStore.partition(osmIds, 3);
+        Assert.assertEquals(3, chunks.size());
+        Assert.assertEquals(Arrays.asList(7L), chunks.get(2));
+        Assert.assertEquals(1, OsmMongoStore.partition(osmIds, 7).size());
+    }
+
     @Test
     public void test_insert_node() {
         Random rnd = new Random();
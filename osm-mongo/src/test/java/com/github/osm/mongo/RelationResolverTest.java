@@ -0,0 +1,149 @@
+package com.github.osm.mongo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.osm.bean.MemberBean;
+import com.github.osm.bean.RelationBean;
+import com.github.osm.bean.WayBean;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+
+
+/**
+ * {@link RelationResolver} over in memory lookups, counting them, so that these run without a
+ * mongod.
+ */
+public class RelationResolverTest {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final Map<Long, Way> ways = new HashMap<>();
+    private final Map<Long, Relation> relations = new HashMap<>();
+
+    private final List<Collection<Long>> lookups = new ArrayList<>();
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Before
+    public void setup() {
+        for (long id = 1; id <= 4; id++) {
+            nodes.put(id, OSM.node(id, null, null, 13.0 + id / 100.0, 80.0));
+        }
+
+        // 2 ways sharing node 2
+        ways.put(10L, OSM.wayOf(10L, null, null, new long[] {1L, 2L}));
+        ways.put(11L, OSM.wayOf(11L, null, null, new long[] {2L, 3L}));
+
+        // 100 -> 200 -> 300 -> 100, with 200 and 300 sharing way 11
+        relations.put(100L, OSM.relation(100L, null, null, Arrays.asList(OSM.member(Type.way, 10L, "outer"),
+                OSM.member(Type.node, 4L, "label"), OSM.member(Type.relation, 200L, "sub"))));
+        relations.put(200L, OSM.relation(200L, null, null,
+                Arrays.asList(OSM.member(Type.way, 11L, ""), OSM.member(Type.relation, 300L, "sub"))));
+        relations.put(300L, OSM.relation(300L, null, null, Arrays.asList(OSM.member(Type.way, 11L, ""),
+                OSM.member(Type.relation, 100L, "parent"), OSM.member(Type.way, 99L, "missing"))));
+    }
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_resolve_levels() {
+        final RelationBean bean = this.resolver(RelationResolver.DEFAULT_MAX_DEPTH).resolve(100L);
+
+        // 3 levels of relations, then the ways, then the nodes
+        Assert.assertEquals(5, lookups.size());
+        Assert.assertEquals(3, lookups.get(3).size());
+        Assert.assertEquals(4, lookups.get(4).size());
+
+        final WayBean way = (WayBean) bean.getMembers().get(0).getBean();
+        Assert.assertEquals(2, way.getNodes().size());
+
+        final RelationBean sub = (RelationBean) bean.getMembers().get(2).getBean();
+        final RelationBean subSub = (RelationBean) sub.getMembers().get(1).getBean();
+        Assert.assertSame(sub.getMembers().get(0).getBean(), subSub.getMembers().get(0).getBean());
+
+        // the cycle back to the root, and the missing way
+        final MemberBean parent = subSub.getMembers().get(1);
+        Assert.assertEquals(100L, parent.getId());
+        Assert.assertNull(parent.getBean());
+        Assert.assertNull(subSub.getMembers().get(2).getBean());
+    }
+
+    @Test
+    public void test_resolve_depth() {
+        final RelationBean bean = this.resolver(0).resolve(100L);
+
+        Assert.assertEquals(3, lookups.size());
+        Assert.assertEquals(Arrays.asList(100L), new ArrayList<>(lookups.get(0)));
+
+        final MemberBean sub = bean.getMembers().get(2);
+        Assert.assertEquals(200L, sub.getId());
+        Assert.assertNull(sub.getBean());
+    }
+
+    @Test
+    public void test_resolve_two_depths() {
+        // 400 -> 500 -> 600 -> 700, and 400 -> 600 directly, after 500
+        relations.put(400L, OSM.relation(400L, null, null,
+                Arrays.asList(OSM.member(Type.relation, 500L, ""), OSM.member(Type.relation, 600L, ""))));
+        relations.put(500L, OSM.relation(500L, null, null, Arrays.asList(OSM.member(Type.relation, 600L, ""))));
+        relations.put(600L, OSM.relation(600L, null, null, Arrays.asList(OSM.member(Type.relation, 700L, ""))));
+        relations.put(700L, OSM.relation(700L, null, null, Arrays.asList(OSM.member(Type.node, 1L, ""))));
+
+        final RelationBean bean = this.resolver(2).resolve(400L);
+
+        // 600 is cut below 500, and resolved in full as a direct member
+        final RelationBean viaSub = (RelationBean) ((RelationBean) bean.getMembers().get(0).getBean()).getMembers()
+                .get(0).getBean();
+        Assert.assertNull(viaSub.getMembers().get(0).getBean());
+
+        final RelationBean direct = (RelationBean) bean.getMembers().get(1).getBean();
+        final RelationBean leaf = (RelationBean) direct.getMembers().get(0).getBean();
+        Assert.assertNotNull(leaf);
+        Assert.assertNotNull(leaf.getMembers().get(0).getBean());
+    }
+
+    @Test
+    public void test_resolve_missing() {
+        Assert.assertNull(this.resolver(1).resolve(999L));
+        Assert.assertEquals(1, lookups.size());
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    private RelationResolver resolver(int maxDepth) {
+        return RelationResolver.of(ids -> this.lookup(nodes, ids), ids -> this.lookup(ways, ids),
+                ids -> this.lookup(relations, ids), maxDepth);
+    }
+
+    private <T extends OsmEntity> Map<Long, T> lookup(Map<Long, T> entities, Collection<Long> osmIds) {
+        lookups.add(new ArrayList<>(osmIds));
+
+        final Map<Long, T> result = new HashMap<>();
+        for (Long osmId : osmIds) {
+            if (entities.containsKey(osmId)) {
+                result.put(osmId, entities.get(osmId));
+            }
+        }
+
+        return result;
+    }
+
+}
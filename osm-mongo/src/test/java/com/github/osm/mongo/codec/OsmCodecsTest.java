@@ -0,0 +1,202 @@
+package com.github.osm.mongo.codec;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWrapper;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.osm.domain.MetaInfo;
+import com.github.osm.domain.Node;
+import com.github.osm.domain.OSM;
+import com.github.osm.domain.OsmEntity;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.domain.Way;
+import com.github.osm.geometry.WayGeometry;
+import com.github.osm.mongo.IdScheme;
+import com.github.osm.mongo.helper.MongoMapper;
+import com.mongodb.client.model.geojson.Polygon;
+import com.mongodb.client.model.geojson.Position;
+
+
+public class OsmCodecsTest {
+
+    private MetaInfo _metaInfo;
+    private Map<String, String> _tags;
+
+
+    // Setup
+    // ------------------------------------------------------------------------
+
+    @Before
+    public void setup() {
+        _metaInfo = OSM.metaInfo(4, 35092393, "2015-11-04T10:29:58Z", "PlaneMad", 253663);
+
+        _tags = new HashMap<>();
+        _tags.put("highway", "residential");
+        _tags.put("name", "Kamarajar Salai");
+    }
+
+
+    // Tests
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void test_node_layout_and_roundtrip() {
+        final Node node = OSM.node(3233393892L, _metaInfo, _tags, 13.0826802, 80.2707184);
+        final Node decoded = this.roundtrip(node, MongoMapper.document(node));
+
+        Assert.assertEquals(node.getOsmId(), decoded.getOsmId());
+        Assert.assertEquals(node.getTags(), decoded.getTags());
+        Assert.assertEquals(node.getLatitude(), decoded.getLatitude(), 0);
+        Assert.assertEquals(node.getLongitude(), decoded.getLongitude(), 0);
+        Assert.assertEquals(_metaInfo.getChangesetId(), decoded.getMetaInfo().getChangesetId());
+        Assert.assertEquals(_metaInfo.getUserName(), decoded.getMetaInfo().getUserName());
+
+        // without meta info and tags
+        final Node bare = OSM.node(1L, null, null, 1.5, -2.5);
+        Assert.assertNull(this.roundtrip(bare, MongoMapper.document(bare)).getMetaInfo());
+    }
+
+    @Test
+    public void test_way_layout_and_roundtrip() {
+        final Way way = OSM.wayOf(317225950L, _metaInfo, _tags, new long[] {1L, 2L, 3L, 3233393892L});
+        final Way decoded = this.roundtrip(way, MongoMapper.document(way));
+
+        Assert.assertEquals(way.getOsmId(), decoded.getOsmId());
+        Assert.assertEquals(way.nodeRefs(), decoded.nodeRefs());
+        Assert.assertEquals(way.getTags(), decoded.getTags());
+    }
+
+    @Test
+    public void test_relation_layout_and_roundtrip() {
+        final Relation relation = OSM.relation(5417515L, null, _tags, Arrays.asList( //
+                OSM.member(Type.way, 317225950L, "outer"), //
+                OSM.member(Type.node, 3233393892L, "")));
+        final Relation decoded = this.roundtrip(relation, MongoMapper.document(relation));
+
+        Assert.assertEquals(relation.getOsmId(), decoded.getOsmId());
+        Assert.assertEquals(2, decoded.getMembers().size());
+        Assert.assertEquals(Type.way, decoded.getMembers().get(0).getType());
+        Assert.assertEquals(317225950L, decoded.getMembers().get(0).getId());
+        Assert.assertEquals("outer", decoded.getMembers().get(0).getRole());
+    }
+
+
+    @Test
+    public void test_idScheme_keys() {
+        final Way way = OSM.wayOf(317225950L, null, null, new long[] {1L, 2L});
+
+        final BsonDocument objectIdDoc = BsonDocumentWrapper.asBsonDocument(way, OsmCodecs.registry());
+        Assert.assertFalse(objectIdDoc.containsKey("_id"));
+
+        final BsonDocument osmIdDoc = BsonDocumentWrapper.asBsonDocument(way, OsmCodecs.registry(IdScheme.osmId));
+        Assert.assertEquals("_id", osmIdDoc.getFirstKey());
+        Assert.assertEquals(317225950L, osmIdDoc.getInt64("_id").getValue());
+        Assert.assertEquals(317225950L, osmIdDoc.getInt64("osmId").getValue());
+
+        final BsonDocument typedDoc = BsonDocumentWrapper.asBsonDocument(way, OsmCodecs.registry(IdScheme.typed));
+        final long typedId = typedDoc.getInt64("_id").getValue();
+        Assert.assertEquals(IdScheme.typedId(Type.way, 317225950L), typedId);
+        Assert.assertEquals(317225950L, IdScheme.osmId(typedId));
+        Assert.assertNotEquals(typedId, IdScheme.typedId(Type.node, 317225950L));
+
+        // the key is skipped when decoding
+        final Way decoded = OsmCodecs.registry(IdScheme.typed).get(Way.class)
+                .decode(new BsonDocumentReader(typedDoc), DecoderContext.builder().build());
+        Assert.assertEquals(317225950L, decoded.getOsmId());
+        Assert.assertEquals(2, decoded.nodeIdCount());
+
+        Assert.assertEquals(new Document("osmId", 5L), IdScheme.objectId.filter(Type.node, 5L));
+        Assert.assertEquals(new Document("_id", 5L), IdScheme.osmId.filter(Type.node, 5L));
+    }
+
+
+    @Test
+    public void test_geojson_fields() {
+        final Node node = OSM.node(1L, null, null, 13.0826802, 80.2707184);
+        final BsonDocument nodeDoc = BsonDocumentWrapper.asBsonDocument(node, OsmCodecs.registry());
+        Assert.assertEquals("Point", nodeDoc.getDocument("location").getString("type").getValue());
+        Assert.assertEquals(80.2707184, nodeDoc.getDocument("location").getArray("coordinates").get(0).asDouble()
+                .getValue(), 0);
+
+        // out of range, no location to be rejected by the index
+        final Node invalid = OSM.node(2L, null, null, 91, 80);
+        Assert.assertFalse(BsonDocumentWrapper.asBsonDocument(invalid, OsmCodecs.registry()).containsKey("location"));
+
+        // way box, of the resolved points
+        final Way way = OSM.wayOf(3L, null, null, new long[] {1L, 2L, 3L});
+        final int[] coords = {OSM.fixedCoordinate(13.0), OSM.fixedCoordinate(80.0), OSM.fixedCoordinate(13.5),
+            OSM.fixedCoordinate(80.25)};
+        final WayGeometryEncoder encoder = new WayGeometryEncoder();
+        final BsonDocument wayDoc = new BsonDocument();
+        encoder.encode(new BsonDocumentWriter(wayDoc), WayGeometry.of(way, coords, 1),
+                EncoderContext.builder().build());
+        final BsonDocument bbox = wayDoc.getDocument("bbox");
+        Assert.assertEquals("Polygon", bbox.getString("type").getValue());
+        Assert.assertEquals(5, bbox.getArray("coordinates").get(0).asArray().size());
+        Assert.assertEquals(3, wayDoc.getArray("nodeIds").size());
+
+        // long way, its box densified as the query polygons are
+        final int[] longCoords = {OSM.fixedCoordinate(50.0), OSM.fixedCoordinate(-10.0), OSM.fixedCoordinate(60.0),
+            OSM.fixedCoordinate(30.0)};
+        final BsonDocument longBox = encoder.wrap(WayGeometry.of(way, longCoords, 1)).getDocument("bbox");
+        Assert.assertEquals(2 * 41 + 1, longBox.getArray("coordinates").get(0).asArray().size());
+
+        // and read back as a plain way
+        final Way decoded = OsmCodecs.registry().get(Way.class).decode(new BsonDocumentReader(wayDoc),
+                DecoderContext.builder().build());
+        Assert.assertEquals(3, decoded.nodeIdCount());
+
+        // write only, kept out of the registry, the wrapped geometries written as documents
+        Assert.assertThrows(CodecConfigurationException.class, () -> OsmCodecs.registry().get(WayGeometry.class));
+        Assert.assertNotNull(OsmCodecs.registry().get(BsonDocumentWrapper.class));
+
+        // bound polygon crossing the antimeridian, densified and closed
+        final Polygon polygon = GeoJson.polygon(OSM.bound(-175, 175, 10, -10, null));
+        final List<Position> ring = polygon.getExterior();
+        Assert.assertEquals(ring.get(0), ring.get(ring.size() - 1));
+        Assert.assertEquals(2 * 10 + 3, ring.size());
+        for (Position position : ring) {
+            final double lon = position.getValues().get(0);
+            Assert.assertTrue(lon >= 175 || lon <= -175);
+        }
+    }
+
+
+    // Private Methods
+    // ------------------------------------------------------------------------
+
+    /**
+     * Checks the codec writes what Jackson writes, apart from the GeoJSON fields, and decodes it
+     * back with an _id field added.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends OsmEntity> T roundtrip(T entity, Document jacksonDoc) {
+        final BsonDocument encoded = BsonDocumentWrapper.asBsonDocument(entity, OsmCodecs.registry()).clone();
+        encoded.remove(OsmCodecs.FIELD_LOCATION);
+
+        final BsonDocument expected = jacksonDoc.toBsonDocument(BsonDocument.class, OsmCodecs.registry());
+        Assert.assertEquals(expected, encoded);
+
+        final BsonDocument stored = new BsonDocument("_id", new BsonObjectId());
+        stored.putAll(encoded);
+
+        final Class<T> clz = (Class<T>) entity.getClass();
+        return OsmCodecs.registry().get(clz).decode(new BsonDocumentReader(stored), DecoderContext.builder().build());
+    }
+
+}
@@ -3,27 +3,45 @@ package com.github.osm.mongo.sax;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.Map;
 
+import org.bson.Document;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.osm.domain.Node;
+import com.github.osm.domain.OsmEntity.Type;
+import com.github.osm.domain.Relation;
+import com.github.osm.mongo.BulkLoadReport;
+import com.github.osm.mongo.IdScheme;
+import com.github.osm.mongo.ImportCheckpoint;
+import com.github.osm.mongo.ImportReport;
 import com.github.osm.mongo.OsmMongoStore;
+import com.github.osm.mongo.WriteOptions;
 import com.github.osm.mongo.helper.MongoConfig;
 import com.github.osm.reader.OsmXmlReader;
 import com.github.osm.sax.OsmSaxHandler;
+import com.github.osm.sax.SimpleOsmSaxHandler;
+import com.github.osm.store.NodeLocations;
+import com.mongodb.WriteConcern;
 
 
 public class MongoOsmSaxHandlerTest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoOsmSaxHandlerTest.class);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private OsmMongoStore _osmMongoStore;
     private OsmSaxHandler _osmSaxHandler;
 
@@ -93,4 +111,114 @@ public class MongoOsmSaxHandlerTest {
         Assert.assertTrue(result != null && result.size() > 0);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void test_batchSize_invalid() {
+        new MongoOsmSaxHandler(_osmMongoStore, 0);
+    }
+
+    @Test
+    public void test_readOsmXml_batched() throws FileNotFoundException {
+        _osmMongoStore.emptyCollections();
+
+        // small batches, so that full and partial batches are both written
+        final MongoOsmSaxHandler handler = new MongoOsmSaxHandler(_osmMongoStore, 7);
+
+        final InputStream is = new FileInputStream(_osmXml_sample2);
+        _osmXmlReader.read(handler, is);
+
+        final long entitiesCount = handler.getNodesCount() + handler.getWaysCount() + handler.getRelationsCount();
+        Assert.assertEquals(entitiesCount, handler.getWriter().getWrittenCount());
+        Assert.assertEquals(0, handler.getWriter().getFailedCount());
+        Assert.assertEquals(0, handler.getWriter().getPendingCount());
+
+        Assert.assertEquals(handler.getNodesCount(), _osmMongoStore.count(OsmMongoStore.COLLECTION_NODE));
+        Assert.assertEquals(handler.getWaysCount(), _osmMongoStore.count(OsmMongoStore.COLLECTION_WAY));
+        Assert.assertEquals(handler.getRelationsCount(), _osmMongoStore.count(OsmMongoStore.COLLECTION_RELATION));
+
+        final ImportReport report = handler.getReport();
+        Assert.assertEquals(entitiesCount, report.getEntitiesCount());
+        Assert.assertEquals(handler.getWriter().getBatchesCount(), report.getBatchesCount());
+        Assert.assertTrue(report.getBatchMaxMillis() >= report.getBatchP50Millis());
+    }
+
+    @Test
+    public void test_readOsmXml_bulkLoad() throws FileNotFoundException {
+        _osmMongoStore.emptyCollections();
+        _osmMongoStore.beginBulkLoad(WriteConcern.W1.withJournal(false));
+        Assert.assertTrue(_osmMongoStore.isBulkLoading());
+
+        final MongoOsmSaxHandler handler = new MongoOsmSaxHandler(_osmMongoStore, WriteOptions.pipelined());
+        _osmXmlReader.read(handler, new FileInputStream(_osmXml_sample2));
+
+        final BulkLoadReport report = _osmMongoStore.endBulkLoad();
+        LOGGER.info("Bulk load of {} : {}", _osmXml_sample2, report);
+
+        Assert.assertFalse(_osmMongoStore.isBulkLoading());
+        Assert.assertNull(_osmMongoStore.getWriteConcern());
+        Assert.assertEquals(3, report.getIndexMillis().size());
+        Assert.assertEquals(handler.getNodesCount(), _osmMongoStore.count(OsmMongoStore.COLLECTION_NODE));
+    }
+
+    @Test
+    public void test_readOsmXml_resume() throws FileNotFoundException {
+        _osmMongoStore.emptyCollections();
+
+        final MongoOsmSaxHandler handler = new MongoOsmSaxHandler(_osmMongoStore, 7);
+        _osmXmlReader.read(handler, new FileInputStream(_osmXml_sample2));
+
+        // as if stopped past the first node, with everything written since
+        final MongoOsmSaxHandler resumed = new MongoOsmSaxHandler(_osmMongoStore, 7);
+        final long firstNodeId = _osmMongoStore.nodeCollection().find().sort(new Document("osmId", 1)).first()
+                .getOsmId();
+        resumed.resumeFrom(ImportCheckpoint.of(0, Type.node, firstNodeId, 1, 0, 0, Long.MAX_VALUE));
+        _osmXmlReader.read(resumed, new FileInputStream(_osmXml_sample2));
+
+        Assert.assertEquals(0, resumed.getWriter().getFailedCount());
+        Assert.assertEquals(handler.getNodesCount(), resumed.getNodesCount());
+        Assert.assertEquals(handler.getNodesCount(), _osmMongoStore.count(OsmMongoStore.COLLECTION_NODE));
+        Assert.assertEquals(handler.getWaysCount(), _osmMongoStore.count(OsmMongoStore.COLLECTION_WAY));
+    }
+
+    @Test
+    public void test_resume_node_locations() {
+        final ImportCheckpoint checkpoint = ImportCheckpoint.of(1024, Type.node, 42L, 10, 0, 0, 10);
+
+        final MongoOsmSaxHandler handler = new MongoOsmSaxHandler(_osmMongoStore);
+        handler.setNodeLocations(NodeLocations.sparse());
+        try {
+            handler.resumeFrom(checkpoint);
+            Assert.fail("Resumed from an offset");
+        } catch (IllegalArgumentException ex) {
+            // expected, the nodes before the offset would not be located
+        }
+
+        handler.resumeFrom(checkpoint.fromStart());
+        Assert.assertEquals(0, checkpoint.fromStart().getOffset());
+    }
+
+    @Test
+    public void test_readOsmXml_checkpoint_failures() throws FileNotFoundException {
+        final OsmMongoStore store = OsmMongoStore.withConfig(MongoConfig.with("localhost", 27017, "mongo_java_test"),
+                IdScheme.osmId);
+        store.emptyCollections();
+
+        // the relation, last of the input, fails on its key
+        final SimpleOsmSaxHandler all = new SimpleOsmSaxHandler();
+        _osmXmlReader.read(all, new FileInputStream(_osmXml_sample2));
+        final Relation relation = all.getRelations().get(0);
+        store.insert(relation);
+
+        final Path file = folder.getRoot().toPath().resolve("import.checkpoint");
+        final MongoOsmSaxHandler handler = new MongoOsmSaxHandler(store, 1);
+        handler.setCheckpoints(file, 1, null);
+        _osmXmlReader.read(handler, new FileInputStream(_osmXml_sample2));
+
+        Assert.assertEquals(1, handler.getWriter().getFailedCount());
+        Assert.assertTrue(Files.exists(file));
+
+        final ImportCheckpoint checkpoint = ImportCheckpoint.read(file);
+        Assert.assertEquals(handler.getLastCheckpoint().getOsmId(), checkpoint.getOsmId());
+        Assert.assertFalse(checkpoint.covers(Type.relation, relation.getOsmId()));
+    }
+
 }